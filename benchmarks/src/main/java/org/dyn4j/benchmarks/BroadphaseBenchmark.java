@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dyn4j.collision.broadphase.BroadphaseDetector;
+import org.dyn4j.collision.broadphase.BroadphaseItem;
+import org.dyn4j.collision.broadphase.BroadphasePair;
+import org.dyn4j.collision.broadphase.CompactDynamicAABBTree;
+import org.dyn4j.collision.broadphase.DynamicAABBTree;
+import org.dyn4j.collision.broadphase.HashGrid;
+import org.dyn4j.collision.broadphase.IncrementalSap;
+import org.dyn4j.collision.broadphase.Sap;
+import org.dyn4j.collision.broadphase.StaticDynamicBroadphase;
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.dynamics.StaticBodyClassifier;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link BroadphaseDetector} implementations.
+ * <p>
+ * The scene is a large number of similarly sized bodies where half of the bodies move
+ * a small amount each operation.  The other half are static so that the 
+ * {@link StaticDynamicBroadphase} can keep them apart.  The AABB and ray queries cycle 
+ * through a fixed set of randomly generated, but deterministic, queries.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class BroadphaseBenchmark {
+	/** The number of bodies */
+	private static final int COUNT = 2000;
+	
+	/** The size of the area the bodies are placed in */
+	private static final double SIZE = 100.0;
+	
+	/** The number of distinct queries */
+	private static final int QUERIES = 1024;
+	
+	/** The maximum ray length */
+	private static final double RAY_LENGTH = 10.0;
+	
+	/** The broad-phase implementation */
+	@Param({"Sap", "IncrementalSap", "DynamicAABBTree", "CompactDynamicAABBTree", "StaticDynamicBroadphase", "HashGrid"})
+	public String detector;
+	
+	/** The broad-phase */
+	private BroadphaseDetector<Body, BodyFixture> broadphase;
+	
+	/** The bodies */
+	private Body[] bodies;
+	
+	/** The direction of movement, alternated each operation */
+	private double direction;
+	
+	/** The AABBs */
+	private AABB[] aabbs;
+	
+	/** The rays */
+	private Ray[] rays;
+	
+	/** The current query */
+	private int index;
+	
+	/**
+	 * Creates the broad-phase and the bodies.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		if ("Sap".equals(this.detector)) {
+			this.broadphase = new Sap<Body, BodyFixture>(COUNT);
+		} else if ("DynamicAABBTree".equals(this.detector)) {
+			this.broadphase = new DynamicAABBTree<Body, BodyFixture>(COUNT);
+		} else if ("CompactDynamicAABBTree".equals(this.detector)) {
+			this.broadphase = new CompactDynamicAABBTree<Body, BodyFixture>(COUNT);
+		} else if ("IncrementalSap".equals(this.detector)) {
+			this.broadphase = new IncrementalSap<Body, BodyFixture>(COUNT);
+		} else if ("StaticDynamicBroadphase".equals(this.detector)) {
+			this.broadphase = new StaticDynamicBroadphase<Body, BodyFixture>(new StaticBodyClassifier(), COUNT);
+		} else {
+			this.broadphase = new HashGrid<Body, BodyFixture>(HashGrid.DEFAULT_CELL_SIZE, COUNT);
+		}
+		
+		Random random = new Random(0);
+		this.bodies = new Body[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			Body body = new Body();
+			body.addFixture(random.nextBoolean() ? Geometry.createCircle(0.5) : Geometry.createSquare(1.0));
+			body.translate(random.nextDouble() * SIZE, random.nextDouble() * SIZE);
+			// only the even bodies move
+			body.setMass(i % 2 == 0 ? MassType.NORMAL : MassType.INFINITE);
+			this.bodies[i] = body;
+			this.broadphase.add(body);
+		}
+		this.direction = 0.15;
+		
+		this.aabbs = new AABB[QUERIES];
+		this.rays = new Ray[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			this.aabbs[i] = new AABB(new Vector2(random.nextDouble() * SIZE, random.nextDouble() * SIZE), 4.0);
+			this.rays[i] = new Ray(new Vector2(random.nextDouble() * SIZE, random.nextDouble() * SIZE), random.nextDouble() * Math.PI * 2.0);
+		}
+		this.index = 0;
+	}
+	
+	/**
+	 * Returns the index of the next query.
+	 * @return int
+	 */
+	private int next() {
+		int i = this.index;
+		this.index = (i + 1) % QUERIES;
+		return i;
+	}
+	
+	/**
+	 * Moves half of the bodies and updates the broad-phase.
+	 */
+	private void move() {
+		// alternate the direction so that the bodies stay in place over time
+		this.direction = -this.direction;
+		for (int i = 0; i < COUNT; i += 2) {
+			Body body = this.bodies[i];
+			body.translate(this.direction, this.direction);
+			this.broadphase.update(body);
+		}
+	}
+	
+	/**
+	 * Moves half of the bodies and updates the broad-phase.
+	 * @return {@link BroadphaseDetector}
+	 */
+	@Benchmark
+	public BroadphaseDetector<Body, BodyFixture> update() {
+		this.move();
+		return this.broadphase;
+	}
+	
+	/**
+	 * Finds all the pairs.
+	 * @return List&lt;{@link BroadphasePair}&gt;
+	 */
+	@Benchmark
+	public List<BroadphasePair<Body, BodyFixture>> detect() {
+		return this.broadphase.detect();
+	}
+	
+	/**
+	 * Moves half of the bodies, updates the broad-phase and finds all the pairs.
+	 * @return List&lt;{@link BroadphasePair}&gt;
+	 */
+	@Benchmark
+	public List<BroadphasePair<Body, BodyFixture>> updateAndDetect() {
+		this.move();
+		return this.broadphase.detect();
+	}
+	
+	/**
+	 * Finds the fixtures overlapping an AABB.
+	 * @return List&lt;{@link BroadphaseItem}&gt;
+	 */
+	@Benchmark
+	public List<BroadphaseItem<Body, BodyFixture>> detectAABB() {
+		return this.broadphase.detect(this.aabbs[this.next()]);
+	}
+	
+	/**
+	 * Finds the fixtures whose AABBs are hit by a ray.
+	 * @return List&lt;{@link BroadphaseItem}&gt;
+	 */
+	@Benchmark
+	public List<BroadphaseItem<Body, BodyFixture>> raycast() {
+		return this.broadphase.raycast(this.rays[this.next()], RAY_LENGTH);
+	}
+}
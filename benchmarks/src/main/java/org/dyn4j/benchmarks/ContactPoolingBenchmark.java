@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.World;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link World#step(int)} with and without contact pooling.
+ * <p>
+ * The scene is a grid of resting boxes and circles with sleeping disabled so that every
+ * contact is updated every step.  The number of bytes allocated per step by the benchmark
+ * thread is reported as the <code>bytesPerStep</code> counter (when supported by the JVM).
+ * Run with <code>-prof gc</code> for the allocation rate of the whole JVM.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ContactPoolingBenchmark {
+	/** The number of steps taken before measuring */
+	private static final int SETTLE_STEPS = 500;
+	
+	/** True if the contacts are pooled */
+	@Param({"false", "true"})
+	public boolean contactPooling;
+	
+	/** The world */
+	private World world;
+	
+	/**
+	 * Counts the bytes allocated by the benchmark thread.
+	 * @author William Bittle
+	 * @version 3.3.0
+	 * @since 3.3.0
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Allocations {
+		/** The bytes allocated per step over the current iteration; -1 if not supported */
+		public long bytesPerStep;
+		
+		/** The thread bean; null if allocation counting isn't supported */
+		private com.sun.management.ThreadMXBean bean;
+		
+		/** The bytes allocated at the start of the iteration */
+		private long start;
+		
+		/** The steps taken in the current iteration */
+		private long steps;
+		
+		/**
+		 * Resets the counter at the start of each iteration.
+		 */
+		@Setup(Level.Iteration)
+		public void reset() {
+			if (this.bean == null && ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+				if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+					this.bean = bean;
+				}
+			}
+			this.start = this.getAllocatedBytes();
+			this.steps = 0;
+			this.bytesPerStep = -1;
+		}
+		
+		/**
+		 * Records a step.
+		 */
+		public void step() {
+			if (this.bean == null) return;
+			this.steps++;
+			this.bytesPerStep = (this.getAllocatedBytes() - this.start) / this.steps;
+		}
+		
+		/**
+		 * Returns the bytes allocated by the current thread.
+		 * @return long
+		 */
+		private long getAllocatedBytes() {
+			if (this.bean == null) return 0;
+			return this.bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+	}
+	
+	/**
+	 * Creates the world and lets it settle.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		this.world = new World();
+		this.world.getSettings().setAutoSleepingEnabled(false);
+		this.world.getSettings().setContactPoolingEnabled(this.contactPooling);
+		
+		Body floor = new Body();
+		floor.addFixture(Geometry.createRectangle(50.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		this.world.addBody(floor);
+		
+		for (int i = 0; i < 40; i++) {
+			for (int j = 0; j < 20; j++) {
+				Body body = new Body();
+				body.addFixture((i + j) % 2 == 0 ? Geometry.createSquare(1.0) : Geometry.createCircle(0.5));
+				body.translate(-20.0 + i * 1.0, 1.0 + j * 1.0);
+				body.setMass(MassType.NORMAL);
+				this.world.addBody(body);
+			}
+		}
+		
+		for (int i = 0; i < SETTLE_STEPS; i++) {
+			this.world.step(1);
+		}
+	}
+	
+	/**
+	 * Performs one simulation step.
+	 * @param allocations the allocation counter
+	 * @return {@link World}
+	 */
+	@Benchmark
+	public World step(Allocations allocations) {
+		this.world.step(1);
+		allocations.step();
+		return this.world;
+	}
+}
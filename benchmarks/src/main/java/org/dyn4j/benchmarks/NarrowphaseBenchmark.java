@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dyn4j.collision.manifold.ClippingManifoldSolver;
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Transform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the narrow-phase and manifold generation.
+ * <p>
+ * The {@link Gjk} detector uses the default Epa penetration solver.  Each benchmark
+ * is performed on a pair of overlapping shapes.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class NarrowphaseBenchmark {
+	/** The shape pair */
+	@Param({"Polygon-Polygon", "Circle-Polygon", "Capsule-Polygon"})
+	public String pair;
+	
+	/** The narrow-phase */
+	private final Gjk gjk = new Gjk();
+	
+	/** The manifold solver */
+	private final ClippingManifoldSolver clipping = new ClippingManifoldSolver();
+	
+	/** The first shape */
+	private Convex convex1;
+	
+	/** The second shape */
+	private Convex convex2;
+	
+	/** The first shape's transform */
+	private Transform transform1;
+	
+	/** The second shape's transform */
+	private Transform transform2;
+	
+	/** The penetration of the two shapes */
+	private Penetration penetration;
+	
+	/** The penetration result */
+	private final Penetration result = new Penetration();
+	
+	/** The manifold result */
+	private final Manifold manifold = new Manifold();
+	
+	/**
+	 * Creates the shapes.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		if ("Circle-Polygon".equals(this.pair)) {
+			this.convex1 = Geometry.createCircle(0.5);
+		} else if ("Capsule-Polygon".equals(this.pair)) {
+			this.convex1 = Geometry.createCapsule(1.0, 0.4);
+		} else {
+			this.convex1 = Geometry.createUnitCirclePolygon(6, 0.5);
+		}
+		this.convex2 = Geometry.createRectangle(1.0, 0.8);
+		
+		this.transform1 = new Transform();
+		this.transform1.translate(0.2, 0.6);
+		this.transform1.rotate(0.3);
+		this.transform2 = new Transform();
+		this.transform2.rotate(-0.1);
+		
+		this.penetration = new Penetration();
+		if (!this.gjk.detect(this.convex1, this.transform1, this.convex2, this.transform2, this.penetration)) {
+			throw new IllegalStateException("The shapes must overlap.");
+		}
+	}
+	
+	/**
+	 * Detects whether the shapes overlap without computing the penetration.
+	 * @return boolean
+	 */
+	@Benchmark
+	public boolean gjkDetect() {
+		return this.gjk.detect(this.convex1, this.transform1, this.convex2, this.transform2);
+	}
+	
+	/**
+	 * Detects whether the shapes overlap and computes the penetration.
+	 * @return {@link Penetration}
+	 */
+	@Benchmark
+	public Penetration gjkEpa() {
+		this.result.clear();
+		this.gjk.detect(this.convex1, this.transform1, this.convex2, this.transform2, this.result);
+		return this.result;
+	}
+	
+	/**
+	 * Generates the contact manifold from the penetration.
+	 * @return {@link Manifold}
+	 */
+	@Benchmark
+	public Manifold clipping() {
+		this.manifold.clear();
+		this.clipping.getManifold(this.penetration, this.convex1, this.transform1, this.convex2, this.transform2, this.manifold);
+		return this.manifold;
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dyn4j.dynamics.ConvexCastResult;
+import org.dyn4j.dynamics.DetectResult;
+import org.dyn4j.dynamics.RaycastResult;
+import org.dyn4j.dynamics.World;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link World} raycast, convex cast and AABB queries.
+ * <p>
+ * The queries are performed against the {@link Scenario#SLEEPING} scene and cycle through a fixed
+ * set of randomly generated, but deterministic, queries.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class QueryBenchmark {
+	/** The number of distinct queries */
+	private static final int QUERIES = 1024;
+	
+	/** The maximum ray length */
+	private static final double RAY_LENGTH = 50.0;
+	
+	/** The world */
+	private World world;
+	
+	/** The rays */
+	private Ray[] rays;
+	
+	/** The convex cast transforms */
+	private Transform[] transforms;
+	
+	/** The convex cast deltas */
+	private Vector2[] deltas;
+	
+	/** The AABBs */
+	private AABB[] aabbs;
+	
+	/** The convex cast shape */
+	private Convex convex;
+	
+	/** The current query */
+	private int index;
+	
+	/** The raycast results */
+	private final List<RaycastResult> raycastResults = new ArrayList<RaycastResult>();
+	
+	/** The convex cast results */
+	private final List<ConvexCastResult> convexCastResults = new ArrayList<ConvexCastResult>();
+	
+	/** The detect results */
+	private final List<DetectResult> detectResults = new ArrayList<DetectResult>();
+	
+	/**
+	 * Creates the world and the queries.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		this.world = Scenario.SLEEPING.createWorld();
+		// take a step to make sure the broad-phase is up to date
+		this.world.step(1);
+		
+		Random random = new Random(0);
+		this.rays = new Ray[QUERIES];
+		this.transforms = new Transform[QUERIES];
+		this.deltas = new Vector2[QUERIES];
+		this.aabbs = new AABB[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			double x = random.nextDouble() * 400.0 - 200.0;
+			double y = random.nextDouble() * 30.0;
+			
+			this.rays[i] = new Ray(new Vector2(x, y), random.nextDouble() * Math.PI * 2.0);
+			
+			Transform transform = new Transform();
+			transform.translate(x, y + 5.0);
+			this.transforms[i] = transform;
+			this.deltas[i] = new Vector2(random.nextDouble() * 10.0 - 5.0, -10.0);
+			
+			this.aabbs[i] = new AABB(new Vector2(x, y), 2.0);
+		}
+		
+		this.convex = Geometry.createCircle(0.5);
+		this.index = 0;
+	}
+	
+	/**
+	 * Returns the next query index.
+	 * @return int
+	 */
+	private int next() {
+		this.index = (this.index + 1) & (QUERIES - 1);
+		return this.index;
+	}
+	
+	/**
+	 * Finds the closest body along a ray.
+	 * @return boolean
+	 */
+	@Benchmark
+	public boolean raycastClosest() {
+		this.raycastResults.clear();
+		return this.world.raycast(this.rays[this.next()], RAY_LENGTH, true, false, this.raycastResults);
+	}
+	
+	/**
+	 * Finds all the bodies along a ray.
+	 * @return boolean
+	 */
+	@Benchmark
+	public boolean raycastAll() {
+		this.raycastResults.clear();
+		return this.world.raycast(this.rays[this.next()], RAY_LENGTH, true, true, this.raycastResults);
+	}
+	
+	/**
+	 * Finds the first body hit by a moving circle.
+	 * @return boolean
+	 */
+	@Benchmark
+	public boolean convexCastClosest() {
+		this.convexCastResults.clear();
+		int i = this.next();
+		return this.world.convexCast(this.convex, this.transforms[i], this.deltas[i], true, false, this.convexCastResults);
+	}
+	
+	/**
+	 * Finds all the bodies hit by a moving circle.
+	 * @return boolean
+	 */
+	@Benchmark
+	public boolean convexCastAll() {
+		this.convexCastResults.clear();
+		int i = this.next();
+		return this.world.convexCast(this.convex, this.transforms[i], this.deltas[i], true, true, this.convexCastResults);
+	}
+	
+	/**
+	 * Finds all the bodies overlapping an AABB.
+	 * @return boolean
+	 */
+	@Benchmark
+	public boolean detectAABB() {
+		this.detectResults.clear();
+		return this.world.detect(this.aabbs[this.next()], this.detectResults);
+	}
+}
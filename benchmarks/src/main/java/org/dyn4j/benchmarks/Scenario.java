@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.Random;
+
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.World;
+import org.dyn4j.dynamics.joint.RevoluteJoint;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Enumeration of the benchmark scenes.
+ * <p>
+ * Each scene is deterministic so that results are comparable between runs.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public enum Scenario {
+	/** A pyramid of stacked boxes */
+	PYRAMID {
+		@Override
+		public World createWorld() {
+			World world = new World();
+			world.addBody(createGround(100.0));
+			
+			int rows = 30;
+			for (int i = 0; i < rows; i++) {
+				for (int j = 0; j < rows - i; j++) {
+					Body body = createBody(Geometry.createSquare(1.0));
+					body.translate(-(rows - i) * 0.5 + j + 0.5, 1.0 + i);
+					world.addBody(body);
+				}
+			}
+			
+			return world;
+		}
+	},
+	
+	/** A rain of mixed shapes falling onto the ground */
+	RAIN {
+		@Override
+		public World createWorld() {
+			World world = new World();
+			world.addBody(createGround(100.0));
+			
+			Random random = new Random(0);
+			for (int i = 0; i < 20; i++) {
+				for (int j = 0; j < 25; j++) {
+					Convex convex = null;
+					switch (random.nextInt(5)) {
+						case 0: convex = Geometry.createCircle(0.25 + random.nextDouble() * 0.25); break;
+						case 1: convex = Geometry.createRectangle(0.5 + random.nextDouble() * 0.5, 0.5 + random.nextDouble() * 0.5); break;
+						case 2: convex = Geometry.createUnitCirclePolygon(5 + random.nextInt(4), 0.5); break;
+						case 3: convex = Geometry.createCapsule(1.0, 0.5); break;
+						default: convex = Geometry.createIsoscelesTriangle(0.75, 0.75); break;
+					}
+					Body body = createBody(convex);
+					body.translate(-25.0 + j * 2.0 + random.nextDouble(), 2.0 + i * 2.0);
+					body.rotate(random.nextDouble() * Math.PI);
+					world.addBody(body);
+				}
+			}
+			
+			return world;
+		}
+	},
+	
+	/** Ragdolls built from {@link RevoluteJoint}s falling onto the ground */
+	RAGDOLL {
+		@Override
+		public World createWorld() {
+			World world = new World();
+			world.addBody(createGround(100.0));
+			
+			for (int i = 0; i < 10; i++) {
+				for (int j = 0; j < 5; j++) {
+					createRagdoll(world, -22.5 + i * 5.0, 3.0 + j * 5.0);
+				}
+			}
+			
+			return world;
+		}
+	},
+	
+	/** A large world where every body is asleep */
+	SLEEPING {
+		@Override
+		public World createWorld() {
+			World world = new World();
+			world.addBody(createGround(500.0));
+			
+			for (int i = 0; i < 200; i++) {
+				for (int j = 0; j < 20; j++) {
+					Body body = createBody((i + j) % 2 == 0 ? Geometry.createSquare(1.0) : Geometry.createCircle(0.5));
+					body.translate(-200.0 + i * 2.0, 0.5 + j * 1.0);
+					body.setAsleep(true);
+					world.addBody(body);
+				}
+			}
+			
+			return world;
+		}
+	};
+	
+	/**
+	 * Returns a new {@link World} containing this scene.
+	 * @return {@link World}
+	 */
+	public abstract World createWorld();
+	
+	/**
+	 * Returns a new static ground body of the given width whose top is at y = 0.
+	 * @param width the width
+	 * @return {@link Body}
+	 */
+	static Body createGround(double width) {
+		Body ground = new Body();
+		ground.addFixture(Geometry.createRectangle(width, 1.0));
+		ground.translate(0.0, -0.5);
+		ground.setMass(MassType.INFINITE);
+		return ground;
+	}
+	
+	/**
+	 * Returns a new dynamic body with the given shape.
+	 * @param convex the shape
+	 * @return {@link Body}
+	 */
+	static Body createBody(Convex convex) {
+		Body body = new Body();
+		body.addFixture(convex);
+		body.setMass(MassType.NORMAL);
+		return body;
+	}
+	
+	/**
+	 * Adds a ragdoll to the given world at the given position.
+	 * @param world the world
+	 * @param x the x coordinate
+	 * @param y the y coordinate of the feet
+	 */
+	static void createRagdoll(World world, double x, double y) {
+		Body torso = createBody(Geometry.createRectangle(0.6, 1.2));
+		torso.translate(x, y + 2.0);
+		Body head = createBody(Geometry.createCircle(0.3));
+		head.translate(x, y + 2.9);
+		Body upperArmL = createBody(Geometry.createRectangle(0.2, 0.6));
+		upperArmL.translate(x - 0.45, y + 2.3);
+		Body lowerArmL = createBody(Geometry.createRectangle(0.2, 0.6));
+		lowerArmL.translate(x - 0.45, y + 1.7);
+		Body upperArmR = createBody(Geometry.createRectangle(0.2, 0.6));
+		upperArmR.translate(x + 0.45, y + 2.3);
+		Body lowerArmR = createBody(Geometry.createRectangle(0.2, 0.6));
+		lowerArmR.translate(x + 0.45, y + 1.7);
+		Body upperLegL = createBody(Geometry.createRectangle(0.25, 0.7));
+		upperLegL.translate(x - 0.15, y + 1.05);
+		Body lowerLegL = createBody(Geometry.createRectangle(0.25, 0.7));
+		lowerLegL.translate(x - 0.15, y + 0.35);
+		Body upperLegR = createBody(Geometry.createRectangle(0.25, 0.7));
+		upperLegR.translate(x + 0.15, y + 1.05);
+		Body lowerLegR = createBody(Geometry.createRectangle(0.25, 0.7));
+		lowerLegR.translate(x + 0.15, y + 0.35);
+		
+		Body[] bodies = new Body[] { torso, head, upperArmL, lowerArmL, upperArmR, lowerArmR, upperLegL, lowerLegL, upperLegR, lowerLegR };
+		for (Body body : bodies) {
+			world.addBody(body);
+		}
+		
+		addJoint(world, torso, head, x, y + 2.6, -0.5, 0.5);
+		addJoint(world, torso, upperArmL, x - 0.45, y + 2.55, -2.5, 0.5);
+		addJoint(world, upperArmL, lowerArmL, x - 0.45, y + 2.0, 0.0, 2.5);
+		addJoint(world, torso, upperArmR, x + 0.45, y + 2.55, -0.5, 2.5);
+		addJoint(world, upperArmR, lowerArmR, x + 0.45, y + 2.0, -2.5, 0.0);
+		addJoint(world, torso, upperLegL, x - 0.15, y + 1.4, -1.5, 0.5);
+		addJoint(world, upperLegL, lowerLegL, x - 0.15, y + 0.7, 0.0, 2.0);
+		addJoint(world, torso, upperLegR, x + 0.15, y + 1.4, -0.5, 1.5);
+		addJoint(world, upperLegR, lowerLegR, x + 0.15, y + 0.7, -2.0, 0.0);
+	}
+	
+	/**
+	 * Adds a limited {@link RevoluteJoint} between the given bodies.
+	 * @param world the world
+	 * @param body1 the first body
+	 * @param body2 the second body
+	 * @param x the anchor x coordinate
+	 * @param y the anchor y coordinate
+	 * @param lower the lower limit in radians
+	 * @param upper the upper limit in radians
+	 */
+	static void addJoint(World world, Body body1, Body body2, double x, double y, double lower, double upper) {
+		RevoluteJoint joint = new RevoluteJoint(body1, body2, new Vector2(x, y));
+		joint.setLimits(lower, upper);
+		joint.setLimitEnabled(true);
+		world.addJoint(joint);
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dyn4j.dynamics.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link World#step(int)} for each {@link Scenario}.
+ * <p>
+ * The world is rebuilt before each iteration so that every iteration simulates the same
+ * span of the scene.  A number of steps are taken at setup so that the scene is measured
+ * with contacts established rather than in free fall.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class StepBenchmark {
+	/** The number of steps taken before measuring */
+	private static final int SETTLE_STEPS = 60;
+	
+	/** The scene */
+	@Param({"PYRAMID", "RAIN", "RAGDOLL", "SLEEPING"})
+	public Scenario scenario;
+	
+	/** True if the velocity constraints are solved against arrays */
+	@Param({"false", "true"})
+	public boolean arraySolving;
+	
+	/** The world */
+	private World world;
+	
+	/**
+	 * Creates the world and lets it settle.
+	 */
+	@Setup(Level.Iteration)
+	public void setup() {
+		this.world = this.scenario.createWorld();
+		this.world.getSettings().setArraySolvingEnabled(this.arraySolving);
+		for (int i = 0; i < SETTLE_STEPS; i++) {
+			this.world.step(1);
+		}
+	}
+	
+	/**
+	 * Performs one simulation step.
+	 * @return {@link World}
+	 */
+	@Benchmark
+	public World step() {
+		this.world.step(1);
+		return this.world;
+	}
+}
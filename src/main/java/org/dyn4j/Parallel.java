@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class used to split indexed work across a number of workers running on an {@link Executor}.
+ * <p>
+ * The work is split into chunks that are claimed by the workers as they become free.  The
+ * calling thread always participates as worker zero and claims any chunks the other workers
+ * haven't, so the work completes even if the {@link Executor} rejects some or all of the
+ * workers or never gets around to running them.  The calling thread only waits on the workers
+ * that actually started, which makes it safe to call from a thread of the same {@link Executor}.
+ * <p>
+ * This class is transient and may get deprecated at any time.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public final class Parallel {
+	/** The number of chunks created per worker to balance uneven work */
+	private static final int CHUNKS_PER_WORKER = 4;
+	
+	/** Hidden constructor. */
+	private Parallel() {}
+	
+	/**
+	 * Represents a unit of indexed work.
+	 * @author William Bittle
+	 * @version 3.3.0
+	 * @since 3.3.0
+	 */
+	public static interface Task {
+		/**
+		 * Performs the work for the given index.
+		 * <p>
+		 * The worker index is in the range [0, {@link Parallel#getWorkerCount(int, int)}) and can be
+		 * used to look up worker confined state.  A worker is only ever run on one thread at a time.
+		 * @param worker the worker index
+		 * @param index the work index
+		 */
+		public void run(int worker, int index);
+	}
+	
+	/**
+	 * Returns the number of workers that will be used for the given amount of work.
+	 * <p>
+	 * This is the minimum of the given parallelism and count, and is never less than one.
+	 * @param parallelism the maximum number of workers
+	 * @param count the number of work items
+	 * @return int
+	 */
+	public static int getWorkerCount(int parallelism, int count) {
+		return Math.max(1, Math.min(count, parallelism));
+	}
+	
+	/**
+	 * Runs the given task for each index in the range [0, count) using the given {@link Executor}
+	 * and blocks until all the work has completed.
+	 * <p>
+	 * The order in which the indices are processed is not defined.
+	 * <p>
+	 * If any task throws an exception the remaining work is skipped and the first exception 
+	 * is rethrown on the calling thread.
+	 * @param executor the executor used to run the additional workers
+	 * @param parallelism the maximum number of workers, including the calling thread
+	 * @param count the number of work items
+	 * @param task the task to run for each item
+	 * @throws NullPointerException if executor or task is null
+	 */
+	public static void execute(Executor executor, int parallelism, final int count, final Task task) {
+		if (count <= 0) return;
+		
+		final int workers = Parallel.getWorkerCount(parallelism, count);
+		
+		// just run it inline if there's only one worker
+		if (workers == 1) {
+			for (int i = 0; i < count; i++) {
+				task.run(0, i);
+			}
+			return;
+		}
+		
+		final int chunk = Math.max(1, count / (workers * CHUNKS_PER_WORKER));
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+		// the number of workers that started; negative once the calling thread stops waiting on new ones
+		final AtomicInteger started = new AtomicInteger();
+		final Semaphore finished = new Semaphore(0);
+		
+		// start the other workers
+		for (int i = 1; i < workers; i++) {
+			final int worker = i;
+			Runnable runnable = new Runnable() {
+				public void run() {
+					// don't start if the calling thread has already finished the work
+					if (!Parallel.start(started)) return;
+					try {
+						Parallel.work(worker, count, chunk, next, error, task);
+					} finally {
+						finished.release();
+					}
+				}
+			};
+			try {
+				executor.execute(runnable);
+			} catch (RejectedExecutionException e) {
+				// the other workers will pick up the slack
+				break;
+			}
+		}
+		
+		// the calling thread is always worker zero and claims
+		// all the work the other workers haven't
+		Parallel.work(0, count, chunk, next, error, task);
+		
+		// wait only for the workers that started
+		int running = started.getAndSet(-1);
+		finished.acquireUninterruptibly(running);
+		
+		// rethrow any exception on this thread
+		Throwable t = error.get();
+		if (t != null) {
+			if (t instanceof RuntimeException) throw (RuntimeException)t;
+			if (t instanceof Error) throw (Error)t;
+			throw new RuntimeException(t);
+		}
+	}
+	
+	/**
+	 * Records the start of a worker unless the calling thread is no longer waiting on new workers.
+	 * @param started the number of started workers
+	 * @return boolean true if the worker should run
+	 */
+	private static boolean start(AtomicInteger started) {
+		while (true) {
+			int n = started.get();
+			if (n < 0) return false;
+			if (started.compareAndSet(n, n + 1)) return true;
+		}
+	}
+	
+	/**
+	 * Claims and runs chunks of work until there's no work left or an error occurs.
+	 * @param worker the worker index
+	 * @param count the number of work items
+	 * @param chunk the number of items claimed at a time
+	 * @param next the next unclaimed item
+	 * @param error the first error
+	 * @param task the task
+	 */
+	private static void work(int worker, int count, int chunk, AtomicInteger next, AtomicReference<Throwable> error, Task task) {
+		try {
+			while (error.get() == null) {
+				int start = next.getAndAdd(chunk);
+				if (start >= count) break;
+				int end = Math.min(start + chunk, count);
+				for (int i = start; i < end; i++) {
+					task.run(worker, i);
+				}
+			}
+		} catch (Throwable t) {
+			error.compareAndSet(null, t);
+		}
+	}
+}
@@ -24,6 +24,7 @@
  */
 package org.dyn4j.collision.broadphase;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.dyn4j.collision.Collidable;
@@ -37,7 +38,7 @@ import org.dyn4j.geometry.Vector2;
 /**
  * Abstract implementation of a {@link BroadphaseDetector}.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  * @param <E> the {@link Collidable} type
  * @param <T> the {@link Fixture} type
@@ -62,6 +63,17 @@ public abstract class AbstractBroadphaseDetector<E extends Collidable<T>, T exte
 		}
 	}
 
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#batchAdd(java.util.Collection)
+	 */
+	@Override
+	public void batchAdd(Collection<E> collidables) {
+		// by default, add them one at a time
+		for (E collidable : collidables) {
+			this.add(collidable);
+		}
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#remove(org.dyn4j.collision.Collidable)
 	 */
@@ -171,6 +183,42 @@ public abstract class AbstractBroadphaseDetector<E extends Collidable<T>, T exte
 		return tmax >= tmin;
 	}
 	
+	/**
+	 * Returns the distance along the ray where it enters the AABB or -1 if the ray and
+	 * AABB do not intersect.
+	 * <p>
+	 * The distance is zero if the ray starts inside the AABB.  This is used to visit the
+	 * nodes of a tree from front to back.
+	 * @param start the start position of the ray
+	 * @param length the length of the ray
+	 * @param invDx the inverse of the x component of the ray direction
+	 * @param invDy the inverse of the y component of the ray direction
+	 * @param aabb the AABB to test
+	 * @return double
+	 * @see #raycast(Vector2, double, double, double, AABB)
+	 * @since 3.3.0
+	 */
+	protected double raycastEntry(Vector2 start, double length, double invDx, double invDy, AABB aabb) {
+		double tx1 = (aabb.getMinX() - start.x) * invDx;
+		double tx2 = (aabb.getMaxX() - start.x) * invDx;
+
+		double tmin = Math.min(tx1, tx2);
+		double tmax = Math.max(tx1, tx2);
+
+		double ty1 = (aabb.getMinY() - start.y) * invDy;
+		double ty2 = (aabb.getMaxY() - start.y) * invDy;
+
+		tmin = Math.max(tmin, Math.min(ty1, ty2));
+		tmax = Math.min(tmax, Math.max(ty1, ty2));
+		// the ray is pointing in the opposite direction
+		if (tmax < 0) return -1.0;
+		// consider the ray length
+		if (tmin > length) return -1.0;
+		// along the ray, tmax should be larger than tmin
+		if (!(tmax >= tmin)) return -1.0;
+		return Math.max(tmin, 0.0);
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect()
 	 */
@@ -195,6 +243,35 @@ public abstract class AbstractBroadphaseDetector<E extends Collidable<T>, T exte
 		return this.raycast(ray, length, this.defaultFilter);
 	}
 	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#raycast(org.dyn4j.geometry.Ray, double, org.dyn4j.collision.broadphase.BroadphaseRaycastCallback)
+	 */
+	@Override
+	public void raycast(Ray ray, double length, BroadphaseRaycastCallback<E, T> callback) {
+		// by default, use the list based raycast and test the items
+		// again against the ray if it's been clipped
+		List<BroadphaseItem<E, T>> items = this.raycast(ray, length, this.defaultFilter);
+		int size = items.size();
+		if (size == 0) return;
+		
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+		double invDx = 1.0 / d.x;
+		double invDy = 1.0 / d.y;
+		
+		double l0 = length <= 0.0 ? Double.MAX_VALUE : length;
+		double l = l0;
+		for (int i = 0; i < size; i++) {
+			BroadphaseItem<E, T> item = items.get(i);
+			E collidable = item.getCollidable();
+			T fixture = item.getFixture();
+			// skip items beyond the clipped ray
+			if (l < l0 && !this.raycast(s, l, invDx, invDy, this.getAABB(collidable, fixture))) continue;
+			l = callback.found(ray, l, collidable, fixture);
+			if (l < 0.0) return;
+		}
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABBExpansion()
 	 */
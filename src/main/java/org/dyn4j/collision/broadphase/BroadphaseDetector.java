@@ -24,6 +24,7 @@
  */
 package org.dyn4j.collision.broadphase;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.dyn4j.collision.Collidable;
@@ -66,7 +67,7 @@ import org.dyn4j.geometry.Transform;
  * The {@link #detect(Collidable, Collidable)} and {@link #detect(Convex, Transform, Convex, Transform)} methods do not
  * use the current state of the broad-phase.
  * @author William Bittle
- * @version 3.2.4
+ * @version 3.3.0
  * @since 1.0.0
  * @param <E> the {@link Collidable} type
  * @param <T> the {@link Fixture} type
@@ -106,6 +107,18 @@ public interface BroadphaseDetector<E extends Collidable<T>, T extends Fixture>
 	 */
 	public abstract void add(E collidable, T fixture);
 	
+	/**
+	 * Adds all the given {@link Collidable}s to the broad-phase.
+	 * <p>
+	 * This method gives the same result as calling the {@link #add(Collidable)} method for
+	 * each {@link Collidable}, but implementations may build their structures all at once.  This
+	 * is typically faster when adding many {@link Collidable}s, like when loading a level, and
+	 * may give better query performance.
+	 * @param collidables the {@link Collidable}s
+	 * @since 3.3.0
+	 */
+	public abstract void batchAdd(Collection<E> collidables);
+	
 	/**
 	 * Removes the given {@link Collidable} from the broad-phase.
 	 * <p>
@@ -294,6 +307,21 @@ public interface BroadphaseDetector<E extends Collidable<T>, T extends Fixture>
 	 */
 	public abstract List<BroadphaseItem<E, T>> raycast(Ray ray, double length, BroadphaseFilter<E, T> filter);
 	
+	/**
+	 * Performs a preliminary raycast over all the collidables in the broad-phase passing the
+	 * items that intersect to the given callback.
+	 * <p>
+	 * No list of items is created.  The callback can clip the ray as items are found in which
+	 * case items beyond the new length are skipped.  Items are not reported in any particular
+	 * order.
+	 * @param ray the {@link Ray}
+	 * @param length the length of the ray; 0.0 for infinite length
+	 * @param callback the callback
+	 * @since 3.3.0
+	 * @see #raycast(Ray, double, BroadphaseFilter)
+	 */
+	public abstract void raycast(Ray ray, double length, BroadphaseRaycastCallback<E, T> callback);
+	
 	/**
 	 * Returns true if this broad-phase detector considers the given collidables to be in collision.
 	 * @param a the first {@link Collidable}
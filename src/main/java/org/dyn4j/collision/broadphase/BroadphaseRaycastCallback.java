@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.geometry.Ray;
+
+/**
+ * Represents a callback for the items found by the {@link BroadphaseDetector#raycast(Ray, double, BroadphaseRaycastCallback)}
+ * method.
+ * <p>
+ * Unlike the list returning raycast methods, the callback can clip the ray as items are found.  Any items
+ * beyond the new length are skipped by the remainder of the raycast.  This is typically used when only the
+ * closest item is needed.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+public interface BroadphaseRaycastCallback<E extends Collidable<T>, T extends Fixture> {
+	/**
+	 * Called for each item whose {@link org.dyn4j.geometry.AABB} is intersected by the ray.
+	 * <p>
+	 * Return the given length to continue the raycast unchanged, a smaller non-negative length to clip
+	 * the ray or a negative value to stop the raycast.
+	 * @param ray the ray
+	 * @param length the current length of the ray; {@link Double#MAX_VALUE} for infinite length
+	 * @param collidable the {@link Collidable}
+	 * @param fixture the {@link Collidable}s {@link Fixture}
+	 * @return double the new length of the ray
+	 */
+	public abstract double found(Ray ray, double length, E collidable, T fixture);
+}
@@ -0,0 +1,1151 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Collisions;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Implementation of a self-balancing axis-aligned bounding box tree broad-phase collision detection algorithm
+ * that stores its nodes in flat arrays.
+ * <p>
+ * This class uses the same insertion, removal, and balancing algorithms as the {@link DynamicAABBTree} and
+ * therefore produces the same tree and the same results in the same order.  The difference is that the nodes 
+ * are stored in primitive arrays and identified by int proxies rather than as individual objects.  This 
+ * reduces the memory used per {@link Fixture} and improves the memory locality of the tree traversals 
+ * performed by the detect and raycast methods.
+ * <p>
+ * Removed nodes are placed on a free list and reused by subsequent insertions.  The arrays are grown by 
+ * doubling when the free list is exhausted.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+public class CompactDynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends AbstractBroadphaseDetector<E, T> implements BroadphaseDetector<E, T> {
+	/** The proxy value representing no node */
+	static final int NULL_NODE = -1;
+	
+	/** The root node proxy */
+	int root;
+	
+	/** The head of the free node list; free nodes use the parent array as the next pointer */
+	int free;
+	
+	/** The minimum x extent of each node */
+	double[] minX;
+	
+	/** The minimum y extent of each node */
+	double[] minY;
+	
+	/** The maximum x extent of each node */
+	double[] maxX;
+	
+	/** The maximum y extent of each node */
+	double[] maxY;
+	
+	/** The parent node proxy of each node */
+	int[] parent;
+	
+	/** The left child node proxy of each node */
+	int[] left;
+	
+	/** The right child node proxy of each node */
+	int[] right;
+	
+	/** The height of each node; -1 for free nodes */
+	int[] height;
+	
+	/** The {@link Collidable} of each leaf node */
+	Object[] collidables;
+	
+	/** The {@link Fixture} of each leaf node */
+	Object[] fixtures;
+	
+	/** Flag used to determine if a leaf node has been tested before */
+	boolean[] tested;
+	
+	/** Id to leaf node proxy map for fast lookup */
+	final Map<BroadphaseKey, Integer> map;
+	
+	/**
+	 * Default constructor.
+	 */
+	public CompactDynamicAABBTree() {
+		this(BroadphaseDetector.DEFAULT_INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Optional constructor.
+	 * <p>
+	 * Allows fine tuning of the initial capacity of local storage for faster running times.
+	 * @param initialCapacity the initial capacity of local storage
+	 * @throws IllegalArgumentException if initialCapacity is less than zero
+	 */
+	public CompactDynamicAABBTree(int initialCapacity) {
+		// 0.75 = 3/4, we can garuantee that the hashmap will not need to be rehashed
+		// if we take capacity / load factor
+		this.map = new LinkedHashMap<BroadphaseKey, Integer>(initialCapacity * 4 / 3 + 1, 0.75f);
+		// a tree with n leaf nodes has 2n - 1 nodes
+		int capacity = Math.max(initialCapacity * 2, 16);
+		this.minX = new double[capacity];
+		this.minY = new double[capacity];
+		this.maxX = new double[capacity];
+		this.maxY = new double[capacity];
+		this.parent = new int[capacity];
+		this.left = new int[capacity];
+		this.right = new int[capacity];
+		this.height = new int[capacity];
+		this.collidables = new Object[capacity];
+		this.fixtures = new Object[capacity];
+		this.tested = new boolean[capacity];
+		this.root = NULL_NODE;
+		this.free = NULL_NODE;
+		this.link(0, capacity);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#add(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void add(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		// see if the collidable-fixture has already been added
+		Integer proxy = this.map.get(key);
+		if (proxy != null) {
+			this.update(proxy.intValue(), collidable, fixture);
+		} else {
+			this.add(key, collidable, fixture);
+		}
+	}
+	
+	/**
+	 * Internal add method.
+	 * <p>
+	 * This method assumes the given arguments are all non-null and that the
+	 * {@link Collidable} {@link Fixture} is not currently in this broad-phase.
+	 * @param key the key for the collidable-fixture pair
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 */
+	void add(BroadphaseKey key, E collidable, T fixture) {
+		Transform tx = collidable.getTransform();
+		AABB aabb = fixture.getShape().createAABB(tx);
+		// expand the aabb
+		aabb.expand(this.expansion);
+		// create a new leaf node for the collidable
+		int proxy = this.allocate();
+		this.set(proxy, aabb);
+		this.collidables[proxy] = collidable;
+		this.fixtures[proxy] = fixture;
+		// add the proxy to the map
+		this.map.put(key, proxy);
+		// insert the node into the tree
+		this.insert(proxy);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#remove(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean remove(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		// find the node in the map
+		Integer proxy = this.map.remove(key);
+		// make sure it was found
+		if (proxy != null) {
+			// remove the node from the tree
+			this.remove(proxy.intValue());
+			this.release(proxy.intValue());
+			return true;
+		}
+		return false;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#update(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void update(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		// get the node from the map
+		Integer proxy = this.map.get(key);
+		// make sure we found it
+		if (proxy != null) {
+			// update the node
+			this.update(proxy.intValue(), collidable, fixture);
+		} else {
+			// add the node
+			this.add(key, collidable, fixture);
+		}
+	}
+	
+	/**
+	 * Internal update method.
+	 * <p>
+	 * This method assumes the given arguments are all non-null.
+	 * @param proxy the leaf node proxy
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 */
+	void update(int proxy, E collidable, T fixture) {
+		Transform tx = collidable.getTransform();
+		// create the new aabb
+		AABB aabb = fixture.getShape().createAABB(tx);
+		// see if the old aabb contains the new one
+		if (this.minX[proxy] <= aabb.getMinX() && this.maxX[proxy] >= aabb.getMaxX() &&
+			this.minY[proxy] <= aabb.getMinY() && this.maxY[proxy] >= aabb.getMaxY()) {
+			// if so, don't do anything
+			return;
+		}
+		// otherwise expand the new aabb
+		aabb.expand(this.expansion);
+		// remove the current node from the tree
+		this.remove(proxy);
+		// set the new aabb
+		this.set(proxy, aabb);
+		// reinsert the node
+		this.insert(proxy);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABB(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public AABB getAABB(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		Integer proxy = this.map.get(key);
+		if (proxy != null) {
+			int p = proxy.intValue();
+			return new AABB(this.minX[p], this.minY[p], this.maxX[p], this.maxY[p]);
+		}
+		return fixture.getShape().createAABB(collidable.getTransform());
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable)
+	 */
+	@Override
+	public boolean contains(E collidable) {
+		int size = collidable.getFixtureCount();
+		boolean result = true;
+		for (int i = 0; i < size; i++) {
+			T fixture = collidable.getFixture(i);
+			BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+			result &= this.map.containsKey(key);
+		}
+		return result;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean contains(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		return this.map.containsKey(key);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#clear()
+	 */
+	@Override
+	public void clear() {
+		this.map.clear();
+		this.root = NULL_NODE;
+		this.free = NULL_NODE;
+		// release all the references
+		int capacity = this.height.length;
+		for (int i = 0; i < capacity; i++) {
+			this.collidables[i] = null;
+			this.fixtures[i] = null;
+		}
+		this.link(0, capacity);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#size()
+	 */
+	@Override
+	public int size() {
+		return this.map.size();
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphasePair<E, T>> detect(BroadphaseFilter<E, T> filter) {
+		// clear all the tested flags on the nodes
+		int size = this.map.size();
+		Collection<Integer> proxies = this.map.values();
+		for (Integer proxy : proxies) {
+			// reset the flag
+			this.tested[proxy.intValue()] = false;
+		}
+		
+		// the estimated size of the pair list
+		int eSize = Collisions.getEstimatedCollisionPairs(size);
+		List<BroadphasePair<E, T>> pairs = new ArrayList<BroadphasePair<E, T>>(eSize);
+		
+		// test each collidable in the list
+		for (Integer proxy : proxies) {
+			int p = proxy.intValue();
+			// perform a stackless detection routine
+			this.detectNonRecursive(p, filter, pairs);
+			// update the tested flag
+			this.tested[p] = true;
+		}
+		
+		// return the list of pairs
+		return pairs;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.geometry.AABB, org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphaseItem<E, T>> detect(AABB aabb, BroadphaseFilter<E, T> filter) {
+		// get the estimated collision count
+		int eSize = Collisions.getEstimatedCollisionsPerObject();
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(eSize);
+		
+		double aMinX = aabb.getMinX();
+		double aMinY = aabb.getMinY();
+		double aMaxX = aabb.getMaxX();
+		double aMaxY = aabb.getMaxY();
+		
+		int node = this.root;
+		// perform a iterative, stack-less, traversal of the tree
+		while (node != NULL_NODE) {
+			// check if the current node overlaps the desired node
+			if (this.overlaps(node, aMinX, aMinY, aMaxX, aMaxY)) {
+				// if they do overlap, then check the left child node
+				if (this.left[node] != NULL_NODE) {
+					// if the left is not null, then check that subtree
+					node = this.left[node];
+					continue;
+				} else {
+					// if both are null, then this is a leaf node
+					E collidable = this.getCollidable(node);
+					T fixture = this.getFixture(node);
+					if (filter.isAllowed(aabb, collidable, fixture)) {
+						list.add(new BroadphaseItem<E, T>(collidable, fixture));
+					}
+				}
+			}
+			// go back up the tree until we find the first
+			// left node who's right node we haven't tested
+			node = this.next(node);
+		}
+		
+		return list;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#raycast(org.dyn4j.geometry.Ray, double, org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphaseItem<E, T>> raycast(Ray ray, double length, BroadphaseFilter<E, T> filter) {
+		// check the size of the proxy list
+		if (this.map.size() == 0) {
+			// return an empty list
+			return Collections.emptyList();
+		}
+		
+		// create an aabb from the ray
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+		
+		// get the length
+		double l = length;
+		if (length <= 0.0) l = Double.MAX_VALUE;
+		
+		// compute the coordinates
+		double x1 = s.x;
+		double x2 = s.x + d.x * l;
+		double y1 = s.y;
+		double y2 = s.y + d.y * l;
+		
+		// compute the bounds of the ray
+		double aMinX = Math.min(x1, x2);
+		double aMinY = Math.min(y1, y2);
+		double aMaxX = Math.max(x1, x2);
+		double aMaxY = Math.max(y1, y2);
+		
+		// precompute
+		double invDx = 1.0 / d.x;
+		double invDy = 1.0 / d.y;
+		
+		// get the estimated collision count
+		int eSize = Collisions.getEstimatedRaycastCollisions(this.map.size());
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(eSize);
+		
+		int node = this.root;
+		// perform a iterative, stack-less, traversal of the tree
+		while (node != NULL_NODE) {
+			// check if the current node overlaps the desired node
+			if (this.overlaps(node, aMinX, aMinY, aMaxX, aMaxY)) {
+				// if they do overlap, then check the left child node
+				if (this.left[node] != NULL_NODE) {
+					// if the left is not null, then check that subtree
+					node = this.left[node];
+					continue;
+				} else if (this.raycast(node, s, l, invDx, invDy)) {
+					// if both are null, then this is a leaf node
+					E collidable = this.getCollidable(node);
+					T fixture = this.getFixture(node);
+					if (filter.isAllowed(ray, length, collidable, fixture)) {
+						list.add(new BroadphaseItem<E, T>(collidable, fixture));
+					}
+				}
+			}
+			// go back up the tree until we find the first
+			// left node who's right node we haven't tested
+			node = this.next(node);
+		}
+		
+		return list;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.AbstractBroadphaseDetector#raycast(org.dyn4j.geometry.Ray, double, org.dyn4j.collision.broadphase.BroadphaseRaycastCallback)
+	 */
+	@Override
+	public void raycast(Ray ray, double length, BroadphaseRaycastCallback<E, T> callback) {
+		// check for an empty tree
+		if (this.root == NULL_NODE) return;
+		
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+		
+		// get the length
+		double l = length;
+		if (length <= 0.0) l = Double.MAX_VALUE;
+		
+		// precompute
+		double invDx = 1.0 / d.x;
+		double invDy = 1.0 / d.y;
+		
+		double t = this.raycastEntry(this.root, s, l, invDx, invDy);
+		if (t < 0.0) return;
+		
+		// perform a front to back traversal of the tree using a stack of the
+		// nodes to visit and the distances where the ray enters them
+		int capacity = this.height[this.root] + 1;
+		int[] stack = new int[capacity];
+		double[] entries = new double[capacity];
+		stack[0] = this.root;
+		entries[0] = t;
+		int size = 1;
+		while (size > 0) {
+			size--;
+			int node = stack[size];
+			// skip nodes beyond the clipped ray
+			if (entries[size] > l) continue;
+			
+			if (this.left[node] == NULL_NODE) {
+				double nl = callback.found(ray, l, this.getCollidable(node), this.getFixture(node));
+				// check if the raycast should stop
+				if (nl < 0.0) return;
+				// check if the ray was clipped
+				if (nl < l) l = nl;
+				continue;
+			}
+			
+			int near = this.left[node];
+			int far = this.right[node];
+			double tn = this.raycastEntry(near, s, l, invDx, invDy);
+			double tf = this.raycastEntry(far, s, l, invDx, invDy);
+			if (tf >= 0.0 && (tn < 0.0 || tf < tn)) {
+				int temp = near;
+				near = far;
+				far = temp;
+				double tt = tn;
+				tn = tf;
+				tf = tt;
+			}
+			// push the farther child first so that the nearer child is visited first
+			if (tf >= 0.0) {
+				stack[size] = far;
+				entries[size++] = tf;
+			}
+			if (tn >= 0.0) {
+				stack[size] = near;
+				entries[size++] = tn;
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
+	 */
+	@Override
+	public void shift(Vector2 shift) {
+		// we need to update all nodes in the tree (not just the
+		// nodes that contain the bodies) which are simply all
+		// the allocated nodes
+		int capacity = this.height.length;
+		for (int i = 0; i < capacity; i++) {
+			if (this.height[i] < 0) continue;
+			this.minX[i] += shift.x;
+			this.minY[i] += shift.y;
+			this.maxX[i] += shift.x;
+			this.maxY[i] += shift.y;
+		}
+	}
+	
+	/**
+	 * Internal non-recursive detection method.
+	 * @param proxy the leaf node to test
+	 * @param filter the broadphase filter
+	 * @param pairs the list of pairs to add to
+	 */
+	void detectNonRecursive(int proxy, BroadphaseFilter<E, T> filter, List<BroadphasePair<E, T>> pairs) {
+		double aMinX = this.minX[proxy];
+		double aMinY = this.minY[proxy];
+		double aMaxX = this.maxX[proxy];
+		double aMaxY = this.maxY[proxy];
+		Object c = this.collidables[proxy];
+		
+		// start at the root node
+		int test = this.root;
+		// perform a iterative, stack-less, traversal of the tree
+		while (test != NULL_NODE) {
+			// check if the current node overlaps the desired node
+			if (this.overlaps(test, aMinX, aMinY, aMaxX, aMaxY)) {
+				// if they do overlap, then check the left child node
+				if (this.left[test] != NULL_NODE) {
+					// if the left is not null, then check that subtree
+					test = this.left[test];
+					continue;
+				} else {
+					// if both are null, then this is a leaf node
+					// check the tested flag to avoid duplicates and
+					// verify we aren't testing the same collidable against
+					// itself
+					if (!this.tested[test] && this.collidables[test] != c) {
+						E collidable1 = this.getCollidable(proxy);
+						T fixture1 = this.getFixture(proxy);
+						E collidable2 = this.getCollidable(test);
+						T fixture2 = this.getFixture(test);
+						// its a leaf so add the pair
+						if (filter.isAllowed(collidable1, fixture1, collidable2, fixture2)) {
+							pairs.add(new BroadphasePair<E, T>(collidable1, fixture1, collidable2, fixture2));
+						}
+					}
+				}
+			}
+			// go back up the tree until we find the first
+			// left node who's right node we haven't tested
+			test = this.next(test);
+		}
+	}
+	
+	/**
+	 * Returns the next node in a stack-less traversal of the tree after 
+	 * the given node's subtree, or {@link #NULL_NODE} if the traversal
+	 * is complete.
+	 * @param node the current node
+	 * @return int
+	 */
+	private int next(int node) {
+		int p = this.parent[node];
+		while (p != NULL_NODE) {
+			// check if the current node the left child of its parent
+			if (node == this.left[p]) {
+				// the tree is a complete tree (every node has two children)
+				// so the sibling node is the next node
+				return this.right[p];
+			}
+			// otherwise go to the parent node
+			node = p;
+			p = this.parent[node];
+		}
+		return NULL_NODE;
+	}
+	
+	/**
+	 * Returns true if the given node overlaps the given bounds.
+	 * @param node the node
+	 * @param aMinX the minimum x extent
+	 * @param aMinY the minimum y extent
+	 * @param aMaxX the maximum x extent
+	 * @param aMaxY the maximum y extent
+	 * @return boolean
+	 */
+	private boolean overlaps(int node, double aMinX, double aMinY, double aMaxX, double aMaxY) {
+		return !(this.minX[node] > aMaxX || this.maxX[node] < aMinX ||
+				 this.minY[node] > aMaxY || this.maxY[node] < aMinY);
+	}
+	
+	/**
+	 * Returns true if the ray and the given node intersect.
+	 * @param node the node
+	 * @param start the start position of the ray
+	 * @param length the length of the ray
+	 * @param invDx the inverse of the x component of the ray direction
+	 * @param invDy the inverse of the y component of the ray direction
+	 * @return boolean
+	 * @see AbstractBroadphaseDetector#raycast(Vector2, double, double, double, AABB)
+	 */
+	private boolean raycast(int node, Vector2 start, double length, double invDx, double invDy) {
+		double tx1 = (this.minX[node] - start.x) * invDx;
+		double tx2 = (this.maxX[node] - start.x) * invDx;
+
+		double tmin = Math.min(tx1, tx2);
+		double tmax = Math.max(tx1, tx2);
+
+		double ty1 = (this.minY[node] - start.y) * invDy;
+		double ty2 = (this.maxY[node] - start.y) * invDy;
+
+		tmin = Math.max(tmin, Math.min(ty1, ty2));
+		tmax = Math.min(tmax, Math.max(ty1, ty2));
+		// the ray is pointing in the opposite direction
+		if (tmax < 0) return false;
+		// consider the ray length
+		if (tmin > length) return false;
+		// along the ray, tmax should be larger than tmin
+		return tmax >= tmin;
+	}
+	
+	/**
+	 * Returns the distance along the ray where it enters the given node or -1 if
+	 * the ray and the node do not intersect.
+	 * @param node the node
+	 * @param start the start position of the ray
+	 * @param length the length of the ray
+	 * @param invDx the inverse of the x component of the ray direction
+	 * @param invDy the inverse of the y component of the ray direction
+	 * @return double
+	 * @see AbstractBroadphaseDetector#raycastEntry(Vector2, double, double, double, AABB)
+	 */
+	private double raycastEntry(int node, Vector2 start, double length, double invDx, double invDy) {
+		double tx1 = (this.minX[node] - start.x) * invDx;
+		double tx2 = (this.maxX[node] - start.x) * invDx;
+
+		double tmin = Math.min(tx1, tx2);
+		double tmax = Math.max(tx1, tx2);
+
+		double ty1 = (this.minY[node] - start.y) * invDy;
+		double ty2 = (this.maxY[node] - start.y) * invDy;
+
+		tmin = Math.max(tmin, Math.min(ty1, ty2));
+		tmax = Math.min(tmax, Math.max(ty1, ty2));
+		// the ray is pointing in the opposite direction
+		if (tmax < 0) return -1.0;
+		// consider the ray length
+		if (tmin > length) return -1.0;
+		// along the ray, tmax should be larger than tmin
+		if (!(tmax >= tmin)) return -1.0;
+		return Math.max(tmin, 0.0);
+	}
+	
+	/**
+	 * Returns the perimeter of the given node's bounds.
+	 * @param node the node
+	 * @return double
+	 */
+	private double getPerimeter(int node) {
+		return 2 * (this.maxX[node] - this.minX[node] + this.maxY[node] - this.minY[node]);
+	}
+	
+	/**
+	 * Returns the perimeter of the union of the given nodes' bounds.
+	 * @param node1 the first node
+	 * @param node2 the second node
+	 * @return double
+	 */
+	private double getUnionPerimeter(int node1, int node2) {
+		double x0 = Math.min(this.minX[node1], this.minX[node2]);
+		double y0 = Math.min(this.minY[node1], this.minY[node2]);
+		double x1 = Math.max(this.maxX[node1], this.maxX[node2]);
+		double y1 = Math.max(this.maxY[node1], this.maxY[node2]);
+		return 2 * (x1 - x0 + y1 - y0);
+	}
+	
+	/**
+	 * Sets the bounds of the given node to the union of the bounds of the
+	 * other two nodes.
+	 * @param node the node to set
+	 * @param node1 the first node
+	 * @param node2 the second node
+	 */
+	private void union(int node, int node1, int node2) {
+		this.minX[node] = Math.min(this.minX[node1], this.minX[node2]);
+		this.minY[node] = Math.min(this.minY[node1], this.minY[node2]);
+		this.maxX[node] = Math.max(this.maxX[node1], this.maxX[node2]);
+		this.maxY[node] = Math.max(this.maxY[node1], this.maxY[node2]);
+	}
+	
+	/**
+	 * Sets the bounds of the given node.
+	 * @param node the node
+	 * @param aabb the bounds
+	 */
+	private void set(int node, AABB aabb) {
+		this.minX[node] = aabb.getMinX();
+		this.minY[node] = aabb.getMinY();
+		this.maxX[node] = aabb.getMaxX();
+		this.maxY[node] = aabb.getMaxY();
+	}
+	
+	/**
+	 * Returns the {@link Collidable} of the given leaf node.
+	 * @param node the leaf node
+	 * @return E
+	 */
+	@SuppressWarnings("unchecked")
+	private E getCollidable(int node) {
+		return (E)this.collidables[node];
+	}
+	
+	/**
+	 * Returns the {@link Fixture} of the given leaf node.
+	 * @param node the leaf node
+	 * @return T
+	 */
+	@SuppressWarnings("unchecked")
+	private T getFixture(int node) {
+		return (T)this.fixtures[node];
+	}
+	
+	/**
+	 * Returns a node from the free list, growing the storage if necessary.
+	 * @return int
+	 */
+	int allocate() {
+		if (this.free == NULL_NODE) {
+			int capacity = this.height.length;
+			int newCapacity = capacity * 2;
+			this.minX = copy(this.minX, newCapacity);
+			this.minY = copy(this.minY, newCapacity);
+			this.maxX = copy(this.maxX, newCapacity);
+			this.maxY = copy(this.maxY, newCapacity);
+			this.parent = copy(this.parent, newCapacity);
+			this.left = copy(this.left, newCapacity);
+			this.right = copy(this.right, newCapacity);
+			this.height = copy(this.height, newCapacity);
+			this.collidables = copy(this.collidables, newCapacity);
+			this.fixtures = copy(this.fixtures, newCapacity);
+			boolean[] tested = new boolean[newCapacity];
+			System.arraycopy(this.tested, 0, tested, 0, capacity);
+			this.tested = tested;
+			this.link(capacity, newCapacity);
+		}
+		int node = this.free;
+		this.free = this.parent[node];
+		this.parent[node] = NULL_NODE;
+		this.left[node] = NULL_NODE;
+		this.right[node] = NULL_NODE;
+		this.height[node] = 0;
+		return node;
+	}
+	
+	/**
+	 * Returns the given node to the free list.
+	 * @param node the node
+	 */
+	void release(int node) {
+		this.collidables[node] = null;
+		this.fixtures[node] = null;
+		this.height[node] = -1;
+		this.parent[node] = this.free;
+		this.free = node;
+	}
+	
+	/**
+	 * Links the given range of nodes into the free list.
+	 * @param start the first node (inclusive)
+	 * @param end the last node (exclusive)
+	 */
+	private void link(int start, int end) {
+		for (int i = end - 1; i >= start; i--) {
+			this.height[i] = -1;
+			this.parent[i] = this.free;
+			this.free = i;
+		}
+	}
+	
+	/**
+	 * Returns a copy of the given array with the given length.
+	 * @param array the array
+	 * @param length the new length
+	 * @return double[]
+	 */
+	private static double[] copy(double[] array, int length) {
+		double[] result = new double[length];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+	
+	/**
+	 * Returns a copy of the given array with the given length.
+	 * @param array the array
+	 * @param length the new length
+	 * @return int[]
+	 */
+	private static int[] copy(int[] array, int length) {
+		int[] result = new int[length];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+	
+	/**
+	 * Returns a copy of the given array with the given length.
+	 * @param array the array
+	 * @param length the new length
+	 * @return Object[]
+	 */
+	private static Object[] copy(Object[] array, int length) {
+		Object[] result = new Object[length];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+	
+	/**
+	 * Internal method to insert a leaf node into the tree.
+	 * @param item the leaf node to insert
+	 * @see DynamicAABBTree#insert(DynamicAABBTreeNode)
+	 */
+	void insert(int item) {
+		// make sure the root is not null
+		if (this.root == NULL_NODE) {
+			// if it is then set this node as the root
+			this.root = item;
+			this.parent[item] = NULL_NODE;
+			// return from the insert method
+			return;
+		}
+		
+		// start looking for the insertion point at the root
+		int node = this.root;
+		// loop until node is a leaf or we find a better location
+		while (this.left[node] != NULL_NODE) {
+			// the perimeter heuristic is better than area for 2D because
+			// a line segment aligned with the x or y axis will generate
+			// zero area
+			
+			// get its perimeter
+			double perimeter = this.getPerimeter(node);
+			
+			// union the new node's aabb and the current aabb
+			// get the union's perimeter
+			double unionPerimeter = this.getUnionPerimeter(node, item);
+			
+			// compute the cost of creating a new parent for the new
+			// node and the current node
+			double cost = 2 * unionPerimeter;
+			
+			// compute the minimum cost of descending further down the tree
+			double descendCost = 2 * (unionPerimeter - perimeter);
+			
+			// get the left and right nodes
+			int left = this.left[node];
+			int right = this.right[node];
+			
+			// compute the cost of descending to the left
+			double costl = 0.0;
+			if (this.left[left] == NULL_NODE) {
+				costl = this.getUnionPerimeter(left, item) + descendCost;
+			} else {
+				double oldPerimeter = this.getPerimeter(left);
+				double newPerimeter = this.getUnionPerimeter(left, item);
+				costl = newPerimeter - oldPerimeter + descendCost;
+			}
+			// compute the cost of descending to the right
+			double costr = 0.0;
+			if (this.left[right] == NULL_NODE) {
+				costr = this.getUnionPerimeter(right, item) + descendCost;
+			} else {
+				double oldPerimeter = this.getPerimeter(right);
+				double newPerimeter = this.getUnionPerimeter(right, item);
+				costr = newPerimeter - oldPerimeter + descendCost;
+			}
+			
+			// see if the cost to create a new parent node for the new
+			// node and the current node is better than the children of
+			// this node
+			if (cost < costl && cost < costr) {
+				break;
+			}
+			
+			// if not then choose the next best node to try
+			if (costl < costr) {
+				node = left;
+			} else {
+				node = right;
+			}
+		}
+		
+		// now that we have found a suitable place, insert a new root
+		// node for node and item
+		int parent = this.parent[node];
+		int newParent = this.allocate();
+		this.parent[newParent] = parent;
+		this.union(newParent, node, item);
+		this.height[newParent] = this.height[node] + 1;
+		
+		if (parent != NULL_NODE) {
+			// node is not the root node
+			if (this.left[parent] == node) {
+				this.left[parent] = newParent;
+			} else {
+				this.right[parent] = newParent;
+			}
+		} else {
+			// node is the root item
+			this.root = newParent;
+		}
+		this.left[newParent] = node;
+		this.right[newParent] = item;
+		this.parent[node] = newParent;
+		this.parent[item] = newParent;
+		
+		// fix the heights and aabbs
+		node = this.parent[item];
+		while (node != NULL_NODE) {
+			// balance the current tree
+			node = this.balance(node);
+			
+			int left = this.left[node];
+			int right = this.right[node];
+			
+			// neither node should be null
+			this.height[node] = 1 + Math.max(this.height[left], this.height[right]);
+			this.union(node, left, right);
+			
+			node = this.parent[node];
+		}
+	}
+	
+	/**
+	 * Internal method to remove a leaf node from the tree.
+	 * <p>
+	 * The leaf node itself is not released.
+	 * @param node the leaf node to remove
+	 * @see DynamicAABBTree#remove(DynamicAABBTreeNode)
+	 */
+	void remove(int node) {
+		// check for an empty tree
+		if (this.root == NULL_NODE) return;
+		// check the root node
+		if (node == this.root) {
+			// set the root to null
+			this.root = NULL_NODE;
+			// return from the remove method
+			return;
+		}
+		
+		// get the node's parent, grandparent, and sibling
+		int parent = this.parent[node];
+		int grandparent = this.parent[parent];
+		int other;
+		if (this.left[parent] == node) {
+			other = this.right[parent];
+		} else {
+			other = this.left[parent];
+		}
+		
+		// the parent node is no longer used
+		this.release(parent);
+		this.parent[node] = NULL_NODE;
+		
+		// check if the grandparent is null
+		// indicating that the parent is the root
+		if (grandparent != NULL_NODE) {
+			// remove the node by overwriting the parent node
+			// reference in the grandparent with the sibling
+			if (this.left[grandparent] == parent) {
+				this.left[grandparent] = other;
+			} else {
+				this.right[grandparent] = other;
+			}
+			// set the siblings parent to the grandparent
+			this.parent[other] = grandparent;
+			
+			// finally rebalance the tree
+			int n = grandparent;
+			while (n != NULL_NODE) {
+				// balance the current subtree
+				n = this.balance(n);
+				
+				int left = this.left[n];
+				int right = this.right[n];
+				
+				// neither node should be null
+				this.height[n] = 1 + Math.max(this.height[left], this.height[right]);
+				this.union(n, left, right);
+				
+				n = this.parent[n];
+			}
+		} else {
+			// the parent is the root so set the root to the sibling
+			this.root = other;
+			// set the siblings parent to null
+			this.parent[other] = NULL_NODE;
+		}
+	}
+	
+	/**
+	 * Balances the subtree using node as the root.
+	 * @param node the root node of the subtree to balance
+	 * @return int the new root of the subtree
+	 * @see DynamicAABBTree#balance(DynamicAABBTreeNode)
+	 */
+	int balance(int node) {
+		int a = node;
+		
+		// see if the node is a leaf node or if
+		// it doesn't have enough children to be unbalanced
+		if (this.left[a] == NULL_NODE || this.height[a] < 2) {
+			// return since there isn't any work to perform
+			return a;
+		}
+		
+		// get the nodes left and right children
+		int b = this.left[a];
+		int c = this.right[a];
+		
+		// compute the balance factor for node a
+		int balance = this.height[c] - this.height[b];
+		
+		// if the balance is off on the right side
+		if (balance > 1) {
+			// get the c's left and right nodes
+			int f = this.left[c];
+			int g = this.right[c];
+			
+			// switch a and c
+			this.left[c] = a;
+			this.parent[c] = this.parent[a];
+			this.parent[a] = c;
+			
+			// update c's parent to point to c instead of a
+			int cp = this.parent[c];
+			if (cp != NULL_NODE) {
+				if (this.left[cp] == a) {
+					this.left[cp] = c;
+				} else {
+					this.right[cp] = c;
+				}
+			} else {
+				this.root = c;
+			}
+			
+			// compare the balance of the children of c
+			if (this.height[f] > this.height[g]) {
+				// rotate left
+				this.right[c] = f;
+				this.right[a] = g;
+				this.parent[g] = a;
+				// update the aabb
+				this.union(a, b, g);
+				this.union(c, a, f);
+				// update the heights
+				this.height[a] = 1 + Math.max(this.height[b], this.height[g]);
+				this.height[c] = 1 + Math.max(this.height[a], this.height[f]);
+			} else {
+				// rotate right
+				this.right[c] = g;
+				this.right[a] = f;
+				this.parent[f] = a;
+				// update the aabb
+				this.union(a, b, f);
+				this.union(c, a, g);
+				// update the heights
+				this.height[a] = 1 + Math.max(this.height[b], this.height[f]);
+				this.height[c] = 1 + Math.max(this.height[a], this.height[g]);
+			}
+			// c is the new root node of the subtree
+			return c;
+		}
+		// if the balance is off on the left side
+		if (balance < -1) {
+			// get b's children
+			int d = this.left[b];
+			int e = this.right[b];
+			
+			// switch a and b
+			this.left[b] = a;
+			this.parent[b] = this.parent[a];
+			this.parent[a] = b;
+			
+			// update b's parent to point to b instead of a
+			int bp = this.parent[b];
+			if (bp != NULL_NODE) {
+				if (this.left[bp] == a) {
+					this.left[bp] = b;
+				} else {
+					this.right[bp] = b;
+				}
+			} else {
+				this.root = b;
+			}
+			
+			// compare the balance of the children of b
+			if (this.height[d] > this.height[e]) {
+				// rotate left
+				this.right[b] = d;
+				this.left[a] = e;
+				this.parent[e] = a;
+				// update the aabb
+				this.union(a, c, e);
+				this.union(b, a, d);
+				// update the heights
+				this.height[a] = 1 + Math.max(this.height[c], this.height[e]);
+				this.height[b] = 1 + Math.max(this.height[a], this.height[d]);
+			} else {
+				// rotate right
+				this.right[b] = e;
+				this.left[a] = d;
+				this.parent[d] = a;
+				// update the aabb
+				this.union(a, c, d);
+				this.union(b, a, e);
+				// update the heights
+				this.height[a] = 1 + Math.max(this.height[c], this.height[d]);
+				this.height[b] = 1 + Math.max(this.height[a], this.height[e]);
+			}
+			// b is the new root node of the subtree
+			return b;
+		}
+		// no balancing required so return the original subtree root node
+		return a;
+	}
+}
@@ -24,9 +24,11 @@
  */
 package org.dyn4j.collision.broadphase;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,12 +40,30 @@ import org.dyn4j.geometry.AABB;
 import org.dyn4j.geometry.Ray;
 import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
+import org.dyn4j.resources.Messages;
 
 /**
  * Implementation of a self-balancing axis-aligned bounding box tree broad-phase collision detection algorithm.
  * <p>
  * This class uses a self-balancing binary tree to store the AABBs.  The AABBs are sorted using the perimeter.
  * The perimeter hueristic is better than area for 2D because axis aligned segments would have zero area.
+ * <p>
+ * The pair cache can be enabled using the {@link #setPairCacheEnabled(boolean)} method.  When enabled,
+ * the overlapping pairs are retained between calls and only the nodes whose expanded {@link AABB}s changed
+ * since the last call are queried against the tree.  The pairs that began, persisted, or ended during the 
+ * last call to {@link #updatePairs()} are available from the {@link #getBeginPairs()}, 
+ * {@link #getPersistPairs()}, and {@link #getEndPairs()} methods.
+ * <p>
+ * The {@link #batchAdd(Collection)} method builds the tree top down using the surface area heuristic
+ * rather than inserting the new nodes one at a time.
+ * <p>
+ * The tree is only balanced locally as nodes are inserted and removed, so its quality can slowly
+ * degrade as things move.  The {@link #optimize(int)} method rebuilds the tree a little at a time and
+ * the {@link #getPerimeterRatio()}, {@link #getHeight()}, and {@link #getMaximumImbalance()} methods
+ * can be used to monitor its quality.
+ * <p>
+ * The {@link #raycast(Ray, double, BroadphaseRaycastCallback)} method visits the nodes from front to back
+ * so that, when the callback clips the ray to the closest hit, the nodes beyond it are skipped early.
  * @author William Bittle
  * @version 3.3.0
  * @since 3.0.0
@@ -57,6 +77,27 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 	/** Id to node map for fast lookup */
 	final Map<BroadphaseKey, DynamicAABBTreeLeaf<E, T>> map;
 	
+	/** True if the pair cache is enabled */
+	private boolean pairCacheEnabled;
+	
+	/** The leaf nodes whose {@link AABB}s have changed since the last pair update */
+	final List<DynamicAABBTreeLeaf<E, T>> moved;
+	
+	/** The pairs that began during the last pair update */
+	final List<DynamicAABBTreePair<E, T>> begin;
+	
+	/** The pairs that ended during the last pair update */
+	final List<BroadphasePair<E, T>> end;
+	
+	/** The pairs that have ended due to removal since the last pair update */
+	final List<BroadphasePair<E, T>> removed;
+	
+	/** The reusable list of overlapping leaf nodes for the pair update */
+	final List<DynamicAABBTreeLeaf<E, T>> overlaps;
+	
+	/** The counter used to pick the next branch to optimize */
+	private int optimizeCount;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -77,6 +118,12 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		// if we take capacity / load factor
 		// the default load factor is 0.75 according to the javadocs, but lets assign it to be sure
 		this.map = new LinkedHashMap<BroadphaseKey, DynamicAABBTreeLeaf<E, T>>(initialCapacity * 4 / 3 + 1, 0.75f);
+		this.pairCacheEnabled = false;
+		this.moved = new ArrayList<DynamicAABBTreeLeaf<E, T>>();
+		this.begin = new ArrayList<DynamicAABBTreePair<E, T>>();
+		this.end = new ArrayList<BroadphasePair<E, T>>();
+		this.removed = new ArrayList<BroadphasePair<E, T>>();
+		this.overlaps = new ArrayList<DynamicAABBTreeLeaf<E, T>>();
 	}
 	
 	/* (non-Javadoc)
@@ -115,6 +162,128 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		this.map.put(key, node);
 		// insert the node into the tree
 		this.insert(node);
+		// find its pairs on the next pair update
+		if (this.pairCacheEnabled) {
+			node.pairs = new ArrayList<DynamicAABBTreePair<E, T>>();
+			this.setMoved(node);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.AbstractBroadphaseDetector#batchAdd(java.util.Collection)
+	 */
+	@Override
+	public void batchAdd(Collection<E> collidables) {
+		int count = 0;
+		for (E collidable : collidables) {
+			count += collidable.getFixtureCount();
+		}
+		
+		// create the new leaf nodes, updating any that already exist
+		List<DynamicAABBTreeLeaf<E, T>> leaves = new ArrayList<DynamicAABBTreeLeaf<E, T>>(count);
+		for (E collidable : collidables) {
+			Transform tx = collidable.getTransform();
+			int size = collidable.getFixtureCount();
+			for (int i = 0; i < size; i++) {
+				T fixture = collidable.getFixture(i);
+				BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+				DynamicAABBTreeLeaf<E, T> node = this.map.get(key);
+				if (node != null) {
+					this.update(key, node, collidable, fixture);
+					continue;
+				}
+				AABB aabb = fixture.getShape().createAABB(tx);
+				aabb.expand(this.expansion);
+				node = new DynamicAABBTreeLeaf<E, T>(collidable, fixture);
+				node.aabb = aabb;
+				this.map.put(key, node);
+				leaves.add(node);
+				if (this.pairCacheEnabled) {
+					node.pairs = new ArrayList<DynamicAABBTreePair<E, T>>();
+					this.setMoved(node);
+				}
+			}
+		}
+		
+		int n = leaves.size();
+		if (n == 0) return;
+		
+		// a few nodes are better inserted into the existing tree, but when
+		// there are as many new nodes as existing ones rebuild the whole tree
+		if (this.root != null && n < this.map.size() - n) {
+			for (int i = 0; i < n; i++) {
+				this.insert(leaves.get(i));
+			}
+		} else {
+			this.build(this.map.values());
+		}
+	}
+	
+	/**
+	 * Replaces the tree with a new tree of the given leaf nodes built top down using
+	 * the {@link SahPartitioner}.
+	 * @param leaves the leaf nodes
+	 */
+	void build(Collection<DynamicAABBTreeLeaf<E, T>> leaves) {
+		int n = leaves.size();
+		if (n == 0) {
+			this.root = null;
+			return;
+		}
+		
+		this.root = this.build(leaves.toArray(), n);
+		this.root.parent = null;
+	}
+	
+	/**
+	 * Builds a sub tree of the given nodes top down using the {@link SahPartitioner}.
+	 * @param nodes the leaf nodes or sub trees; reordered by the build
+	 * @param n the number of nodes; must be greater than zero
+	 * @return {@link DynamicAABBTreeNode} the root of the sub tree
+	 */
+	private DynamicAABBTreeNode build(Object[] nodes, int n) {
+		double[] minX = new double[n];
+		double[] minY = new double[n];
+		double[] maxX = new double[n];
+		double[] maxY = new double[n];
+		for (int i = 0; i < n; i++) {
+			AABB aabb = ((DynamicAABBTreeNode)nodes[i]).aabb;
+			minX[i] = aabb.getMinX();
+			minY[i] = aabb.getMinY();
+			maxX[i] = aabb.getMaxX();
+			maxY[i] = aabb.getMaxY();
+		}
+		
+		SahPartitioner partitioner = new SahPartitioner(nodes, minX, minY, maxX, maxY, n);
+		return this.build(partitioner, nodes, 0, n, 1);
+	}
+	
+	/**
+	 * Builds the sub tree of the given range of leaf nodes.
+	 * @param partitioner the partitioner for the leaf nodes
+	 * @param nodes the leaf nodes
+	 * @param begin the index of the first leaf node
+	 * @param end the index after the last leaf node
+	 * @param level the level of the sub tree's root; the root is level 1
+	 * @return {@link DynamicAABBTreeNode} the root of the sub tree
+	 */
+	private DynamicAABBTreeNode build(SahPartitioner partitioner, Object[] nodes, int begin, int end, int level) {
+		if (end - begin == 1) {
+			return (DynamicAABBTreeNode)nodes[begin];
+		}
+		
+		int mid = partitioner.partition(begin, end, level);
+		DynamicAABBTreeNode left = this.build(partitioner, nodes, begin, mid, level + 1);
+		DynamicAABBTreeNode right = this.build(partitioner, nodes, mid, end, level + 1);
+		
+		DynamicAABBTreeNode node = new DynamicAABBTreeNode();
+		node.left = left;
+		node.right = right;
+		node.height = 1 + Math.max(left.height, right.height);
+		node.aabb = left.aabb.getUnion(right.aabb);
+		left.parent = node;
+		right.parent = node;
+		return node;
 	}
 	
 	/* (non-Javadoc)
@@ -129,6 +298,10 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		if (node != null) {
 			// remove the node from the tree
 			this.remove(node);
+			// end all the pairs the node was a part of
+			if (this.pairCacheEnabled) {
+				this.removePairs(node);
+			}
 			return true;
 		}
 		return false;
@@ -178,6 +351,10 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		node.aabb = aabb;
 		// reinsert the node
 		this.insert(node);
+		// update its pairs on the next pair update
+		if (this.pairCacheEnabled) {
+			this.setMoved(node);
+		}
 	}
 	
 	/* (non-Javadoc)
@@ -224,6 +401,10 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 	public void clear() {
 		this.map.clear();
 		this.root = null;
+		this.moved.clear();
+		this.begin.clear();
+		this.end.clear();
+		this.removed.clear();
 	}
 
 	/* (non-Javadoc)
@@ -239,6 +420,11 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 	 */
 	@Override
 	public List<BroadphasePair<E, T>> detect(BroadphaseFilter<E, T> filter) {
+		// check for the pair cache
+		if (this.pairCacheEnabled) {
+			return this.detectCached(filter);
+		}
+		
 		// clear all the tested flags on the nodes
 		int size = this.map.size();
 		Collection<DynamicAABBTreeLeaf<E, T>> nodes = this.map.values();
@@ -263,6 +449,246 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		return pairs;
 	}
 	
+	/**
+	 * Returns the cached pairs that are allowed by the given filter after
+	 * updating the pair cache.
+	 * @param filter the broadphase filter
+	 * @return List&lt;{@link BroadphasePair}&gt;
+	 * @since 3.3.0
+	 */
+	private List<BroadphasePair<E, T>> detectCached(BroadphaseFilter<E, T> filter) {
+		// update the pair cache for the moved nodes
+		this.updatePairs();
+		
+		// the estimated size of the pair list
+		int eSize = Collisions.getEstimatedCollisionPairs(this.map.size());
+		List<BroadphasePair<E, T>> pairs = new ArrayList<BroadphasePair<E, T>>(eSize);
+		
+		for (DynamicAABBTreeLeaf<E, T> node : this.map.values()) {
+			int size = node.pairs.size();
+			for (int i = 0; i < size; i++) {
+				DynamicAABBTreePair<E, T> pair = node.pairs.get(i);
+				// each pair is referenced by both nodes so only
+				// report it from its first node
+				if (pair.leaf1 != node) continue;
+				
+				if (filter.isAllowed(node.collidable, node.fixture, pair.leaf2.collidable, pair.leaf2.fixture)) {
+					pairs.add(pair.pair);
+				}
+			}
+		}
+		
+		return pairs;
+	}
+	
+	/**
+	 * Returns true if the pair cache is enabled.
+	 * @return boolean
+	 * @see #setPairCacheEnabled(boolean)
+	 * @since 3.3.0
+	 */
+	public boolean isPairCacheEnabled() {
+		return this.pairCacheEnabled;
+	}
+	
+	/**
+	 * Toggles the pair cache.
+	 * <p>
+	 * When enabled, the overlapping pairs are retained between calls to the {@link #detect(BroadphaseFilter)}
+	 * and {@link #updatePairs()} methods.  Only the nodes that were added, or whose expanded {@link AABB}s 
+	 * changed in the {@link #update(Collidable, Fixture)} method, are queried against the tree.  This 
+	 * significantly reduces the cost of detection when most {@link Collidable}s are at rest.
+	 * <p>
+	 * The {@link #detect(BroadphaseFilter)} method applies the filter to the cached pairs each call, and 
+	 * returns the same {@link BroadphasePair} instances for as long as a pair persists.  The order of the 
+	 * pairs may differ from the order when the pair cache is disabled.
+	 * <p>
+	 * Enabling the pair cache causes all pairs to be reported as begun on the next pair update.  Disabling
+	 * the pair cache discards all cached pairs.
+	 * @param flag true if the pair cache should be enabled
+	 * @since 3.3.0
+	 */
+	public void setPairCacheEnabled(boolean flag) {
+		if (this.pairCacheEnabled == flag) return;
+		this.pairCacheEnabled = flag;
+		
+		this.moved.clear();
+		this.begin.clear();
+		this.end.clear();
+		this.removed.clear();
+		
+		for (DynamicAABBTreeLeaf<E, T> node : this.map.values()) {
+			node.moved = false;
+			if (flag) {
+				node.pairs = new ArrayList<DynamicAABBTreePair<E, T>>();
+				this.setMoved(node);
+			} else {
+				node.pairs = null;
+			}
+		}
+	}
+	
+	/**
+	 * Updates the pair cache by querying the nodes that were added or whose expanded
+	 * {@link AABB}s changed since the last update.
+	 * <p>
+	 * This method is called by the {@link #detect(BroadphaseFilter)} method when the pair
+	 * cache is enabled.  The pairs that began, persisted, or ended are available from the 
+	 * {@link #getBeginPairs()}, {@link #getPersistPairs()}, and {@link #getEndPairs()} methods 
+	 * until the next update.  Pairs ended by removal of a {@link Fixture} are reported by 
+	 * the following update.
+	 * <p>
+	 * The begin, persist, and end pairs are not filtered.
+	 * @throws IllegalStateException if the pair cache is not enabled
+	 * @since 3.3.0
+	 */
+	public void updatePairs() {
+		if (!this.pairCacheEnabled) throw new IllegalStateException(Messages.getString("collision.broadphase.pairCacheDisabled"));
+		
+		// the pairs that began last update are now persisting
+		int bSize = this.begin.size();
+		for (int i = 0; i < bSize; i++) {
+			this.begin.get(i).begun = false;
+		}
+		this.begin.clear();
+		
+		// report the pairs that ended due to removal
+		this.end.clear();
+		this.end.addAll(this.removed);
+		this.removed.clear();
+		
+		int size = this.moved.size();
+		for (int i = 0; i < size; i++) {
+			DynamicAABBTreeLeaf<E, T> node = this.moved.get(i);
+			node.moved = false;
+			
+			// find all the nodes overlapping the moved node
+			this.overlaps.clear();
+			this.detectNonRecursive(node, this.root, this.overlaps);
+			
+			List<DynamicAABBTreePair<E, T>> pairs = node.pairs;
+			int oSize = this.overlaps.size();
+			for (int j = 0; j < oSize; j++) {
+				DynamicAABBTreeLeaf<E, T> leaf = this.overlaps.get(j);
+				DynamicAABBTreePair<E, T> pair = null;
+				
+				// check for an existing pair; the number of pairs per node
+				// is typically small so a linear search is sufficient
+				int pSize = pairs.size();
+				for (int k = 0; k < pSize; k++) {
+					DynamicAABBTreePair<E, T> p = pairs.get(k);
+					if (p.getOther(node) == leaf) {
+						pair = p;
+						break;
+					}
+				}
+				
+				// otherwise its a new pair
+				if (pair == null) {
+					pair = new DynamicAABBTreePair<E, T>(node, leaf);
+					pair.begun = true;
+					pairs.add(pair);
+					leaf.pairs.add(pair);
+					this.begin.add(pair);
+				}
+				
+				pair.found = true;
+			}
+			
+			// any pairs not found have ended
+			for (int j = pairs.size() - 1; j >= 0; j--) {
+				DynamicAABBTreePair<E, T> pair = pairs.get(j);
+				if (pair.found) {
+					pair.found = false;
+				} else {
+					pairs.remove(j);
+					pair.getOther(node).pairs.remove(pair);
+					this.end.add(pair.pair);
+				}
+			}
+		}
+		this.moved.clear();
+	}
+	
+	/**
+	 * Returns the pairs that began during the last pair update.
+	 * @return List&lt;{@link BroadphasePair}&gt;
+	 * @see #updatePairs()
+	 * @since 3.3.0
+	 */
+	public List<BroadphasePair<E, T>> getBeginPairs() {
+		int size = this.begin.size();
+		List<BroadphasePair<E, T>> pairs = new ArrayList<BroadphasePair<E, T>>(size);
+		for (int i = 0; i < size; i++) {
+			pairs.add(this.begin.get(i).pair);
+		}
+		return pairs;
+	}
+	
+	/**
+	 * Returns the pairs that existed before and after the last pair update.
+	 * <p>
+	 * This method iterates all the cached pairs.
+	 * @return List&lt;{@link BroadphasePair}&gt;
+	 * @see #updatePairs()
+	 * @since 3.3.0
+	 */
+	public List<BroadphasePair<E, T>> getPersistPairs() {
+		List<BroadphasePair<E, T>> pairs = new ArrayList<BroadphasePair<E, T>>();
+		if (!this.pairCacheEnabled) return pairs;
+		for (DynamicAABBTreeLeaf<E, T> node : this.map.values()) {
+			int size = node.pairs.size();
+			for (int i = 0; i < size; i++) {
+				DynamicAABBTreePair<E, T> pair = node.pairs.get(i);
+				if (pair.leaf1 == node && !pair.begun) {
+					pairs.add(pair.pair);
+				}
+			}
+		}
+		return pairs;
+	}
+	
+	/**
+	 * Returns the pairs that ended during the last pair update.
+	 * @return List&lt;{@link BroadphasePair}&gt;
+	 * @see #updatePairs()
+	 * @since 3.3.0
+	 */
+	public List<BroadphasePair<E, T>> getEndPairs() {
+		return new ArrayList<BroadphasePair<E, T>>(this.end);
+	}
+	
+	/**
+	 * Flags the given node as moved so that its pairs are updated on the next pair update.
+	 * @param node the node
+	 * @since 3.3.0
+	 */
+	private void setMoved(DynamicAABBTreeLeaf<E, T> node) {
+		if (!node.moved) {
+			node.moved = true;
+			this.moved.add(node);
+		}
+	}
+	
+	/**
+	 * Ends all the pairs of the given node after it has been removed.
+	 * @param node the removed node
+	 * @since 3.3.0
+	 */
+	private void removePairs(DynamicAABBTreeLeaf<E, T> node) {
+		int size = node.pairs.size();
+		for (int i = 0; i < size; i++) {
+			DynamicAABBTreePair<E, T> pair = node.pairs.get(i);
+			pair.getOther(node).pairs.remove(pair);
+			this.removed.add(pair.pair);
+		}
+		node.pairs.clear();
+		if (node.moved) {
+			node.moved = false;
+			this.moved.remove(node);
+		}
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.geometry.AABB)
 	 */
@@ -362,6 +788,78 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		return list;
 	}
 	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.AbstractBroadphaseDetector#raycast(org.dyn4j.geometry.Ray, double, org.dyn4j.collision.broadphase.BroadphaseRaycastCallback)
+	 */
+	@Override
+	public void raycast(Ray ray, double length, BroadphaseRaycastCallback<E, T> callback) {
+		// check for an empty tree
+		if (this.root == null) return;
+		
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+		
+		// get the length
+		double l = length;
+		if (length <= 0.0) l = Double.MAX_VALUE;
+		
+		// precompute
+		double invDx = 1.0 / d.x;
+		double invDy = 1.0 / d.y;
+		
+		double t = this.raycastEntry(s, l, invDx, invDy, this.root.aabb);
+		if (t < 0.0) return;
+		
+		// perform a front to back traversal of the tree using a stack of the
+		// nodes to visit and the distances where the ray enters them; at most
+		// one node per level and the two children of the last are on the stack
+		int capacity = this.root.height + 1;
+		DynamicAABBTreeNode[] stack = new DynamicAABBTreeNode[capacity];
+		double[] entries = new double[capacity];
+		stack[0] = this.root;
+		entries[0] = t;
+		int size = 1;
+		while (size > 0) {
+			size--;
+			DynamicAABBTreeNode node = stack[size];
+			// skip nodes beyond the clipped ray
+			if (entries[size] > l) continue;
+			
+			if (node.isLeaf()) {
+				@SuppressWarnings("unchecked")
+				DynamicAABBTreeLeaf<E, T> leaf = (DynamicAABBTreeLeaf<E, T>)node;
+				double nl = callback.found(ray, l, leaf.collidable, leaf.fixture);
+				// check if the raycast should stop
+				if (nl < 0.0) return;
+				// check if the ray was clipped
+				if (nl < l) l = nl;
+				continue;
+			}
+			
+			DynamicAABBTreeNode near = node.left;
+			DynamicAABBTreeNode far = node.right;
+			double tn = this.raycastEntry(s, l, invDx, invDy, near.aabb);
+			double tf = this.raycastEntry(s, l, invDx, invDy, far.aabb);
+			if (tf >= 0.0 && (tn < 0.0 || tf < tn)) {
+				DynamicAABBTreeNode temp = near;
+				near = far;
+				far = temp;
+				double tt = tn;
+				tn = tf;
+				tf = tt;
+			}
+			// push the farther child first so that the nearer child is visited first
+			if (tf >= 0.0) {
+				stack[size] = far;
+				entries[size++] = tf;
+			}
+			if (tn >= 0.0) {
+				stack[size] = near;
+				entries[size++] = tn;
+			}
+		}
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
 	 */
@@ -505,6 +1003,51 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		}
 	}
 	
+	/**
+	 * Internal non-recursive detection method that finds all the leaf nodes overlapping
+	 * the given node, excluding those of the same {@link Collidable}.
+	 * @param node the node to test
+	 * @param root the root node of the subtree
+	 * @param leaves the list of leaf nodes to add to
+	 * @since 3.3.0
+	 */
+	void detectNonRecursive(DynamicAABBTreeLeaf<E, T> node, DynamicAABBTreeNode root, List<DynamicAABBTreeLeaf<E, T>> leaves) {
+		// start at the root node
+		DynamicAABBTreeNode test = root;
+		// perform a iterative, stack-less, traversal of the tree
+		while (test != null) {
+			// check if the current node overlaps the desired node
+			if (test.aabb.overlaps(node.aabb)) {
+				// if they do overlap, then check the left child node
+				if (test.left != null) {
+					// if the left is not null, then check that subtree
+					test = test.left;
+					continue;
+				} else {
+					@SuppressWarnings("unchecked")
+					DynamicAABBTreeLeaf<E, T> leaf = (DynamicAABBTreeLeaf<E, T>)test;
+					// verify we aren't testing the same collidable against itself
+					if (leaf.collidable != node.collidable) {
+						leaves.add(leaf);
+					}
+				}
+			}
+			// go back up the tree until we find the first left
+			// node who's right node we haven't tested
+			boolean nextNodeFound = false;
+			while (test.parent != null) {
+				if (test == test.parent.left) {
+					test = test.parent.right;
+					nextNodeFound = true;
+					break;
+				}
+				test = test.parent;
+			}
+			// if we didn't find it then we are done
+			if (!nextNodeFound) break;
+		}
+	}
+	
 	/**
 	 * Internal recursive {@link AABB} detection method.
 	 * @param aabb the {@link AABB} to test
@@ -781,6 +1324,186 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		}
 	}
 	
+	/**
+	 * Performs a budgeted pass to improve the quality of the tree.
+	 * <p>
+	 * The tree is only balanced locally by {@link #add(Collidable)} and {@link #update(Collidable)}
+	 * so its quality degrades as the leaf nodes move.  Each call picks a branch node, expands it
+	 * into at most budget sub trees by repeatedly splitting the sub tree with the largest perimeter,
+	 * and rebuilds the branch from these sub trees top down using the surface area heuristic, the
+	 * same way {@link #batchAdd(Collection)} builds a new tree.  The new branch is only kept if the
+	 * total perimeter of its nodes is lower, even if it's taller.  The branch node changes with each call so that, over many calls, the whole
+	 * tree is visited.
+	 * <p>
+	 * The {@link AABB}s of the leaf nodes and the pair cache are not affected.
+	 * @param budget the maximum number of sub trees to rebuild a branch from
+	 * @since 3.3.0
+	 */
+	public void optimize(int budget) {
+		// there's nothing to optimize with less than three sub trees
+		if (budget < 3 || this.root == null || this.root.height < 2) return;
+		// there can't be more sub trees than leaf nodes
+		budget = Math.min(budget, this.map.size());
+		
+		// find the next branch to rebuild, cycling through the levels and
+		// the paths from the root
+		int levels = this.root.height - 1;
+		int level = this.optimizeCount % levels;
+		int path = this.optimizeCount / levels;
+		this.optimizeCount = (this.optimizeCount + 1) & Integer.MAX_VALUE;
+		DynamicAABBTreeNode node = this.root;
+		for (int i = 0; i < level; i++) {
+			DynamicAABBTreeNode next = ((path >>> (i & 31)) & 1) == 0 ? node.left : node.right;
+			if (next.height < 2) break;
+			node = next;
+		}
+		
+		// split the sub tree with the largest perimeter until the budget is used
+		Object[] subtrees = new Object[budget];
+		DynamicAABBTreeNode[] branches = new DynamicAABBTreeNode[budget - 1];
+		subtrees[0] = node.left;
+		subtrees[1] = node.right;
+		branches[0] = node;
+		int count = 2;
+		double cost = node.aabb.getPerimeter();
+		while (count < budget) {
+			int largest = -1;
+			double perimeter = 0.0;
+			for (int i = 0; i < count; i++) {
+				DynamicAABBTreeNode subtree = (DynamicAABBTreeNode)subtrees[i];
+				if (!subtree.isLeaf() && subtree.aabb.getPerimeter() > perimeter) {
+					largest = i;
+					perimeter = subtree.aabb.getPerimeter();
+				}
+			}
+			if (largest < 0) break;
+			
+			DynamicAABBTreeNode split = (DynamicAABBTreeNode)subtrees[largest];
+			branches[count - 1] = split;
+			subtrees[largest] = split.left;
+			subtrees[count++] = split.right;
+			cost += perimeter;
+		}
+		
+		// rebuild the branch
+		DynamicAABBTreeNode parent = node.parent;
+		DynamicAABBTreeNode branch = this.build(subtrees, count);
+		
+		// compute the cost of the new branch; the new branch nodes are
+		// the only nodes above the sub trees
+		double newCost = 0.0;
+		Deque<DynamicAABBTreeNode> stack = new ArrayDeque<DynamicAABBTreeNode>();
+		stack.push(branch);
+		while (!stack.isEmpty()) {
+			DynamicAABBTreeNode current = stack.pop();
+			newCost += current.aabb.getPerimeter();
+			if (!this.isSubtree(current.left, subtrees, count)) stack.push(current.left);
+			if (!this.isSubtree(current.right, subtrees, count)) stack.push(current.right);
+		}
+		
+		if (newCost >= cost) {
+			// keep the old branch and restore the parents of its nodes
+			for (int i = 0; i < count - 1; i++) {
+				DynamicAABBTreeNode old = branches[i];
+				old.left.parent = old;
+				old.right.parent = old;
+			}
+			return;
+		}
+		
+		// replace the old branch
+		branch.parent = parent;
+		if (parent == null) {
+			this.root = branch;
+		} else if (parent.left == node) {
+			parent.left = branch;
+		} else {
+			parent.right = branch;
+		}
+		
+		// the aabb of the branch is the same, but its height may not be
+		while (parent != null) {
+			parent.height = 1 + Math.max(parent.left.height, parent.right.height);
+			parent = parent.parent;
+		}
+	}
+	
+	/**
+	 * Returns true if the given node is one of the given sub trees.
+	 * @param node the node
+	 * @param subtrees the sub trees
+	 * @param count the number of sub trees
+	 * @return boolean
+	 */
+	private boolean isSubtree(DynamicAABBTreeNode node, Object[] subtrees, int count) {
+		for (int i = 0; i < count; i++) {
+			if (subtrees[i] == node) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns the total perimeter of the branch nodes of the tree divided by the perimeter
+	 * of the root node.
+	 * <p>
+	 * This is the surface area heuristic cost of the tree, using the perimeter since the
+	 * tree is 2D.  Lower values indicate a better tree for queries.
+	 * @return double
+	 * @since 3.3.0
+	 */
+	public double getPerimeterRatio() {
+		if (this.root == null) return 0.0;
+		double rootPerimeter = this.root.aabb.getPerimeter();
+		if (rootPerimeter <= 0.0) return 0.0;
+		
+		double total = 0.0;
+		Deque<DynamicAABBTreeNode> stack = new ArrayDeque<DynamicAABBTreeNode>();
+		stack.push(this.root);
+		while (!stack.isEmpty()) {
+			DynamicAABBTreeNode node = stack.pop();
+			if (!node.isLeaf()) {
+				total += node.aabb.getPerimeter();
+				stack.push(node.left);
+				stack.push(node.right);
+			}
+		}
+		return total / rootPerimeter;
+	}
+	
+	/**
+	 * Returns the height of the tree.
+	 * <p>
+	 * A tree with one leaf node has a height of zero; an empty tree has a height of -1.
+	 * @return int
+	 * @since 3.3.0
+	 */
+	public int getHeight() {
+		if (this.root == null) return -1;
+		return this.root.height;
+	}
+	
+	/**
+	 * Returns the largest difference in height between the children of any node in the tree.
+	 * @return int
+	 * @since 3.3.0
+	 */
+	public int getMaximumImbalance() {
+		if (this.root == null) return 0;
+		
+		int max = 0;
+		Deque<DynamicAABBTreeNode> stack = new ArrayDeque<DynamicAABBTreeNode>();
+		stack.push(this.root);
+		while (!stack.isEmpty()) {
+			DynamicAABBTreeNode node = stack.pop();
+			if (!node.isLeaf()) {
+				max = Math.max(max, Math.abs(node.left.height - node.right.height));
+				stack.push(node.left);
+				stack.push(node.right);
+			}
+		}
+		return max;
+	}
+	
 	/**
 	 * Balances the subtree using node as the root.
 	 * @param node the root node of the subtree to balance
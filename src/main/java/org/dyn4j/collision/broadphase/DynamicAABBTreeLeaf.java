@@ -24,6 +24,8 @@
  */
 package org.dyn4j.collision.broadphase;
 
+import java.util.List;
+
 import org.dyn4j.collision.Collidable;
 import org.dyn4j.collision.Fixture;
 
@@ -32,7 +34,7 @@ import org.dyn4j.collision.Fixture;
  * <p>
  * The leaf nodes in a {@link DynamicAABBTree} are the nodes that contain the {@link Fixture} AABBs.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 3.2.0
  * @param <E> the {@link Collidable} type
  * @param <T> the {@link Fixture} type
@@ -47,6 +49,12 @@ final class DynamicAABBTreeLeaf<E extends Collidable<T>, T extends Fixture> exte
 	/** Flag used to determine if a node has been tested before */
 	boolean tested = false;
 	
+	/** The cached pairs this node is a part of; null when the pair cache is disabled */
+	List<DynamicAABBTreePair<E, T>> pairs;
+	
+	/** True if this node's {@link org.dyn4j.geometry.AABB} has changed since the last pair update */
+	boolean moved = false;
+	
 	/**
 	 * Minimal constructor.
 	 * @param collidable the collidable
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Fixture;
+
+/**
+ * Represents a cached pair of overlapping leaf nodes in a {@link DynamicAABBTree}.
+ * <p>
+ * Each pair is referenced by both of its leaf nodes and persists until the
+ * expanded {@link org.dyn4j.geometry.AABB}s of the leaf nodes no longer overlap 
+ * or either leaf node is removed.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+final class DynamicAABBTreePair<E extends Collidable<T>, T extends Fixture> {
+	/** The first leaf node */
+	final DynamicAABBTreeLeaf<E, T> leaf1;
+	
+	/** The second leaf node */
+	final DynamicAABBTreeLeaf<E, T> leaf2;
+	
+	/** The pair reported to the caller */
+	final BroadphasePair<E, T> pair;
+	
+	/** True if the pair began during the last update */
+	boolean begun;
+	
+	/** True if the pair was found during the current update of a moved leaf */
+	boolean found;
+	
+	/**
+	 * Minimal constructor.
+	 * @param leaf1 the first leaf node
+	 * @param leaf2 the second leaf node
+	 */
+	public DynamicAABBTreePair(DynamicAABBTreeLeaf<E, T> leaf1, DynamicAABBTreeLeaf<E, T> leaf2) {
+		this.leaf1 = leaf1;
+		this.leaf2 = leaf2;
+		this.pair = new BroadphasePair<E, T>(leaf1.collidable, leaf1.fixture, leaf2.collidable, leaf2.fixture);
+	}
+	
+	/**
+	 * Returns the leaf node opposite the given leaf node.
+	 * @param leaf the leaf node
+	 * @return {@link DynamicAABBTreeLeaf}
+	 */
+	public DynamicAABBTreeLeaf<E, T> getOther(DynamicAABBTreeLeaf<E, T> leaf) {
+		return this.leaf1 == leaf ? this.leaf2 : this.leaf1;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("DynamicAABBTreePair[Pair=").append(this.pair)
+		  .append("|Begun=").append(this.begun)
+		  .append("]");
+		return sb.toString();
+	}
+}
@@ -0,0 +1,548 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Collisions;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.resources.Messages;
+
+/**
+ * Implementation of a spatial hash grid broad-phase collision detection algorithm.
+ * <p>
+ * This class divides space into square cells of a fixed size and stores each {@link Fixture} in every cell
+ * its expanded {@link AABB} overlaps.  Only the occupied cells are stored, in a hash map, so the grid is 
+ * unbounded.  Pairs are found by testing the {@link Fixture}s that share a cell.
+ * <p>
+ * This algorithm performs best when the {@link Fixture}s are of similar size and the cell size is chosen to 
+ * be a little larger than a typical {@link Fixture}.  Updates for small movements that stay within the same
+ * cells only replace the stored {@link AABB}.  {@link Fixture}s much larger than the cell size occupy many 
+ * cells and should be avoided; use the {@link DynamicAABBTree} for scenes with widely varying sizes.
+ * <p>
+ * The {@link #shift(Vector2)} method rebuilds the cells.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+public class HashGrid<E extends Collidable<T>, T extends Fixture> extends AbstractBroadphaseDetector<E, T> implements BroadphaseDetector<E, T> {
+	/** The default cell size */
+	public static final double DEFAULT_CELL_SIZE = 2.0;
+	
+	/** The cell size */
+	final double cellSize;
+	
+	/** The inverse of the cell size */
+	final double invCellSize;
+	
+	/** Id to proxy map for fast lookup */
+	final Map<BroadphaseKey, HashGridProxy<E, T>> map;
+	
+	/** The occupied cells */
+	final Map<Long, List<HashGridProxy<E, T>>> cells;
+	
+	/**
+	 * Default constructor.
+	 * <p>
+	 * Uses the {@link #DEFAULT_CELL_SIZE}.
+	 */
+	public HashGrid() {
+		this(DEFAULT_CELL_SIZE, BroadphaseDetector.DEFAULT_INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Optional constructor.
+	 * @param cellSize the cell size
+	 * @throws IllegalArgumentException if cellSize is less than or equal to zero
+	 */
+	public HashGrid(double cellSize) {
+		this(cellSize, BroadphaseDetector.DEFAULT_INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Full constructor.
+	 * <p>
+	 * Allows fine tuning of the initial capacity of local storage for faster running times.
+	 * @param cellSize the cell size
+	 * @param initialCapacity the initial capacity of local storage
+	 * @throws IllegalArgumentException if cellSize is less than or equal to zero or initialCapacity is less than zero
+	 */
+	public HashGrid(double cellSize, int initialCapacity) {
+		if (cellSize <= 0.0) throw new IllegalArgumentException(Messages.getString("collision.broadphase.hashGrid.invalidCellSize"));
+		this.cellSize = cellSize;
+		this.invCellSize = 1.0 / cellSize;
+		// 0.75 = 3/4, we can garuantee that the hashmap will not need to be rehashed
+		// if we take capacity / load factor
+		this.map = new LinkedHashMap<BroadphaseKey, HashGridProxy<E, T>>(initialCapacity * 4 / 3 + 1, 0.75f);
+		this.cells = new HashMap<Long, List<HashGridProxy<E, T>>>(initialCapacity * 4 / 3 + 1, 0.75f);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#add(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void add(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		// see if the collidable-fixture has already been added
+		HashGridProxy<E, T> proxy = this.map.get(key);
+		if (proxy != null) {
+			this.update(proxy, collidable, fixture);
+		} else {
+			this.add(key, collidable, fixture);
+		}
+	}
+	
+	/**
+	 * Internal add method.
+	 * <p>
+	 * This method assumes the given arguments are all non-null and that the
+	 * {@link Collidable} {@link Fixture} is not currently in this broad-phase.
+	 * @param key the key for the collidable-fixture pair
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 */
+	void add(BroadphaseKey key, E collidable, T fixture) {
+		Transform tx = collidable.getTransform();
+		AABB aabb = fixture.getShape().createAABB(tx);
+		// expand the aabb
+		aabb.expand(this.expansion);
+		// create the proxy
+		HashGridProxy<E, T> proxy = new HashGridProxy<E, T>(collidable, fixture, aabb);
+		this.map.put(key, proxy);
+		// add it to the cells
+		this.setCells(proxy);
+		this.insert(proxy);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#remove(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean remove(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		// find the proxy in the map
+		HashGridProxy<E, T> proxy = this.map.remove(key);
+		// make sure it was found
+		if (proxy != null) {
+			// remove the proxy from its cells
+			this.remove(proxy);
+			return true;
+		}
+		return false;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#update(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void update(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		// get the proxy from the map
+		HashGridProxy<E, T> proxy = this.map.get(key);
+		// make sure we found it
+		if (proxy != null) {
+			// update the proxy
+			this.update(proxy, collidable, fixture);
+		} else {
+			// add the proxy
+			this.add(key, collidable, fixture);
+		}
+	}
+	
+	/**
+	 * Internal update method.
+	 * <p>
+	 * This method assumes the given arguments are all non-null.
+	 * @param proxy the current proxy
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 */
+	void update(HashGridProxy<E, T> proxy, E collidable, T fixture) {
+		Transform tx = collidable.getTransform();
+		// create the new aabb
+		AABB aabb = fixture.getShape().createAABB(tx);
+		// see if the old aabb contains the new one
+		if (proxy.aabb.contains(aabb)) {
+			// if so, don't do anything
+			return;
+		}
+		// otherwise expand the new aabb
+		aabb.expand(this.expansion);
+		
+		// check if the proxy is still in the same cells
+		if (proxy.minColumn == this.getCell(aabb.getMinX()) &&
+			proxy.minRow == this.getCell(aabb.getMinY()) &&
+			proxy.maxColumn == this.getCell(aabb.getMaxX()) &&
+			proxy.maxRow == this.getCell(aabb.getMaxY())) {
+			// if so, just set the new aabb
+			proxy.aabb = aabb;
+			return;
+		}
+		
+		// otherwise move the proxy to its new cells
+		this.remove(proxy);
+		proxy.aabb = aabb;
+		this.setCells(proxy);
+		this.insert(proxy);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABB(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public AABB getAABB(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		HashGridProxy<E, T> proxy = this.map.get(key);
+		if (proxy != null) {
+			return new AABB(proxy.aabb);
+		}
+		return fixture.getShape().createAABB(collidable.getTransform());
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable)
+	 */
+	@Override
+	public boolean contains(E collidable) {
+		int size = collidable.getFixtureCount();
+		boolean result = true;
+		for (int i = 0; i < size; i++) {
+			T fixture = collidable.getFixture(i);
+			BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+			result &= this.map.containsKey(key);
+		}
+		return result;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean contains(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		return this.map.containsKey(key);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#clear()
+	 */
+	@Override
+	public void clear() {
+		this.map.clear();
+		this.cells.clear();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#size()
+	 */
+	@Override
+	public int size() {
+		return this.map.size();
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphasePair<E, T>> detect(BroadphaseFilter<E, T> filter) {
+		// clear all the tested flags on the proxies
+		int size = this.map.size();
+		Collection<HashGridProxy<E, T>> proxies = this.map.values();
+		for (HashGridProxy<E, T> proxy : proxies) {
+			proxy.tested = false;
+		}
+		
+		// the estimated size of the pair list
+		int eSize = Collisions.getEstimatedCollisionPairs(size);
+		List<BroadphasePair<E, T>> pairs = new ArrayList<BroadphasePair<E, T>>(eSize);
+		
+		// test each proxy against the proxies in its cells
+		for (HashGridProxy<E, T> proxy : proxies) {
+			for (int i = proxy.minColumn; i <= proxy.maxColumn; i++) {
+				for (int j = proxy.minRow; j <= proxy.maxRow; j++) {
+					List<HashGridProxy<E, T>> cell = this.cells.get(getKey(i, j));
+					int cSize = cell.size();
+					for (int k = 0; k < cSize; k++) {
+						HashGridProxy<E, T> other = cell.get(k);
+						// check the tested flag to avoid duplicates and verify
+						// we aren't testing the same collidable against itself
+						if (other.tested || other.collidable == proxy.collidable) continue;
+						// proxies can share more than one cell, so only test
+						// them in the first cell they share
+						if (i != Math.max(proxy.minColumn, other.minColumn) ||
+							j != Math.max(proxy.minRow, other.minRow)) continue;
+						
+						if (proxy.aabb.overlaps(other.aabb) && 
+							filter.isAllowed(proxy.collidable, proxy.fixture, other.collidable, other.fixture)) {
+							pairs.add(new BroadphasePair<E, T>(
+									proxy.collidable,
+									proxy.fixture,
+									other.collidable,
+									other.fixture));
+						}
+					}
+				}
+			}
+			// update the tested flag
+			proxy.tested = true;
+		}
+		
+		return pairs;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.geometry.AABB, org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphaseItem<E, T>> detect(AABB aabb, BroadphaseFilter<E, T> filter) {
+		// get the estimated collision count
+		int eSize = Collisions.getEstimatedCollisionsPerObject();
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(eSize);
+		
+		int minColumn = this.getCell(aabb.getMinX());
+		int minRow = this.getCell(aabb.getMinY());
+		int maxColumn = this.getCell(aabb.getMaxX());
+		int maxRow = this.getCell(aabb.getMaxY());
+		
+		// if the AABB covers more cells than are occupied, then its
+		// faster to just test all the proxies
+		if (getCellCount(minColumn, minRow, maxColumn, maxRow) > this.cells.size()) {
+			for (HashGridProxy<E, T> proxy : this.map.values()) {
+				if (aabb.overlaps(proxy.aabb) && filter.isAllowed(aabb, proxy.collidable, proxy.fixture)) {
+					list.add(new BroadphaseItem<E, T>(proxy.collidable, proxy.fixture));
+				}
+			}
+			return list;
+		}
+		
+		for (int i = minColumn; i <= maxColumn; i++) {
+			for (int j = minRow; j <= maxRow; j++) {
+				List<HashGridProxy<E, T>> cell = this.cells.get(getKey(i, j));
+				if (cell == null) continue;
+				int cSize = cell.size();
+				for (int k = 0; k < cSize; k++) {
+					HashGridProxy<E, T> proxy = cell.get(k);
+					// only test the proxy in the first cell it shares with the aabb
+					if (i != Math.max(minColumn, proxy.minColumn) ||
+						j != Math.max(minRow, proxy.minRow)) continue;
+					
+					if (aabb.overlaps(proxy.aabb) && filter.isAllowed(aabb, proxy.collidable, proxy.fixture)) {
+						list.add(new BroadphaseItem<E, T>(proxy.collidable, proxy.fixture));
+					}
+				}
+			}
+		}
+		
+		return list;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#raycast(org.dyn4j.geometry.Ray, double, org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphaseItem<E, T>> raycast(Ray ray, double length, BroadphaseFilter<E, T> filter) {
+		// check the size of the proxy list
+		if (this.map.size() == 0) {
+			// return an empty list
+			return Collections.emptyList();
+		}
+		
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+		
+		// get the length
+		double l = length;
+		if (length <= 0.0) l = Double.MAX_VALUE;
+		
+		// compute the coordinates
+		double x1 = s.x;
+		double x2 = s.x + d.x * l;
+		double y1 = s.y;
+		double y2 = s.y + d.y * l;
+		
+		// precompute
+		double invDx = 1.0 / d.x;
+		double invDy = 1.0 / d.y;
+		
+		// get the estimated collision count
+		int eSize = Collisions.getEstimatedRaycastCollisions(this.map.size());
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(eSize);
+		
+		int minColumn = this.getCell(Math.min(x1, x2));
+		int minRow = this.getCell(Math.min(y1, y2));
+		int maxColumn = this.getCell(Math.max(x1, x2));
+		int maxRow = this.getCell(Math.max(y1, y2));
+		
+		// if the ray's bounds cover more cells than are occupied (which
+		// is always the case for infinite rays), then its faster to just
+		// test all the proxies
+		if (getCellCount(minColumn, minRow, maxColumn, maxRow) > this.cells.size()) {
+			for (HashGridProxy<E, T> proxy : this.map.values()) {
+				if (this.raycast(s, l, invDx, invDy, proxy.aabb) && filter.isAllowed(ray, length, proxy.collidable, proxy.fixture)) {
+					list.add(new BroadphaseItem<E, T>(proxy.collidable, proxy.fixture));
+				}
+			}
+			return list;
+		}
+		
+		for (int i = minColumn; i <= maxColumn; i++) {
+			for (int j = minRow; j <= maxRow; j++) {
+				List<HashGridProxy<E, T>> cell = this.cells.get(getKey(i, j));
+				if (cell == null) continue;
+				int cSize = cell.size();
+				for (int k = 0; k < cSize; k++) {
+					HashGridProxy<E, T> proxy = cell.get(k);
+					// only test the proxy in the first cell it shares with the ray's bounds
+					if (i != Math.max(minColumn, proxy.minColumn) ||
+						j != Math.max(minRow, proxy.minRow)) continue;
+					
+					if (this.raycast(s, l, invDx, invDy, proxy.aabb) && filter.isAllowed(ray, length, proxy.collidable, proxy.fixture)) {
+						list.add(new BroadphaseItem<E, T>(proxy.collidable, proxy.fixture));
+					}
+				}
+			}
+		}
+		
+		return list;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
+	 */
+	@Override
+	public void shift(Vector2 shift) {
+		// the cells are fixed in space, so all the proxies
+		// need to be reassigned to their new cells
+		this.cells.clear();
+		for (HashGridProxy<E, T> proxy : this.map.values()) {
+			proxy.aabb.translate(shift);
+			this.setCells(proxy);
+			this.insert(proxy);
+		}
+	}
+	
+	/**
+	 * Returns the cell size.
+	 * @return double
+	 */
+	public double getCellSize() {
+		return this.cellSize;
+	}
+	
+	/**
+	 * Returns the cell column or row containing the given x or y value.
+	 * @param value the x or y value
+	 * @return int
+	 */
+	private int getCell(double value) {
+		return (int)Math.floor(value * this.invCellSize);
+	}
+	
+	/**
+	 * Sets the range of cells the given proxy's {@link AABB} overlaps.
+	 * @param proxy the proxy
+	 */
+	private void setCells(HashGridProxy<E, T> proxy) {
+		AABB aabb = proxy.aabb;
+		proxy.minColumn = this.getCell(aabb.getMinX());
+		proxy.minRow = this.getCell(aabb.getMinY());
+		proxy.maxColumn = this.getCell(aabb.getMaxX());
+		proxy.maxRow = this.getCell(aabb.getMaxY());
+	}
+	
+	/**
+	 * Adds the given proxy to the cells in its range.
+	 * @param proxy the proxy
+	 */
+	private void insert(HashGridProxy<E, T> proxy) {
+		for (int i = proxy.minColumn; i <= proxy.maxColumn; i++) {
+			for (int j = proxy.minRow; j <= proxy.maxRow; j++) {
+				Long key = getKey(i, j);
+				List<HashGridProxy<E, T>> cell = this.cells.get(key);
+				if (cell == null) {
+					cell = new ArrayList<HashGridProxy<E, T>>();
+					this.cells.put(key, cell);
+				}
+				cell.add(proxy);
+			}
+		}
+	}
+	
+	/**
+	 * Removes the given proxy from the cells in its range.
+	 * <p>
+	 * Empty cells are removed.
+	 * @param proxy the proxy
+	 */
+	private void remove(HashGridProxy<E, T> proxy) {
+		for (int i = proxy.minColumn; i <= proxy.maxColumn; i++) {
+			for (int j = proxy.minRow; j <= proxy.maxRow; j++) {
+				Long key = getKey(i, j);
+				List<HashGridProxy<E, T>> cell = this.cells.get(key);
+				if (cell != null) {
+					cell.remove(proxy);
+					if (cell.isEmpty()) {
+						this.cells.remove(key);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the key for the given cell.
+	 * @param column the cell column
+	 * @param row the cell row
+	 * @return Long
+	 */
+	private static Long getKey(int column, int row) {
+		return Long.valueOf(((long)column << 32) | (row & 0xFFFFFFFFL));
+	}
+	
+	/**
+	 * Returns the number of cells in the given range.
+	 * @param minColumn the minimum cell column
+	 * @param minRow the minimum cell row
+	 * @param maxColumn the maximum cell column
+	 * @param maxRow the maximum cell row
+	 * @return long
+	 */
+	private static long getCellCount(int minColumn, int minRow, int maxColumn, int maxRow) {
+		return ((long)maxColumn - minColumn + 1) * ((long)maxRow - minRow + 1);
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.geometry.AABB;
+
+/**
+ * Represents a proxy for a {@link Collidable} {@link Fixture} in the {@link HashGrid} {@link BroadphaseDetector}.
+ * <p>
+ * The proxy stores the range of cells its {@link AABB} overlaps.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+final class HashGridProxy<E extends Collidable<T>, T extends Fixture> {
+	/** The collidable */
+	final E collidable;
+	
+	/** The fixture */
+	final T fixture;
+	
+	/** The collidable's expanded aabb */
+	AABB aabb;
+	
+	/** The minimum cell column */
+	int minColumn;
+	
+	/** The minimum cell row */
+	int minRow;
+	
+	/** The maximum cell column */
+	int maxColumn;
+	
+	/** The maximum cell row */
+	int maxRow;
+	
+	/** Whether the proxy has been tested or not */
+	boolean tested;
+	
+	/**
+	 * Full constructor.
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 * @param aabb the aabb
+	 */
+	public HashGridProxy(E collidable, T fixture, AABB aabb) {
+		this.collidable = collidable;
+		this.fixture = fixture;
+		this.aabb = aabb;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("HashGridProxy[Collidable=").append(this.collidable.getId())
+		  .append("|Fixture=").append(this.fixture.getId())
+		  .append("|AABB=").append(this.aabb.toString())
+		  .append("|Cells={").append(this.minColumn).append(", ").append(this.minRow)
+		  .append("}-{").append(this.maxColumn).append(", ").append(this.maxRow)
+		  .append("}|Tested=").append(this.tested)
+		  .append("]");
+		return sb.toString();
+	}
+}
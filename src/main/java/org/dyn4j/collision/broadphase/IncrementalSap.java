@@ -0,0 +1,655 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Collisions;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Implementation of an incremental Sweep and Prune broad-phase collision detection algorithm.
+ * <p>
+ * Unlike the {@link Sap}, this implementation keeps the end points of the expanded {@link AABB}s of all 
+ * the {@link Collidable} {@link Fixture}s in sorted primitive arrays, one for each axis, and keeps the set 
+ * of overlapping pairs between calls to {@link #detect(BroadphaseFilter)}.  Adding, updating, and 
+ * removing only record the new bounds.  Each call to {@link #detect(BroadphaseFilter)} re-sorts the end 
+ * point arrays using insertion sort and every swap of a minimum and maximum end point of two proxies
+ * begins or ends their overlap along that axis.  Since most things move very little from one step to the 
+ * next, the arrays are nearly sorted and the work is close to linear in the number of proxies.
+ * <p>
+ * This algorithm performs best with coherent motion.  Large jumps, like teleporting or adding many 
+ * {@link Collidable}s at once, require many swaps.  Removals are applied on the next call to 
+ * {@link #detect(BroadphaseFilter)} in a single pass over the arrays.
+ * <p>
+ * The order of the returned pairs depends on the order in which they began overlapping. The 
+ * {@link #detect(AABB, BroadphaseFilter)} and {@link #raycast(Ray, double, BroadphaseFilter)} methods
+ * test the bounds of every proxy.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+public class IncrementalSap<E extends Collidable<T>, T extends Fixture> extends AbstractBroadphaseDetector<E, T> implements BroadphaseDetector<E, T> {
+	/** Id to proxy map for fast lookup */
+	final Map<BroadphaseKey, IncrementalSapProxy<E, T>> map;
+	
+	/** The proxy of each id; null for removed proxies */
+	Object[] proxies;
+	
+	/** The number of proxy ids in use, including removed proxies */
+	int proxyCount;
+	
+	/** The number of removed proxies that are still in the end point arrays */
+	int removedCount;
+	
+	/** The minimum x extent of each proxy */
+	double[] minX;
+	
+	/** The minimum y extent of each proxy */
+	double[] minY;
+	
+	/** The maximum x extent of each proxy */
+	double[] maxX;
+	
+	/** The maximum y extent of each proxy */
+	double[] maxY;
+	
+	/** The x-axis end point codes, sorted by value; each code is the proxy id * 2 + 1 if it's a maximum */
+	int[] codesX;
+	
+	/** The y-axis end point codes, sorted by value */
+	int[] codesY;
+	
+	/** The value of each x-axis end point */
+	double[] valuesX;
+	
+	/** The value of each y-axis end point */
+	double[] valuesY;
+	
+	/** The overlapping pairs */
+	final List<IncrementalSapPair<E, T>> pairs;
+	
+	/**
+	 * Default constructor.
+	 */
+	public IncrementalSap() {
+		this(BroadphaseDetector.DEFAULT_INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Optional constructor.
+	 * <p>
+	 * Allows fine tuning of the initial capacity of local storage for faster running times.
+	 * @param initialCapacity the initial capacity of local storage
+	 * @throws IllegalArgumentException if initialCapacity is less than zero
+	 */
+	public IncrementalSap(int initialCapacity) {
+		// 0.75 = 3/4, we can garuantee that the hashmap will not need to be rehashed
+		// if we take capacity / load factor
+		this.map = new LinkedHashMap<BroadphaseKey, IncrementalSapProxy<E, T>>(initialCapacity * 4 / 3 + 1, 0.75f);
+		int capacity = Math.max(initialCapacity, 16);
+		this.proxies = new Object[capacity];
+		this.minX = new double[capacity];
+		this.minY = new double[capacity];
+		this.maxX = new double[capacity];
+		this.maxY = new double[capacity];
+		this.codesX = new int[capacity * 2];
+		this.codesY = new int[capacity * 2];
+		this.valuesX = new double[capacity * 2];
+		this.valuesY = new double[capacity * 2];
+		this.pairs = new ArrayList<IncrementalSapPair<E, T>>(Collisions.getEstimatedCollisionPairs(initialCapacity));
+	}
+	
+	/**
+	 * Returns the proxy with the given id.
+	 * @param id the proxy id
+	 * @return {@link IncrementalSapProxy}; null if removed
+	 */
+	@SuppressWarnings("unchecked")
+	private IncrementalSapProxy<E, T> getProxy(int id) {
+		return (IncrementalSapProxy<E, T>)this.proxies[id];
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#add(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void add(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		IncrementalSapProxy<E, T> proxy = this.map.get(key);
+		if (proxy == null) {
+			this.add(key, collidable, fixture);
+		} else {
+			this.update(proxy, collidable, fixture);
+		}
+	}
+	
+	/**
+	 * Internal add method.
+	 * <p>
+	 * This method assumes the given arguments are all non-null and that the
+	 * {@link Collidable} {@link Fixture} is not currently in this broad-phase.
+	 * <p>
+	 * The end points are placed at the end of the arrays; the next sort moves
+	 * them into place and finds the new pairs.
+	 * @param key the key for the collidable-fixture pair
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 */
+	void add(BroadphaseKey key, E collidable, T fixture) {
+		Transform tx = collidable.getTransform();
+		AABB aabb = fixture.getShape().createAABB(tx);
+		// expand the aabb
+		aabb.expand(this.expansion);
+		
+		// make sure there's room
+		if (this.proxyCount == this.proxies.length) {
+			// reclaim the ids of the removed proxies first
+			this.compact();
+			if (this.proxyCount == this.proxies.length) {
+				this.grow(this.proxyCount * 2);
+			}
+		}
+		
+		int id = this.proxyCount++;
+		IncrementalSapProxy<E, T> proxy = new IncrementalSapProxy<E, T>(collidable, fixture, aabb, id);
+		this.proxies[id] = proxy;
+		this.setBounds(proxy);
+		
+		// append the end points with the minimum first
+		int n = id * 2;
+		this.codesX[n] = id * 2;
+		this.codesX[n + 1] = id * 2 + 1;
+		this.codesY[n] = id * 2;
+		this.codesY[n + 1] = id * 2 + 1;
+		
+		this.map.put(key, proxy);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#remove(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean remove(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		// find the proxy in the map
+		IncrementalSapProxy<E, T> proxy = this.map.remove(key);
+		// make sure it was found
+		if (proxy != null) {
+			// end all its pairs
+			List<IncrementalSapPair<E, T>> pairs = proxy.pairs;
+			for (int i = pairs.size() - 1; i >= 0; i--) {
+				this.removePair(pairs.get(i));
+			}
+			// the end points are removed on the next sort
+			this.proxies[proxy.id] = null;
+			this.removedCount++;
+			return true;
+		}
+		return false;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#update(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void update(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		IncrementalSapProxy<E, T> proxy = this.map.get(key);
+		if (proxy != null) {
+			this.update(proxy, collidable, fixture);
+		} else {
+			this.add(key, collidable, fixture);
+		}
+	}
+	
+	/**
+	 * Internal update method.
+	 * <p>
+	 * This method assumes the given arguments are all non-null.
+	 * @param proxy the current proxy
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 */
+	void update(IncrementalSapProxy<E, T> proxy, E collidable, T fixture) {
+		Transform tx = collidable.getTransform();
+		// create the new aabb
+		AABB aabb = fixture.getShape().createAABB(tx);
+		// see if the old aabb contains the new one
+		if (proxy.aabb.contains(aabb)) {
+			// if so, don't do anything
+			return;
+		}
+		// otherwise expand the new aabb
+		aabb.expand(this.expansion);
+		proxy.aabb = aabb;
+		// the end points are moved on the next sort
+		this.setBounds(proxy);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABB(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public AABB getAABB(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		IncrementalSapProxy<E, T> proxy = this.map.get(key);
+		if (proxy != null) {
+			return proxy.aabb;
+		}
+		return fixture.getShape().createAABB(collidable.getTransform());
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable)
+	 */
+	@Override
+	public boolean contains(E collidable) {
+		int size = collidable.getFixtureCount();
+		boolean result = true;
+		for (int i = 0; i < size; i++) {
+			T fixture = collidable.getFixture(i);
+			BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+			result &= this.map.containsKey(key);
+		}
+		return result;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean contains(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		return this.map.containsKey(key);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#clear()
+	 */
+	@Override
+	public void clear() {
+		this.map.clear();
+		this.pairs.clear();
+		for (int i = 0; i < this.proxyCount; i++) {
+			this.proxies[i] = null;
+		}
+		this.proxyCount = 0;
+		this.removedCount = 0;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#size()
+	 */
+	@Override
+	public int size() {
+		return this.map.size();
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphasePair<E, T>> detect(BroadphaseFilter<E, T> filter) {
+		// bring the end point arrays and the pairs up to date
+		this.compact();
+		this.sort(this.codesX, this.valuesX, this.minX, this.maxX);
+		this.sort(this.codesY, this.valuesY, this.minY, this.maxY);
+		
+		int size = this.pairs.size();
+		if (size == 0) {
+			return Collections.emptyList();
+		}
+		
+		List<BroadphasePair<E, T>> pairs = new ArrayList<BroadphasePair<E, T>>(size);
+		for (int i = 0; i < size; i++) {
+			IncrementalSapPair<E, T> pair = this.pairs.get(i);
+			IncrementalSapProxy<E, T> p1 = pair.proxy1;
+			IncrementalSapProxy<E, T> p2 = pair.proxy2;
+			if (filter.isAllowed(p1.collidable, p1.fixture, p2.collidable, p2.fixture)) {
+				pairs.add(pair.pair);
+			}
+		}
+		return pairs;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.geometry.AABB, org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphaseItem<E, T>> detect(AABB aabb, BroadphaseFilter<E, T> filter) {
+		if (this.map.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(Collisions.getEstimatedCollisionsPerObject());
+		
+		double aMinX = aabb.getMinX();
+		double aMinY = aabb.getMinY();
+		double aMaxX = aabb.getMaxX();
+		double aMaxY = aabb.getMaxY();
+		
+		// the bounds are stored in primitive arrays so testing them
+		// all is faster than sorting first
+		for (int i = 0; i < this.proxyCount; i++) {
+			if (this.minX[i] > aMaxX || this.maxX[i] < aMinX || this.minY[i] > aMaxY || this.maxY[i] < aMinY) continue;
+			IncrementalSapProxy<E, T> proxy = this.getProxy(i);
+			if (proxy != null && filter.isAllowed(aabb, proxy.collidable, proxy.fixture)) {
+				list.add(new BroadphaseItem<E, T>(proxy.collidable, proxy.fixture));
+			}
+		}
+		
+		return list;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#raycast(org.dyn4j.geometry.Ray, double, org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphaseItem<E, T>> raycast(Ray ray, double length, BroadphaseFilter<E, T> filter) {
+		if (this.map.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+		
+		// get the length
+		double l = length;
+		if (length <= 0.0) l = Double.MAX_VALUE;
+		
+		// compute the bounds of the ray
+		double x1 = s.x;
+		double x2 = s.x + d.x * l;
+		double y1 = s.y;
+		double y2 = s.y + d.y * l;
+		double rMinX = Math.min(x1, x2);
+		double rMinY = Math.min(y1, y2);
+		double rMaxX = Math.max(x1, x2);
+		double rMaxY = Math.max(y1, y2);
+		
+		double invDx = 1.0 / d.x;
+		double invDy = 1.0 / d.y;
+		
+		int eSize = Collisions.getEstimatedRaycastCollisions(this.map.size());
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(eSize);
+		
+		for (int i = 0; i < this.proxyCount; i++) {
+			if (this.minX[i] > rMaxX || this.maxX[i] < rMinX || this.minY[i] > rMaxY || this.maxY[i] < rMinY) continue;
+			IncrementalSapProxy<E, T> proxy = this.getProxy(i);
+			if (proxy != null && this.raycast(s, l, invDx, invDy, proxy.aabb)) {
+				if (filter.isAllowed(ray, length, proxy.collidable, proxy.fixture)) {
+					list.add(new BroadphaseItem<E, T>(proxy.collidable, proxy.fixture));
+				}
+			}
+		}
+		
+		return list;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
+	 */
+	@Override
+	public void shift(Vector2 shift) {
+		// the order of the end points doesn't change
+		for (int i = 0; i < this.proxyCount; i++) {
+			IncrementalSapProxy<E, T> proxy = this.getProxy(i);
+			if (proxy != null) {
+				proxy.aabb.translate(shift);
+				this.setBounds(proxy);
+			}
+		}
+	}
+	
+	/**
+	 * Sorts the given end point arrays using insertion sort, beginning and ending 
+	 * pairs as minimum and maximum end points of different proxies pass each other.
+	 * <p>
+	 * Equal values are ordered with minimums before maximums so that touching
+	 * bounds overlap, like {@link AABB#overlaps(AABB)}.
+	 * @param codes the end point codes
+	 * @param values the end point values
+	 * @param min the minimum extent of each proxy along the axis
+	 * @param max the maximum extent of each proxy along the axis
+	 */
+	private void sort(int[] codes, double[] values, double[] min, double[] max) {
+		int n = this.proxyCount * 2;
+		
+		// get the current values of the end points
+		for (int i = 0; i < n; i++) {
+			int code = codes[i];
+			values[i] = (code & 1) == 0 ? min[code >> 1] : max[code >> 1];
+		}
+		
+		for (int i = 1; i < n; i++) {
+			int code = codes[i];
+			double value = values[i];
+			boolean maximum = (code & 1) == 1;
+			int j = i - 1;
+			while (j >= 0) {
+				int other = codes[j];
+				double otherValue = values[j];
+				boolean otherMaximum = (other & 1) == 1;
+				if (otherValue < value || (otherValue == value && (maximum || !otherMaximum))) {
+					// it's in place
+					break;
+				}
+				// the end point moves before the other end point
+				if (!maximum && otherMaximum) {
+					// the minimum passed the other's maximum so they
+					// now overlap along this axis
+					this.beginPair(code >> 1, other >> 1);
+				} else if (maximum && !otherMaximum) {
+					// the maximum passed the other's minimum so they
+					// no longer overlap along this axis
+					this.endPair(code >> 1, other >> 1);
+				}
+				codes[j + 1] = other;
+				values[j + 1] = otherValue;
+				j--;
+			}
+			codes[j + 1] = code;
+			values[j + 1] = value;
+		}
+	}
+	
+	/**
+	 * Adds the pair for the given proxies if their bounds overlap and the pair doesn't exist.
+	 * @param id1 the first proxy id
+	 * @param id2 the second proxy id
+	 */
+	private void beginPair(int id1, int id2) {
+		// the other axis may not be sorted yet so use the bounds
+		if (this.minX[id1] > this.maxX[id2] || this.maxX[id1] < this.minX[id2] ||
+			this.minY[id1] > this.maxY[id2] || this.maxY[id1] < this.minY[id2]) {
+			return;
+		}
+		IncrementalSapProxy<E, T> p1 = this.getProxy(id1);
+		IncrementalSapProxy<E, T> p2 = this.getProxy(id2);
+		// dont pair fixtures of the same collidable
+		if (p1.collidable == p2.collidable) return;
+		if (p1.getPair(p2) != null) return;
+		
+		IncrementalSapPair<E, T> pair = new IncrementalSapPair<E, T>(p1, p2);
+		pair.index = this.pairs.size();
+		this.pairs.add(pair);
+		p1.pairs.add(pair);
+		p2.pairs.add(pair);
+	}
+	
+	/**
+	 * Removes the pair for the given proxies, if it exists.
+	 * @param id1 the first proxy id
+	 * @param id2 the second proxy id
+	 */
+	private void endPair(int id1, int id2) {
+		IncrementalSapProxy<E, T> p1 = this.getProxy(id1);
+		IncrementalSapProxy<E, T> p2 = this.getProxy(id2);
+		IncrementalSapPair<E, T> pair = p1.getPair(p2);
+		if (pair != null) {
+			this.removePair(pair);
+		}
+	}
+	
+	/**
+	 * Removes the given pair from the list of pairs and from both of its proxies.
+	 * @param pair the pair
+	 */
+	private void removePair(IncrementalSapPair<E, T> pair) {
+		// move the last pair into its place
+		int last = this.pairs.size() - 1;
+		IncrementalSapPair<E, T> moved = this.pairs.remove(last);
+		if (moved != pair) {
+			moved.index = pair.index;
+			this.pairs.set(pair.index, moved);
+		}
+		pair.proxy1.pairs.remove(pair);
+		pair.proxy2.pairs.remove(pair);
+	}
+	
+	/**
+	 * Removes the end points of the removed proxies and renumbers the remaining
+	 * proxies so that their ids are contiguous.
+	 * <p>
+	 * The relative order of the remaining end points is kept.
+	 */
+	private void compact() {
+		if (this.removedCount == 0) return;
+		
+		// assign the new ids in the same order
+		int[] ids = new int[this.proxyCount];
+		int count = 0;
+		for (int i = 0; i < this.proxyCount; i++) {
+			IncrementalSapProxy<E, T> proxy = this.getProxy(i);
+			if (proxy != null) {
+				ids[i] = count;
+				proxy.id = count;
+				this.proxies[count] = proxy;
+				this.minX[count] = this.minX[i];
+				this.minY[count] = this.minY[i];
+				this.maxX[count] = this.maxX[i];
+				this.maxY[count] = this.maxY[i];
+				count++;
+			} else {
+				ids[i] = -1;
+			}
+		}
+		for (int i = count; i < this.proxyCount; i++) {
+			this.proxies[i] = null;
+		}
+		
+		// rewrite the end points
+		compact(this.codesX, this.proxyCount * 2, ids);
+		compact(this.codesY, this.proxyCount * 2, ids);
+		
+		this.proxyCount = count;
+		this.removedCount = 0;
+	}
+	
+	/**
+	 * Removes the end points of the removed proxies from the given array and 
+	 * renumbers the remaining end points.
+	 * @param codes the end point codes
+	 * @param n the number of end points
+	 * @param ids the new id of each proxy; -1 if removed
+	 */
+	private static void compact(int[] codes, int n, int[] ids) {
+		int j = 0;
+		for (int i = 0; i < n; i++) {
+			int code = codes[i];
+			int id = ids[code >> 1];
+			if (id >= 0) {
+				codes[j++] = id * 2 + (code & 1);
+			}
+		}
+	}
+	
+	/**
+	 * Copies the bounds of the given proxy's {@link AABB} into the bounds arrays.
+	 * @param proxy the proxy
+	 */
+	private void setBounds(IncrementalSapProxy<E, T> proxy) {
+		int id = proxy.id;
+		AABB aabb = proxy.aabb;
+		this.minX[id] = aabb.getMinX();
+		this.minY[id] = aabb.getMinY();
+		this.maxX[id] = aabb.getMaxX();
+		this.maxY[id] = aabb.getMaxY();
+	}
+	
+	/**
+	 * Grows the storage to the given number of proxies.
+	 * @param capacity the new capacity
+	 */
+	private void grow(int capacity) {
+		Object[] proxies = new Object[capacity];
+		System.arraycopy(this.proxies, 0, proxies, 0, this.proxyCount);
+		this.proxies = proxies;
+		this.minX = copy(this.minX, capacity);
+		this.minY = copy(this.minY, capacity);
+		this.maxX = copy(this.maxX, capacity);
+		this.maxY = copy(this.maxY, capacity);
+		this.codesX = copy(this.codesX, capacity * 2);
+		this.codesY = copy(this.codesY, capacity * 2);
+		this.valuesX = new double[capacity * 2];
+		this.valuesY = new double[capacity * 2];
+	}
+	
+	/**
+	 * Returns a copy of the given array with the given length.
+	 * @param array the array
+	 * @param length the new length
+	 * @return double[]
+	 */
+	private static double[] copy(double[] array, int length) {
+		double[] result = new double[length];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+	
+	/**
+	 * Returns a copy of the given array with the given length.
+	 * @param array the array
+	 * @param length the new length
+	 * @return int[]
+	 */
+	private static int[] copy(int[] array, int length) {
+		int[] result = new int[length];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+}
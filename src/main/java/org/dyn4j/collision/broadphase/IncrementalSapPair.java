@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Fixture;
+
+/**
+ * Represents a pair of overlapping proxies in an {@link IncrementalSap}.
+ * <p>
+ * Each pair is referenced by both of its proxies and persists until the
+ * expanded {@link org.dyn4j.geometry.AABB}s of the proxies no longer overlap 
+ * or either proxy is removed.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+final class IncrementalSapPair<E extends Collidable<T>, T extends Fixture> {
+	/** The first proxy */
+	final IncrementalSapProxy<E, T> proxy1;
+	
+	/** The second proxy */
+	final IncrementalSapProxy<E, T> proxy2;
+	
+	/** The pair reported to the caller */
+	final BroadphasePair<E, T> pair;
+	
+	/** The index of this pair in the list of all pairs */
+	int index;
+	
+	/**
+	 * Minimal constructor.
+	 * @param proxy1 the first proxy
+	 * @param proxy2 the second proxy
+	 */
+	public IncrementalSapPair(IncrementalSapProxy<E, T> proxy1, IncrementalSapProxy<E, T> proxy2) {
+		this.proxy1 = proxy1;
+		this.proxy2 = proxy2;
+		this.pair = new BroadphasePair<E, T>(proxy1.collidable, proxy1.fixture, proxy2.collidable, proxy2.fixture);
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("IncrementalSapPair[Pair=").append(this.pair)
+		  .append("|Index=").append(this.index)
+		  .append("]");
+		return sb.toString();
+	}
+}
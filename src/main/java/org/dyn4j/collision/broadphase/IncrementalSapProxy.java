@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.geometry.AABB;
+
+/**
+ * Represents a proxy for a {@link Collidable} {@link Fixture} in the {@link IncrementalSap} {@link BroadphaseDetector}.
+ * <p>
+ * The proxy's id is its index in the bounds arrays of the {@link IncrementalSap} and is part of the
+ * codes of its end points.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+final class IncrementalSapProxy<E extends Collidable<T>, T extends Fixture> {
+	/** The collidable */
+	final E collidable;
+	
+	/** The fixture */
+	final T fixture;
+	
+	/** The collidable's expanded aabb */
+	AABB aabb;
+	
+	/** The index of the proxy in the bounds arrays */
+	int id;
+	
+	/** The overlapping pairs this proxy is a part of */
+	final List<IncrementalSapPair<E, T>> pairs;
+	
+	/**
+	 * Full constructor.
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 * @param aabb the aabb
+	 * @param id the index of the proxy
+	 */
+	public IncrementalSapProxy(E collidable, T fixture, AABB aabb, int id) {
+		this.collidable = collidable;
+		this.fixture = fixture;
+		this.aabb = aabb;
+		this.id = id;
+		this.pairs = new ArrayList<IncrementalSapPair<E, T>>(2);
+	}
+	
+	/**
+	 * Returns the pair between this proxy and the given proxy or null if they
+	 * are not overlapping.
+	 * @param proxy the other proxy
+	 * @return {@link IncrementalSapPair}
+	 */
+	public IncrementalSapPair<E, T> getPair(IncrementalSapProxy<E, T> proxy) {
+		// search the shorter list
+		List<IncrementalSapPair<E, T>> pairs = this.pairs.size() <= proxy.pairs.size() ? this.pairs : proxy.pairs;
+		int size = pairs.size();
+		for (int i = 0; i < size; i++) {
+			IncrementalSapPair<E, T> pair = pairs.get(i);
+			if ((pair.proxy1 == this && pair.proxy2 == proxy) || (pair.proxy1 == proxy && pair.proxy2 == this)) {
+				return pair;
+			}
+		}
+		return null;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("IncrementalSapProxy[Collidable=").append(this.collidable.getId())
+		  .append("|Fixture=").append(this.fixture.getId())
+		  .append("|AABB=").append(this.aabb.toString())
+		  .append("|Id=").append(this.id)
+		  .append("|PairCount=").append(this.pairs.size())
+		  .append("]");
+		return sb.toString();
+	}
+}
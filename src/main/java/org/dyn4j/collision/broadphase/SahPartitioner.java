@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+/**
+ * Helper class that partitions ranges of items for the top down construction of bounding volume 
+ * hierarchies using a binned surface area heuristic (using the perimeter in 2D).
+ * <p>
+ * The items are given by parallel arrays of their bounds and centroids; partitioning reorders all of
+ * them together.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+final class SahPartitioner {
+	/** The number of bins used to find the best split */
+	private static final int BIN_COUNT = 16;
+	
+	/** The depth after which ranges are split at the median to bound the depth of the tree */
+	private static final int MAXIMUM_HEURISTIC_DEPTH = 32;
+	
+	/** The items */
+	private final Object[] items;
+	
+	/** The minimum x extent of each item */
+	private final double[] minX;
+	
+	/** The minimum y extent of each item */
+	private final double[] minY;
+	
+	/** The maximum x extent of each item */
+	private final double[] maxX;
+	
+	/** The maximum y extent of each item */
+	private final double[] maxY;
+	
+	/** The centroid x of each item */
+	private final double[] centerX;
+	
+	/** The centroid y of each item */
+	private final double[] centerY;
+	
+	/**
+	 * Full constructor.
+	 * <p>
+	 * The centroids are computed from the bounds of the first count items.
+	 * @param items the items
+	 * @param minX the minimum x extent of each item
+	 * @param minY the minimum y extent of each item
+	 * @param maxX the maximum x extent of each item
+	 * @param maxY the maximum y extent of each item
+	 * @param count the number of items
+	 */
+	public SahPartitioner(Object[] items, double[] minX, double[] minY, double[] maxX, double[] maxY, int count) {
+		this.items = items;
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.centerX = new double[count];
+		this.centerY = new double[count];
+		for (int i = 0; i < count; i++) {
+			this.centerX[i] = (minX[i] + maxX[i]) * 0.5;
+			this.centerY[i] = (minY[i] + maxY[i]) * 0.5;
+		}
+	}
+	
+	/**
+	 * Partitions the given range of items into two non-empty ranges and returns the index of the 
+	 * first item of the second range.
+	 * <p>
+	 * The range is split along the axis with the largest spread of centroids at the binned split
+	 * with the lowest cost.  At or past level {@link #MAXIMUM_HEURISTIC_DEPTH}, the range is
+	 * split at the median instead since the heuristic can produce very unbalanced trees for some
+	 * distributions.
+	 * @param begin the index of the first item
+	 * @param end the index after the last item; at least two more than begin
+	 * @param level the level of the node for the range; the root is level 1
+	 * @return int
+	 */
+	public int partition(int begin, int end, int level) {
+		double cMinX = Double.MAX_VALUE, cMinY = Double.MAX_VALUE;
+		double cMaxX = -Double.MAX_VALUE, cMaxY = -Double.MAX_VALUE;
+		for (int i = begin; i < end; i++) {
+			cMinX = Math.min(cMinX, this.centerX[i]);
+			cMinY = Math.min(cMinY, this.centerY[i]);
+			cMaxX = Math.max(cMaxX, this.centerX[i]);
+			cMaxY = Math.max(cMaxY, this.centerY[i]);
+		}
+		
+		boolean xAxis = cMaxX - cMinX >= cMaxY - cMinY;
+		double[] centers = xAxis ? this.centerX : this.centerY;
+		double cMin = xAxis ? cMinX : cMinY;
+		double extent = xAxis ? cMaxX - cMinX : cMaxY - cMinY;
+		
+		if (extent <= 0.0) {
+			// all the centroids are the same, so any split is as good as another
+			return (begin + end) / 2;
+		}
+		if (level >= MAXIMUM_HEURISTIC_DEPTH) {
+			int mid = (begin + end) / 2;
+			this.select(begin, end, mid, centers);
+			return mid;
+		}
+		return this.split(begin, end, centers, cMin, extent);
+	}
+	
+	/**
+	 * Partitions the given range of items at the binned split with the lowest
+	 * surface area heuristic cost.
+	 * @param begin the index of the first item
+	 * @param end the index after the last item
+	 * @param centers the centroids along the split axis
+	 * @param cMin the minimum centroid along the split axis
+	 * @param extent the spread of the centroids along the split axis; greater than zero
+	 * @return int the index of the first item of the right partition
+	 */
+	private int split(int begin, int end, double[] centers, double cMin, double extent) {
+		int[] binCount = new int[BIN_COUNT];
+		double[] binMinX = new double[BIN_COUNT];
+		double[] binMinY = new double[BIN_COUNT];
+		double[] binMaxX = new double[BIN_COUNT];
+		double[] binMaxY = new double[BIN_COUNT];
+		for (int b = 0; b < BIN_COUNT; b++) {
+			binMinX[b] = Double.MAX_VALUE;
+			binMinY[b] = Double.MAX_VALUE;
+			binMaxX[b] = -Double.MAX_VALUE;
+			binMaxY[b] = -Double.MAX_VALUE;
+		}
+		
+		double scale = BIN_COUNT / extent;
+		for (int i = begin; i < end; i++) {
+			int b = bin(centers[i], cMin, scale);
+			binCount[b]++;
+			binMinX[b] = Math.min(binMinX[b], this.minX[i]);
+			binMinY[b] = Math.min(binMinY[b], this.minY[i]);
+			binMaxX[b] = Math.max(binMaxX[b], this.maxX[i]);
+			binMaxY[b] = Math.max(binMaxY[b], this.maxY[i]);
+		}
+		
+		// sweep from the right to get the cost of the right side of each split
+		double[] rightCost = new double[BIN_COUNT];
+		double rMinX = Double.MAX_VALUE, rMinY = Double.MAX_VALUE;
+		double rMaxX = -Double.MAX_VALUE, rMaxY = -Double.MAX_VALUE;
+		int rCount = 0;
+		for (int b = BIN_COUNT - 1; b > 0; b--) {
+			if (binCount[b] > 0) {
+				rMinX = Math.min(rMinX, binMinX[b]);
+				rMinY = Math.min(rMinY, binMinY[b]);
+				rMaxX = Math.max(rMaxX, binMaxX[b]);
+				rMaxY = Math.max(rMaxY, binMaxY[b]);
+				rCount += binCount[b];
+			}
+			rightCost[b] = rCount == 0 ? 0.0 : rCount * (rMaxX - rMinX + rMaxY - rMinY);
+		}
+		
+		// sweep from the left to find the split with the lowest cost; the
+		// first and last bins always have centroids so both sides are not empty
+		double lMinX = Double.MAX_VALUE, lMinY = Double.MAX_VALUE;
+		double lMaxX = -Double.MAX_VALUE, lMaxY = -Double.MAX_VALUE;
+		int lCount = 0;
+		int best = 1;
+		double bestCost = Double.MAX_VALUE;
+		for (int b = 1; b < BIN_COUNT; b++) {
+			if (binCount[b - 1] > 0) {
+				lMinX = Math.min(lMinX, binMinX[b - 1]);
+				lMinY = Math.min(lMinY, binMinY[b - 1]);
+				lMaxX = Math.max(lMaxX, binMaxX[b - 1]);
+				lMaxY = Math.max(lMaxY, binMaxY[b - 1]);
+				lCount += binCount[b - 1];
+			}
+			double cost = lCount * (lMaxX - lMinX + lMaxY - lMinY) + rightCost[b];
+			if (cost < bestCost) {
+				bestCost = cost;
+				best = b;
+			}
+		}
+		
+		// partition the items so that those in the bins left of the split are first
+		int i = begin;
+		int j = end - 1;
+		while (i <= j) {
+			if (bin(centers[i], cMin, scale) < best) {
+				i++;
+			} else {
+				this.swap(i, j);
+				j--;
+			}
+		}
+		return i;
+	}
+	
+	/**
+	 * Returns the bin of the given centroid.
+	 * @param center the centroid
+	 * @param cMin the minimum centroid
+	 * @param scale the number of bins divided by the spread of the centroids
+	 * @return int
+	 */
+	private static int bin(double center, double cMin, double scale) {
+		int b = (int)((center - cMin) * scale);
+		return b < BIN_COUNT ? b : BIN_COUNT - 1;
+	}
+	
+	/**
+	 * Reorders the given range of items so that the item at index k has the k-th smallest 
+	 * centroid, those before it have smaller or equal centroids and those after it have greater 
+	 * or equal centroids.
+	 * @param begin the index of the first item
+	 * @param end the index after the last item
+	 * @param k the index to select
+	 * @param centers the centroids along the split axis
+	 */
+	private void select(int begin, int end, int k, double[] centers) {
+		int lo = begin;
+		int hi = end - 1;
+		while (lo < hi) {
+			double pivot = centers[(lo + hi) >>> 1];
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (centers[i] < pivot) i++;
+				while (centers[j] > pivot) j--;
+				if (i <= j) {
+					this.swap(i, j);
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				hi = j;
+			} else if (k >= i) {
+				lo = i;
+			} else {
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Swaps the items at the given indices.
+	 * @param i the first index
+	 * @param j the second index
+	 */
+	private void swap(int i, int j) {
+		Object item = this.items[i];
+		this.items[i] = this.items[j];
+		this.items[j] = item;
+		swap(this.minX, i, j);
+		swap(this.minY, i, j);
+		swap(this.maxX, i, j);
+		swap(this.maxY, i, j);
+		swap(this.centerX, i, j);
+		swap(this.centerY, i, j);
+	}
+	
+	/**
+	 * Swaps the values at the given indices.
+	 * @param array the array
+	 * @param i the first index
+	 * @param j the second index
+	 */
+	private static void swap(double[] array, int i, int j) {
+		double t = array[i];
+		array[i] = array[j];
+		array[j] = t;
+	}
+}
@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Represents an immutable bounding volume hierarchy of the static {@link Fixture}s of the 
+ * {@link StaticDynamicBroadphase}.
+ * <p>
+ * The tree is built all at once with the {@link SahPartitioner} and stored in primitive arrays in depth
+ * first order.  The left child of a node is the next node and the index of the right child is stored.
+ * Leaves refer to a range of the proxies, which are reordered during the build so that the proxies of
+ * each leaf are contiguous.
+ * <p>
+ * The tree must be rebuilt to add, remove or move proxies.  The queries don't modify the tree and can 
+ * be called from multiple threads.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+final class StaticAABBTree<E extends Collidable<T>, T extends Fixture> {
+	/** The maximum number of proxies in a leaf */
+	private static final int LEAF_SIZE = 4;
+	
+	/** The number of nodes */
+	int nodeCount;
+	
+	/** The number of levels of the tree */
+	int depth;
+	
+	/** The minimum x extent of each node */
+	double[] nodeMinX;
+	
+	/** The minimum y extent of each node */
+	double[] nodeMinY;
+	
+	/** The maximum x extent of each node */
+	double[] nodeMaxX;
+	
+	/** The maximum y extent of each node */
+	double[] nodeMaxY;
+	
+	/** The index of the right child of each branch node */
+	int[] right;
+	
+	/** The index of the first proxy of each leaf node */
+	int[] start;
+	
+	/** The number of proxies of each leaf node; zero for branch nodes */
+	int[] count;
+	
+	/** The number of proxies */
+	int proxyCount;
+	
+	/** The proxies in leaf order */
+	Object[] proxies;
+	
+	/** The minimum x extent of each proxy */
+	double[] minX;
+	
+	/** The minimum y extent of each proxy */
+	double[] minY;
+	
+	/** The maximum x extent of each proxy */
+	double[] maxX;
+	
+	/** The maximum y extent of each proxy */
+	double[] maxY;
+	
+	/**
+	 * Default constructor.
+	 */
+	public StaticAABBTree() {
+		this.clear();
+	}
+	
+	/**
+	 * Returns the proxy at the given index.
+	 * @param index the index
+	 * @return {@link StaticDynamicProxy}
+	 */
+	@SuppressWarnings("unchecked")
+	StaticDynamicProxy<E, T> getProxy(int index) {
+		return (StaticDynamicProxy<E, T>)this.proxies[index];
+	}
+	
+	/**
+	 * Removes all the proxies and releases the storage.
+	 */
+	void clear() {
+		this.nodeCount = 0;
+		this.depth = 0;
+		this.proxyCount = 0;
+		this.nodeMinX = new double[0];
+		this.nodeMinY = new double[0];
+		this.nodeMaxX = new double[0];
+		this.nodeMaxY = new double[0];
+		this.right = new int[0];
+		this.start = new int[0];
+		this.count = new int[0];
+		this.proxies = new Object[0];
+		this.minX = new double[0];
+		this.minY = new double[0];
+		this.maxX = new double[0];
+		this.maxY = new double[0];
+	}
+	
+	/**
+	 * Rebuilds the tree from the given proxies.
+	 * <p>
+	 * The storage is reused when it's large enough.
+	 * @param proxies the proxies
+	 */
+	void build(Collection<StaticDynamicProxy<E, T>> proxies) {
+		int n = proxies.size();
+		
+		// make sure there's room
+		if (this.proxies.length < n) {
+			this.proxies = new Object[n];
+			this.minX = new double[n];
+			this.minY = new double[n];
+			this.maxX = new double[n];
+			this.maxY = new double[n];
+			// a tree with n leaves has at most 2n - 1 nodes
+			int nodes = n * 2;
+			this.nodeMinX = new double[nodes];
+			this.nodeMinY = new double[nodes];
+			this.nodeMaxX = new double[nodes];
+			this.nodeMaxY = new double[nodes];
+			this.right = new int[nodes];
+			this.start = new int[nodes];
+			this.count = new int[nodes];
+		} else {
+			// release the old proxies
+			for (int i = n; i < this.proxyCount; i++) {
+				this.proxies[i] = null;
+			}
+		}
+		
+		int i = 0;
+		for (StaticDynamicProxy<E, T> proxy : proxies) {
+			AABB aabb = proxy.aabb;
+			this.proxies[i] = proxy;
+			this.minX[i] = aabb.getMinX();
+			this.minY[i] = aabb.getMinY();
+			this.maxX[i] = aabb.getMaxX();
+			this.maxY[i] = aabb.getMaxY();
+			i++;
+		}
+		
+		this.proxyCount = n;
+		this.nodeCount = 0;
+		this.depth = 0;
+		if (n > 0) {
+			SahPartitioner partitioner = new SahPartitioner(this.proxies, this.minX, this.minY, this.maxX, this.maxY, n);
+			this.build(partitioner, 0, n, 1);
+		}
+	}
+	
+	/**
+	 * Builds the sub tree of the given range of proxies.
+	 * @param partitioner the partitioner for the proxies
+	 * @param begin the index of the first proxy
+	 * @param end the index after the last proxy
+	 * @param level the level of the new node; the root is level 1
+	 * @return int the index of the new node
+	 */
+	private int build(SahPartitioner partitioner, int begin, int end, int level) {
+		int node = this.nodeCount++;
+		if (level > this.depth) {
+			this.depth = level;
+		}
+		
+		// compute the bounds of the proxies
+		double bMinX = Double.MAX_VALUE, bMinY = Double.MAX_VALUE;
+		double bMaxX = -Double.MAX_VALUE, bMaxY = -Double.MAX_VALUE;
+		for (int i = begin; i < end; i++) {
+			bMinX = Math.min(bMinX, this.minX[i]);
+			bMinY = Math.min(bMinY, this.minY[i]);
+			bMaxX = Math.max(bMaxX, this.maxX[i]);
+			bMaxY = Math.max(bMaxY, this.maxY[i]);
+		}
+		this.nodeMinX[node] = bMinX;
+		this.nodeMinY[node] = bMinY;
+		this.nodeMaxX[node] = bMaxX;
+		this.nodeMaxY[node] = bMaxY;
+		
+		int n = end - begin;
+		if (n <= LEAF_SIZE) {
+			this.start[node] = begin;
+			this.count[node] = n;
+			return node;
+		}
+		
+		int mid = partitioner.partition(begin, end, level);
+		this.count[node] = 0;
+		this.build(partitioner, begin, mid, level + 1);
+		this.right[node] = this.build(partitioner, mid, end, level + 1);
+		return node;
+	}
+	
+	/**
+	 * Adds the proxies whose bounds overlap the given bounds to the given list.
+	 * @param aMinX the minimum x extent
+	 * @param aMinY the minimum y extent
+	 * @param aMaxX the maximum x extent
+	 * @param aMaxY the maximum y extent
+	 * @param results the list to add the proxies to
+	 */
+	void detect(double aMinX, double aMinY, double aMaxX, double aMaxY, List<StaticDynamicProxy<E, T>> results) {
+		if (this.nodeCount == 0) return;
+		
+		int[] stack = new int[this.depth];
+		int top = 0;
+		int node = 0;
+		while (true) {
+			if (!(this.nodeMinX[node] > aMaxX || this.nodeMaxX[node] < aMinX ||
+				  this.nodeMinY[node] > aMaxY || this.nodeMaxY[node] < aMinY)) {
+				int n = this.count[node];
+				if (n == 0) {
+					// visit the left child now and the right child later
+					stack[top++] = this.right[node];
+					node++;
+					continue;
+				}
+				int end = this.start[node] + n;
+				for (int i = this.start[node]; i < end; i++) {
+					if (!(this.minX[i] > aMaxX || this.maxX[i] < aMinX ||
+						  this.minY[i] > aMaxY || this.maxY[i] < aMinY)) {
+						results.add(this.getProxy(i));
+					}
+				}
+			}
+			if (top == 0) return;
+			node = stack[--top];
+		}
+	}
+	
+	/**
+	 * Adds the proxies whose bounds are intersected by the given ray to the given list.
+	 * @param start the start of the ray
+	 * @param length the length of the ray; {@link Double#MAX_VALUE} for infinite length
+	 * @param invDx the inverse of the x component of the ray direction
+	 * @param invDy the inverse of the y component of the ray direction
+	 * @param results the list to add the proxies to
+	 */
+	void raycast(Vector2 start, double length, double invDx, double invDy, List<StaticDynamicProxy<E, T>> results) {
+		if (this.nodeCount == 0) return;
+		
+		int[] stack = new int[this.depth];
+		int top = 0;
+		int node = 0;
+		while (true) {
+			if (raycast(start, length, invDx, invDy, this.nodeMinX[node], this.nodeMinY[node], this.nodeMaxX[node], this.nodeMaxY[node])) {
+				int n = this.count[node];
+				if (n == 0) {
+					stack[top++] = this.right[node];
+					node++;
+					continue;
+				}
+				int end = this.start[node] + n;
+				for (int i = this.start[node]; i < end; i++) {
+					if (raycast(start, length, invDx, invDy, this.minX[i], this.minY[i], this.maxX[i], this.maxY[i])) {
+						results.add(this.getProxy(i));
+					}
+				}
+			}
+			if (top == 0) return;
+			node = stack[--top];
+		}
+	}
+	
+	/**
+	 * Passes the proxies whose bounds are intersected by the given ray to the given callback,
+	 * clipping the ray as the callback requests.
+	 * <p>
+	 * The nodes are visited from front to back so that the nodes beyond the clipped ray
+	 * are skipped as early as possible.
+	 * @param ray the ray
+	 * @param length the length of the ray; {@link Double#MAX_VALUE} for infinite length
+	 * @param callback the callback
+	 * @return double the final length of the ray; negative if the callback stopped the raycast
+	 */
+	double raycast(Ray ray, double length, BroadphaseRaycastCallback<E, T> callback) {
+		if (this.nodeCount == 0) return length;
+		
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+		double invDx = 1.0 / d.x;
+		double invDy = 1.0 / d.y;
+		double l = length;
+		
+		double t = raycastEntry(s, l, invDx, invDy, this.nodeMinX[0], this.nodeMinY[0], this.nodeMaxX[0], this.nodeMaxY[0]);
+		if (t < 0.0) return l;
+		
+		// the stack of the farther nodes to visit and the distances where the ray enters them
+		int[] stack = new int[this.depth];
+		double[] entries = new double[this.depth];
+		int top = 0;
+		int node = 0;
+		while (true) {
+			int n = this.count[node];
+			if (n == 0) {
+				// visit the nearer child first
+				int near = node + 1;
+				int far = this.right[node];
+				double tn = raycastEntry(s, l, invDx, invDy, this.nodeMinX[near], this.nodeMinY[near], this.nodeMaxX[near], this.nodeMaxY[near]);
+				double tf = raycastEntry(s, l, invDx, invDy, this.nodeMinX[far], this.nodeMinY[far], this.nodeMaxX[far], this.nodeMaxY[far]);
+				if (tf >= 0.0 && (tn < 0.0 || tf < tn)) {
+					int temp = near;
+					near = far;
+					far = temp;
+					double tt = tn;
+					tn = tf;
+					tf = tt;
+				}
+				if (tn >= 0.0) {
+					if (tf >= 0.0) {
+						stack[top] = far;
+						entries[top++] = tf;
+					}
+					node = near;
+					continue;
+				}
+			} else {
+				int end = this.start[node] + n;
+				for (int i = this.start[node]; i < end; i++) {
+					if (raycast(s, l, invDx, invDy, this.minX[i], this.minY[i], this.maxX[i], this.maxY[i])) {
+						StaticDynamicProxy<E, T> proxy = this.getProxy(i);
+						double nl = callback.found(ray, l, proxy.collidable, proxy.fixture);
+						// check if the raycast should stop
+						if (nl < 0.0) return nl;
+						// check if the ray was clipped
+						if (nl < l) l = nl;
+					}
+				}
+			}
+			// skip the nodes beyond the clipped ray
+			do {
+				if (top == 0) return l;
+				node = stack[--top];
+			} while (entries[top] > l);
+		}
+	}
+	
+	/**
+	 * Returns true if the given ray intersects the given bounds.
+	 * @param start the start of the ray
+	 * @param length the length of the ray
+	 * @param invDx the inverse of the x component of the ray direction
+	 * @param invDy the inverse of the y component of the ray direction
+	 * @param minX the minimum x extent
+	 * @param minY the minimum y extent
+	 * @param maxX the maximum x extent
+	 * @param maxY the maximum y extent
+	 * @return boolean
+	 * @see AbstractBroadphaseDetector#raycast(Vector2, double, double, double, AABB)
+	 */
+	private static boolean raycast(Vector2 start, double length, double invDx, double invDy, double minX, double minY, double maxX, double maxY) {
+		double tx1 = (minX - start.x) * invDx;
+		double tx2 = (maxX - start.x) * invDx;
+
+		double tmin = Math.min(tx1, tx2);
+		double tmax = Math.max(tx1, tx2);
+
+		double ty1 = (minY - start.y) * invDy;
+		double ty2 = (maxY - start.y) * invDy;
+
+		tmin = Math.max(tmin, Math.min(ty1, ty2));
+		tmax = Math.min(tmax, Math.max(ty1, ty2));
+		// the ray is pointing in the opposite direction
+		if (tmax < 0) return false;
+		// consider the ray length
+		if (tmin > length) return false;
+		// along the ray, tmax should be larger than tmin
+		return tmax >= tmin;
+	}
+	
+	/**
+	 * Returns the distance along the given ray where it enters the given bounds or -1
+	 * if the ray and the bounds do not intersect.
+	 * @param start the start of the ray
+	 * @param length the length of the ray
+	 * @param invDx the inverse of the x component of the ray direction
+	 * @param invDy the inverse of the y component of the ray direction
+	 * @param minX the minimum x extent
+	 * @param minY the minimum y extent
+	 * @param maxX the maximum x extent
+	 * @param maxY the maximum y extent
+	 * @return double
+	 * @see AbstractBroadphaseDetector#raycastEntry(Vector2, double, double, double, AABB)
+	 */
+	private static double raycastEntry(Vector2 start, double length, double invDx, double invDy, double minX, double minY, double maxX, double maxY) {
+		double tx1 = (minX - start.x) * invDx;
+		double tx2 = (maxX - start.x) * invDx;
+
+		double tmin = Math.min(tx1, tx2);
+		double tmax = Math.max(tx1, tx2);
+
+		double ty1 = (minY - start.y) * invDy;
+		double ty2 = (maxY - start.y) * invDy;
+
+		tmin = Math.max(tmin, Math.min(ty1, ty2));
+		tmax = Math.min(tmax, Math.max(ty1, ty2));
+		// the ray is pointing in the opposite direction
+		if (tmax < 0) return -1.0;
+		// consider the ray length
+		if (tmin > length) return -1.0;
+		// along the ray, tmax should be larger than tmin
+		if (!(tmax >= tmin)) return -1.0;
+		return Math.max(tmin, 0.0);
+	}
+	
+	/**
+	 * Translates the bounds of the nodes and proxies by the given shift.
+	 * <p>
+	 * The proxies' {@link AABB}s are not translated.
+	 * @param shift the shift
+	 */
+	void shift(Vector2 shift) {
+		for (int i = 0; i < this.nodeCount; i++) {
+			this.nodeMinX[i] += shift.x;
+			this.nodeMinY[i] += shift.y;
+			this.nodeMaxX[i] += shift.x;
+			this.nodeMaxY[i] += shift.y;
+		}
+		for (int i = 0; i < this.proxyCount; i++) {
+			this.minX[i] += shift.x;
+			this.minY[i] += shift.y;
+			this.maxX[i] += shift.x;
+			this.maxY[i] += shift.y;
+		}
+	}
+}
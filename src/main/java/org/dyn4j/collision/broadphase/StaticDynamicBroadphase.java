@@ -0,0 +1,445 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Collisions;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.resources.Messages;
+
+/**
+ * Implementation of a broad-phase collision detection algorithm that keeps the static {@link Fixture}s
+ * apart from the dynamic ones.
+ * <p>
+ * The given {@link StaticClassifier} decides where each {@link Collidable} {@link Fixture} goes each time
+ * it's added or updated.  The dynamic {@link Fixture}s are kept in a {@link DynamicAABBTree}.  The static
+ * {@link Fixture}s are kept in a tree that is built all at once using the surface area heuristic.  The 
+ * static tree is only rebuilt, on the next query, after static {@link Fixture}s have been added, removed,
+ * moved or reclassified.
+ * <p>
+ * The {@link #detect(BroadphaseFilter)} method tests the dynamic {@link Fixture}s against each other and
+ * against the static tree.  Pairs of static {@link Fixture}s are never tested or returned.  This makes this
+ * algorithm a good choice for scenes with many more static {@link Fixture}s than dynamic ones, like large 
+ * levels.
+ * <p>
+ * The {@link AABB}s of the static {@link Fixture}s are not expanded.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+public class StaticDynamicBroadphase<E extends Collidable<T>, T extends Fixture> extends AbstractBroadphaseDetector<E, T> implements BroadphaseDetector<E, T> {
+	/** The classifier of the static fixtures */
+	final StaticClassifier<E, T> classifier;
+	
+	/** The dynamic fixtures */
+	final DynamicAABBTree<E, T> dynamicTree;
+	
+	/** Id to proxy map of the dynamic fixtures */
+	final Map<BroadphaseKey, StaticDynamicProxy<E, T>> dynamicMap;
+	
+	/** Id to proxy map of the static fixtures */
+	final Map<BroadphaseKey, StaticDynamicProxy<E, T>> staticMap;
+	
+	/** The static fixtures */
+	final StaticAABBTree<E, T> staticTree;
+	
+	/** True if the static tree must be rebuilt before its next use */
+	volatile boolean staticTreeInvalid;
+	
+	/**
+	 * Minimal constructor.
+	 * @param classifier the classifier of the static {@link Fixture}s
+	 * @throws NullPointerException if classifier is null
+	 */
+	public StaticDynamicBroadphase(StaticClassifier<E, T> classifier) {
+		this(classifier, BroadphaseDetector.DEFAULT_INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Full constructor.
+	 * <p>
+	 * Allows fine tuning of the initial capacity of local storage for faster running times.
+	 * @param classifier the classifier of the static {@link Fixture}s
+	 * @param initialCapacity the initial capacity of local storage
+	 * @throws NullPointerException if classifier is null
+	 * @throws IllegalArgumentException if initialCapacity is less than zero
+	 */
+	public StaticDynamicBroadphase(StaticClassifier<E, T> classifier, int initialCapacity) {
+		if (classifier == null) throw new NullPointerException(Messages.getString("collision.broadphase.staticDynamic.nullClassifier"));
+		this.classifier = classifier;
+		this.dynamicTree = new DynamicAABBTree<E, T>(initialCapacity);
+		// 0.75 = 3/4, we can garuantee that the hashmap will not need to be rehashed
+		// if we take capacity / load factor
+		this.dynamicMap = new LinkedHashMap<BroadphaseKey, StaticDynamicProxy<E, T>>(initialCapacity * 4 / 3 + 1, 0.75f);
+		this.staticMap = new LinkedHashMap<BroadphaseKey, StaticDynamicProxy<E, T>>(initialCapacity * 4 / 3 + 1, 0.75f);
+		this.staticTree = new StaticAABBTree<E, T>();
+		this.dynamicTree.setAABBExpansion(this.expansion);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#add(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void add(E collidable, T fixture) {
+		this.update(collidable, fixture);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#remove(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean remove(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		if (this.staticMap.remove(key) != null) {
+			this.staticTreeInvalid = true;
+			return true;
+		}
+		if (this.dynamicMap.remove(key) != null) {
+			this.dynamicTree.remove(collidable, fixture);
+			return true;
+		}
+		return false;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#update(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void update(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		if (this.classifier.isStatic(collidable, fixture)) {
+			AABB aabb = fixture.getShape().createAABB(collidable.getTransform());
+			StaticDynamicProxy<E, T> proxy = this.staticMap.get(key);
+			if (proxy == null) {
+				// it may have been dynamic before
+				if (this.dynamicMap.remove(key) != null) {
+					this.dynamicTree.remove(collidable, fixture);
+				}
+				this.staticMap.put(key, new StaticDynamicProxy<E, T>(collidable, fixture, aabb));
+				this.staticTreeInvalid = true;
+			} else if (!same(proxy.aabb, aabb)) {
+				proxy.aabb = aabb;
+				this.staticTreeInvalid = true;
+			}
+		} else {
+			// it may have been static before
+			if (this.staticMap.remove(key) != null) {
+				this.staticTreeInvalid = true;
+			}
+			if (!this.dynamicMap.containsKey(key)) {
+				this.dynamicMap.put(key, new StaticDynamicProxy<E, T>(collidable, fixture, null));
+			}
+			this.dynamicTree.update(collidable, fixture);
+		}
+	}
+	
+	/**
+	 * Returns true if the given {@link AABB}s have the same extents.
+	 * @param aabb1 the first {@link AABB}
+	 * @param aabb2 the second {@link AABB}
+	 * @return boolean
+	 */
+	private static boolean same(AABB aabb1, AABB aabb2) {
+		return aabb1.getMinX() == aabb2.getMinX() &&
+			   aabb1.getMinY() == aabb2.getMinY() &&
+			   aabb1.getMaxX() == aabb2.getMaxX() &&
+			   aabb1.getMaxY() == aabb2.getMaxY();
+	}
+	
+	/**
+	 * Rebuilds the static tree if static {@link Fixture}s have changed since it was last built.
+	 */
+	private void validate() {
+		if (this.staticTreeInvalid) {
+			// queries may be performed from multiple threads
+			synchronized (this.staticTree) {
+				if (this.staticTreeInvalid) {
+					this.staticTree.build(this.staticMap.values());
+					this.staticTreeInvalid = false;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns true if the given {@link Collidable} {@link Fixture} is in the static tree.
+	 * @param collidable the {@link Collidable}
+	 * @param fixture the {@link Collidable}s {@link Fixture}
+	 * @return boolean
+	 */
+	public boolean isStatic(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		return this.staticMap.containsKey(key);
+	}
+	
+	/**
+	 * Returns the number of static {@link Fixture}s.
+	 * @return int
+	 */
+	public int getStaticCount() {
+		return this.staticMap.size();
+	}
+	
+	/**
+	 * Returns the number of dynamic {@link Fixture}s.
+	 * @return int
+	 */
+	public int getDynamicCount() {
+		return this.dynamicMap.size();
+	}
+	
+	/**
+	 * Returns the {@link StaticClassifier} used by this broad-phase.
+	 * @return {@link StaticClassifier}
+	 */
+	public StaticClassifier<E, T> getStaticClassifier() {
+		return this.classifier;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABB(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public AABB getAABB(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		StaticDynamicProxy<E, T> proxy = this.staticMap.get(key);
+		if (proxy != null) {
+			return proxy.aabb;
+		}
+		return this.dynamicTree.getAABB(collidable, fixture);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable)
+	 */
+	@Override
+	public boolean contains(E collidable) {
+		int size = collidable.getFixtureCount();
+		boolean result = true;
+		for (int i = 0; i < size; i++) {
+			T fixture = collidable.getFixture(i);
+			result &= this.contains(collidable, fixture);
+		}
+		return result;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean contains(E collidable, T fixture) {
+		BroadphaseKey key = BroadphaseKey.get(collidable, fixture);
+		return this.staticMap.containsKey(key) || this.dynamicMap.containsKey(key);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#clear()
+	 */
+	@Override
+	public void clear() {
+		this.dynamicTree.clear();
+		this.dynamicMap.clear();
+		this.staticMap.clear();
+		synchronized (this.staticTree) {
+			this.staticTree.clear();
+			this.staticTreeInvalid = false;
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#size()
+	 */
+	@Override
+	public int size() {
+		return this.staticMap.size() + this.dynamicMap.size();
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphasePair<E, T>> detect(BroadphaseFilter<E, T> filter) {
+		this.validate();
+		
+		// the dynamic-dynamic pairs
+		List<BroadphasePair<E, T>> pairs = this.dynamicTree.detect(filter);
+		if (this.staticTree.nodeCount == 0 || this.dynamicMap.isEmpty()) {
+			return pairs;
+		}
+		
+		// the list returned by the dynamic tree may not be modifiable
+		List<BroadphasePair<E, T>> result = new ArrayList<BroadphasePair<E, T>>(pairs.size() + Collisions.getEstimatedCollisionPairs(this.dynamicMap.size()));
+		result.addAll(pairs);
+		
+		// the dynamic-static pairs
+		List<StaticDynamicProxy<E, T>> found = new ArrayList<StaticDynamicProxy<E, T>>(Collisions.getEstimatedCollisionsPerObject());
+		for (StaticDynamicProxy<E, T> proxy : this.dynamicMap.values()) {
+			AABB aabb = this.dynamicTree.getAABB(proxy.collidable, proxy.fixture);
+			this.staticTree.detect(aabb.getMinX(), aabb.getMinY(), aabb.getMaxX(), aabb.getMaxY(), found);
+			int size = found.size();
+			for (int i = 0; i < size; i++) {
+				StaticDynamicProxy<E, T> other = found.get(i);
+				// dont pair fixtures of the same collidable
+				if (other.collidable == proxy.collidable) continue;
+				if (filter.isAllowed(proxy.collidable, proxy.fixture, other.collidable, other.fixture)) {
+					result.add(new BroadphasePair<E, T>(proxy.collidable, proxy.fixture, other.collidable, other.fixture));
+				}
+			}
+			found.clear();
+		}
+		
+		return result;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.geometry.AABB, org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphaseItem<E, T>> detect(AABB aabb, BroadphaseFilter<E, T> filter) {
+		this.validate();
+		
+		List<BroadphaseItem<E, T>> items = this.dynamicTree.detect(aabb, filter);
+		if (this.staticTree.nodeCount == 0) {
+			return items;
+		}
+		
+		List<StaticDynamicProxy<E, T>> found = new ArrayList<StaticDynamicProxy<E, T>>(Collisions.getEstimatedCollisionsPerObject());
+		this.staticTree.detect(aabb.getMinX(), aabb.getMinY(), aabb.getMaxX(), aabb.getMaxY(), found);
+		
+		int size = found.size();
+		List<BroadphaseItem<E, T>> result = new ArrayList<BroadphaseItem<E, T>>(items.size() + size);
+		result.addAll(items);
+		for (int i = 0; i < size; i++) {
+			StaticDynamicProxy<E, T> proxy = found.get(i);
+			if (filter.isAllowed(aabb, proxy.collidable, proxy.fixture)) {
+				result.add(new BroadphaseItem<E, T>(proxy.collidable, proxy.fixture));
+			}
+		}
+		return result;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#raycast(org.dyn4j.geometry.Ray, double, org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphaseItem<E, T>> raycast(Ray ray, double length, BroadphaseFilter<E, T> filter) {
+		this.validate();
+		
+		List<BroadphaseItem<E, T>> items = this.dynamicTree.raycast(ray, length, filter);
+		if (this.staticTree.nodeCount == 0) {
+			return items;
+		}
+		
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+		
+		// get the length
+		double l = length;
+		if (length <= 0.0) l = Double.MAX_VALUE;
+		
+		List<StaticDynamicProxy<E, T>> found = new ArrayList<StaticDynamicProxy<E, T>>(Collisions.getEstimatedRaycastCollisions(this.staticMap.size()));
+		this.staticTree.raycast(s, l, 1.0 / d.x, 1.0 / d.y, found);
+		
+		int size = found.size();
+		List<BroadphaseItem<E, T>> result = new ArrayList<BroadphaseItem<E, T>>(items.size() + size);
+		result.addAll(items);
+		for (int i = 0; i < size; i++) {
+			StaticDynamicProxy<E, T> proxy = found.get(i);
+			if (filter.isAllowed(ray, length, proxy.collidable, proxy.fixture)) {
+				result.add(new BroadphaseItem<E, T>(proxy.collidable, proxy.fixture));
+			}
+		}
+		return result;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.AbstractBroadphaseDetector#raycast(org.dyn4j.geometry.Ray, double, org.dyn4j.collision.broadphase.BroadphaseRaycastCallback)
+	 */
+	@Override
+	public void raycast(Ray ray, double length, BroadphaseRaycastCallback<E, T> callback) {
+		this.validate();
+		
+		double l = length;
+		if (length <= 0.0) l = Double.MAX_VALUE;
+		
+		// search the static tree first and the dynamic tree
+		// with whatever is left of the ray
+		l = this.staticTree.raycast(ray, l, callback);
+		if (l < 0.0) return;
+		this.dynamicTree.raycast(ray, l, callback);
+	}
+	
+	/**
+	 * Performs a budgeted pass to improve the quality of the dynamic tree.
+	 * <p>
+	 * Only the dynamic tree is optimized; the static tree is already rebuilt top down
+	 * whenever the static {@link Collidable}s change.
+	 * @param budget the maximum number of sub trees to rebuild a branch from
+	 * @see DynamicAABBTree#optimize(int)
+	 * @since 3.3.0
+	 */
+	public void optimize(int budget) {
+		this.dynamicTree.optimize(budget);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.AbstractBroadphaseDetector#setAABBExpansion(double)
+	 */
+	@Override
+	public void setAABBExpansion(double expansion) {
+		super.setAABBExpansion(expansion);
+		this.dynamicTree.setAABBExpansion(expansion);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
+	 */
+	@Override
+	public void shift(Vector2 shift) {
+		this.dynamicTree.shift(shift);
+		Collection<StaticDynamicProxy<E, T>> proxies = this.staticMap.values();
+		for (StaticDynamicProxy<E, T> proxy : proxies) {
+			proxy.aabb.translate(shift);
+		}
+		// the shape of the tree doesn't change
+		synchronized (this.staticTree) {
+			if (!this.staticTreeInvalid) {
+				this.staticTree.shift(shift);
+			}
+		}
+	}
+}
@@ -34,13 +34,15 @@
  * <p>
  * There are two broad-phase implementations, {@link org.dyn4j.collision.broadphase.Sap} and 
  * {@link org.dyn4j.collision.broadphase.DynamicAABBTree}, both with their own merits. Generally, they have similar
- * performance.
+ * performance.  The {@link org.dyn4j.collision.broadphase.CompactDynamicAABBTree} is an alternative to the
+ * {@link org.dyn4j.collision.broadphase.DynamicAABBTree} that stores its nodes in flat arrays.  The
+ * {@link org.dyn4j.collision.broadphase.HashGrid} is best suited to scenes with many similarly sized objects.
  * <p>
  * This package also contains an interface for filtering the results of the {@link org.dyn4j.collision.broadphase.BroadphaseDetector}s
  * methods: {@link org.dyn4j.collision.broadphase.BroadphaseFilter}s.  These can be useful in both logic and performance to pre-filter
  * results before performing more expensive logic.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  */
 package org.dyn4j.collision.broadphase;
\ No newline at end of file
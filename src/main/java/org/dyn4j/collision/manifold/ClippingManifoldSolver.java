@@ -51,7 +51,7 @@ import org.dyn4j.geometry.Vector2;
  * It's possible that no contact points are returned, in which case the {@link #getManifold(Penetration, Convex, Transform, Convex, Transform, Manifold)}
  * method will return false.
  * @author William Bittle
- * @version 3.0.2
+ * @version 3.3.0
  * @since 1.0.0
  * @see <a href="http://www.dyn4j.org/2011/11/contact-points-using-clipping/" target="_blank">Contact Points Using Clipping</a>
  */
@@ -73,8 +73,7 @@ public class ClippingManifoldSolver implements ManifoldSolver {
 		if (feature1 instanceof PointFeature) {
 			// if the maximum
 			PointFeature vertex = (PointFeature) feature1;
-			ManifoldPoint mp = new ManifoldPoint(ManifoldPointId.DISTANCE, vertex.getPoint(), penetration.getDepth());
-			manifold.points.add(mp);
+			manifold.addPoint(ManifoldPointId.DISTANCE, vertex.getPoint(), penetration.getDepth());
 			manifold.normal = n.negate();
 			return true;
 		}
@@ -84,8 +83,7 @@ public class ClippingManifoldSolver implements ManifoldSolver {
 		// check for vertex
 		if (feature2 instanceof PointFeature) {
 			PointFeature vertex = (PointFeature) feature2;
-			ManifoldPoint mp = new ManifoldPoint(ManifoldPointId.DISTANCE, vertex.getPoint(), penetration.getDepth());
-			manifold.points.add(mp);
+			manifold.addPoint(ManifoldPointId.DISTANCE, vertex.getPoint(), penetration.getDepth());
 			manifold.normal = n.negate();
 			return true;
 		}
@@ -148,12 +146,10 @@ public class ClippingManifoldSolver implements ManifoldSolver {
 			double depth = frontNormal.dot(point) - frontOffset;
 			// make sure the point is behind the front normal
 			if (depth >= 0.0) {
-				// create an id for the manifold point
-				IndexedManifoldPointId id = new IndexedManifoldPointId(reference.getIndex(), incident.getIndex(), vertex.getIndex(), flipped);
-				// create the manifold point
-				ManifoldPoint mp = new ManifoldPoint(id, point, depth);
-				// add it to the list
-				manifold.points.add(mp);
+				// get an id for the manifold point
+				IndexedManifoldPointId id = IndexedManifoldPointId.valueOf(reference.getIndex(), incident.getIndex(), vertex.getIndex(), flipped);
+				// add the manifold point
+				manifold.addPoint(id, point, depth);
 			}
 		}
 		// make sure we didn't clip all the points
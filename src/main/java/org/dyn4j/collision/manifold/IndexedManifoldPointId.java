@@ -40,12 +40,21 @@ import org.dyn4j.geometry.Shape;
  * For a given {@link Convex} {@link Shape} the indicies should not change, although
  * there is no mechanism preventing this. In the case they change, this should only
  * affect any caching of this information.
+ * <p>
+ * Use the {@link #valueOf(int, int, int, boolean)} method to reuse the ids
+ * of shapes with few vertices.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  * @see ManifoldPointId#DISTANCE
  */
 public class IndexedManifoldPointId implements ManifoldPointId {
+	/** The exclusive upper bound of the indices of the cached ids */
+	private static final int CACHE_SIZE = 16;
+	
+	/** The cached ids; filled as they are needed */
+	private static final IndexedManifoldPointId[] CACHE = new IndexedManifoldPointId[CACHE_SIZE * CACHE_SIZE * CACHE_SIZE * 2];
+	
 	/** The reference edge index */
 	private final int referenceEdge;
 	
@@ -83,6 +92,34 @@ public class IndexedManifoldPointId implements ManifoldPointId {
 		this.flipped = flipped;
 	}
 	
+	/**
+	 * Returns an {@link IndexedManifoldPointId} for the given indices.
+	 * <p>
+	 * The ids are immutable, so the same instance is returned for the same indices
+	 * when all the indices are less than 16.  Otherwise a new instance is returned.
+	 * @param referenceEdge the reference edge index
+	 * @param incidentEdge the incident edge index
+	 * @param incidentVertex the incident vertex index
+	 * @param flipped whether the reference and incident features flipped
+	 * @return {@link IndexedManifoldPointId}
+	 * @since 3.3.0
+	 */
+	public static IndexedManifoldPointId valueOf(int referenceEdge, int incidentEdge, int incidentVertex, boolean flipped) {
+		if (referenceEdge < 0 || referenceEdge >= CACHE_SIZE ||
+			incidentEdge < 0 || incidentEdge >= CACHE_SIZE ||
+			incidentVertex < 0 || incidentVertex >= CACHE_SIZE) {
+			return new IndexedManifoldPointId(referenceEdge, incidentEdge, incidentVertex, flipped);
+		}
+		int index = ((referenceEdge * CACHE_SIZE + incidentEdge) * CACHE_SIZE + incidentVertex) * 2 + (flipped ? 1 : 0);
+		IndexedManifoldPointId id = CACHE[index];
+		if (id == null) {
+			// racing threads may create equal ids, which is harmless
+			id = new IndexedManifoldPointId(referenceEdge, incidentEdge, incidentVertex, flipped);
+			CACHE[index] = id;
+		}
+		return id;
+	}
+	
 	/* (non-Javadoc)
 	 * @see java.lang.Object#equals(java.lang.Object)
 	 */
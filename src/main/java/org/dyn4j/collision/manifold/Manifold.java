@@ -39,8 +39,12 @@ import org.dyn4j.geometry.Vector2;
  * two dimensions there will only be 1 or 2 contact points.
  * <p>
  * All {@link ManifoldPoint}s are in world space coordinates.
+ * <p>
+ * The {@link ManifoldPoint}s removed by the {@link #clear()} method are kept and reused by the
+ * {@link #addPoint(ManifoldPointId, Vector2, double)} method so that a {@link Manifold} that's
+ * reused for many collisions doesn't create new {@link ManifoldPoint}s for each one.
  * @author William Bittle
- * @version 3.0.2
+ * @version 3.3.0
  * @since 1.0.0
  */
 public class Manifold {
@@ -50,6 +54,9 @@ public class Manifold {
 	/** The penetration normal */
 	protected Vector2 normal;
 	
+	/** The {@link ManifoldPoint}s removed by {@link #clear()}; created when first needed */
+	private List<ManifoldPoint> spares;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -86,12 +93,49 @@ public class Manifold {
 	
 	/**
 	 * Clears the {@link Manifold} information.
+	 * <p>
+	 * The removed {@link ManifoldPoint}s are reused by the {@link #addPoint(ManifoldPointId, Vector2, double)}
+	 * method, so references to them should not be kept after calling this method.
 	 */
 	public void clear() {
-		this.points.clear();
+		int size = this.points.size();
+		if (size > 0) {
+			if (this.spares == null) {
+				this.spares = new ArrayList<ManifoldPoint>(size);
+			}
+			for (int i = 0; i < size; i++) {
+				this.spares.add(this.points.get(i));
+			}
+			this.points.clear();
+		}
 		this.normal = null;
 	}
 	
+	/**
+	 * Adds a {@link ManifoldPoint} with the given values to this {@link Manifold}.
+	 * <p>
+	 * A {@link ManifoldPoint} removed by the last {@link #clear()} is reused if available.
+	 * @param id the id for the manifold point
+	 * @param point the manifold point in world coordinates
+	 * @param depth the penetration depth
+	 * @return {@link ManifoldPoint} the added point
+	 * @since 3.3.0
+	 */
+	public ManifoldPoint addPoint(ManifoldPointId id, Vector2 point, double depth) {
+		ManifoldPoint mp;
+		int size = this.spares != null ? this.spares.size() : 0;
+		if (size > 0) {
+			mp = this.spares.remove(size - 1);
+			mp.id = id;
+			mp.point = point;
+			mp.depth = depth;
+		} else {
+			mp = new ManifoldPoint(id, point, depth);
+		}
+		this.points.add(mp);
+		return mp;
+	}
+	
 	/**
 	 * Returns the list of manifold points.
 	 * @return List&lt;{@link ManifoldPoint}&gt;
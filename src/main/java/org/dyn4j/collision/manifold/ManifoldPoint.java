@@ -32,13 +32,13 @@ import org.dyn4j.geometry.Vector2;
  * The depth represents the distance along the {@link Manifold} normal to this
  * contact point. This can vary for every {@link ManifoldPoint} in a {@link Manifold}.
  * @author William Bittle
- * @version 3.1.5
+ * @version 3.3.0
  * @since 1.0.0
  * @see Manifold
  */
 public class ManifoldPoint {
-	/** The id for this manifold point */
-	protected final ManifoldPointId id;
+	/** The id for this manifold point; only changed when reused by a {@link Manifold} */
+	protected ManifoldPointId id;
 	
 	/** The point in world coordinates */
 	protected Vector2 point;
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.narrowphase;
+
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Shape;
+import org.dyn4j.geometry.Transform;
+
+/**
+ * Represents a {@link NarrowphaseDetector} that can use a {@link NarrowphaseCache} to
+ * reuse the work of the last test of the same pair of {@link Convex} {@link Shape}s.
+ * <p>
+ * The cache is used to seed the test and to exit early when the shapes are still separated
+ * along the cached axis.  The result of a test is the same with or without a cache, however
+ * the {@link Penetration} may differ within the tolerance of the algorithm.
+ * <p>
+ * A cache must only be used for one pair of shapes, in the same order, and only by one thread
+ * at a time.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public interface CachingNarrowphaseDetector extends NarrowphaseDetector {
+	/**
+	 * Returns true if the two {@link Convex} {@link Shape}s intersect and fills
+	 * the {@link Penetration} object with the penetration vector and depth.
+	 * <p>
+	 * The given cache is used to seed the test and is updated with the result.
+	 * @param convex1 the first {@link Convex} {@link Shape}
+	 * @param transform1 the first {@link Shape}'s {@link Transform}
+	 * @param convex2 the second {@link Convex} {@link Shape}
+	 * @param transform2 the second {@link Shape}'s {@link Transform}
+	 * @param penetration the {@link Penetration} object to fill
+	 * @param cache the cache for this pair of shapes; can be null
+	 * @return boolean
+	 * @see #detect(Convex, Transform, Convex, Transform, Penetration)
+	 */
+	public abstract boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, NarrowphaseCache cache);
+}
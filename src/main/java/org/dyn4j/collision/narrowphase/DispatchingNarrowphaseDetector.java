@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.narrowphase;
+
+import org.dyn4j.Epsilon;
+import org.dyn4j.collision.manifold.ClippingManifoldSolver;
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.collision.manifold.ManifoldPointId;
+import org.dyn4j.collision.manifold.ManifoldSolver;
+import org.dyn4j.geometry.Capsule;
+import org.dyn4j.geometry.Circle;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Ellipse;
+import org.dyn4j.geometry.HalfEllipse;
+import org.dyn4j.geometry.Interval;
+import org.dyn4j.geometry.Polygon;
+import org.dyn4j.geometry.Segment;
+import org.dyn4j.geometry.Slice;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * A {@link NarrowphaseDetector} and {@link ManifoldSolver} that chooses a specialized routine
+ * for each pair of shape types from a table.
+ * <p>
+ * Each {@link Convex} is given a type id: {@link Circle}, {@link Polygon} (including {@link org.dyn4j.geometry.Rectangle}s
+ * and {@link org.dyn4j.geometry.Triangle}s), {@link Segment}, {@link Capsule} or other.  The pair of type ids indexes
+ * a table of routines:
+ * <ul>
+ * <li>Circle&ndash;Circle pairs are tested by comparing the distance between the centers.</li>
+ * <li>Circle&ndash;Polygon pairs are tested by finding the closest face or vertex of the polygon in its local space.</li>
+ * <li>Pairs of Circles, Segments and Capsules are tested by finding the closest points of their core
+ * segments (a circle's core is its center and a segment has no radius).</li>
+ * <li>Polygon&ndash;Polygon, Polygon&ndash;Segment and Polygon&ndash;Capsule pairs are tested using {@link Sat}.  The
+ * normal is oriented using the projections of the shapes rather than their centers.</li>
+ * <li>All other pairs, like those including an {@link Ellipse}, {@link HalfEllipse} or {@link Slice}, 
+ * are tested using {@link Gjk}.</li>
+ * </ul>
+ * When the core segments of two shapes intersect the closest points don't give a normal, so {@link Gjk}
+ * is used for those tests as well.
+ * <p>
+ * This class also produces the contact {@link Manifold} for the pairs whose contact is always a single 
+ * point: when the first shape is a {@link Circle} or the second shape is a {@link Circle} and the first 
+ * is a {@link Polygon} or {@link Segment}.  The manifolds of all other pairs are found using a 
+ * {@link ClippingManifoldSolver}.  To get both, use the same instance for both the narrow-phase detector 
+ * and the manifold solver:
+ * <pre>
+ * DispatchingNarrowphaseDetector detector = new DispatchingNarrowphaseDetector();
+ * world.setNarrowphaseDetector(detector);
+ * world.setManifoldSolver(detector);
+ * </pre>
+ * This class keeps no state between calls and can be used by multiple threads.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class DispatchingNarrowphaseDetector implements NarrowphaseDetector, CachingNarrowphaseDetector, ManifoldSolver {
+	/** The type id of a {@link Circle} */
+	static final int CIRCLE = 0;
+	
+	/** The type id of a {@link Polygon} */
+	static final int POLYGON = 1;
+	
+	/** The type id of a {@link Segment} */
+	static final int SEGMENT = 2;
+	
+	/** The type id of a {@link Capsule} */
+	static final int CAPSULE = 3;
+	
+	/** The type id of all other {@link Convex} shapes */
+	static final int OTHER = 4;
+	
+	/** The number of type ids */
+	private static final int TYPE_COUNT = 5;
+	
+	/** Tests the pair using {@link Gjk} */
+	private static final int GJK = 0;
+	
+	/** Tests the pair using {@link Sat} */
+	private static final int SAT = 1;
+	
+	/** Tests the pair as two circles */
+	private static final int CIRCLE_CIRCLE = 2;
+	
+	/** Tests the pair as a circle and a polygon */
+	private static final int CIRCLE_POLYGON = 3;
+	
+	/** Tests the pair as a polygon and a circle */
+	private static final int POLYGON_CIRCLE = 4;
+	
+	/** Tests the pair using the closest points of their core segments */
+	private static final int CORES = 5;
+	
+	/** The routine for each pair of type ids */
+	private static final int[][] ROUTINES = new int[TYPE_COUNT][TYPE_COUNT];
+	
+	static {
+		// everything not listed below uses gjk (the default value)
+		ROUTINES[CIRCLE][CIRCLE] = CIRCLE_CIRCLE;
+		ROUTINES[CIRCLE][POLYGON] = CIRCLE_POLYGON;
+		ROUTINES[POLYGON][CIRCLE] = POLYGON_CIRCLE;
+		
+		ROUTINES[POLYGON][POLYGON] = SAT;
+		ROUTINES[POLYGON][SEGMENT] = SAT;
+		ROUTINES[SEGMENT][POLYGON] = SAT;
+		ROUTINES[POLYGON][CAPSULE] = SAT;
+		ROUTINES[CAPSULE][POLYGON] = SAT;
+		
+		ROUTINES[CIRCLE][SEGMENT] = CORES;
+		ROUTINES[SEGMENT][CIRCLE] = CORES;
+		ROUTINES[CIRCLE][CAPSULE] = CORES;
+		ROUTINES[CAPSULE][CIRCLE] = CORES;
+		ROUTINES[SEGMENT][SEGMENT] = CORES;
+		ROUTINES[SEGMENT][CAPSULE] = CORES;
+		ROUTINES[CAPSULE][SEGMENT] = CORES;
+		ROUTINES[CAPSULE][CAPSULE] = CORES;
+	}
+	
+	/** The detector for the general pairs */
+	protected final Gjk gjk;
+	
+	/** The detector for the pairs of polygonal shapes */
+	protected final Sat sat;
+	
+	/** The manifold solver for the pairs with more than one contact point */
+	protected final ClippingManifoldSolver clippingManifoldSolver;
+	
+	/**
+	 * Default constructor.
+	 */
+	public DispatchingNarrowphaseDetector() {
+		this.gjk = new Gjk();
+		this.sat = new Sat();
+		this.clippingManifoldSolver = new ClippingManifoldSolver();
+	}
+	
+	/**
+	 * Returns the type id of the given {@link Convex} shape.
+	 * @param convex the shape
+	 * @return int
+	 */
+	static int getType(Convex convex) {
+		if (convex instanceof Polygon) return POLYGON;
+		if (convex instanceof Circle) return CIRCLE;
+		if (convex instanceof Segment) return SEGMENT;
+		if (convex instanceof Capsule) return CAPSULE;
+		return OTHER;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.narrowphase.NarrowphaseDetector#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform)
+	 */
+	@Override
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2) {
+		switch (ROUTINES[getType(convex1)][getType(convex2)]) {
+			case CIRCLE_CIRCLE:
+				return CircleDetector.detect((Circle)convex1, transform1, (Circle)convex2, transform2);
+			case CIRCLE_POLYGON:
+				return this.detect((Polygon)convex2, transform2, (Circle)convex1, transform1, null);
+			case POLYGON_CIRCLE:
+				return this.detect((Polygon)convex1, transform1, (Circle)convex2, transform2, null);
+			case SAT:
+				return this.sat.detect(convex1, transform1, convex2, transform2);
+			case CORES:
+				Vector2 a1 = new Vector2();
+				Vector2 b1 = new Vector2();
+				Vector2 a2 = new Vector2();
+				Vector2 b2 = new Vector2();
+				double r = getCore(convex1, transform1, a1, b1) + getCore(convex2, transform2, a2, b2);
+				double d2 = getClosestPoints(a1, b1, a2, b2, a1, a2);
+				if (d2 > Epsilon.E) {
+					return d2 < r * r;
+				}
+				// the cores intersect
+				return this.gjk.detect(convex1, transform1, convex2, transform2);
+			default:
+				return this.gjk.detect(convex1, transform1, convex2, transform2);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.narrowphase.NarrowphaseDetector#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.narrowphase.Penetration)
+	 */
+	@Override
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration) {
+		return this.detect(convex1, transform1, convex2, transform2, penetration, null);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.narrowphase.CachingNarrowphaseDetector#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.narrowphase.Penetration, org.dyn4j.collision.narrowphase.NarrowphaseCache)
+	 */
+	@Override
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, NarrowphaseCache cache) {
+		switch (ROUTINES[getType(convex1)][getType(convex2)]) {
+			case CIRCLE_CIRCLE:
+				return CircleDetector.detect((Circle)convex1, transform1, (Circle)convex2, transform2, penetration);
+			case CIRCLE_POLYGON:
+				if (this.detect((Polygon)convex2, transform2, (Circle)convex1, transform1, penetration)) {
+					// the normal was found from the polygon to the circle
+					penetration.normal.negate();
+					return true;
+				}
+				return false;
+			case POLYGON_CIRCLE:
+				return this.detect((Polygon)convex1, transform1, (Circle)convex2, transform2, penetration);
+			case SAT:
+				if (this.sat.detect(convex1, transform1, convex2, transform2, penetration, cache)) {
+					// sat orients the normal using the centers of the shapes, which can
+					// be wrong for deep penetrations; use the projections instead
+					Vector2 n = penetration.normal;
+					Interval i1 = convex1.project(n, transform1);
+					Interval i2 = convex2.project(n, transform2);
+					if (i1.getMax() - i2.getMin() > i2.getMax() - i1.getMin()) {
+						n.negate();
+					}
+					return true;
+				}
+				return false;
+			case CORES:
+				Vector2 a1 = new Vector2();
+				Vector2 b1 = new Vector2();
+				Vector2 a2 = new Vector2();
+				Vector2 b2 = new Vector2();
+				double r = getCore(convex1, transform1, a1, b1) + getCore(convex2, transform2, a2, b2);
+				double d2 = getClosestPoints(a1, b1, a2, b2, a1, a2);
+				if (d2 > Epsilon.E) {
+					if (d2 >= r * r) {
+						return false;
+					}
+					// the normal is along the line between the closest points
+					Vector2 n = a1.to(a2);
+					double d = n.normalize();
+					penetration.normal = n;
+					penetration.depth = r - d;
+					return true;
+				}
+				// the cores intersect so there's no single direction to separate them
+				return this.gjk.detect(convex1, transform1, convex2, transform2, penetration, cache);
+			default:
+				return this.gjk.detect(convex1, transform1, convex2, transform2, penetration, cache);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.manifold.ManifoldSolver#getManifold(org.dyn4j.collision.narrowphase.Penetration, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.manifold.Manifold)
+	 */
+	@Override
+	public boolean getManifold(Penetration penetration, Convex convex1, Transform transform1, Convex convex2, Transform transform2, Manifold manifold) {
+		int type1 = getType(convex1);
+		int type2 = getType(convex2);
+		
+		// a circle's farthest feature is always a point and polygons and segments
+		// always give an edge, so the contact is a single point on the circle
+		Vector2 point = null;
+		Vector2 n = penetration.getNormal();
+		if (type1 == CIRCLE) {
+			point = convex1.getFarthestPoint(n, transform1);
+		} else if (type2 == CIRCLE && (type1 == POLYGON || type1 == SEGMENT)) {
+			point = convex2.getFarthestPoint(n.getNegative(), transform2);
+		} else {
+			return this.clippingManifoldSolver.getManifold(penetration, convex1, transform1, convex2, transform2, manifold);
+		}
+		
+		manifold.clear();
+		manifold.addPoint(ManifoldPointId.DISTANCE, point, penetration.getDepth());
+		manifold.setNormal(n.negate());
+		return true;
+	}
+	
+	/**
+	 * Tests the given {@link Polygon} and {@link Circle} for intersection.
+	 * <p>
+	 * The circle's center is taken into the local space of the polygon where the face with the 
+	 * largest separation is found.  The closest feature of the polygon is then that face or one 
+	 * of its vertices.
+	 * @param polygon the polygon
+	 * @param transform1 the polygon's transform
+	 * @param circle the circle
+	 * @param transform2 the circle's transform
+	 * @param penetration the penetration from the polygon to the circle; can be null
+	 * @return boolean true if the shapes intersect
+	 */
+	private boolean detect(Polygon polygon, Transform transform1, Circle circle, Transform transform2, Penetration penetration) {
+		// get the circle's center in the polygon's local space
+		Vector2 c = transform1.getInverseTransformed(transform2.getTransformed(circle.getCenter()));
+		double r = circle.getRadius();
+		
+		Vector2[] vertices = polygon.getVertices();
+		Vector2[] normals = polygon.getNormals();
+		int size = vertices.length;
+		
+		// find the face with the largest separation
+		double separation = -Double.MAX_VALUE;
+		int index = 0;
+		for (int i = 0; i < size; i++) {
+			Vector2 v = vertices[i];
+			Vector2 n = normals[i];
+			double s = n.x * (c.x - v.x) + n.y * (c.y - v.y);
+			if (s >= r) {
+				// the face separates the shapes
+				return false;
+			}
+			if (s > separation) {
+				separation = s;
+				index = i;
+			}
+		}
+		
+		Vector2 v1 = vertices[index];
+		Vector2 v2 = vertices[index + 1 == size ? 0 : index + 1];
+		
+		// the closest feature is either the face or one of its vertices
+		Vector2 normal = null;
+		double depth = 0.0;
+		if (separation > 0.0 && (c.x - v1.x) * (v2.x - v1.x) + (c.y - v1.y) * (v2.y - v1.y) <= 0.0) {
+			// in the region of the first vertex
+			normal = v1.to(c);
+		} else if (separation > 0.0 && (c.x - v2.x) * (v1.x - v2.x) + (c.y - v2.y) * (v1.y - v2.y) <= 0.0) {
+			// in the region of the second vertex
+			normal = v2.to(c);
+		}
+		
+		if (normal != null) {
+			double d2 = normal.getMagnitudeSquared();
+			if (d2 >= r * r) {
+				return false;
+			}
+			if (penetration == null) return true;
+			depth = r - normal.normalize();
+		} else {
+			// the center is inside or in the region of the face
+			if (penetration == null) return true;
+			normal = normals[index].copy();
+			depth = r - separation;
+		}
+		
+		// put the normal back in world space
+		transform1.transformR(normal);
+		penetration.normal = normal;
+		penetration.depth = depth;
+		return true;
+	}
+	
+	/**
+	 * Sets the end points of the core segment of the given shape and returns its radius.
+	 * <p>
+	 * The core of a {@link Circle} is its center, a {@link Segment} is its own core and the
+	 * core of a {@link Capsule} is the segment between its cap foci.
+	 * @param convex the {@link Circle}, {@link Segment} or {@link Capsule}
+	 * @param transform the shape's transform
+	 * @param a the first end point of the core
+	 * @param b the second end point of the core
+	 * @return double the radius around the core
+	 */
+	private static double getCore(Convex convex, Transform transform, Vector2 a, Vector2 b) {
+		if (convex instanceof Circle) {
+			Circle circle = (Circle)convex;
+			transform.getTransformed(circle.getCenter(), a);
+			b.set(a);
+			return circle.getRadius();
+		} else if (convex instanceof Segment) {
+			Vector2[] vertices = ((Segment)convex).getVertices();
+			transform.getTransformed(vertices[0], a);
+			transform.getTransformed(vertices[1], b);
+			return 0.0;
+		} else {
+			Capsule capsule = (Capsule)convex;
+			Vector2[] foci = capsule.getFoci(transform);
+			a.set(foci[0]);
+			b.set(foci[1]);
+			return capsule.getCapRadius();
+		}
+	}
+	
+	/**
+	 * Finds the closest points between the segments a1b1 and a2b2 and returns the
+	 * squared distance between them.
+	 * <p>
+	 * Either segment can have zero length.  The destination points can be the same
+	 * objects as the first end points of the segments.
+	 * @param a1 the first point of the first segment
+	 * @param b1 the second point of the first segment
+	 * @param a2 the first point of the second segment
+	 * @param b2 the second point of the second segment
+	 * @param c1 the destination for the closest point on the first segment
+	 * @param c2 the destination for the closest point on the second segment
+	 * @return double
+	 */
+	static double getClosestPoints(Vector2 a1, Vector2 b1, Vector2 a2, Vector2 b2, Vector2 c1, Vector2 c2) {
+		double d1x = b1.x - a1.x;
+		double d1y = b1.y - a1.y;
+		double d2x = b2.x - a2.x;
+		double d2y = b2.y - a2.y;
+		double rx = a1.x - a2.x;
+		double ry = a1.y - a2.y;
+		
+		double a = d1x * d1x + d1y * d1y;
+		double e = d2x * d2x + d2y * d2y;
+		double f = d2x * rx + d2y * ry;
+		
+		double s = 0.0;
+		double t = 0.0;
+		if (a <= Epsilon.E && e <= Epsilon.E) {
+			// both segments are points
+		} else if (a <= Epsilon.E) {
+			// the first segment is a point
+			t = clamp(f / e);
+		} else {
+			double c = d1x * rx + d1y * ry;
+			if (e <= Epsilon.E) {
+				// the second segment is a point
+				s = clamp(-c / a);
+			} else {
+				double b = d1x * d2x + d1y * d2y;
+				double denom = a * e - b * b;
+				// parallel segments can use any s
+				if (denom != 0.0) {
+					s = clamp((b * f - c * e) / denom);
+				}
+				t = (b * s + f) / e;
+				if (t < 0.0) {
+					t = 0.0;
+					s = clamp(-c / a);
+				} else if (t > 1.0) {
+					t = 1.0;
+					s = clamp((b - c) / a);
+				}
+			}
+		}
+		
+		double x1 = a1.x + d1x * s;
+		double y1 = a1.y + d1y * s;
+		double x2 = a2.x + d2x * t;
+		double y2 = a2.y + d2y * t;
+		c1.set(x1, y1);
+		c2.set(x2, y2);
+		
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		return dx * dx + dy * dy;
+	}
+	
+	/**
+	 * Clamps the given value to the range [0, 1].
+	 * @param value the value
+	 * @return double
+	 */
+	private static double clamp(double value) {
+		if (value < 0.0) return 0.0;
+		if (value > 1.0) return 1.0;
+		return value;
+	}
+}
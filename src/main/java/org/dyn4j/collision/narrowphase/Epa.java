@@ -61,8 +61,12 @@ import org.dyn4j.resources.Messages;
  * If either shape has curved surfaces the algorithm requires an expected accuracy epsilon: {@link #distanceEpsilon}.
  * In the case that the {@link #distanceEpsilon} is too small, the {@link #maxIterations} will prevent the
  * algorithm from running forever.
+ * <p>
+ * Each thread using an {@link Epa} instance is given its own reusable {@link ExpandingSimplex} 
+ * so that the expansion does not create any temporary objects.  This makes this class safe 
+ * to use from multiple threads.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  * @see Gjk
  * @see <a href="http://www.dyn4j.org/2010/05/epa-expanding-polytope-algorithm/" target="_blank">EPA (Expanding Polytope Algorithm)</a>
@@ -80,12 +84,21 @@ public class Epa implements MinkowskiPenetrationSolver {
 	/** The {@link Epa} distance epsilon in meters */
 	protected double distanceEpsilon = Epa.DEFAULT_DISTANCE_EPSILON;
 	
+	/** The reusable expanding simplex for each thread */
+	private final ThreadLocal<ExpandingSimplex> simplexes = new ThreadLocal<ExpandingSimplex>() {
+		@Override
+		protected ExpandingSimplex initialValue() {
+			return new ExpandingSimplex();
+		}
+	};
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.collision.narrowphase.MinkowskiPenetrationSolver#getPenetration(java.util.List, org.dyn4j.collision.narrowphase.MinkowskiSum, org.dyn4j.collision.narrowphase.Penetration)
 	 */
 	public void getPenetration(List<Vector2> simplex, MinkowskiSum minkowskiSum, Penetration penetration) {
-		// create an expandable simplex
-		ExpandingSimplex smplx = new ExpandingSimplex(simplex);
+		// reset this thread's expandable simplex
+		ExpandingSimplex smplx = this.simplexes.get();
+		smplx.initialize(simplex);
 		ExpandingSimplexEdge edge = null;
 		Vector2 point = null;
 		for (int i = 0; i < this.maxIterations; i++) {
@@ -97,12 +110,14 @@ public class Epa implements MinkowskiPenetrationSolver {
 			// see if the new point is significantly past the edge
 			double projection = point.dot(edge.normal);
 			if ((projection - edge.distance) < this.distanceEpsilon) {
+				penetration.penetrationIterations = i + 1;
 				// then the new point we just made is not far enough
 				// in the direction of n so we can stop now and
 				// return n as the direction and the projection
 				// as the depth since this is the closest found
 				// edge and it cannot increase any more
-				penetration.normal = edge.normal;
+				// the edge is reused so copy the normal
+				penetration.normal = edge.normal.copy();
 				penetration.depth = projection;
 				return;
 			}
@@ -115,7 +130,8 @@ public class Epa implements MinkowskiPenetrationSolver {
 		// if we made it here then we know that we hit the maximum number of iterations
 		// this is really a catch all termination case
 		// set the normal and depth equal to the last edge we created
-		penetration.normal = edge.normal;
+		penetration.penetrationIterations = this.maxIterations;
+		penetration.normal = edge.normal.copy();
 		penetration.depth = point.dot(edge.normal);
 	}
 	
@@ -25,7 +25,6 @@
 package org.dyn4j.collision.narrowphase;
 
 import java.util.List;
-import java.util.PriorityQueue;
 
 import org.dyn4j.geometry.Vector2;
 
@@ -38,26 +37,69 @@ import org.dyn4j.geometry.Vector2;
  * <p>
  * Given the way the simplex is expanded, the winding can be computed initially
  * and will never change.
+ * <p>
+ * The edges are kept in a binary heap ordered by their distance to the origin.  An
+ * expanding simplex can be reused for many penetration queries by calling the 
+ * {@link #initialize(List)} method; the edges are recycled so that no objects are
+ * created once the heap has grown to its working size.
  * @author William Bittle 
- * @version 3.2.0
+ * @version 3.3.0
  * @since 3.2.0
  */
 final class ExpandingSimplex {
+	/** The initial capacity of the edge heap */
+	private static final int INITIAL_CAPACITY = 16;
+	
 	/** The winding direction of the simplex */
-	private final int winding;
+	private int winding;
+	
+	/** The binary heap of simplex edges */
+	private ExpandingSimplexEdge[] heap;
+	
+	/** The number of edges in the heap */
+	private int size;
+	
+	/** The edges available for reuse */
+	private ExpandingSimplexEdge[] free;
 	
-	/** The priority queue of simplex edges */
-	private final PriorityQueue<ExpandingSimplexEdge> queue;
+	/** The number of edges available for reuse */
+	private int freeCount;
+	
+	/**
+	 * Creates an empty expanding simplex for reuse.
+	 * @since 3.3.0
+	 */
+	public ExpandingSimplex() {
+		this.heap = new ExpandingSimplexEdge[INITIAL_CAPACITY];
+		this.free = new ExpandingSimplexEdge[INITIAL_CAPACITY];
+		this.size = 0;
+		this.freeCount = 0;
+	}
 	
 	/**
 	 * Minimal constructor.
 	 * @param simplex the starting simplex from GJK
 	 */
 	public ExpandingSimplex(List<Vector2> simplex) {
+		this();
+		this.initialize(simplex);
+	}
+	
+	/**
+	 * Resets this expanding simplex to the given simplex.
+	 * @param simplex the starting simplex from GJK
+	 * @since 3.3.0
+	 */
+	public final void initialize(List<Vector2> simplex) {
+		// recycle any edges from the last use
+		while (this.size > 0) {
+			this.size--;
+			this.release(this.heap[this.size]);
+			this.heap[this.size] = null;
+		}
 		// compute the winding
 		this.winding = this.getWinding(simplex);
 		// build the initial edge queue
-		this.queue = new PriorityQueue<ExpandingSimplexEdge>();
 		int size = simplex.size();
 		for (int i = 0; i < size; i++) {
 			// compute j
@@ -66,7 +108,7 @@ final class ExpandingSimplex {
 			Vector2 a = simplex.get(i);
 			Vector2 b = simplex.get(j);
 			// create the edge
-			this.queue.add(new ExpandingSimplexEdge(a, b, this.winding));
+			this.offer(this.obtain(a, b));
 		}
 	}
 	
@@ -102,10 +144,12 @@ final class ExpandingSimplex {
 	
 	/**
 	 * Returns the edge on the simplex that is closest to the origin.
+	 * <p>
+	 * The returned edge is reused when the simplex is expanded.
 	 * @return {@link ExpandingSimplexEdge} the closest edge to the origin
 	 */
 	public final ExpandingSimplexEdge getClosestEdge() {
-		return this.queue.peek(); // O(1)
+		return this.size > 0 ? this.heap[0] : null; // O(1)
 	}
 	
 	/**
@@ -118,11 +162,102 @@ final class ExpandingSimplex {
 	 */
 	public final void expand(Vector2 point) {
 		// remove the edge we are splitting
-		ExpandingSimplexEdge edge = this.queue.poll(); // O(log n)
+		ExpandingSimplexEdge edge = this.poll(); // O(log n)
 		// create two new edges
-		ExpandingSimplexEdge edge1 = new ExpandingSimplexEdge(edge.point1, point, this.winding);
-		ExpandingSimplexEdge edge2 = new ExpandingSimplexEdge(point, edge.point2, this.winding);
-		this.queue.add(edge1); // O(log n)
-		this.queue.add(edge2); // O(log n)
+		ExpandingSimplexEdge edge1 = this.obtain(edge.point1, point);
+		ExpandingSimplexEdge edge2 = this.obtain(point, edge.point2);
+		this.release(edge);
+		this.offer(edge1); // O(log n)
+		this.offer(edge2); // O(log n)
+	}
+	
+	/**
+	 * Returns a recycled or new edge for the given points.
+	 * @param point1 the first point
+	 * @param point2 the second point
+	 * @return {@link ExpandingSimplexEdge}
+	 */
+	private final ExpandingSimplexEdge obtain(Vector2 point1, Vector2 point2) {
+		ExpandingSimplexEdge edge = null;
+		if (this.freeCount > 0) {
+			this.freeCount--;
+			edge = this.free[this.freeCount];
+			this.free[this.freeCount] = null;
+		} else {
+			edge = new ExpandingSimplexEdge();
+		}
+		edge.set(point1, point2, this.winding);
+		return edge;
+	}
+	
+	/**
+	 * Makes the given edge available for reuse.
+	 * @param edge the edge
+	 */
+	private final void release(ExpandingSimplexEdge edge) {
+		// don't hold onto the simplex points
+		edge.point1 = null;
+		edge.point2 = null;
+		if (this.freeCount == this.free.length) {
+			ExpandingSimplexEdge[] free = new ExpandingSimplexEdge[this.free.length * 2];
+			System.arraycopy(this.free, 0, free, 0, this.freeCount);
+			this.free = free;
+		}
+		this.free[this.freeCount++] = edge;
+	}
+	
+	/**
+	 * Adds the given edge to the heap.
+	 * <p>
+	 * This follows the same sift up procedure as {@link java.util.PriorityQueue}
+	 * so that edges with equal distances are ordered the same way.
+	 * @param edge the edge
+	 */
+	private final void offer(ExpandingSimplexEdge edge) {
+		if (this.size == this.heap.length) {
+			ExpandingSimplexEdge[] heap = new ExpandingSimplexEdge[this.heap.length * 2];
+			System.arraycopy(this.heap, 0, heap, 0, this.size);
+			this.heap = heap;
+		}
+		int k = this.size++;
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			ExpandingSimplexEdge e = this.heap[parent];
+			if (edge.compareTo(e) >= 0) break;
+			this.heap[k] = e;
+			k = parent;
+		}
+		this.heap[k] = edge;
+	}
+	
+	/**
+	 * Removes and returns the edge closest to the origin.
+	 * <p>
+	 * This follows the same sift down procedure as {@link java.util.PriorityQueue}
+	 * so that edges with equal distances are ordered the same way.
+	 * @return {@link ExpandingSimplexEdge}
+	 */
+	private final ExpandingSimplexEdge poll() {
+		ExpandingSimplexEdge result = this.heap[0];
+		int n = --this.size;
+		ExpandingSimplexEdge x = this.heap[n];
+		this.heap[n] = null;
+		if (n > 0) {
+			int k = 0;
+			int half = n >>> 1;
+			while (k < half) {
+				int child = (k << 1) + 1;
+				ExpandingSimplexEdge c = this.heap[child];
+				int right = child + 1;
+				if (right < n && c.compareTo(this.heap[right]) > 0) {
+					c = this.heap[child = right];
+				}
+				if (x.compareTo(c) <= 0) break;
+				this.heap[k] = c;
+				k = child;
+			}
+			this.heap[k] = x;
+		}
+		return result;
 	}
 }
@@ -34,22 +34,30 @@ import org.dyn4j.geometry.Vector2;
  * <p>
  * Note: this class has a natural ordering that is inconsistent with equals.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 3.2.0
  */
 final class ExpandingSimplexEdge implements Comparable<ExpandingSimplexEdge> {
 	/** The first point of the edge */
-	final Vector2 point1;
+	Vector2 point1;
 	
 	/** The second point of the edge */
-	final Vector2 point2;
+	Vector2 point2;
 	
 	/** The normal of the edge */
 	final Vector2 normal;
 	
 	/** The perpendicular distance from the edge to the origin */
-	final double distance;
+	double distance;
 
+	/**
+	 * Creates an empty edge for reuse.
+	 * @since 3.3.0
+	 */
+	ExpandingSimplexEdge() {
+		this.normal = new Vector2();
+	}
+	
 	/**
 	 * Minimal constructor.
 	 * @param point1 the first point
@@ -57,9 +65,22 @@ final class ExpandingSimplexEdge implements Comparable<ExpandingSimplexEdge> {
 	 * @param winding the winding
 	 */
 	public ExpandingSimplexEdge(Vector2 point1, Vector2 point2, int winding) {
+		this.normal = new Vector2();
+		this.set(point1, point2, winding);
+	}
+	
+	/**
+	 * Sets this edge to the given points and computes the normal and distance.
+	 * @param point1 the first point
+	 * @param point2 the second point
+	 * @param winding the winding
+	 * @since 3.3.0
+	 */
+	void set(Vector2 point1, Vector2 point2, int winding) {
 		// create the edge
 		// inline b - a
-		this.normal = new Vector2(point2.x - point1.x, point2.y - point1.y);
+		this.normal.x = point2.x - point1.x;
+		this.normal.y = point2.y - point1.y;
 		// depending on the winding get the edge normal
 		// it would be better to use Vector.tripleProduct(ab, ao, ab);
 		// where ab is the edge and ao is a.to(ORIGIN) but this will
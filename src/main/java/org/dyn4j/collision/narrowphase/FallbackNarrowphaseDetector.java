@@ -53,10 +53,10 @@ import org.dyn4j.geometry.Transform;
  * The primary and fallback detectors can also be {@link FallbackNarrowphaseDetector}s as well allowing for a chain of 
  * fallbacks.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 3.1.5
  */
-public class FallbackNarrowphaseDetector implements NarrowphaseDetector {
+public class FallbackNarrowphaseDetector implements NarrowphaseDetector, CachingNarrowphaseDetector {
 	/** The primary {@link NarrowphaseDetector} */
 	protected final NarrowphaseDetector primaryNarrowphaseDetector;
 	
@@ -181,6 +181,20 @@ public class FallbackNarrowphaseDetector implements NarrowphaseDetector {
 		return this.primaryNarrowphaseDetector.detect(convex1, transform1, convex2, transform2, penetration);
 	}
 	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.narrowphase.CachingNarrowphaseDetector#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.narrowphase.Penetration, org.dyn4j.collision.narrowphase.NarrowphaseCache)
+	 */
+	@Override
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, NarrowphaseCache cache) {
+		// the same detector is always chosen for a pair of shapes
+		// so the cache is only ever used by one of them
+		NarrowphaseDetector detector = this.isFallbackRequired(convex1, convex2) ? this.fallbackNarrowphaseDetector : this.primaryNarrowphaseDetector;
+		if (cache != null && detector instanceof CachingNarrowphaseDetector) {
+			return ((CachingNarrowphaseDetector) detector).detect(convex1, transform1, convex2, transform2, penetration, cache);
+		}
+		return detector.detect(convex1, transform1, convex2, transform2, penetration);
+	}
+	
 	/**
 	 * Returns the primary {@link NarrowphaseDetector}.
 	 * @return {@link NarrowphaseDetector}
@@ -24,7 +24,6 @@
  */
 package org.dyn4j.collision.narrowphase;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.dyn4j.Epsilon;
@@ -117,6 +116,13 @@ import org.dyn4j.resources.Messages;
  * The {@link Gjk} algorithm's original intent was to find the minimum distance between two {@link Convex}
  * {@link Shape}s.  Refer to {@link Gjk#distance(Convex, Transform, Convex, Transform, Separation)}
  * for details on the implementation.
+ * <p>
+ * Each thread using a {@link Gjk} instance is given its own reusable workspace containing the
+ * simplex, {@link MinkowskiSum}, and temporary vectors so that the detection, distance, and
+ * raycast methods create as few objects as possible.  This makes this class safe to use from 
+ * multiple threads given that the {@link MinkowskiPenetrationSolver} is also.  The simplex
+ * and {@link MinkowskiSum} given to the {@link MinkowskiPenetrationSolver} are reused and 
+ * should not be retained.
  * @author William Bittle
  * @version 3.3.0
  * @since 1.0.0
@@ -124,7 +130,7 @@ import org.dyn4j.resources.Messages;
  * @see <a href="http://www.dyn4j.org/2010/04/gjk-gilbert-johnson-keerthi/" target="_blank">GJK (Gilbert-Johnson-Keerthi)</a>
  * @see <a href="http://www.dyn4j.org/2010/04/gjk-distance-closest-points/" target="_blank">GJK - Distance &amp; Closest Points</a>
  */
-public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetector {
+public class Gjk implements NarrowphaseDetector, CachingNarrowphaseDetector, DistanceDetector, RaycastDetector {
 	/** The origin point */
 	private static final Vector2 ORIGIN = new Vector2();
 	
@@ -165,6 +171,14 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 	/** The raycast check epsilon in meters */
 	protected double raycastEpsilon = Gjk.DEFAULT_DISTANCE_EPSILON;
 	
+	/** The reusable workspace for each thread */
+	private final ThreadLocal<GjkWorkspace> workspaces = new ThreadLocal<GjkWorkspace>() {
+		@Override
+		protected GjkWorkspace initialValue() {
+			return new GjkWorkspace();
+		}
+	};
+	
 	/**
 	 * Default constructor.
 	 */
@@ -185,27 +199,62 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 	 */
 	@Override
 	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration) {
+		return this.detect(convex1, transform1, convex2, transform2, penetration, null);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.narrowphase.CachingNarrowphaseDetector#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.narrowphase.Penetration, org.dyn4j.collision.narrowphase.NarrowphaseCache)
+	 */
+	@Override
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, NarrowphaseCache cache) {
 		// check for circles
 		if (convex1 instanceof Circle && convex2 instanceof Circle) {
 			// if its a circle - circle collision use the faster method
 			return CircleDetector.detect((Circle) convex1, transform1, (Circle) convex2, transform2, penetration);
 		}
 		
-		// define the simplex
-		List<Vector2> simplex = new ArrayList<Vector2>(3);
+		GjkWorkspace workspace = this.workspaces.get();
 		
-		// create a Minkowski sum
-		MinkowskiSum ms = new MinkowskiSum(convex1, transform1, convex2, transform2);
+		// reuse the simplex
+		List<Vector2> simplex = workspace.simplex;
+		simplex.clear();
 		
-		// choose some search direction
-		Vector2 d = this.getInitialDirection(convex1, transform1, convex2, transform2);
+		// reuse the Minkowski sum
+		MinkowskiSum ms = workspace.minkowskiSum;
+		ms.set(convex1, transform1, convex2, transform2);
+		
+		// start from the last separating axis if we have one; if the shapes
+		// are still separated along it the first support point will show it
+		boolean seeded = cache != null && !cache.isEmpty();
+		Vector2 d;
+		if (seeded) {
+			d = workspace.d.set(cache.axis);
+		} else {
+			d = this.getInitialDirection(convex1, transform1, convex2, transform2);
+		}
 		
 		// perform the detection
-		if (this.detect(ms, simplex, d)) {
+		workspace.iterations = 0;
+		boolean detected = this.detect(ms, simplex, d);
+		penetration.detectIterations = workspace.iterations;
+		if (detected && seeded) {
+			// the penetration depends on the final simplex, so start over from the
+			// usual direction to get the same result as without the cache; this only
+			// happens on the step the shapes begin to intersect
+			simplex.clear();
+			d = this.getInitialDirection(convex1, transform1, convex2, transform2);
+			workspace.iterations = 0;
+			detected = this.detect(ms, simplex, d);
+			penetration.detectIterations += workspace.iterations;
+		}
+		if (detected) {
+			if (cache != null) cache.clear();
 			this.minkowskiPenetrationSolver.getPenetration(simplex, ms, penetration);
 			return true;
 		}
 		
+		// the final search direction separates the shapes
+		if (cache != null) cache.axis.set(d);
 		return false;
 	}
 	
@@ -220,11 +269,15 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 			return CircleDetector.detect((Circle) convex1, transform1, (Circle) convex2, transform2);
 		}
 		
-		// define the simplex
-		List<Vector2> simplex = new ArrayList<Vector2>(3);
+		GjkWorkspace workspace = this.workspaces.get();
+		
+		// reuse the simplex
+		List<Vector2> simplex = workspace.simplex;
+		simplex.clear();
 		
-		// create a Minkowski sum
-		MinkowskiSum ms = new MinkowskiSum(convex1, transform1, convex2, transform2);
+		// reuse the Minkowski sum
+		MinkowskiSum ms = workspace.minkowskiSum;
+		ms.set(convex1, transform1, convex2, transform2);
 		
 		// choose some search direction
 		Vector2 d = this.getInitialDirection(convex1, transform1, convex2, transform2);
@@ -245,10 +298,12 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 	 */
 	protected Vector2 getInitialDirection(Convex convex1, Transform transform1, Convex convex2, Transform transform2) {
 		// transform into world space if transform is not null
-		Vector2 c1 = transform1.getTransformed(convex1.getCenter());
-		Vector2 c2 = transform2.getTransformed(convex2.getCenter());
+		Vector2 c1 = convex1.getCenter();
+		Vector2 c2 = convex2.getCenter();
 		// choose some search direction
-		return c2.subtract(c1);
+		return new Vector2(
+				transform2.getTransformedX(c2) - transform1.getTransformedX(c1),
+				transform2.getTransformedY(c2) - transform1.getTransformedY(c1));
 	}
 	
 	/**
@@ -265,6 +320,21 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 	 * @return boolean
 	 */
 	protected boolean detect(MinkowskiSum ms, List<Vector2> simplex, Vector2 d) {
+		return this.detect(ms, simplex, d, this.workspaces.get());
+	}
+	
+	/**
+	 * The main {@link Gjk} algorithm loop.
+	 * <p>
+	 * Records the number of iterations performed in the given workspace.
+	 * @param ms the {@link MinkowskiSum}
+	 * @param simplex the simplex; should be an empty list
+	 * @param d the initial direction
+	 * @param workspace this thread's workspace
+	 * @return boolean
+	 * @since 3.3.0
+	 */
+	private boolean detect(MinkowskiSum ms, List<Vector2> simplex, Vector2 d, GjkWorkspace workspace) {
 		// check for a zero direction vector
 		if (d.isZero()) d.set(1.0, 0.0);
 		// add the first point
@@ -277,6 +347,7 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 		d.negate();
 		// start the loop
 		for (int i = 0; i < this.maxDetectIterations; i++) {
+			workspace.iterations = i + 1;
 			// always add another point to the simplex at the beginning of the loop
 			Vector2 supportPoint = ms.getSupportPoint(d);
 			simplex.add(supportPoint);
@@ -321,27 +392,29 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 		// get the last point added (a)
 		Vector2 a = simplex.get(simplex.size() - 1);
 		// this is the same as a.to(ORIGIN);
-		Vector2 ao = a.getNegative();
+		double aox = -a.x;
+		double aoy = -a.y;
 		// check to see what type of simplex we have
 		if (simplex.size() == 3) {
 			// then we have a triangle
 			Vector2 b = simplex.get(1);
 			Vector2 c = simplex.get(0);
 			// get the edges
-			Vector2 ab = a.to(b);
-			Vector2 ac = a.to(c);
+			double abx = b.x - a.x;
+			double aby = b.y - a.y;
+			double acx = c.x - a.x;
+			double acy = c.y - a.y;
 			// get the edge normal
 			
 			// inline Vector2.tripleProduct(ab, ac, ac) so we can use the
 			// immidiate calculations for Vector2.tripleProduct(ac, ab, ab) too
 			
-			Vector2 acPerp = new Vector2();
-			double dot = ab.x * ac.y - ac.x * ab.y;
-			acPerp.x = -ac.y * dot;
-			acPerp.y = ac.x * dot;
+			double dot = abx * acy - acx * aby;
+			double acPerpx = -acy * dot;
+			double acPerpy = acx * dot;
 			
 			// see where the origin is at
-			double acLocation = acPerp.dot(ao);
+			double acLocation = acPerpx * aox + acPerpy * aoy;
 			if (acLocation >= 0.0) {
 				// the origin lies on the right side of A->C
 				// because of the condition for the gjk loop to continue the origin 
@@ -352,16 +425,15 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 				// but was changed since the origin may lie on the segment created
 				// by a -> c in which case would produce a zero vector normal
 				// calculating ac's normal using b is more robust
-				direction.set(acPerp);
+				direction.set(acPerpx, acPerpy);
 			} else {
 				// inlined Vector2.tripleProduct(ac, ab, ab) because
 				// it can use dot from the tripleProduct(ab, ab, ac) above
 				// see Vector2.tripleProduct implementation
-				Vector2 abPerp = new Vector2();
-				abPerp.x = ab.y * dot;
-				abPerp.y = -ab.x * dot;
+				double abPerpx = aby * dot;
+				double abPerpy = -abx * dot;
 				
-				double abLocation = abPerp.dot(ao);
+				double abLocation = abPerpx * aox + abPerpy * aoy;
 				// the origin lies on the left side of A->C
 				if (abLocation < 0.0) {
 					// the origin lies on the right side of A->B and therefore in the
@@ -375,23 +447,28 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 					// but was changed since the origin may lie on the segment created
 					// by a -> b in which case would produce a zero vector normal
 					// calculating ab's normal using c is more robust
-					direction.set(abPerp);
+					direction.set(abPerpx, abPerpy);
 				}
 			}
 		} else {
 			// get the b point
 			Vector2 b = simplex.get(0);
-			Vector2 ab = a.to(b);
+			double abx = b.x - a.x;
+			double aby = b.y - a.y;
 			// otherwise we have 2 points (line segment)
 			// because of the condition for the gjk loop to continue the origin 
 			// must lie in between A and B, so keep both points in the simplex and
 			// set the direction to the perp of the line segment towards the origin
-			direction.set(Vector2.tripleProduct(ab, ao, ab));
+			// this is Vector2.tripleProduct(ab, ao, ab) inlined
+			double dot = abx * aoy - aox * aby;
+			direction.x = -aby * dot;
+			direction.y = abx * dot;
 			// check for degenerate cases where the origin lies on the segment
 			// created by a -> b which will yield a zero edge normal
 			if (direction.getMagnitudeSquared() <= Epsilon.E) {
 				// in this case just choose either normal (left or right)
-				direction.set(ab.left());
+				// this is ab.left()
+				direction.set(aby, -abx);
 			}
 		}
 		return false;
@@ -407,30 +484,39 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 			// if its a circle - circle collision use the faster method
 			return CircleDetector.distance((Circle) convex1, transform1, (Circle) convex2, transform2, separation);
 		}
-		// create a Minkowski sum
-		MinkowskiSum ms = new MinkowskiSum(convex1, transform1, convex2, transform2);
-		// define some Minkowski points
-		MinkowskiSumPoint a = null;
-		MinkowskiSumPoint b = null;
-		MinkowskiSumPoint c = null;
+		GjkWorkspace workspace = this.workspaces.get();
+		// reuse the Minkowski sum
+		MinkowskiSum ms = workspace.minkowskiSum;
+		ms.set(convex1, transform1, convex2, transform2);
+		// reuse the Minkowski points, swapping them as they are replaced
+		MinkowskiSumPoint a = workspace.a;
+		MinkowskiSumPoint b = workspace.b;
+		MinkowskiSumPoint c = workspace.c;
+		// the last support point found
+		MinkowskiSumPoint last = null;
 		// transform into world space if transform is not null
-		Vector2 c1 = transform1.getTransformed(convex1.getCenter());
-		Vector2 c2 = transform2.getTransformed(convex2.getCenter());
+		Vector2 c1 = convex1.getCenter();
+		Vector2 c2 = convex2.getCenter();
 		// choose some search direction
-		Vector2 d = c1.to(c2);
+		Vector2 d = workspace.d;
+		d.x = transform2.getTransformedX(c2) - transform1.getTransformedX(c1);
+		d.y = transform2.getTransformedY(c2) - transform1.getTransformedY(c1);
 		// check for a zero direction vector
 		// a zero direction vector indicates that the center's are coincident
 		// which guarantees that the convex shapes are overlapping
 		if (d.isZero()) return false;
 		// add the first point 
-		a = ms.getSupportPoints(d);
+		ms.getSupportPoints(d, a);
 		// negate the direction
 		d.negate();
 		// get a second support point
-		b = ms.getSupportPoints(d);
+		ms.getSupportPoints(d, b);
 		// find the point on the simplex (segment) closest to the origin
 		// and use that as the new search direction
-		d = Segment.getPointOnSegmentClosestToPoint(ORIGIN, b.point, a.point);
+		Segment.getPointOnSegmentClosestToPoint(ORIGIN, b.point, a.point, d);
+		// the closest points on each segment to the origin
+		Vector2 p1 = workspace.p1;
+		Vector2 p2 = workspace.p2;
 		for (int i = 0; i < this.maxDistanceIterations; i++) {
 			// the vector from the point we found to the origin is the new search direction
 			d.negate();
@@ -441,7 +527,8 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 			}
 			
 			// get the farthest point along d
-			c = ms.getSupportPoints(d);
+			ms.getSupportPoints(d, c);
+			last = c;
 			
 			// test if the triangle made by a, b, and c contains the origin
 			if (this.containsOrigin(a.point, b.point, c.point)){
@@ -456,7 +543,7 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 				// in the direction of n so we can stop now
 				// normalize d
 				d.normalize();
-				separation.normal = d;
+				separation.normal = d.copy();
 				// compute the real distance
 				separation.distance = -c.point.dot(d);
 				// get the closest points
@@ -466,8 +553,8 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 			}
 			
 			// get the closest point on each segment to the origin
-			Vector2 p1 = Segment.getPointOnSegmentClosestToPoint(ORIGIN, a.point, c.point);
-			Vector2 p2 = Segment.getPointOnSegmentClosestToPoint(ORIGIN, c.point, b.point);
+			Segment.getPointOnSegmentClosestToPoint(ORIGIN, a.point, c.point, p1);
+			Segment.getPointOnSegmentClosestToPoint(ORIGIN, c.point, b.point, p2);
 			
 			// get the distance to the origin
 			double p1Mag = p1.getMagnitudeSquared();
@@ -479,7 +566,7 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 				// nearly zero separation)
 				d.normalize();
 				separation.distance = p1.normalize();
-				separation.normal = d;
+				separation.normal = d.copy();
 				this.findClosestPoints(a, c, separation);
 				return true;
 			} else if (p2Mag <= Epsilon.E) {
@@ -487,28 +574,31 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 				// nearly zero separation)
 				d.normalize();
 				separation.distance = p2.normalize();
-				separation.normal = d;
+				separation.normal = d.copy();
 				this.findClosestPoints(c, b, separation);
 				return true;
 			}
 			
 			// test which point is closer and replace the one that is farthest
 			// with the new point c and set the new search direction
+			MinkowskiSumPoint t = c;
 			if (p1Mag < p2Mag) {
 				// a was closest so replace b with c
-				b = c;
-				d = p1;
+				c = b;
+				b = t;
+				d.set(p1);
 			} else {
 				// b was closest so replace a with c
-				a = c;
-				d = p2;
+				c = a;
+				a = t;
+				d.set(p2);
 			}
 		}
 		// if we made it here then we know that we hit the maximum number of iterations
 		// this is really a catch all termination case
 		d.normalize();
-		separation.normal = d;
-		separation.distance = -c.point.dot(d);
+		separation.normal = d.copy();
+		separation.distance = -last.point.dot(d);
 		// get the closest points
 		this.findClosestPoints(a, b, separation);
 		// return true to indicate separation
@@ -618,6 +708,7 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 		}
 		
 		// otherwise proceed with GJK raycast
+		GjkWorkspace workspace = this.workspaces.get();
 		double lambda = 0;
 		
 		// do we need to check against the max length?
@@ -630,11 +721,13 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 		// get the start point of the ray
 		Vector2 start = ray.getStart();
 		// x is the current closest point on the ray
-		Vector2 x = start;
+		Vector2 x = workspace.x;
+		x.set(start);
 		// r is the ray direction
 		Vector2 r = ray.getDirectionVector();
 		// n is the normal at the hit point
-		Vector2 n = new Vector2();
+		Vector2 n = workspace.n;
+		n.zero();
 		
 		// is the start point contained in the convex?
 		if (convex.contains(start, transform)) {
@@ -644,9 +737,16 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 		
 		// get an arbitrary point within the convex shape
 		// we can use the center point
-		Vector2 c = transform.getTransformed(convex.getCenter());
+		Vector2 c = convex.getCenter();
 		// the center to the start point
-		Vector2 d = c.to(x);
+		Vector2 d = workspace.d;
+		d.x = x.x - transform.getTransformedX(c);
+		d.y = x.y - transform.getTransformedY(c);
+		// the closest points on the simplex segments and temporaries
+		Vector2 p1 = workspace.p1;
+		Vector2 p2 = workspace.p2;
+		Vector2 ab = workspace.ab;
+		Vector2 ax = workspace.ax;
 		
 		// define an epsilon to compare the distance with
 		double distanceSqrd = Double.MAX_VALUE;
@@ -656,10 +756,11 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 			// get a point on the edge of the convex in the direction of d
 			Vector2 p = convex.getFarthestPoint(d, transform);
 			// get the vector from the current closest point to the edge point
-			Vector2 w = p.to(x);
+			double wx = x.x - p.x;
+			double wy = x.y - p.y;
 			// is the current point on the ray to the new point
 			// in the same direction as d?
-			double dDotW = d.dot(w);
+			double dDotW = d.x * wx + d.y * wy;
 			if (dDotW > 0.0) {
 				// is the ray direction in the same direction as d?
 				double dDotR = d.dot(r);
@@ -676,7 +777,8 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 						// then return false
 						return false;
 					}
-					x = r.product(lambda).add(start);
+					x.x = r.x * lambda + start.x;
+					x.y = r.y * lambda + start.y;
 					// set d as the best normal we have so far
 					// d will be normalized when the loop terminates
 					n.set(d);
@@ -688,8 +790,8 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 				if (b != null) {
 					// reduce the set to two points
 					// get the closest point on each segment to the origin
-					Vector2 p1 = Segment.getPointOnSegmentClosestToPoint(x, a, p);
-					Vector2 p2 = Segment.getPointOnSegmentClosestToPoint(x, p, b);
+					Segment.getPointOnSegmentClosestToPoint(x, a, p, p1);
+					Segment.getPointOnSegmentClosestToPoint(x, p, b, p2);
 					
 					// test which point is closer and replace the one that is farthest
 					// with the new point p and set the new search direction
@@ -705,16 +807,16 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 						distanceSqrd = p2.distanceSquared(x);
 					}
 					// get the new search direction
-					Vector2 ab = a.to(b);
-					Vector2 ax = a.to(x);
-					d = Vector2.tripleProduct(ab, ax, ab);
+					ab.set(b.x - a.x, b.y - a.y);
+					ax.set(x.x - a.x, x.y - a.y);
+					Vector2.tripleProduct(ab, ax, ab, d);
 				} else {
 					// b is null so just set b
 					b = p;
 					// get the new search direction
-					Vector2 ab = a.to(b);
-					Vector2 ax = a.to(x);
-					d = Vector2.tripleProduct(ab, ax, ab);
+					ab.set(b.x - a.x, b.y - a.y);
+					ax.set(x.x - a.x, x.y - a.y);
+					Vector2.tripleProduct(ab, ax, ab, d);
 				}
 			} else {
 				// both a and b are null so just set a and use -d as the
@@ -736,8 +838,9 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 		}
 		
 		// set the raycast result values
-		raycast.point = x;
-		raycast.normal = n; n.normalize();
+		raycast.point = x.copy();
+		n.normalize();
+		raycast.normal = n.copy();
 		raycast.distance = lambda;
 		
 		// return true to indicate that we were successful
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.narrowphase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Represents the reusable state of the {@link Gjk} algorithms.
+ * <p>
+ * A workspace is used by one thread at a time so that {@link Gjk} can perform detection,
+ * distance, and raycast queries without creating temporary objects.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+final class GjkWorkspace {
+	/** The simplex for detection */
+	final List<Vector2> simplex;
+	
+	/** The Minkowski sum */
+	final MinkowskiSum minkowskiSum;
+	
+	/** The first Minkowski sum point for distance */
+	final MinkowskiSumPoint a;
+	
+	/** The second Minkowski sum point for distance */
+	final MinkowskiSumPoint b;
+	
+	/** The third Minkowski sum point for distance */
+	final MinkowskiSumPoint c;
+	
+	/** The search direction */
+	final Vector2 d;
+	
+	/** The first closest point */
+	final Vector2 p1;
+	
+	/** The second closest point */
+	final Vector2 p2;
+	
+	/** The current closest point on the ray for raycasting */
+	final Vector2 x;
+	
+	/** The hit normal for raycasting */
+	final Vector2 n;
+	
+	/** The simplex edge for raycasting */
+	final Vector2 ab;
+	
+	/** The vector from the simplex to the closest point on the ray for raycasting */
+	final Vector2 ax;
+	
+	/** The number of iterations performed by the last detection */
+	int iterations;
+	
+	/**
+	 * Default constructor.
+	 */
+	public GjkWorkspace() {
+		this.simplex = new ArrayList<Vector2>(3);
+		this.minkowskiSum = new MinkowskiSum(null, null, null, null);
+		this.a = new MinkowskiSumPoint();
+		this.b = new MinkowskiSumPoint();
+		this.c = new MinkowskiSumPoint();
+		this.d = new Vector2();
+		this.p1 = new Vector2();
+		this.p2 = new Vector2();
+		this.x = new Vector2();
+		this.n = new Vector2();
+		this.ab = new Vector2();
+		this.ax = new Vector2();
+	}
+}
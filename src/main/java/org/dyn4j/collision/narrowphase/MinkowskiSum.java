@@ -36,21 +36,21 @@ import org.dyn4j.geometry.Vector2;
  * <p>
  * This class doesn't actually compute the Minkowski sum.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  */
 public class MinkowskiSum {
 	/** The first {@link Convex} */
-	final Convex convex1;
+	Convex convex1;
 	
 	/** The second {@link Convex} */
-	final Convex convex2;
+	Convex convex2;
 	
 	/** The first {@link Convex}'s {@link Transform} */
-	final Transform transform1;
+	Transform transform1;
 	
 	/** The second {@link Convex}'s {@link Transform} */
-	final Transform transform2;
+	Transform transform2;
 		
 	/**
 	 * Full constructor.
@@ -66,6 +66,23 @@ public class MinkowskiSum {
 		this.transform2 = transform2;
 	}
 	
+	/**
+	 * Sets the {@link Convex}s and {@link Transform}s of this Minkowski sum.
+	 * <p>
+	 * Used to reuse a Minkowski sum between detections.
+	 * @param convex1 the first {@link Convex}
+	 * @param transform1 the first {@link Convex}'s {@link Transform}
+	 * @param convex2 the second {@link Convex}
+	 * @param transform2 the second {@link Convex}'s {@link Transform}
+	 * @since 3.3.0
+	 */
+	void set(Convex convex1, Transform transform1, Convex convex2, Transform transform2) {
+		this.convex1 = convex1;
+		this.convex2 = convex2;
+		this.transform1 = transform1;
+		this.transform2 = transform2;
+	}
+	
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -111,6 +128,25 @@ public class MinkowskiSum {
 		// set the Minkowski sum point given the support points
 		return new MinkowskiSumPoint(point1, point2);
 	}
+	
+	/**
+	 * Computes the farthest point in the Minkowski sum in the given direction and places
+	 * it in the given {@link MinkowskiSumPoint}.
+	 * @param direction the search direction
+	 * @param point the {@link MinkowskiSumPoint} to fill
+	 * @see #getSupportPoints(Vector2)
+	 * @since 3.3.0
+	 */
+	final void getSupportPoints(Vector2 direction, MinkowskiSumPoint point) {
+		// get the farthest point in the given direction in convex1
+		Vector2 point1 = this.convex1.getFarthestPoint(direction, this.transform1);
+		direction.negate();
+		// get the farthest point in the opposite direction in convex2
+		Vector2 point2 = this.convex2.getFarthestPoint(direction, this.transform2);
+		direction.negate();
+		// set the Minkowski sum point given the support points
+		point.set(point1, point2);
+	}
 
 	/**
 	 * Returns the first {@link Convex} {@link Shape}.
@@ -31,19 +31,27 @@ import org.dyn4j.geometry.Vector2;
 /**
  * Represents a point in the {@link MinkowskiSum}.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  */
 public class MinkowskiSumPoint {
 	/** The support point in the first {@link Convex} {@link Shape} */
-	final Vector2 supportPoint1;
+	Vector2 supportPoint1;
 	
 	/** The support point in the second {@link Convex} {@link Shape} */
-	final Vector2 supportPoint2;
+	Vector2 supportPoint2;
 	
 	/** The Minkowski sum point */
 	final Vector2 point;
 	
+	/**
+	 * Creates an empty Minkowski sum point for reuse.
+	 * @since 3.3.0
+	 */
+	MinkowskiSumPoint() {
+		this.point = new Vector2();
+	}
+	
 	/**
 	 * Full constructor.
 	 * @param supportPoint1 the support point in the first {@link Convex} {@link Shape}
@@ -55,6 +63,19 @@ public class MinkowskiSumPoint {
 		this.point = supportPoint1.difference(supportPoint2);
 	}
 	
+	/**
+	 * Sets the support points of this Minkowski sum point and computes the point in place.
+	 * @param supportPoint1 the support point in the first {@link Convex} {@link Shape}
+	 * @param supportPoint2 the support point in the second {@link Convex} {@link Shape}
+	 * @since 3.3.0
+	 */
+	void set(Vector2 supportPoint1, Vector2 supportPoint2) {
+		this.supportPoint1 = supportPoint1;
+		this.supportPoint2 = supportPoint2;
+		this.point.x = supportPoint1.x - supportPoint2.x;
+		this.point.y = supportPoint1.y - supportPoint2.y;
+	}
+	
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.narrowphase;
+
+import org.dyn4j.geometry.Interval;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Represents the state a {@link CachingNarrowphaseDetector} keeps between tests of the same
+ * pair of {@link org.dyn4j.geometry.Convex} shapes.
+ * <p>
+ * The cache holds the world space axis that separated the shapes the last time they were
+ * tested.  The axis points from the first shape toward the second: the projection of the 
+ * first shape onto it was entirely below the projection of the second.  Since shapes move 
+ * very little from one step to the next, the axis is usually still separating and the next 
+ * test can end after projecting onto it.
+ * <p>
+ * The axis is cleared when the shapes are found to be intersecting.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class NarrowphaseCache {
+	/** The separating axis; the zero vector if not set */
+	final Vector2 axis;
+	
+	/**
+	 * Default constructor.
+	 */
+	public NarrowphaseCache() {
+		this.axis = new Vector2();
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("NarrowphaseCache[Axis=").append(this.axis)
+		.append("]");
+		return sb.toString();
+	}
+	
+	/**
+	 * Clears the cached axis.
+	 */
+	public void clear() {
+		this.axis.zero();
+	}
+	
+	/**
+	 * Returns true if no axis has been cached.
+	 * @return boolean
+	 */
+	public boolean isEmpty() {
+		return this.axis.isZero();
+	}
+	
+	/**
+	 * Returns a copy of the cached separating axis.
+	 * @return {@link Vector2}; the zero vector if not set
+	 */
+	public Vector2 getAxis() {
+		return this.axis.copy();
+	}
+	
+	/**
+	 * Sets the cached separating axis.
+	 * <p>
+	 * The axis should point from the first shape toward the second.
+	 * @param axis the separating axis
+	 * @throws NullPointerException if axis is null
+	 */
+	public void setAxis(Vector2 axis) {
+		this.axis.set(axis);
+	}
+	
+	/**
+	 * Sets the cached axis to the given axis that separates the given projections, orienting it 
+	 * from the first shape toward the second.
+	 * @param axis the separating axis
+	 * @param interval1 the projection of the first shape onto the axis
+	 * @param interval2 the projection of the second shape onto the axis
+	 */
+	void setAxis(Vector2 axis, Interval interval1, Interval interval2) {
+		this.axis.set(axis);
+		if (interval1.getMin() > interval2.getMax()) {
+			this.axis.negate();
+		}
+	}
+}
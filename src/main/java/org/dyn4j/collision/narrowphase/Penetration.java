@@ -34,7 +34,7 @@ import org.dyn4j.geometry.Vector2;
  * The penetration normal should always be a normalized vector that points from the first
  * {@link Convex} {@link Shape} to the second.
  * @author William Bittle
- * @version 3.0.2
+ * @version 3.3.0
  * @since 1.0.0
  */
 public class Penetration {
@@ -44,6 +44,12 @@ public class Penetration {
 	/** The penetration amount on this axis */
 	protected double depth;
 	
+	/** The number of iterations used to detect the collision */
+	protected int detectIterations;
+	
+	/** The number of iterations used to find the penetration */
+	protected int penetrationIterations;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -77,6 +83,8 @@ public class Penetration {
 	public void clear() {
 		this.normal = null;
 		this.depth = 0;
+		this.detectIterations = 0;
+		this.penetrationIterations = 0;
 	}
 	
 	/**
@@ -112,4 +120,29 @@ public class Penetration {
 	public void setDepth(double depth) {
 		this.depth = depth;
 	}
+	
+	/**
+	 * Returns the number of iterations the {@link NarrowphaseDetector} used to detect
+	 * the collision.
+	 * <p>
+	 * This is the number of {@link Gjk} iterations, whether or not a collision was found.
+	 * Detectors that are not iterative report zero.
+	 * @return int
+	 * @since 3.3.0
+	 */
+	public int getDetectIterations() {
+		return this.detectIterations;
+	}
+	
+	/**
+	 * Returns the number of iterations the {@link MinkowskiPenetrationSolver} used to find
+	 * the penetration.
+	 * <p>
+	 * This is the number of {@link Epa} iterations.  Detectors that are not iterative report zero.
+	 * @return int
+	 * @since 3.3.0
+	 */
+	public int getPenetrationIterations() {
+		return this.penetrationIterations;
+	}
 }
@@ -46,16 +46,24 @@ import org.dyn4j.geometry.Vector2;
  * with the least overlap.  The normal will be the edge normal of the {@link Interval} and the depth will be the {@link Interval}
  * overlap.
  * @author William Bittle
- * @version 3.0.2
+ * @version 3.3.0
  * @since 1.0.0
  * @see <a href="http://www.dyn4j.org/2010/01/sat/" target="_blank">SAT (Separating Axis Theorem)</a>
  */
-public class Sat implements NarrowphaseDetector {
+public class Sat implements NarrowphaseDetector, CachingNarrowphaseDetector {
 	/* (non-Javadoc)
 	 * @see org.dyn4j.collision.narrowphase.NarrowphaseDetector#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.narrowphase.Penetration)
 	 */
 	@Override
 	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration) {
+		return this.detect(convex1, transform1, convex2, transform2, penetration, null);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.narrowphase.CachingNarrowphaseDetector#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.narrowphase.Penetration, org.dyn4j.collision.narrowphase.NarrowphaseCache)
+	 */
+	@Override
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, NarrowphaseCache cache) {
 		// check for circles
 		if (convex1 instanceof Circle && convex2 instanceof Circle) {
 			// if its a circle - circle collision use the faster method
@@ -63,6 +71,16 @@ public class Sat implements NarrowphaseDetector {
 		}
 		
 		penetration.clear();
+		
+		// test the last separating axis first
+		if (cache != null && !cache.isEmpty()) {
+			Interval intervalA = convex1.project(cache.axis, transform1);
+			Interval intervalB = convex2.project(cache.axis, transform2);
+			if (!intervalA.overlaps(intervalB)) {
+				return false;
+			}
+		}
+		
 		Vector2 n = null;
 		double overlap = Double.MAX_VALUE;
 		
@@ -88,7 +106,8 @@ public class Sat implements NarrowphaseDetector {
 		            // if the intervals do not overlap then the two shapes
 		            // cannot be intersecting
 		            if (!intervalA.overlaps(intervalB)) {
-		            	// the shapes cannot be intersecting so immediately return null
+		            	// the shapes cannot be intersecting so save the axis and immediately return
+		            	if (cache != null) cache.setAxis(axis, intervalA, intervalB);
 		            	return false;
 		            } else {
 		            	// get the overlap
@@ -133,7 +152,8 @@ public class Sat implements NarrowphaseDetector {
 		            // if the intervals do not overlap then the two shapes
 		            // cannot be intersecting
 		            if (!intervalA.overlaps(intervalB)) {
-		            	// the shapes cannot be intersecting so immediately return null
+		            	// the shapes cannot be intersecting so save the axis and immediately return
+		            	if (cache != null) cache.setAxis(axis, intervalA, intervalB);
 		            	return false;
 		            } else {
 		            	// if the intervals do overlap then get save the depth and axis
@@ -176,6 +196,7 @@ public class Sat implements NarrowphaseDetector {
 		// fill the penetration object
 		penetration.normal = n;
 		penetration.depth = overlap;
+		if (cache != null) cache.clear();
 		// return true
         return true;
 	}
@@ -127,12 +127,36 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 	/** The beginning transform for CCD */
 	Transform transform0;
 	
+	/** The swept {@link AABB} cached once per time step for CCD */
+	AABB sweptAABB;
+	
 	/** The {@link Body}'s state */
 	private int state;
 	
 	/** The world this body belongs to */
 	World world;
 	
+	/** The id assigned by the world this body belongs to; -1 otherwise */
+	int worldId;
+	
+	/** True if this body is on its world's list of awake bodies */
+	boolean onAwakeList;
+	
+	/** The transform at the last broad-phase update */
+	final Transform broadphaseTransform;
+	
+	/** True if the broad-phase must be updated even if the transform hasn't changed */
+	boolean broadphaseDirty;
+	
+	/** True if the body was asleep or static and didn't move during the last detection */
+	boolean stationary;
+	
+	/** The batches of the constraints on this body when solving constraints in parallel */
+	long batches;
+	
+	/** The index of this body on the last {@link Island} it was added to */
+	int islandIndex;
+	
 	/** The time that the {@link Body} has been waiting to be put sleep */
 	double sleepTime;
 
@@ -181,9 +205,13 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 	public Body(int fixtureCount) {
 		super(fixtureCount);
 		this.world = null;
+		this.worldId = -1;
 		this.radius = 0.0;
 		this.mass = new Mass();
 		this.transform0 = new Transform();
+		this.broadphaseTransform = new Transform();
+		this.broadphaseDirty = true;
+		this.stationary = false;
 		this.velocity = new Vector2();
 		this.angularVelocity = 0.0;
 		this.force = new Vector2();
@@ -306,10 +334,13 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 		fixture.setRestitution(restitution);
 		// add the fixture to the body
 		this.fixtures.add(fixture);
+		fixture.body = this;
 		// add the fixture to the broadphase
 		if (this.world != null) {
+			this.world.assignId(fixture);
 			this.world.broadphaseDetector.add(this, fixture);
 		}
+		this.broadphaseDirty = true;
 		// return the fixture so the caller can configure it
 		return fixture;
 	}
@@ -322,10 +353,13 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 		if (fixture == null) throw new NullPointerException(Messages.getString("dynamics.body.addNullFixture"));
 		// add the shape and mass to the respective lists
 		this.fixtures.add(fixture);
+		fixture.body = this;
 		// add the fixture to the broadphase
 		if (this.world != null) {
+			this.world.assignId(fixture);
 			this.world.broadphaseDetector.add(this, fixture);
 		}
+		this.broadphaseDirty = true;
 		// return this body to facilitate chaining
 		return this;
 	}
@@ -338,7 +372,13 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 		if (this.world != null) {
 			this.world.broadphaseDetector.remove(this, fixture);
 		}
-		return super.removeFixture(fixture);
+		boolean removed = super.removeFixture(fixture);
+		if (removed) {
+			fixture.worldId = -1;
+			fixture.body = null;
+			this.broadphaseDirty = true;
+		}
+		return removed;
 	}
 	
 	/* (non-Javadoc)
@@ -350,6 +390,11 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 		if (this.world != null) {
 			this.world.broadphaseDetector.remove(this, fixture);
 		}
+		if (fixture != null) {
+			fixture.worldId = -1;
+			fixture.body = null;
+			this.broadphaseDirty = true;
+		}
 		return fixture;
 	}
 	
@@ -362,6 +407,11 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 		if (this.world != null) {
 			this.world.broadphaseDetector.remove(this, fixture);
 		}
+		if (fixture != null) {
+			fixture.worldId = -1;
+			fixture.body = null;
+			this.broadphaseDirty = true;
+		}
 		return fixture;
 	}
 	
@@ -377,6 +427,12 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 				this.world.broadphaseDetector.remove(this, fixtures.get(i));
 			}
 		}
+		for (int i = 0; i < size; i++) {
+			BodyFixture fixture = fixtures.get(i);
+			fixture.worldId = -1;
+			fixture.body = null;
+		}
+		this.broadphaseDirty = true;
 		return fixtures;
 	}
 	
@@ -392,9 +448,30 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 				this.world.broadphaseDetector.remove(this, fixtures.get(i));
 			}
 		}
+		for (int i = 0; i < size; i++) {
+			BodyFixture fixture = fixtures.get(i);
+			fixture.worldId = -1;
+			fixture.body = null;
+		}
+		this.broadphaseDirty = true;
 		return fixtures;
 	}
 	
+	/**
+	 * Makes sure this {@link Body} is updated in the broad-phase and its contacts are
+	 * recomputed on the next step, even if it's asleep or static and hasn't moved.
+	 * <p>
+	 * The {@link World} skips the broad-phase update of static and sleeping {@link Body}s
+	 * that haven't moved or changed.  Changes made through the methods of this {@link Body} 
+	 * or its {@link BodyFixture}s are detected automatically, but a {@link Convex} shape that
+	 * is modified in place, for example using its translate or rotate methods, is not.  Call
+	 * this method after modifying the shape of a {@link BodyFixture} in place.
+	 * @since 3.3.0
+	 */
+	public void invalidateBroadphase() {
+		this.broadphaseDirty = true;
+	}
+	
 	/**
 	 * This method should be called after fixture modification
 	 * is complete.
@@ -463,6 +540,8 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 		this.mass.setType(type);
 		// compute the rotation disc radius
 		this.setRotationDiscRadius();
+		// the fixtures may have been modified
+		this.broadphaseDirty = true;
 		// return this body to facilitate chaining
 		return this;
 	}
@@ -480,6 +559,8 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 		this.mass = mass;
 		// compute the rotation disc radius
 		this.setRotationDiscRadius();
+		// the fixtures may have been modified
+		this.broadphaseDirty = true;
 		return this;
 	}
 	
@@ -502,6 +583,7 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 		if (type == null) throw new NullPointerException(Messages.getString("dynamics.body.nullMassType"));
 		// otherwise just set the type
 		this.mass.setType(type);
+		this.broadphaseDirty = true;
 		// return this body
 		return this;
 	}
@@ -1010,6 +1092,10 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 				// if the body is asleep then wake it up
 				this.sleepTime = 0.0;
 				this.state &= ~Body.ASLEEP;
+				// let the world know so it's simulated again
+				if (this.world != null) {
+					this.world.addAwakeBody(this);
+				}
 			}
 			// otherwise do nothing
 		}
@@ -1029,6 +1115,10 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 	 */
 	public void setActive(boolean flag) {
 		if (flag) {
+			// inactive bodies retain stale contacts
+			if ((this.state & Body.ACTIVE) != Body.ACTIVE) {
+				this.broadphaseDirty = true;
+			}
 			this.state |= Body.ACTIVE;
 		} else {
 			this.state &= ~Body.ACTIVE;
@@ -1196,6 +1286,9 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 	 * <p>
 	 * This transform represents the last frame's position and
 	 * orientation.
+	 * <p>
+	 * The transform is only updated while the body is awake.  For a sleeping body
+	 * this is the transform when it was last awake.
 	 * @return {@link Transform}
 	 */
 	public Transform getInitialTransform() {
@@ -1625,4 +1718,16 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 		// return the connected bodies
 		return contactPoints;
 	}
+	
+	/**
+	 * Returns the id assigned to this {@link Body} by the {@link World} it was added to.
+	 * <p>
+	 * The id is unique within the {@link World} and is not reused when the body is
+	 * removed.  Returns -1 if this {@link Body} has not been added to a {@link World}.
+	 * @return int
+	 * @since 3.3.0
+	 */
+	public int getWorldId() {
+		return this.worldId;
+	}
 }
\ No newline at end of file
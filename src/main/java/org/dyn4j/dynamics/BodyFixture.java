@@ -25,6 +25,7 @@
 package org.dyn4j.dynamics;
 
 import org.dyn4j.DataContainer;
+import org.dyn4j.collision.Filter;
 import org.dyn4j.collision.Fixture;
 import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.Mass;
@@ -37,7 +38,7 @@ import org.dyn4j.resources.Messages;
  * {@link BodyFixture} extends the {@link Fixture} class, adding physical features
  * like density and friction.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 2.0.0
  * @see Fixture
  */
@@ -60,6 +61,12 @@ public class BodyFixture extends Fixture implements DataContainer {
 	/** The coefficient of restitution */
 	protected double restitution;
 	
+	/** The id assigned by the world this fixture's body belongs to; -1 otherwise */
+	int worldId;
+	
+	/** The body this fixture was added to; null otherwise */
+	Body body;
+	
 	/**
 	 * Minimal constructor.
 	 * @param shape the {@link Convex} {@link Shape} for this fixture
@@ -69,6 +76,7 @@ public class BodyFixture extends Fixture implements DataContainer {
 		this.density = BodyFixture.DEFAULT_DENSITY;
 		this.friction = BodyFixture.DEFAULT_FRICTION;
 		this.restitution = BodyFixture.DEFAULT_RESTITUTION;
+		this.worldId = -1;
 	}
 	
 	/* (non-Javadoc)
@@ -170,6 +178,43 @@ public class BodyFixture extends Fixture implements DataContainer {
 		this.restitution = restitution;
 	}
 	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.Fixture#setShape(org.dyn4j.geometry.Convex)
+	 */
+	@Override
+	public void setShape(Convex shape) {
+		super.setShape(shape);
+		this.invalidateBroadphase();
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.Fixture#setFilter(org.dyn4j.collision.Filter)
+	 */
+	@Override
+	public void setFilter(Filter filter) {
+		super.setFilter(filter);
+		this.invalidateBroadphase();
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.Fixture#setSensor(boolean)
+	 */
+	@Override
+	public void setSensor(boolean flag) {
+		super.setSensor(flag);
+		this.invalidateBroadphase();
+	}
+	
+	/**
+	 * Makes sure the {@link Body} this fixture was added to is updated in the broad-phase
+	 * and its contacts are recomputed, even if it's asleep or static and hasn't moved.
+	 */
+	private void invalidateBroadphase() {
+		if (this.body != null) {
+			this.body.broadphaseDirty = true;
+		}
+	}
+	
 	/**
 	 * Creates a new {@link Mass} object using the set density and shape.
 	 * @return {@link Mass}
@@ -177,4 +222,20 @@ public class BodyFixture extends Fixture implements DataContainer {
 	public Mass createMass() {
 		return this.shape.createMass(this.density);
 	}
+	
+	/**
+	 * Returns the id assigned to this {@link BodyFixture} by the {@link World} its
+	 * {@link Body} was added to.
+	 * <p>
+	 * The id is unique within the {@link World} and is not reused when the fixture or
+	 * its body is removed.  Returns -1 if the fixture's {@link Body} has not been added
+	 * to a {@link World}.
+	 * <p>
+	 * A fixture should only be added to one {@link Body}.
+	 * @return int
+	 * @since 3.3.0
+	 */
+	public int getWorldId() {
+		return this.worldId;
+	}
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.List;
+
+import org.dyn4j.collision.broadphase.BroadphaseRaycastCallback;
+import org.dyn4j.collision.narrowphase.Raycast;
+import org.dyn4j.collision.narrowphase.RaycastDetector;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Ray;
+
+/**
+ * Represents a {@link BroadphaseRaycastCallback} that tests the items found by the broad-phase against
+ * the ray and keeps only the closest result.
+ * <p>
+ * Each time a closer result is found the ray is clipped so that the broad-phase can skip any
+ * items beyond it.
+ * <p>
+ * This class is not thread safe; use one instance per thread.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+final class ClosestRaycastCallback implements BroadphaseRaycastCallback<Body, BodyFixture> {
+	/** The broad-phase filter */
+	private final RaycastBroadphaseFilter filter;
+	
+	/** The raycast detector */
+	private final RaycastDetector detector;
+	
+	/** The raycast listeners */
+	private final List<RaycastListener> listeners;
+	
+	/** The raycast object to test with */
+	private Raycast raycast;
+	
+	/** The closest {@link Body}; null if nothing has been found */
+	Body body;
+	
+	/** The closest {@link BodyFixture} */
+	BodyFixture fixture;
+	
+	/** The closest raycast result */
+	Raycast result;
+	
+	/**
+	 * Full constructor.
+	 * @param filter the broad-phase filter
+	 * @param detector the raycast detector
+	 * @param listeners the raycast listeners
+	 */
+	public ClosestRaycastCallback(RaycastBroadphaseFilter filter, RaycastDetector detector, List<RaycastListener> listeners) {
+		this.filter = filter;
+		this.detector = detector;
+		this.listeners = listeners;
+		this.raycast = new Raycast();
+		this.result = new Raycast();
+	}
+	
+	/**
+	 * Clears the closest result so that this callback can be used for another raycast.
+	 */
+	public void reset() {
+		this.body = null;
+		this.fixture = null;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseRaycastCallback#found(org.dyn4j.geometry.Ray, double, org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public double found(Ray ray, double length, Body body, BodyFixture fixture) {
+		if (!this.filter.isAllowed(ray, length, body, fixture)) return length;
+		
+		List<RaycastListener> listeners = this.listeners;
+		int rlSize = listeners.size();
+		
+		// notify the listeners to see if we should test this fixture
+		boolean allow = true;
+		for (int j = 0; j < rlSize; j++) {
+			RaycastListener rl = listeners.get(j);
+			if (!rl.allow(ray, body, fixture)) {
+				allow = false;
+			}
+		}
+		if (!allow) return length;
+		
+		Raycast raycast = this.raycast;
+		Convex convex = fixture.getShape();
+		// perform the raycast against the current (possibly clipped) length
+		if (this.detector.raycast(ray, length, convex, body.getTransform(), raycast)) {
+			// notify the listeners to see if we should allow this result
+			for (int j = 0; j < rlSize; j++) {
+				RaycastListener rl = listeners.get(j);
+				if (!rl.allow(ray, body, fixture, raycast)) {
+					allow = false;
+				}
+			}
+			if (!allow) return length;
+			
+			// keep the closest and swap the raycast objects
+			// so that neither is allocated again
+			this.body = body;
+			this.fixture = fixture;
+			this.raycast = this.result;
+			this.result = raycast;
+			
+			// clip the ray
+			return raycast.getDistance();
+		}
+		
+		return length;
+	}
+}
@@ -30,15 +30,15 @@ import org.dyn4j.resources.Messages;
 /**
  * Represents some physical constraint between a pair of {@link Body}s.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  */
 public abstract class Constraint implements Shiftable {
 	/** The first {@link Body} */
-	protected final Body body1;
+	protected Body body1;
 	
 	/** The second {@link Body} */
-	protected final Body body2;
+	protected Body body2;
 	
 	// internal
 	
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dyn4j.Parallel;
+import org.dyn4j.dynamics.contact.SequentialImpulses;
+import org.dyn4j.dynamics.joint.Joint;
+
+/**
+ * Groups a list of {@link Constraint}s into batches where no two {@link Constraint}s in the
+ * same batch share a dynamic {@link Body}, so that the {@link Constraint}s of a batch can be
+ * solved concurrently.
+ * <p>
+ * The batches are found by greedily coloring the constraint graph.  Each dynamic {@link Body}
+ * tracks the batches its {@link Constraint}s have been placed in and each {@link Constraint} is
+ * placed in the first batch that neither of its bodies are in.  A {@link Constraint} that can't be
+ * placed in any of the {@link #MAXIMUM_BATCHES} batches is placed in a final batch that is 
+ * solved serially.
+ * <p>
+ * Bodies with infinite mass do not limit the batches, otherwise every contact with the ground would
+ * need its own batch.  This means that the {@link Constraint}s of a batch can share a {@link Body} with
+ * infinite mass.  The {@link SequentialImpulses} solver skips these bodies entirely.  The {@link Joint}s
+ * still apply their impulses to them, but scaled by an inverse mass and inertia of zero, so every write
+ * stores the value that was already there.  The other threads only ever read that same value, so these
+ * writes don't change the result.
+ * <p>
+ * The batches are split into chunks that are handed to the workers.  The workers are started
+ * once per call to {@link #execute(Executor, Work)} and claim the chunks in order.  Before a
+ * worker runs a chunk it waits until all the chunks of the previous batches have completed, so
+ * the batches are still solved one after another without starting new workers for each batch.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @param <E> the {@link Constraint} type
+ */
+final class ConstraintBatches<E extends Constraint> {
+	/** The maximum number of batches that can be solved concurrently */
+	static final int MAXIMUM_BATCHES = 64;
+	
+	/** The minimum number of {@link Constraint}s in a chunk */
+	static final int MINIMUM_CHUNK_SIZE = 32;
+	
+	/**
+	 * Represents the work performed on a chunk of {@link Constraint}s.
+	 * @author William Bittle
+	 * @version 3.3.0
+	 * @since 3.3.0
+	 * @param <E> the {@link Constraint} type
+	 */
+	static interface Work<E> {
+		/**
+		 * Performs the work on the given chunk of {@link Constraint}s.
+		 * @param constraints the {@link Constraint}s
+		 * @return boolean the result of the work
+		 */
+		public boolean run(List<E> constraints);
+	}
+	
+	/** The {@link Constraint}s ordered by batch */
+	private final List<E> constraints;
+	
+	/** The chunks of the {@link Constraint}s */
+	private final List<List<E>> chunks;
+	
+	/** The index of the first chunk of each batch; the last element is the number of chunks */
+	private int[] batches;
+	
+	/** The number of batches */
+	private int batchCount;
+	
+	/** The result of each chunk */
+	private boolean[] results;
+	
+	/** The number of {@link Constraint}s in each batch; reused by {@link #build(List, List, int)} */
+	private final int[] counts;
+	
+	/** The next index of each batch; reused by {@link #build(List, List, int)} */
+	private final int[] offsets;
+	
+	/** The batch of each {@link Constraint}; reused by {@link #build(List, List, int)} */
+	private int[] assigned;
+	
+	/** The maximum number of workers the chunks are run on */
+	private int parallelism;
+	
+	/** The reusable task that runs the chunks of all the batches */
+	private final ChunkTask task;
+	
+	/**
+	 * Default constructor.
+	 */
+	public ConstraintBatches() {
+		this.constraints = new ArrayList<E>();
+		this.chunks = new ArrayList<List<E>>();
+		this.batches = new int[MAXIMUM_BATCHES + 2];
+		this.batchCount = 0;
+		this.results = new boolean[0];
+		this.counts = new int[MAXIMUM_BATCHES + 1];
+		this.offsets = new int[MAXIMUM_BATCHES + 1];
+		this.assigned = new int[0];
+		this.parallelism = 1;
+		this.task = new ChunkTask();
+	}
+	
+	/**
+	 * Builds the batches for the given {@link Constraint}s.
+	 * <p>
+	 * The given list of {@link Body}s must contain all the dynamic {@link Body}s of
+	 * the given {@link Constraint}s.
+	 * @param bodies the {@link Body}s
+	 * @param constraints the {@link Constraint}s
+	 * @param parallelism the maximum number of workers the chunks are run on
+	 */
+	public void build(List<Body> bodies, List<E> constraints, int parallelism) {
+		this.clear();
+		this.parallelism = parallelism;
+		
+		int size = constraints.size();
+		if (size == 0) return;
+		
+		int bSize = bodies.size();
+		for (int i = 0; i < bSize; i++) {
+			bodies.get(i).batches = 0;
+		}
+		
+		// assign a batch to each constraint
+		int[] counts = this.counts;
+		Arrays.fill(counts, 0);
+		if (this.assigned.length < size) {
+			this.assigned = new int[size];
+		}
+		int[] assigned = this.assigned;
+		for (int i = 0; i < size; i++) {
+			E constraint = constraints.get(i);
+			Body body1 = constraint.body1;
+			Body body2 = constraint.body2;
+			boolean dynamic1 = body1.isDynamic();
+			boolean dynamic2 = body2.isDynamic();
+			
+			// find the first batch neither body is in
+			long used = (dynamic1 ? body1.batches : 0) | (dynamic2 ? body2.batches : 0);
+			int batch = Long.numberOfTrailingZeros(~used);
+			if (batch < MAXIMUM_BATCHES) {
+				long bit = 1L << batch;
+				if (dynamic1) body1.batches |= bit;
+				if (dynamic2) body2.batches |= bit;
+			}
+			
+			assigned[i] = batch;
+			counts[batch]++;
+		}
+		
+		// order the constraints by batch (keeping their relative order)
+		int[] offsets = this.offsets;
+		int offset = 0;
+		for (int i = 0; i <= MAXIMUM_BATCHES; i++) {
+			offsets[i] = offset;
+			offset += counts[i];
+		}
+		List<E> ordered = this.constraints;
+		for (int i = 0; i < size; i++) {
+			ordered.add(null);
+		}
+		for (int i = 0; i < size; i++) {
+			ordered.set(offsets[assigned[i]]++, constraints.get(i));
+		}
+		
+		// split the batches into chunks
+		int workers = Parallel.getWorkerCount(parallelism, size);
+		int start = 0;
+		for (int i = 0; i <= MAXIMUM_BATCHES; i++) {
+			int count = counts[i];
+			if (count == 0) continue;
+			this.batches[this.batchCount++] = this.chunks.size();
+			// the final batch must be solved serially
+			int chunk = i == MAXIMUM_BATCHES ? count : Math.max(MINIMUM_CHUNK_SIZE, (count + workers - 1) / workers);
+			for (int j = 0; j < count; j += chunk) {
+				this.chunks.add(ordered.subList(start + j, start + Math.min(j + chunk, count)));
+			}
+			start += count;
+		}
+		this.batches[this.batchCount] = this.chunks.size();
+		
+		if (this.results.length < this.chunks.size()) {
+			this.results = new boolean[this.chunks.size()];
+		}
+	}
+	
+	/**
+	 * Performs the given work on all the chunks using the given {@link Executor}.
+	 * <p>
+	 * The batches are processed one after another and the chunks of each batch are 
+	 * processed concurrently.
+	 * <p>
+	 * If the work throws an exception the remaining chunks are skipped and the
+	 * exception is rethrown on the calling thread.
+	 * @param executor the {@link Executor}
+	 * @param work the work
+	 * @return boolean true if the work returned true for all the chunks
+	 */
+	public boolean execute(Executor executor, Work<E> work) {
+		int size = this.chunks.size();
+		if (size == 0) return true;
+		
+		ChunkTask task = this.task;
+		task.work = work;
+		task.next.set(0);
+		task.done.set(0);
+		task.failed = false;
+		try {
+			// the same workers run all the batches
+			Parallel.execute(executor, this.parallelism, Parallel.getWorkerCount(this.parallelism, size), task);
+		} finally {
+			task.work = null;
+		}
+		
+		boolean result = true;
+		for (int i = 0; i < size; i++) {
+			result = result && this.results[i];
+		}
+		return result;
+	}
+	
+	/**
+	 * Clears the batches.
+	 */
+	public void clear() {
+		this.constraints.clear();
+		this.chunks.clear();
+		this.batchCount = 0;
+	}
+	
+	/**
+	 * Returns the number of batches.
+	 * @return int
+	 */
+	public int getBatchCount() {
+		return this.batchCount;
+	}
+	
+	/**
+	 * Returns the {@link Constraint}s of the given batch.
+	 * @param batch the batch index
+	 * @return List&lt;E&gt;
+	 */
+	public List<E> getBatch(int batch) {
+		int start = 0;
+		for (int i = 0; i < this.batches[batch]; i++) {
+			start += this.chunks.get(i).size();
+		}
+		int end = start;
+		for (int i = this.batches[batch]; i < this.batches[batch + 1]; i++) {
+			end += this.chunks.get(i).size();
+		}
+		return this.constraints.subList(start, end);
+	}
+	
+	/**
+	 * Task that claims and performs the work on the chunks of all the batches.
+	 * <p>
+	 * Each run of this task is a worker that claims the chunks in order until there are
+	 * none left.  A chunk is only run once all the chunks of the previous batches have
+	 * completed.  The chunks are claimed in order, so the chunks being waited on have
+	 * always been claimed by a worker that is running them; even if the calling thread
+	 * ends up being the only worker it simply runs all the chunks in order.
+	 * @author William Bittle
+	 * @version 3.3.0
+	 * @since 3.3.0
+	 */
+	private final class ChunkTask implements Parallel.Task {
+		/** The work */
+		Work<E> work;
+		
+		/** The index of the next unclaimed chunk */
+		final AtomicInteger next = new AtomicInteger();
+		
+		/** The number of completed chunks */
+		final AtomicInteger done = new AtomicInteger();
+		
+		/** True if the work on a chunk failed */
+		volatile boolean failed;
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.Parallel.Task#run(int, int)
+		 */
+		public void run(int worker, int index) {
+			List<List<E>> chunks = ConstraintBatches.this.chunks;
+			int[] batches = ConstraintBatches.this.batches;
+			int size = chunks.size();
+			int batch = 0;
+			while (true) {
+				int chunk = this.next.getAndIncrement();
+				if (chunk >= size) return;
+				
+				// find the batch of the chunk
+				while (batches[batch + 1] <= chunk) {
+					batch++;
+				}
+				
+				// wait for the previous batches to complete
+				int required = batches[batch];
+				while (this.done.get() < required) {
+					if (this.failed) return;
+					Thread.yield();
+				}
+				
+				try {
+					ConstraintBatches.this.results[chunk] = this.work.run(chunks.get(chunk));
+				} catch (RuntimeException e) {
+					this.failed = true;
+					throw e;
+				} catch (Error e) {
+					this.failed = true;
+					throw e;
+				}
+				this.done.incrementAndGet();
+			}
+		}
+	}
+}
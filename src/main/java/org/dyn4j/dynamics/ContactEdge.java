@@ -29,10 +29,13 @@ import org.dyn4j.dynamics.contact.ContactConstraint;
 /**
  * Represents an interaction of a body in an interaction graph via a {@link ContactConstraint}.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  */
 final class ContactEdge extends InteractionEdge<ContactConstraint> {
+	/** True if the contact was carried forward during the current detection */
+	boolean carried;
+	
 	/**
 	 * Full constructor.
 	 * @param other the other {@link Body} in contact
@@ -41,4 +44,17 @@ final class ContactEdge extends InteractionEdge<ContactConstraint> {
 	public ContactEdge(Body other, ContactConstraint contactConstraint) {
 		super(other, contactConstraint);
 	}
+	
+	/**
+	 * Sets the other {@link Body} and {@link ContactConstraint} of this edge.
+	 * <p>
+	 * Used to recycle edges when contact pooling is enabled.
+	 * @param other the other {@link Body} in contact
+	 * @param contactConstraint the {@link ContactConstraint} between the {@link Body}s
+	 * @since 3.3.0
+	 */
+	void set(Body other, ContactConstraint contactConstraint) {
+		this.other = other;
+		this.interaction = contactConstraint;
+	}
 }
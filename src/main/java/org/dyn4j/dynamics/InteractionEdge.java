@@ -27,16 +27,16 @@ package org.dyn4j.dynamics;
 /**
  * Represents an interaction of a body in an interaction graph.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 3.2.0
  * @param <T> the interaction type
  */
 abstract class InteractionEdge<T> {
 	/** The connected body */
-	final Body other;
+	Body other;
 	
 	/** The interaction between the bodies */
-	final T interaction;
+	T interaction;
 	
 	/**
 	 * Full constructor.
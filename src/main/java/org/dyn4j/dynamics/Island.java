@@ -26,11 +26,14 @@ package org.dyn4j.dynamics;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.dyn4j.Epsilon;
 import org.dyn4j.collision.Collisions;
+import org.dyn4j.dynamics.contact.ArrayContactConstraintSolver;
 import org.dyn4j.dynamics.contact.ContactConstraint;
 import org.dyn4j.dynamics.contact.ContactConstraintSolver;
+import org.dyn4j.dynamics.contact.SolverBodyState;
 import org.dyn4j.dynamics.joint.Joint;
 import org.dyn4j.geometry.Interval;
 import org.dyn4j.geometry.Vector2;
@@ -39,10 +42,13 @@ import org.dyn4j.resources.Messages;
 /**
  * Used to solve the contact constraints and joints for a group of interconnected bodies.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  */
 final class Island {
+	/** The minimum number of constraints on an {@link Island} for them to be solved in parallel */
+	static final int PARALLEL_SOLVING_THRESHOLD = 2 * ConstraintBatches.MINIMUM_CHUNK_SIZE;
+	
 	/** The list of {@link Body}s on this {@link Island} */
 	final List<Body> bodies;
 
@@ -52,6 +58,36 @@ final class Island {
 	/** The list of {@link ContactConstraint}s on this {@link Island} */
 	final List<ContactConstraint> contactConstraints;
 	
+	/** The batches of {@link ContactConstraint}s when solving in parallel */
+	final ConstraintBatches<ContactConstraint> contactBatches;
+	
+	/** The batches of {@link Joint}s when solving in parallel */
+	final ConstraintBatches<Joint> jointBatches;
+	
+	/** The {@link Body} state when solving against arrays */
+	final SolverBodyState bodyState;
+	
+	/** 
+	 * The indices of the two {@link Body}s of each {@link ContactConstraint} in the {@link #bodies} list; 
+	 * recorded when the {@link ContactConstraint} is added since static {@link Body}s are shared by {@link Island}s 
+	 */
+	private int[] contactBodyIndices;
+	
+	/** True if static {@link Body}s should be put to sleep along with the {@link Island} */
+	boolean sleepStaticBodies;
+	
+	/** True if the last call to solve put the {@link Island} to sleep */
+	boolean asleep;
+	
+	/** The velocity solve time of the last call to solve when profiling is enabled */
+	long velocitySolveTime;
+	
+	/** The position solve time of the last call to solve when profiling is enabled */
+	long positionSolveTime;
+	
+	/** The sleep time of the last call to solve when profiling is enabled */
+	long sleepSolveTime;
+	
 	/**
 	 * Default constructor.
 	 * <p>
@@ -76,6 +112,12 @@ final class Island {
 		// estimated the number of contacts
 		int eSize = Collisions.getEstimatedCollisionPairs(initialCapacity.getBodyCount());
 		this.contactConstraints = new ArrayList<ContactConstraint>(eSize);
+		this.contactBatches = new ConstraintBatches<ContactConstraint>();
+		this.jointBatches = new ConstraintBatches<Joint>();
+		this.bodyState = new SolverBodyState();
+		this.contactBodyIndices = new int[eSize * 2];
+		this.sleepStaticBodies = true;
+		this.asleep = false;
 	}
 
 	/**
@@ -85,6 +127,10 @@ final class Island {
 		this.bodies.clear();
 		this.joints.clear();
 		this.contactConstraints.clear();
+		this.contactBatches.clear();
+		this.jointBatches.clear();
+		this.bodyState.clear();
+		this.asleep = false;
 	}
 	
 	/**
@@ -92,14 +138,26 @@ final class Island {
 	 * @param body the {@link Body}
 	 */
 	public void add(Body body) {
+		body.islandIndex = this.bodies.size();
 		this.bodies.add(body);
 	}
 	
 	/**
 	 * Adds the given {@link ContactConstraint} to the {@link ContactConstraint} list.
+	 * <p>
+	 * Both {@link Body}s of the {@link ContactConstraint} must have been added to this
+	 * {@link Island} already.
 	 * @param contactConstraint the {@link ContactConstraint}
 	 */
 	public void add(ContactConstraint contactConstraint) {
+		int index = this.contactConstraints.size() * 2;
+		if (index == this.contactBodyIndices.length) {
+			int[] indices = new int[Math.max(2, index * 2)];
+			System.arraycopy(this.contactBodyIndices, 0, indices, 0, index);
+			this.contactBodyIndices = indices;
+		}
+		this.contactBodyIndices[index] = contactConstraint.getBody1().islandIndex;
+		this.contactBodyIndices[index + 1] = contactConstraint.getBody2().islandIndex;
 		this.contactConstraints.add(contactConstraint);
 	}
 	
@@ -111,6 +169,50 @@ final class Island {
 		this.joints.add(joint);
 	}
 	
+	/**
+	 * Copies the velocities of the dynamic {@link Body}s into the {@link #bodyState}.
+	 * <p>
+	 * The {@link Body}s are stored in the {@link #bodyState} in the same order as the {@link #bodies} list.
+	 * @since 3.3.0
+	 */
+	private void loadBodyState() {
+		int size = this.bodies.size();
+		for (int i = 0; i < size; i++) {
+			Body body = this.bodies.get(i);
+			if (body.isDynamic()) {
+				this.bodyState.load(i, body);
+			}
+		}
+	}
+	
+	/**
+	 * Copies the velocities in the {@link #bodyState} back to the dynamic {@link Body}s.
+	 * <p>
+	 * Other {@link Body}s are skipped since their velocities can't have changed and
+	 * static {@link Body}s may be shared with {@link Island}s being solved on other threads.
+	 * @since 3.3.0
+	 */
+	private void storeBodyState() {
+		int size = this.bodies.size();
+		for (int i = 0; i < size; i++) {
+			Body body = this.bodies.get(i);
+			if (body.isDynamic()) {
+				this.bodyState.store(i, body);
+			}
+		}
+	}
+	
+	/**
+	 * Returns true if this {@link Island} has enough constraints to benefit from
+	 * solving them in parallel.
+	 * @return boolean
+	 * @see #solve(ContactConstraintSolver, Vector2, Step, Settings, Executor)
+	 * @since 3.3.0
+	 */
+	public boolean isParallelSolvable() {
+		return this.contactConstraints.size() + this.joints.size() >= PARALLEL_SOLVING_THRESHOLD;
+	}
+	
 	/**
 	 * Integrates the {@link Body}s, solves all {@link ContactConstraint}s and
 	 * {@link Joint}s, and attempts to sleep motionless {@link Body}s.
@@ -120,6 +222,25 @@ final class Island {
 	 * @param settings the current world settings
 	 */
 	public void solve(ContactConstraintSolver solver, Vector2 gravity, Step step, Settings settings) {
+		this.solve(solver, gravity, step, settings, null);
+	}
+	
+	/**
+	 * Integrates the {@link Body}s, solves all {@link ContactConstraint}s and
+	 * {@link Joint}s, and attempts to sleep motionless {@link Body}s.
+	 * <p>
+	 * If an {@link Executor} is given and the {@link Island} is {@link #isParallelSolvable()},
+	 * the {@link ContactConstraint}s and {@link Joint}s are split into {@link ConstraintBatches}
+	 * and the constraints of each batch are solved concurrently.  The given solver is called with
+	 * chunks of a batch from multiple threads and must be thread-safe.
+	 * @param solver the contact constraint solver
+	 * @param gravity the gravity vector
+	 * @param step the time step information
+	 * @param settings the current world settings
+	 * @param executor the executor used to solve the constraints in parallel; can be null
+	 * @since 3.3.0
+	 */
+	public void solve(final ContactConstraintSolver solver, Vector2 gravity, final Step step, final Settings settings, Executor executor) {
 		// the number of solver iterations
 		int velocitySolverIterations = settings.getVelocityConstraintSolverIterations();
 		int positionSolverIterations = settings.getPositionConstraintSolverIterations();
@@ -127,6 +248,9 @@ final class Island {
 		double sleepAngularVelocity = settings.getSleepAngularVelocity();
 		double sleepLinearVelocitySquared = settings.getSleepLinearVelocitySquared();
 		double sleepTime = settings.getSleepTime();
+		// only take timings when profiling
+		boolean profiling = settings.isStepProfilingEnabled();
+		long time = profiling ? System.nanoTime() : 0;
 
 		int size = this.bodies.size();
 		int jSize = this.joints.size();
@@ -170,24 +294,111 @@ final class Island {
 			body.angularVelocity *= angular;
 		}
 		
-		// initialize the solver
-		solver.initialize(this.contactConstraints, step, settings);
-		
-		// initialize joint constraints
-		for (int i = 0; i < jSize; i++) {
-			Joint joint = this.joints.get(i);
-			joint.initializeConstraints(step, settings);
+		// check if the constraints should be solved in parallel
+		boolean parallel = executor != null && this.isParallelSolvable();
+		ConstraintBatches<ContactConstraint> contactBatches = this.contactBatches;
+		ConstraintBatches<Joint> jointBatches = this.jointBatches;
+		if (parallel) {
+			contactBatches.build(this.bodies, this.contactConstraints, settings.getParallelism());
+			jointBatches.build(this.bodies, this.joints, settings.getParallelism());
+			
+			// initialize the solver and joint constraints
+			contactBatches.execute(executor, new ConstraintBatches.Work<ContactConstraint>() {
+				public boolean run(List<ContactConstraint> contactConstraints) {
+					solver.initialize(contactConstraints, step, settings);
+					return true;
+				}
+			});
+			jointBatches.execute(executor, new ConstraintBatches.Work<Joint>() {
+				public boolean run(List<Joint> joints) {
+					int size = joints.size();
+					for (int i = 0; i < size; i++) {
+						joints.get(i).initializeConstraints(step, settings);
+					}
+					return true;
+				}
+			});
+		} else {
+			// initialize the solver
+			solver.initialize(this.contactConstraints, step, settings);
+			
+			// initialize joint constraints
+			for (int i = 0; i < jSize; i++) {
+				Joint joint = this.joints.get(i);
+				joint.initializeConstraints(step, settings);
+			}
 		}
 
 		// solve the velocity constraints
-		for (int i = 0; i < velocitySolverIterations; i++) {
-			// solve the joint velocity constraints
-			for (int j = 0; j < jSize; j++) {
-				Joint joint = this.joints.get(j);
-				joint.solveVelocityConstraints(step, settings);
+		if (parallel) {
+			ConstraintBatches.Work<Joint> jointWork = new ConstraintBatches.Work<Joint>() {
+				public boolean run(List<Joint> joints) {
+					int size = joints.size();
+					for (int i = 0; i < size; i++) {
+						joints.get(i).solveVelocityConstraints(step, settings);
+					}
+					return true;
+				}
+			};
+			ConstraintBatches.Work<ContactConstraint> contactWork = new ConstraintBatches.Work<ContactConstraint>() {
+				public boolean run(List<ContactConstraint> contactConstraints) {
+					solver.solveVelocityContraints(contactConstraints, step, settings);
+					return true;
+				}
+			};
+			for (int i = 0; i < velocitySolverIterations; i++) {
+				jointBatches.execute(executor, jointWork);
+				contactBatches.execute(executor, contactWork);
 			}
+		} else if (settings.isArraySolvingEnabled() && solver instanceof ArrayContactConstraintSolver) {
+			ArrayContactConstraintSolver arraySolver = (ArrayContactConstraintSolver)solver;
+			SolverBodyState state = this.bodyState;
 			
-			solver.solveVelocityContraints(this.contactConstraints, step, settings);
+			// copy the body state into the arrays in the same order as the bodies
+			// list so that the indices recorded when adding the contacts can be used
+			state.clear();
+			for (int i = 0; i < size; i++) {
+				state.add(this.bodies.get(i));
+			}
+			int[] indices = this.contactBodyIndices;
+			int cSize = this.contactConstraints.size();
+			for (int i = 0; i < cSize; i++) {
+				state.bind(this.contactConstraints.get(i), indices[i * 2], indices[i * 2 + 1]);
+			}
+			
+			for (int i = 0; i < velocitySolverIterations; i++) {
+				// the joints are solved against the bodies so the
+				// state must be copied back and forth around them
+				if (jSize > 0) {
+					if (i > 0) this.storeBodyState();
+					for (int j = 0; j < jSize; j++) {
+						Joint joint = this.joints.get(j);
+						joint.solveVelocityConstraints(step, settings);
+					}
+					this.loadBodyState();
+				}
+				
+				arraySolver.solveVelocityContraints(this.contactConstraints, state, step, settings);
+			}
+			
+			// copy the body state back to the bodies
+			this.storeBodyState();
+		} else {
+			for (int i = 0; i < velocitySolverIterations; i++) {
+				// solve the joint velocity constraints
+				for (int j = 0; j < jSize; j++) {
+					Joint joint = this.joints.get(j);
+					joint.solveVelocityConstraints(step, settings);
+				}
+				
+				solver.solveVelocityContraints(this.contactConstraints, step, settings);
+			}
+		}
+		
+		if (profiling) {
+			long now = System.nanoTime();
+			this.velocitySolveTime = now - time;
+			time = now;
 		}
 		
 		// the max settings
@@ -235,23 +446,56 @@ final class Island {
 		
 		// solve the position constraints
 		boolean positionConstraintsSolved = false;
-		for (int i = 0; i < positionSolverIterations; i++) {
-			boolean contactsSolved = solver.solvePositionContraints(this.contactConstraints, step, settings);
-			
-			// solve the joint position constraints
-			boolean jointsSolved = true;
-			for (int j = 0; j < jSize; j++) {
-				Joint joint = this.joints.get(j);
-				boolean jointSolved = joint.solvePositionConstraints(step, settings);
-				jointsSolved = jointsSolved && jointSolved;
+		if (parallel) {
+			ConstraintBatches.Work<ContactConstraint> contactWork = new ConstraintBatches.Work<ContactConstraint>() {
+				public boolean run(List<ContactConstraint> contactConstraints) {
+					return solver.solvePositionContraints(contactConstraints, step, settings);
+				}
+			};
+			ConstraintBatches.Work<Joint> jointWork = new ConstraintBatches.Work<Joint>() {
+				public boolean run(List<Joint> joints) {
+					boolean jointsSolved = true;
+					int size = joints.size();
+					for (int i = 0; i < size; i++) {
+						boolean jointSolved = joints.get(i).solvePositionConstraints(step, settings);
+						jointsSolved = jointsSolved && jointSolved;
+					}
+					return jointsSolved;
+				}
+			};
+			for (int i = 0; i < positionSolverIterations; i++) {
+				boolean contactsSolved = contactBatches.execute(executor, contactWork);
+				boolean jointsSolved = jointBatches.execute(executor, jointWork);
+				if (contactsSolved && jointsSolved) {
+					positionConstraintsSolved = true;
+					break;
+				}
 			}
-			
-			if (contactsSolved && jointsSolved) {
-				positionConstraintsSolved = true;
-				break;
+		} else {
+			for (int i = 0; i < positionSolverIterations; i++) {
+				boolean contactsSolved = solver.solvePositionContraints(this.contactConstraints, step, settings);
+				
+				// solve the joint position constraints
+				boolean jointsSolved = true;
+				for (int j = 0; j < jSize; j++) {
+					Joint joint = this.joints.get(j);
+					boolean jointSolved = joint.solvePositionConstraints(step, settings);
+					jointsSolved = jointsSolved && jointSolved;
+				}
+				
+				if (contactsSolved && jointsSolved) {
+					positionConstraintsSolved = true;
+					break;
+				}
 			}
 		}
 		
+		if (profiling) {
+			long now = System.nanoTime();
+			this.positionSolveTime = now - time;
+			time = now;
+		}
+		
 		// see if sleep is enabled
 		if (settings.isAutoSleepingEnabled()) {
 			double minSleepTime = Double.MAX_VALUE;
@@ -283,9 +527,17 @@ final class Island {
 			if (minSleepTime >= sleepTime && positionConstraintsSolved) {
 				for (int i = 0; i < size; i++) {
 					Body body = this.bodies.get(i);
+					// static bodies can be shared by islands being solved
+					// on other threads, in which case the caller handles them
+					if (!this.sleepStaticBodies && body.isStatic()) continue;
 					body.setAsleep(true);
 				}
+				this.asleep = true;
 			}
 		}
+		
+		if (profiling) {
+			this.sleepSolveTime = System.nanoTime() - time;
+		}
 	}
 }
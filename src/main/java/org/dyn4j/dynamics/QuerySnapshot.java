@@ -0,0 +1,803 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.dyn4j.collision.Filter;
+import org.dyn4j.collision.continuous.TimeOfImpact;
+import org.dyn4j.collision.continuous.TimeOfImpactDetector;
+import org.dyn4j.collision.narrowphase.NarrowphaseDetector;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.collision.narrowphase.Raycast;
+import org.dyn4j.collision.narrowphase.RaycastDetector;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Represents an immutable snapshot of the bodies in a {@link World} that can be queried from
+ * any number of threads while the {@link World} continues to be stepped.
+ * <p>
+ * A snapshot captures the transform and active state of each {@link Body} and the {@link AABB},
+ * shape, filter and sensor flag of each {@link BodyFixture} when it's created.  The queries only
+ * use the captured state so they are unaffected by the steps that follow and by fixtures that are
+ * given a new shape, filter or sensor flag.  When {@link Settings#isQuerySnapshotEnabled()} 
+ * is true, the {@link World} publishes a new snapshot at the end of each step which can be 
+ * retrieved, without locking, using {@link World#getQuerySnapshot()}.
+ * <p>
+ * Snapshots are versioned.  Each snapshot published by a {@link World} has a larger version than
+ * the last.
+ * <p>
+ * The results refer to the {@link Body} and {@link BodyFixture} objects of the {@link World}.  The
+ * shapes and filters are captured by reference, so a {@link Convex} shape or {@link Filter} that
+ * is modified in place should not be modified while a snapshot is being queried.  The detectors of the {@link World} must be thread safe to 
+ * query from multiple threads; the default detectors are.
+ * <p>
+ * Unlike the query methods of the {@link World}, the {@link DetectListener}s, {@link RaycastListener}s
+ * and {@link ConvexCastListener}s are not notified.  Use a {@link Filter} to exclude fixtures instead.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public final class QuerySnapshot {
+	/** The maximum number of fixtures in a leaf node */
+	private static final int LEAF_SIZE = 4;
+	
+	/** The version of this snapshot */
+	private final long version;
+	
+	/** The bodies */
+	private final Body[] bodies;
+	
+	/** The captured transforms of the bodies */
+	private final Transform[] transforms;
+	
+	/** The captured active state of the bodies */
+	private final boolean[] active;
+	
+	/** The fixtures in leaf order */
+	private final BodyFixture[] fixtures;
+	
+	/** The index of the body of each fixture */
+	private final int[] fixtureBodies;
+	
+	/** The captured shapes of the fixtures */
+	private final Convex[] shapes;
+	
+	/** The captured filters of the fixtures */
+	private final Filter[] filters;
+	
+	/** The captured sensor flags of the fixtures */
+	private final boolean[] sensors;
+	
+	/** The minimum x values of the fixture AABBs */
+	private final double[] minX;
+	
+	/** The minimum y values of the fixture AABBs */
+	private final double[] minY;
+	
+	/** The maximum x values of the fixture AABBs */
+	private final double[] maxX;
+	
+	/** The maximum y values of the fixture AABBs */
+	private final double[] maxY;
+	
+	/** The minimum x values of the node AABBs */
+	private final double[] nodeMinX;
+	
+	/** The minimum y values of the node AABBs */
+	private final double[] nodeMinY;
+	
+	/** The maximum x values of the node AABBs */
+	private final double[] nodeMaxX;
+	
+	/** The maximum y values of the node AABBs */
+	private final double[] nodeMaxY;
+	
+	/** The index of the first fixture of a leaf or the first child of an internal node */
+	private final int[] nodeStart;
+	
+	/** The number of fixtures of a leaf node; zero for internal nodes */
+	private final int[] nodeCount;
+	
+	/** The depth of the hierarchy */
+	private final int depth;
+	
+	/** The narrow-phase detector */
+	private final NarrowphaseDetector narrowphaseDetector;
+	
+	/** The raycast detector */
+	private final RaycastDetector raycastDetector;
+	
+	/** The time of impact detector */
+	private final TimeOfImpactDetector timeOfImpactDetector;
+	
+	/**
+	 * Full constructor.
+	 * <p>
+	 * Captures the current state of the given bodies.
+	 * @param version the version of this snapshot
+	 * @param bodies the bodies to capture
+	 * @param narrowphaseDetector the narrow-phase detector used by the detect methods
+	 * @param raycastDetector the raycast detector used by the raycast methods
+	 * @param timeOfImpactDetector the time of impact detector used by the convex cast methods
+	 */
+	QuerySnapshot(long version, List<Body> bodies, NarrowphaseDetector narrowphaseDetector, RaycastDetector raycastDetector, TimeOfImpactDetector timeOfImpactDetector) {
+		this.version = version;
+		this.narrowphaseDetector = narrowphaseDetector;
+		this.raycastDetector = raycastDetector;
+		this.timeOfImpactDetector = timeOfImpactDetector;
+		
+		// capture the bodies
+		int bSize = bodies.size();
+		int fSize = 0;
+		this.bodies = new Body[bSize];
+		this.transforms = new Transform[bSize];
+		this.active = new boolean[bSize];
+		for (int i = 0; i < bSize; i++) {
+			Body body = bodies.get(i);
+			this.bodies[i] = body;
+			this.transforms[i] = new Transform(body.getTransform());
+			this.active[i] = body.isActive();
+			fSize += body.getFixtureCount();
+		}
+		
+		// capture the fixtures
+		Builder builder = new Builder(fSize);
+		BodyFixture[] fixtures = new BodyFixture[fSize];
+		int[] fixtureBodies = new int[fSize];
+		Convex[] shapes = new Convex[fSize];
+		int n = 0;
+		for (int i = 0; i < bSize; i++) {
+			Body body = this.bodies[i];
+			Transform transform = this.transforms[i];
+			int fCount = body.getFixtureCount();
+			for (int j = 0; j < fCount; j++) {
+				BodyFixture fixture = body.getFixture(j);
+				Convex shape = fixture.getShape();
+				fixtures[n] = fixture;
+				fixtureBodies[n] = i;
+				shapes[n] = shape;
+				builder.set(n, shape.createAABB(transform));
+				n++;
+			}
+		}
+		
+		// build the hierarchy and store the fixtures in leaf order
+		builder.build();
+		int[] order = builder.order;
+		this.fixtures = new BodyFixture[fSize];
+		this.fixtureBodies = new int[fSize];
+		this.shapes = new Convex[fSize];
+		this.filters = new Filter[fSize];
+		this.sensors = new boolean[fSize];
+		this.minX = new double[fSize];
+		this.minY = new double[fSize];
+		this.maxX = new double[fSize];
+		this.maxY = new double[fSize];
+		for (int i = 0; i < fSize; i++) {
+			int k = order[i];
+			this.fixtures[i] = fixtures[k];
+			this.fixtureBodies[i] = fixtureBodies[k];
+			this.shapes[i] = shapes[k];
+			this.filters[i] = fixtures[k].getFilter();
+			this.sensors[i] = fixtures[k].isSensor();
+			this.minX[i] = builder.minX[k];
+			this.minY[i] = builder.minY[k];
+			this.maxX[i] = builder.maxX[k];
+			this.maxY[i] = builder.maxY[k];
+		}
+		
+		int size = builder.size;
+		this.nodeMinX = Arrays.copyOf(builder.nodeMinX, size);
+		this.nodeMinY = Arrays.copyOf(builder.nodeMinY, size);
+		this.nodeMaxX = Arrays.copyOf(builder.nodeMaxX, size);
+		this.nodeMaxY = Arrays.copyOf(builder.nodeMaxY, size);
+		this.nodeStart = Arrays.copyOf(builder.nodeStart, size);
+		this.nodeCount = Arrays.copyOf(builder.nodeCount, size);
+		this.depth = builder.depth;
+	}
+	
+	/**
+	 * Builds a bounding volume hierarchy over a set of AABBs by splitting them
+	 * at the median center along the longest axis.
+	 * <p>
+	 * The children of a node are stored next to each other.
+	 * @author William Bittle
+	 * @version 3.3.0
+	 * @since 3.3.0
+	 */
+	private static final class Builder {
+		/** The AABB order; leaves refer to ranges of this array */
+		final int[] order;
+		
+		/** The minimum x values */
+		final double[] minX;
+		
+		/** The minimum y values */
+		final double[] minY;
+		
+		/** The maximum x values */
+		final double[] maxX;
+		
+		/** The maximum y values */
+		final double[] maxY;
+		
+		/** The centers of the AABBs along the split axis */
+		final double[] center;
+		
+		/** The minimum x values of the nodes */
+		final double[] nodeMinX;
+		
+		/** The minimum y values of the nodes */
+		final double[] nodeMinY;
+		
+		/** The maximum x values of the nodes */
+		final double[] nodeMaxX;
+		
+		/** The maximum y values of the nodes */
+		final double[] nodeMaxY;
+		
+		/** The first AABB of a leaf or the first child of an internal node */
+		final int[] nodeStart;
+		
+		/** The number of AABBs of a leaf; zero for internal nodes */
+		final int[] nodeCount;
+		
+		/** The number of nodes */
+		int size;
+		
+		/** The depth of the hierarchy */
+		int depth;
+		
+		/**
+		 * Full constructor.
+		 * @param count the number of AABBs
+		 */
+		public Builder(int count) {
+			this.order = new int[count];
+			this.minX = new double[count];
+			this.minY = new double[count];
+			this.maxX = new double[count];
+			this.maxY = new double[count];
+			this.center = new double[count];
+			// a binary tree with n leaves has 2n - 1 nodes
+			int capacity = Math.max(1, 2 * count - 1);
+			this.nodeMinX = new double[capacity];
+			this.nodeMinY = new double[capacity];
+			this.nodeMaxX = new double[capacity];
+			this.nodeMaxY = new double[capacity];
+			this.nodeStart = new int[capacity];
+			this.nodeCount = new int[capacity];
+		}
+		
+		/**
+		 * Sets the AABB at the given index.
+		 * @param index the index
+		 * @param aabb the AABB
+		 */
+		public void set(int index, AABB aabb) {
+			this.order[index] = index;
+			this.minX[index] = aabb.getMinX();
+			this.minY[index] = aabb.getMinY();
+			this.maxX[index] = aabb.getMaxX();
+			this.maxY[index] = aabb.getMaxY();
+		}
+		
+		/**
+		 * Builds the hierarchy.
+		 */
+		public void build() {
+			int count = this.order.length;
+			if (count == 0) return;
+			this.size = 1;
+			this.build(0, 0, count, 1);
+		}
+		
+		/**
+		 * Builds the given node from the AABBs in the range [start, end).
+		 * @param node the node
+		 * @param start the first AABB
+		 * @param end one past the last AABB
+		 * @param level the depth of the node
+		 */
+		private void build(int node, int start, int end, int level) {
+			if (level > this.depth) this.depth = level;
+			
+			// compute the bounds of the node and its centers
+			double x0 = Double.MAX_VALUE, y0 = Double.MAX_VALUE;
+			double x1 = -Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+			double cx0 = Double.MAX_VALUE, cy0 = Double.MAX_VALUE;
+			double cx1 = -Double.MAX_VALUE, cy1 = -Double.MAX_VALUE;
+			for (int i = start; i < end; i++) {
+				int k = this.order[i];
+				x0 = Math.min(x0, this.minX[k]);
+				y0 = Math.min(y0, this.minY[k]);
+				x1 = Math.max(x1, this.maxX[k]);
+				y1 = Math.max(y1, this.maxY[k]);
+				double cx = (this.minX[k] + this.maxX[k]) * 0.5;
+				double cy = (this.minY[k] + this.maxY[k]) * 0.5;
+				cx0 = Math.min(cx0, cx);
+				cy0 = Math.min(cy0, cy);
+				cx1 = Math.max(cx1, cx);
+				cy1 = Math.max(cy1, cy);
+			}
+			this.nodeMinX[node] = x0;
+			this.nodeMinY[node] = y0;
+			this.nodeMaxX[node] = x1;
+			this.nodeMaxY[node] = y1;
+			
+			// check for a leaf
+			if (end - start <= LEAF_SIZE) {
+				this.nodeStart[node] = start;
+				this.nodeCount[node] = end - start;
+				return;
+			}
+			
+			// split at the median center along the longest axis
+			boolean xAxis = (cx1 - cx0) >= (cy1 - cy0);
+			for (int i = start; i < end; i++) {
+				int k = this.order[i];
+				this.center[k] = xAxis ? this.minX[k] + this.maxX[k] : this.minY[k] + this.maxY[k];
+			}
+			int mid = (start + end) >>> 1;
+			this.select(start, end, mid);
+			
+			int left = this.size;
+			this.size += 2;
+			this.nodeStart[node] = left;
+			this.nodeCount[node] = 0;
+			this.build(left, start, mid, level + 1);
+			this.build(left + 1, mid, end, level + 1);
+		}
+		
+		/**
+		 * Partially sorts the AABBs in the range [start, end) by their centers such
+		 * that the AABB at k is in its sorted position.
+		 * @param start the first AABB
+		 * @param end one past the last AABB
+		 * @param k the index to select
+		 */
+		private void select(int start, int end, int k) {
+			int[] order = this.order;
+			double[] center = this.center;
+			int lo = start;
+			int hi = end - 1;
+			while (lo < hi) {
+				double pivot = center[order[(lo + hi) >>> 1]];
+				int i = lo;
+				int j = hi;
+				while (i <= j) {
+					while (center[order[i]] < pivot) i++;
+					while (center[order[j]] > pivot) j--;
+					if (i <= j) {
+						int t = order[i];
+						order[i] = order[j];
+						order[j] = t;
+						i++;
+						j--;
+					}
+				}
+				if (k <= j) {
+					hi = j;
+				} else if (k >= i) {
+					lo = i;
+				} else {
+					break;
+				}
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("QuerySnapshot[Version=").append(this.version)
+		.append("|BodyCount=").append(this.bodies.length)
+		.append("|FixtureCount=").append(this.fixtures.length)
+		.append("]");
+		return sb.toString();
+	}
+	
+	/**
+	 * Returns the version of this snapshot.
+	 * @return long
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+	
+	/**
+	 * Returns the number of bodies in this snapshot.
+	 * @return int
+	 */
+	public int getBodyCount() {
+		return this.bodies.length;
+	}
+	
+	/**
+	 * Returns the number of fixtures in this snapshot.
+	 * @return int
+	 */
+	public int getFixtureCount() {
+		return this.fixtures.length;
+	}
+	
+	/**
+	 * Returns the {@link Body} at the given index.
+	 * <p>
+	 * The bodies are in the same order as the {@link World} when the snapshot was created.
+	 * @param index the index of the body
+	 * @return {@link Body}
+	 * @throws IndexOutOfBoundsException if index is not in the range [0, {@link #getBodyCount()})
+	 */
+	public Body getBody(int index) {
+		return this.bodies[index];
+	}
+	
+	/**
+	 * Returns a copy of the captured transform of the {@link Body} at the given index.
+	 * @param index the index of the body
+	 * @return {@link Transform}
+	 * @throws IndexOutOfBoundsException if index is not in the range [0, {@link #getBodyCount()})
+	 */
+	public Transform getTransform(int index) {
+		return this.transforms[index].copy();
+	}
+	
+	/**
+	 * Returns the captured active state of the {@link Body} at the given index.
+	 * @param index the index of the body
+	 * @return boolean
+	 * @throws IndexOutOfBoundsException if index is not in the range [0, {@link #getBodyCount()})
+	 */
+	public boolean isActive(int index) {
+		return this.active[index];
+	}
+	
+	/**
+	 * Returns true if the given AABB overlaps a {@link Body} in this snapshot.
+	 * <p>
+	 * If this method returns true, the results list will contain the bodies and
+	 * fixtures whose AABBs overlap the given AABB.
+	 * @param aabb the world space {@link AABB}
+	 * @param filter the {@link Filter} to use against the fixtures; can be null
+	 * @param ignoreSensors true if sensor fixtures should be ignored
+	 * @param ignoreInactive true if inactive bodies should be ignored
+	 * @param results the list of overlapping bodies and fixtures
+	 * @return boolean true if the AABB overlaps any fixture
+	 * @see World#detect(AABB, Filter, boolean, boolean, List)
+	 */
+	public boolean detect(AABB aabb, Filter filter, boolean ignoreSensors, boolean ignoreInactive, List<DetectResult> results) {
+		int[] items = this.detect(aabb.getMinX(), aabb.getMinY(), aabb.getMaxX(), aabb.getMaxY(), filter, ignoreSensors, ignoreInactive);
+		int size = items.length;
+		for (int i = 0; i < size; i++) {
+			int k = items[i];
+			results.add(new DetectResult(this.bodies[this.fixtureBodies[k]], this.fixtures[k]));
+		}
+		return size > 0;
+	}
+	
+	/**
+	 * Returns true if the given {@link Convex} overlaps a {@link Body} in this snapshot.
+	 * <p>
+	 * If this method returns true, the results list will contain the bodies and
+	 * fixtures that the convex overlaps.
+	 * <p>
+	 * Use the <code>includeCollisionData</code> parameter to have the {@link Penetration} object
+	 * filled in the {@link DetectResult}s.  Including this information will have a performance impact.
+	 * @param convex the convex shape in local coordinates
+	 * @param transform the convex shape's world transform
+	 * @param filter the {@link Filter} to use against the fixtures; can be null
+	 * @param ignoreSensors true if sensor fixtures should be ignored
+	 * @param ignoreInactive true if inactive bodies should be ignored
+	 * @param includeCollisionData true if the overlap {@link Penetration} should be returned
+	 * @param results the list of overlapping bodies and fixtures
+	 * @return boolean true if an overlap was found
+	 * @see World#detect(Convex, Transform, Filter, boolean, boolean, boolean, List)
+	 */
+	public boolean detect(Convex convex, Transform transform, Filter filter, boolean ignoreSensors, boolean ignoreInactive, boolean includeCollisionData, List<DetectResult> results) {
+		AABB aabb = convex.createAABB(transform);
+		int[] items = this.detect(aabb.getMinX(), aabb.getMinY(), aabb.getMaxX(), aabb.getMaxY(), filter, ignoreSensors, ignoreInactive);
+		int size = items.length;
+		boolean found = false;
+		for (int i = 0; i < size; i++) {
+			int k = items[i];
+			int b = this.fixtureBodies[k];
+			BodyFixture fixture = this.fixtures[k];
+			Convex bc = this.shapes[k];
+			Transform bt = this.transforms[b];
+			
+			boolean collision = false;
+			Penetration penetration = (includeCollisionData ? new Penetration() : null); 
+			if (includeCollisionData) {
+				collision = this.narrowphaseDetector.detect(convex, transform, bc, bt, penetration);
+			} else {
+				collision = this.narrowphaseDetector.detect(convex, transform, bc, bt);
+			}
+			if (collision) {
+				results.add(new DetectResult(this.bodies[b], fixture, penetration));
+				found = true;
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * Performs a raycast against all the bodies in this snapshot.
+	 * <p>
+	 * If the all flag is false, the results list will only contain the closest result (if any).
+	 * <p>
+	 * Pass 0 into the maxLength field to specify an infinite length {@link Ray}.
+	 * <p>
+	 * Bodies that contain the start of the ray will not be included in the results.
+	 * @param ray the {@link Ray}
+	 * @param maxLength the maximum length of the ray; 0 for infinite length
+	 * @param filter the {@link Filter} to use against the fixtures; can be null
+	 * @param ignoreSensors true if sensor {@link BodyFixture}s should be ignored
+	 * @param ignoreInactive true if inactive bodies should be ignored
+	 * @param all true if all intersected {@link Body}s should be returned; false if only the closest {@link Body} should be returned
+	 * @param results a list to contain the results of the raycast
+	 * @return boolean true if at least one {@link Body} was intersected by the given {@link Ray}
+	 * @see World#raycast(Ray, double, Filter, boolean, boolean, boolean, List)
+	 */
+	public boolean raycast(Ray ray, double maxLength, Filter filter, boolean ignoreSensors, boolean ignoreInactive, boolean all, List<RaycastResult> results) {
+		if (this.fixtures.length == 0) return false;
+		
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+		double l = maxLength > 0.0 ? maxLength : Double.MAX_VALUE;
+		
+		// compute the bounds of the ray
+		double x2 = s.x + d.x * l;
+		double y2 = s.y + d.y * l;
+		double aMinX = Math.min(s.x, x2);
+		double aMinY = Math.min(s.y, y2);
+		double aMaxX = Math.max(s.x, x2);
+		double aMaxY = Math.max(s.y, y2);
+		
+		double invDx = 1.0 / d.x;
+		double invDy = 1.0 / d.y;
+		
+		RaycastResult result = null;
+		boolean found = false;
+		int[] stack = new int[this.depth + 1];
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			if (this.nodeMinX[node] > aMaxX || this.nodeMaxX[node] < aMinX ||
+				this.nodeMinY[node] > aMaxY || this.nodeMaxY[node] < aMinY) {
+				continue;
+			}
+			int count = this.nodeCount[node];
+			int start = this.nodeStart[node];
+			if (count == 0) {
+				stack[top++] = start;
+				stack[top++] = start + 1;
+				continue;
+			}
+			for (int k = start; k < start + count; k++) {
+				if (!QuerySnapshot.raycast(s, l, invDx, invDy, this.minX[k], this.minY[k], this.maxX[k], this.maxY[k])) continue;
+				if (!this.isAllowed(k, filter, ignoreSensors, ignoreInactive)) continue;
+				
+				int b = this.fixtureBodies[k];
+				BodyFixture fixture = this.fixtures[k];
+				Raycast raycast = new Raycast();
+				if (this.raycastDetector.raycast(ray, l, this.shapes[k], this.transforms[b], raycast)) {
+					found = true;
+					if (all) {
+						results.add(new RaycastResult(this.bodies[b], fixture, raycast));
+						continue;
+					}
+					if (result == null) {
+						result = new RaycastResult(this.bodies[b], fixture, raycast);
+						results.add(result);
+					} else {
+						result.body = this.bodies[b];
+						result.fixture = fixture;
+						result.raycast = raycast;
+					}
+					// we are only looking for the closest so clip the ray
+					l = raycast.getDistance();
+					x2 = s.x + d.x * l;
+					y2 = s.y + d.y * l;
+					aMinX = Math.min(s.x, x2);
+					aMinY = Math.min(s.y, y2);
+					aMaxX = Math.max(s.x, x2);
+					aMaxY = Math.max(s.y, y2);
+				}
+			}
+		}
+		
+		return found;
+	}
+	
+	/**
+	 * Performs a linear convex cast against all the bodies in this snapshot.
+	 * <p>
+	 * If the all flag is false, the results list will only contain the closest result (if any).
+	 * <p>
+	 * Bodies in collision with the given convex at the beginning of the cast are not included in the results.
+	 * @param convex the convex to cast
+	 * @param transform the initial position and orientation of the convex
+	 * @param deltaPosition &Delta;position; the change in position (the cast length and direction basically)
+	 * @param deltaAngle &Delta;angle; the change in the angle; this is the change in the angle over the linear period
+	 * @param filter the {@link Filter} to use against the fixtures; can be null
+	 * @param ignoreSensors true if sensor fixtures should be ignored in the tests
+	 * @param ignoreInactive true if inactive bodies should be ignored in the tests
+	 * @param all true if all hits should be returned; false if only the first should be returned
+	 * @param results the list to add the results to
+	 * @return boolean true if a collision was found
+	 * @see World#convexCast(Convex, Transform, Vector2, double, Filter, boolean, boolean, boolean, List)
+	 */
+	public boolean convexCast(Convex convex, Transform transform, Vector2 deltaPosition, double deltaAngle, Filter filter, boolean ignoreSensors, boolean ignoreInactive, boolean all, List<ConvexCastResult> results) {
+		// compute a conservative AABB for the motion of the convex
+		double radius = convex.getRadius();
+		Vector2 startWorldCenter = transform.getTransformed(convex.getCenter());
+		AABB startAABB = new AABB(startWorldCenter, radius);
+		Transform finalTransform = transform.lerped(deltaPosition, deltaAngle, 1.0);
+		Vector2 endWorldCenter = finalTransform.getTransformed(convex.getCenter());
+		AABB endAABB = new AABB(endWorldCenter, radius);
+		AABB aabb = startAABB.getUnion(endAABB);
+		
+		int[] items = this.detect(aabb.getMinX(), aabb.getMinY(), aabb.getMaxX(), aabb.getMaxY(), filter, ignoreSensors, ignoreInactive);
+		int size = items.length;
+		
+		ConvexCastResult min = null;
+		final Vector2 dp2 = new Vector2();
+		double t2 = 1.0;
+		boolean found = false;
+		for (int i = 0; i < size; i++) {
+			int k = items[i];
+			int b = this.fixtureBodies[k];
+			BodyFixture fixture = this.fixtures[k];
+			
+			TimeOfImpact timeOfImpact = new TimeOfImpact();
+			// the bodies are not moving since this is a static test
+			if (this.timeOfImpactDetector.getTimeOfImpact(convex, transform, deltaPosition, deltaAngle, this.shapes[k], this.transforms[b], dp2, 0.0, 0.0, t2, timeOfImpact)) {
+				if (all) {
+					results.add(new ConvexCastResult(this.bodies[b], fixture, timeOfImpact));
+				} else if (min == null || timeOfImpact.getTime() < min.timeOfImpact.getTime()) {
+					min = new ConvexCastResult(this.bodies[b], fixture, timeOfImpact);
+					t2 = timeOfImpact.getTime();
+				}
+				found = true;
+			}
+		}
+		
+		if (min != null) {
+			results.add(min);
+		}
+		
+		return found;
+	}
+	
+	/**
+	 * Returns the indices of the allowed fixtures whose AABBs overlap the given bounds.
+	 * @param aMinX the minimum x value
+	 * @param aMinY the minimum y value
+	 * @param aMaxX the maximum x value
+	 * @param aMaxY the maximum y value
+	 * @param filter the {@link Filter} to use against the fixtures; can be null
+	 * @param ignoreSensors true if sensor fixtures should be ignored
+	 * @param ignoreInactive true if inactive bodies should be ignored
+	 * @return int[]
+	 */
+	private int[] detect(double aMinX, double aMinY, double aMaxX, double aMaxY, Filter filter, boolean ignoreSensors, boolean ignoreInactive) {
+		if (this.fixtures.length == 0) return new int[0];
+		
+		int[] items = new int[8];
+		int size = 0;
+		int[] stack = new int[this.depth + 1];
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			if (this.nodeMinX[node] > aMaxX || this.nodeMaxX[node] < aMinX ||
+				this.nodeMinY[node] > aMaxY || this.nodeMaxY[node] < aMinY) {
+				continue;
+			}
+			int count = this.nodeCount[node];
+			int start = this.nodeStart[node];
+			if (count == 0) {
+				stack[top++] = start;
+				stack[top++] = start + 1;
+				continue;
+			}
+			for (int k = start; k < start + count; k++) {
+				if (this.minX[k] > aMaxX || this.maxX[k] < aMinX ||
+					this.minY[k] > aMaxY || this.maxY[k] < aMinY) {
+					continue;
+				}
+				if (!this.isAllowed(k, filter, ignoreSensors, ignoreInactive)) continue;
+				if (size == items.length) {
+					items = Arrays.copyOf(items, size * 2);
+				}
+				items[size++] = k;
+			}
+		}
+		
+		return Arrays.copyOf(items, size);
+	}
+	
+	/**
+	 * Returns true if the fixture at the given index passes the given filters.
+	 * @param index the index of the fixture
+	 * @param filter the {@link Filter} to use against the fixture; can be null
+	 * @param ignoreSensors true if sensor fixtures should be ignored
+	 * @param ignoreInactive true if inactive bodies should be ignored
+	 * @return boolean
+	 */
+	private boolean isAllowed(int index, Filter filter, boolean ignoreSensors, boolean ignoreInactive) {
+		// check for inactive
+		if (ignoreInactive && !this.active[this.fixtureBodies[index]]) return false;
+		// check for sensor
+		if (ignoreSensors && this.sensors[index]) return false;
+		// check against the filter
+		if (filter != null && !filter.isAllowed(this.filters[index])) return false;
+		return true;
+	}
+	
+	/**
+	 * Returns true if the ray and the given bounds intersect.
+	 * @param start the start position of the ray
+	 * @param length the length of the ray
+	 * @param invDx the inverse of the x component of the ray direction
+	 * @param invDy the inverse of the y component of the ray direction
+	 * @param minX the minimum x value
+	 * @param minY the minimum y value
+	 * @param maxX the maximum x value
+	 * @param maxY the maximum y value
+	 * @return boolean
+	 * @see org.dyn4j.collision.broadphase.AbstractBroadphaseDetector
+	 */
+	private static boolean raycast(Vector2 start, double length, double invDx, double invDy, double minX, double minY, double maxX, double maxY) {
+		double tx1 = (minX - start.x) * invDx;
+		double tx2 = (maxX - start.x) * invDx;
+
+		double tmin = Math.min(tx1, tx2);
+		double tmax = Math.max(tx1, tx2);
+
+		double ty1 = (minY - start.y) * invDy;
+		double ty2 = (maxY - start.y) * invDy;
+
+		tmin = Math.max(tmin, Math.min(ty1, ty2));
+		tmax = Math.min(tmax, Math.max(ty1, ty2));
+		// the ray is pointing in the opposite direction
+		if (tmax < 0) return false;
+		// consider the ray length
+		if (tmin > length) return false;
+		// along the ray, tmax should be larger than tmin
+		return tmax >= tmin;
+	}
+}
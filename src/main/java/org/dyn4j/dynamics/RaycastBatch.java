@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import org.dyn4j.collision.Filter;
+import org.dyn4j.collision.narrowphase.Raycast;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.resources.Messages;
+
+/**
+ * Represents a fixed capacity batch of rays and the closest result of each for the 
+ * {@link World#raycast(RaycastBatch, Filter, boolean, boolean, boolean)} method.
+ * <p>
+ * The rays and results are stored in primitive arrays that are allocated once when
+ * the batch is created.  A batch can be reused by calling the {@link #clear()} method
+ * or updated in place using the {@link #set(int, double, double, double, double, double)} 
+ * method.
+ * <p>
+ * A ray's result is only valid after the batch has been raycast and until the ray is
+ * changed.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class RaycastBatch {
+	/** The x coordinates of the start points */
+	final double[] startX;
+	
+	/** The y coordinates of the start points */
+	final double[] startY;
+	
+	/** The x components of the normalized directions */
+	final double[] directionX;
+	
+	/** The y components of the normalized directions */
+	final double[] directionY;
+	
+	/** The ray lengths; 0.0 for infinite length */
+	final double[] length;
+	
+	/** The closest {@link Body}s; null if the ray didn't hit anything */
+	final Body[] bodies;
+	
+	/** The closest {@link BodyFixture}s */
+	final BodyFixture[] fixtures;
+	
+	/** The distances to the hit points */
+	final double[] distance;
+	
+	/** The x coordinates of the hit points */
+	final double[] pointX;
+	
+	/** The y coordinates of the hit points */
+	final double[] pointY;
+	
+	/** The x components of the hit normals */
+	final double[] normalX;
+	
+	/** The y components of the hit normals */
+	final double[] normalY;
+	
+	/** The number of rays in this batch */
+	int size;
+	
+	/**
+	 * Full constructor.
+	 * @param capacity the maximum number of rays
+	 * @throws IllegalArgumentException if capacity is less than or equal to zero
+	 */
+	public RaycastBatch(int capacity) {
+		if (capacity <= 0) throw new IllegalArgumentException(Messages.getString("dynamics.raycastBatch.invalidCapacity"));
+		this.startX = new double[capacity];
+		this.startY = new double[capacity];
+		this.directionX = new double[capacity];
+		this.directionY = new double[capacity];
+		this.length = new double[capacity];
+		this.bodies = new Body[capacity];
+		this.fixtures = new BodyFixture[capacity];
+		this.distance = new double[capacity];
+		this.pointX = new double[capacity];
+		this.pointY = new double[capacity];
+		this.normalX = new double[capacity];
+		this.normalY = new double[capacity];
+		this.size = 0;
+	}
+	
+	/**
+	 * Adds a ray to this batch and returns its index.
+	 * @param startX the x coordinate of the start point
+	 * @param startY the y coordinate of the start point
+	 * @param directionX the x component of the direction; doesn't need to be normalized
+	 * @param directionY the y component of the direction; doesn't need to be normalized
+	 * @param length the length of the ray; 0.0 for infinite length
+	 * @return int the index of the ray
+	 * @throws IllegalStateException if this batch is full
+	 * @throws IllegalArgumentException if the direction is the zero vector
+	 */
+	public int add(double startX, double startY, double directionX, double directionY, double length) {
+		if (this.size == this.startX.length) throw new IllegalStateException(Messages.getString("dynamics.raycastBatch.full"));
+		int index = this.size;
+		this.store(index, startX, startY, directionX, directionY, length);
+		this.size++;
+		return index;
+	}
+	
+	/**
+	 * Replaces the ray at the given index and clears its result.
+	 * @param index the index of the ray
+	 * @param startX the x coordinate of the start point
+	 * @param startY the y coordinate of the start point
+	 * @param directionX the x component of the direction; doesn't need to be normalized
+	 * @param directionY the y component of the direction; doesn't need to be normalized
+	 * @param length the length of the ray; 0.0 for infinite length
+	 * @throws IndexOutOfBoundsException if index is not in the range [0, {@link #getSize()})
+	 * @throws IllegalArgumentException if the direction is the zero vector
+	 */
+	public void set(int index, double startX, double startY, double directionX, double directionY, double length) {
+		if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException();
+		this.store(index, startX, startY, directionX, directionY, length);
+	}
+	
+	/**
+	 * Stores the given ray at the given index and clears its result.
+	 * @param index the index of the ray
+	 * @param startX the x coordinate of the start point
+	 * @param startY the y coordinate of the start point
+	 * @param directionX the x component of the direction
+	 * @param directionY the y component of the direction
+	 * @param length the length of the ray
+	 * @throws IllegalArgumentException if the direction is the zero vector
+	 */
+	private void store(int index, double startX, double startY, double directionX, double directionY, double length) {
+		double magnitude = Math.sqrt(directionX * directionX + directionY * directionY);
+		if (magnitude == 0.0) throw new IllegalArgumentException(Messages.getString("geometry.ray.zeroDirection"));
+		this.startX[index] = startX;
+		this.startY[index] = startY;
+		this.directionX[index] = directionX / magnitude;
+		this.directionY[index] = directionY / magnitude;
+		this.length[index] = length;
+		this.bodies[index] = null;
+		this.fixtures[index] = null;
+	}
+	
+	/**
+	 * Removes all the rays from this batch.
+	 * <p>
+	 * The arrays are kept for reuse.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			this.bodies[i] = null;
+			this.fixtures[i] = null;
+		}
+		this.size = 0;
+	}
+	
+	/**
+	 * Copies the ray at the given index into the given ray object.
+	 * @param index the index of the ray
+	 * @param ray the ray to set
+	 */
+	void getRay(int index, Ray ray) {
+		ray.getStart().set(this.startX[index], this.startY[index]);
+		ray.getDirectionVector().set(this.directionX[index], this.directionY[index]);
+	}
+	
+	/**
+	 * Sets the result of the ray at the given index.
+	 * @param index the index of the ray
+	 * @param body the closest body; null if the ray didn't hit anything
+	 * @param fixture the closest fixture
+	 * @param raycast the raycast result
+	 */
+	void setResult(int index, Body body, BodyFixture fixture, Raycast raycast) {
+		this.bodies[index] = body;
+		this.fixtures[index] = fixture;
+		if (body != null) {
+			this.distance[index] = raycast.getDistance();
+			this.pointX[index] = raycast.getPoint().x;
+			this.pointY[index] = raycast.getPoint().y;
+			this.normalX[index] = raycast.getNormal().x;
+			this.normalY[index] = raycast.getNormal().y;
+		}
+	}
+	
+	/**
+	 * Returns the number of rays in this batch.
+	 * @return int
+	 */
+	public int getSize() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns the maximum number of rays in this batch.
+	 * @return int
+	 */
+	public int getCapacity() {
+		return this.startX.length;
+	}
+	
+	/**
+	 * Returns true if the ray at the given index hit a {@link Body}.
+	 * @param index the index of the ray
+	 * @return boolean
+	 */
+	public boolean isHit(int index) {
+		return this.bodies[index] != null;
+	}
+	
+	/**
+	 * Returns the closest {@link Body} hit by the ray at the given index.
+	 * @param index the index of the ray
+	 * @return {@link Body}; null if the ray didn't hit anything
+	 */
+	public Body getBody(int index) {
+		return this.bodies[index];
+	}
+	
+	/**
+	 * Returns the closest {@link BodyFixture} hit by the ray at the given index.
+	 * @param index the index of the ray
+	 * @return {@link BodyFixture}; null if the ray didn't hit anything
+	 */
+	public BodyFixture getFixture(int index) {
+		return this.fixtures[index];
+	}
+	
+	/**
+	 * Returns the distance from the start of the ray at the given index to its hit point.
+	 * @param index the index of the ray
+	 * @return double
+	 */
+	public double getDistance(int index) {
+		return this.distance[index];
+	}
+	
+	/**
+	 * Returns the x coordinate of the hit point of the ray at the given index.
+	 * @param index the index of the ray
+	 * @return double
+	 */
+	public double getPointX(int index) {
+		return this.pointX[index];
+	}
+	
+	/**
+	 * Returns the y coordinate of the hit point of the ray at the given index.
+	 * @param index the index of the ray
+	 * @return double
+	 */
+	public double getPointY(int index) {
+		return this.pointY[index];
+	}
+	
+	/**
+	 * Returns the x component of the hit normal of the ray at the given index.
+	 * @param index the index of the ray
+	 * @return double
+	 */
+	public double getNormalX(int index) {
+		return this.normalX[index];
+	}
+	
+	/**
+	 * Returns the y component of the hit normal of the ray at the given index.
+	 * @param index the index of the ray
+	 * @return double
+	 */
+	public double getNormalY(int index) {
+		return this.normalY[index];
+	}
+}
@@ -34,8 +34,12 @@ import org.dyn4j.geometry.Ray;
  * Modification of the {@link World} is not permitted inside these methods.
  * <p>
  * By default all methods should return true.
+ * <p>
+ * When only the closest result is requested the listeners are not notified of the bodies
+ * beyond the closest result found so far.  See
+ * {@link World#raycast(Ray, double, org.dyn4j.collision.Filter, boolean, boolean, boolean, java.util.List)}.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 2.0.0
  */
 public interface RaycastListener extends Listener {
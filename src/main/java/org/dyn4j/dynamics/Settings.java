@@ -29,7 +29,7 @@ import org.dyn4j.resources.Messages;
 /**
  * Responsible for housing all of the dynamics engine's settings.
  * @author William Bittle
- * @version 3.1.1
+ * @version 3.3.0
  * @since 1.0.0
  */
 public class Settings {
@@ -156,6 +156,36 @@ public class Settings {
 	/** The continuous collision detection flag */
 	private ContinuousDetectionMode continuousDetectionMode = ContinuousDetectionMode.ALL;
 	
+	/** Whether islands are solved in parallel using the {@link World}'s executor */
+	private boolean parallelIslandSolvingEnabled = false;
+	
+	/** Whether the narrow-phase is performed in parallel using the {@link World}'s executor */
+	private boolean parallelNarrowphaseEnabled = false;
+	
+	/** Whether the constraints of large islands are solved in parallel using the {@link World}'s executor */
+	private boolean parallelConstraintSolvingEnabled = false;
+	
+	/** The maximum number of threads any parallel work is split across */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	
+	/** Whether the velocity constraints are solved against arrays of body state */
+	private boolean arraySolvingEnabled = false;
+	
+	/** Whether contact objects are reused from step to step */
+	private boolean contactPoolingEnabled = false;
+	
+	/** Whether each step is profiled */
+	private boolean stepProfilingEnabled = false;
+	
+	/** Whether a {@link QuerySnapshot} is published at the end of each step */
+	private boolean querySnapshotEnabled = false;
+	
+	/** Whether the narrow-phase reuses the separating axis of each pair from the last step */
+	private boolean narrowphaseCachingEnabled = false;
+	
+	/** The number of sub trees a broad-phase tree branch is rebuilt from each step */
+	private int broadphaseOptimizationBudget = 0;
+	
 	/** Default constructor */
 	public Settings() {}
 	
@@ -182,6 +212,16 @@ public class Settings {
 		.append("|MaximumAngularCorrection=").append(this.maximumAngularCorrection)
 		.append("|Baumgarte=").append(this.baumgarte)
 		.append("|ContinuousDetectionMode=").append(this.continuousDetectionMode)
+		.append("|ParallelIslandSolvingEnabled=").append(this.parallelIslandSolvingEnabled)
+		.append("|ParallelNarrowphaseEnabled=").append(this.parallelNarrowphaseEnabled)
+		.append("|ParallelConstraintSolvingEnabled=").append(this.parallelConstraintSolvingEnabled)
+		.append("|Parallelism=").append(this.parallelism)
+		.append("|ArraySolvingEnabled=").append(this.arraySolvingEnabled)
+		.append("|ContactPoolingEnabled=").append(this.contactPoolingEnabled)
+		.append("|StepProfilingEnabled=").append(this.stepProfilingEnabled)
+		.append("|QuerySnapshotEnabled=").append(this.querySnapshotEnabled)
+		.append("|NarrowphaseCachingEnabled=").append(this.narrowphaseCachingEnabled)
+		.append("|BroadphaseOptimizationBudget=").append(this.broadphaseOptimizationBudget)
 		.append("]");
 		return sb.toString();
 	}
@@ -215,6 +255,16 @@ public class Settings {
 		this.angularToleranceSquared = Settings.DEFAULT_ANGULAR_TOLERANCE * Settings.DEFAULT_ANGULAR_TOLERANCE;
 		this.baumgarte = Settings.DEFAULT_BAUMGARTE;
 		this.continuousDetectionMode = ContinuousDetectionMode.ALL;
+		this.parallelIslandSolvingEnabled = false;
+		this.parallelNarrowphaseEnabled = false;
+		this.parallelConstraintSolvingEnabled = false;
+		this.parallelism = Runtime.getRuntime().availableProcessors();
+		this.arraySolvingEnabled = false;
+		this.contactPoolingEnabled = false;
+		this.stepProfilingEnabled = false;
+		this.querySnapshotEnabled = false;
+		this.narrowphaseCachingEnabled = false;
+		this.broadphaseOptimizationBudget = 0;
 	}
 	
 	/**
@@ -716,4 +766,289 @@ public class Settings {
 		// set the mode
 		this.continuousDetectionMode = mode;
 	}
+	
+	/**
+	 * Returns true if islands are solved in parallel.
+	 * @return boolean
+	 * @see #setParallelIslandSolvingEnabled(boolean)
+	 * @since 3.3.0
+	 */
+	public boolean isParallelIslandSolvingEnabled() {
+		return this.parallelIslandSolvingEnabled;
+	}
+	
+	/**
+	 * Sets whether islands are solved in parallel.
+	 * <p>
+	 * When enabled, all islands are found first and then solved concurrently using the
+	 * executor set on the {@link World} via the {@link World#setExecutor(java.util.concurrent.Executor)}
+	 * method.  Islands are solved serially if no executor has been set.
+	 * <p>
+	 * Islands do not share any dynamic bodies so the results are the same as solving them
+	 * serially.  The {@link org.dyn4j.dynamics.contact.ContactConstraintSolver} must be thread-safe
+	 * when this is enabled ({@link org.dyn4j.dynamics.contact.SequentialImpulses} is stateless).
+	 * @param flag true if islands should be solved in parallel
+	 * @since 3.3.0
+	 */
+	public void setParallelIslandSolvingEnabled(boolean flag) {
+		this.parallelIslandSolvingEnabled = flag;
+	}
+	
+	/**
+	 * Returns true if the narrow-phase is performed in parallel.
+	 * @return boolean
+	 * @see #setParallelNarrowphaseEnabled(boolean)
+	 * @since 3.3.0
+	 */
+	public boolean isParallelNarrowphaseEnabled() {
+		return this.parallelNarrowphaseEnabled;
+	}
+	
+	/**
+	 * Sets whether the narrow-phase is performed in parallel.
+	 * <p>
+	 * When enabled, the narrow-phase and manifold solving of the broad-phase pairs is 
+	 * performed concurrently using the executor set on the {@link World} via the 
+	 * {@link World#setExecutor(java.util.concurrent.Executor)} method.  The results
+	 * are merged in the broad-phase pair order so the results are the same as performing
+	 * the narrow-phase serially.  The narrow-phase is performed serially if no executor 
+	 * has been set.
+	 * <p>
+	 * The {@link org.dyn4j.collision.narrowphase.NarrowphaseDetector}, 
+	 * {@link org.dyn4j.collision.narrowphase.NarrowphasePostProcessor}, and 
+	 * {@link org.dyn4j.collision.manifold.ManifoldSolver} must be thread-safe when this is 
+	 * enabled. {@link CollisionListener}s are still notified on the calling thread.
+	 * @param flag true if the narrow-phase should be performed in parallel
+	 * @since 3.3.0
+	 */
+	public void setParallelNarrowphaseEnabled(boolean flag) {
+		this.parallelNarrowphaseEnabled = flag;
+	}
+	
+	/**
+	 * Returns true if the constraints of large islands are solved in parallel.
+	 * @return boolean
+	 * @see #setParallelConstraintSolvingEnabled(boolean)
+	 * @since 3.3.0
+	 */
+	public boolean isParallelConstraintSolvingEnabled() {
+		return this.parallelConstraintSolvingEnabled;
+	}
+	
+	/**
+	 * Sets whether the constraints of large islands are solved in parallel.
+	 * <p>
+	 * Solving islands in parallel doesn't help when most of the bodies are on one island, like
+	 * a large pile of bodies.  When enabled, the contact constraints and joints of large islands
+	 * are split into batches where no two constraints share a dynamic body.  The batches are
+	 * solved one after another, and the constraints within a batch are solved concurrently
+	 * using the executor set on the {@link World} via the {@link World#setExecutor(java.util.concurrent.Executor)}
+	 * method.  Constraints are solved serially if no executor has been set.
+	 * <p>
+	 * The constraints are solved in a different order than when solved serially, so the results
+	 * will differ slightly.  The {@link org.dyn4j.dynamics.contact.ContactConstraintSolver} is
+	 * called with parts of a batch from multiple threads and must be thread-safe when this is
+	 * enabled ({@link org.dyn4j.dynamics.contact.SequentialImpulses} is stateless).
+	 * @param flag true if the constraints of large islands should be solved in parallel
+	 * @since 3.3.0
+	 */
+	public void setParallelConstraintSolvingEnabled(boolean flag) {
+		this.parallelConstraintSolvingEnabled = flag;
+	}
+	
+	/**
+	 * Returns the maximum number of threads any parallel work is split across.
+	 * @return int
+	 * @see #setParallelism(int)
+	 * @since 3.3.0
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+	
+	/**
+	 * Sets the maximum number of threads any parallel work is split across, including
+	 * the thread calling {@link World#update(double)} or {@link World#step(int)}.
+	 * <p>
+	 * This applies to all the parallel work of the {@link World}: the parallel island solving,
+	 * narrow-phase and constraint solving and the batched raycasts.  A value of one does all
+	 * the work on the calling thread.  Values larger than the number of available processors
+	 * can be used to run the work concurrently on machines with fewer processors, for example
+	 * to test a {@link org.dyn4j.dynamics.contact.ContactConstraintSolver} for thread safety.
+	 * <p>
+	 * The parallelism is the number of available processors by default.
+	 * @param parallelism the maximum number of threads
+	 * @throws IllegalArgumentException if parallelism is less than one
+	 * @since 3.3.0
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) throw new IllegalArgumentException(Messages.getString("dynamics.settings.invalidParallelism"));
+		this.parallelism = parallelism;
+	}
+	
+	/**
+	 * Returns true if the velocity constraints are solved against arrays of body state.
+	 * @return boolean
+	 * @see #setArraySolvingEnabled(boolean)
+	 * @since 3.3.0
+	 */
+	public boolean isArraySolvingEnabled() {
+		return this.arraySolvingEnabled;
+	}
+	
+	/**
+	 * Sets whether the velocity constraints are solved against arrays of body state.
+	 * <p>
+	 * When enabled, the velocities and mass properties of the bodies of an island are copied
+	 * into contiguous arrays once the contact constraints have been initialized.  The velocity
+	 * iterations are then performed against the arrays and the velocities are copied back to the
+	 * bodies at the end.  The results are the same as when solving against the bodies.
+	 * <p>
+	 * This is only used if the {@link org.dyn4j.dynamics.contact.ContactConstraintSolver} is an
+	 * {@link org.dyn4j.dynamics.contact.ArrayContactConstraintSolver}, like the default
+	 * {@link org.dyn4j.dynamics.contact.SequentialImpulses}, and it isn't used for islands
+	 * whose constraints are solved in parallel (see {@link #setParallelConstraintSolvingEnabled(boolean)}).
+	 * @param flag true if the velocity constraints should be solved against arrays
+	 * @since 3.3.0
+	 */
+	public void setArraySolvingEnabled(boolean flag) {
+		this.arraySolvingEnabled = flag;
+	}
+	
+	/**
+	 * Returns true if contact pooling is enabled.
+	 * @return boolean
+	 * @see #setContactPoolingEnabled(boolean)
+	 * @since 3.3.0
+	 */
+	public boolean isContactPoolingEnabled() {
+		return this.contactPoolingEnabled;
+	}
+	
+	/**
+	 * Sets whether contact pooling is enabled.
+	 * <p>
+	 * When enabled, the {@link World} reuses the penetration, manifold, contact constraint
+	 * and contact edge objects from step to step rather than creating new ones for every
+	 * collision.  This greatly reduces the garbage created by worlds with many contacts.
+	 * <p>
+	 * Since the objects are reused, references to the {@link org.dyn4j.collision.narrowphase.Penetration}s
+	 * and {@link org.dyn4j.collision.manifold.Manifold}s passed to {@link CollisionListener}s, and to the
+	 * {@link org.dyn4j.dynamics.contact.ContactConstraint}s and {@link org.dyn4j.dynamics.contact.Contact}s
+	 * reachable from contact events, are only valid until the next collision detection.  Copy any values
+	 * that need to be kept longer.
+	 * @param flag true if contact pooling should be enabled
+	 * @since 3.3.0
+	 */
+	public void setContactPoolingEnabled(boolean flag) {
+		this.contactPoolingEnabled = flag;
+	}
+	
+	/**
+	 * Returns true if step profiling is enabled.
+	 * @return boolean
+	 * @see #setStepProfilingEnabled(boolean)
+	 * @since 3.3.0
+	 */
+	public boolean isStepProfilingEnabled() {
+		return this.stepProfilingEnabled;
+	}
+	
+	/**
+	 * Sets whether step profiling is enabled.
+	 * <p>
+	 * When enabled, the {@link World} records the time spent in each phase of a step along with
+	 * counts of the pairs, contacts, islands, awake bodies and narrow-phase iterations.  The result 
+	 * of the last step is available from {@link World#getStepProfile()}.
+	 * <p>
+	 * Profiling is disabled by default and, when disabled, no timings are taken.
+	 * @param flag true if step profiling should be enabled
+	 * @since 3.3.0
+	 */
+	public void setStepProfilingEnabled(boolean flag) {
+		this.stepProfilingEnabled = flag;
+	}
+	
+	/**
+	 * Returns true if a {@link QuerySnapshot} is published at the end of each step.
+	 * @return boolean
+	 * @see #setQuerySnapshotEnabled(boolean)
+	 * @since 3.3.0
+	 */
+	public boolean isQuerySnapshotEnabled() {
+		return this.querySnapshotEnabled;
+	}
+	
+	/**
+	 * Sets whether a {@link QuerySnapshot} is published at the end of each step.
+	 * <p>
+	 * When enabled, the {@link World} captures the transforms of the bodies and the bounds of their
+	 * fixtures at the end of each step.  Other threads can get the latest snapshot from 
+	 * {@link World#getQuerySnapshot()} and query it while the next step runs.
+	 * <p>
+	 * Publishing is disabled by default since capturing the snapshot adds work to each step.
+	 * @param flag true if a snapshot should be published at the end of each step
+	 * @since 3.3.0
+	 */
+	public void setQuerySnapshotEnabled(boolean flag) {
+		this.querySnapshotEnabled = flag;
+	}
+	
+	/**
+	 * Returns true if the narrow-phase reuses the separating axis of each pair from the last step.
+	 * @return boolean
+	 * @see #setNarrowphaseCachingEnabled(boolean)
+	 * @since 3.3.0
+	 */
+	public boolean isNarrowphaseCachingEnabled() {
+		return this.narrowphaseCachingEnabled;
+	}
+	
+	/**
+	 * Sets whether the narrow-phase reuses the separating axis of each pair from the last step.
+	 * <p>
+	 * When enabled, and the narrow-phase detector is a {@link org.dyn4j.collision.narrowphase.CachingNarrowphaseDetector},
+	 * the {@link World} keeps a {@link org.dyn4j.collision.narrowphase.NarrowphaseCache} for each pair of 
+	 * fixtures in the contact manager.  Pairs that were separated in the last step are tested against
+	 * their last separating axis first, which usually rejects them immediately.
+	 * <p>
+	 * Caching is disabled by default.
+	 * @param flag true if the narrow-phase should cache the separating axis of each pair
+	 * @since 3.3.0
+	 */
+	public void setNarrowphaseCachingEnabled(boolean flag) {
+		this.narrowphaseCachingEnabled = flag;
+	}
+	
+	/**
+	 * Returns the number of sub trees a broad-phase tree branch is rebuilt from each step.
+	 * @return int
+	 * @see #setBroadphaseOptimizationBudget(int)
+	 * @since 3.3.0
+	 */
+	public int getBroadphaseOptimizationBudget() {
+		return this.broadphaseOptimizationBudget;
+	}
+	
+	/**
+	 * Sets the number of sub trees a broad-phase tree branch is rebuilt from each step.
+	 * <p>
+	 * When greater than zero, and the broad-phase detector is a {@link org.dyn4j.collision.broadphase.DynamicAABBTree},
+	 * the {@link World} calls {@link org.dyn4j.collision.broadphase.DynamicAABBTree#optimize(int)} with this
+	 * budget each step to counter the slow loss of tree quality as bodies move.  Larger budgets
+	 * improve the tree faster but cost more per step; values less than three do nothing.
+	 * <p>
+	 * A {@link org.dyn4j.collision.broadphase.StaticDynamicBroadphase} applies the budget to its dynamic
+	 * tree only.  All other broad-phase detectors, including the
+	 * {@link org.dyn4j.collision.broadphase.CompactDynamicAABBTree}, ignore it.
+	 * <p>
+	 * The budget is zero (disabled) by default.
+	 * @param budget the number of sub trees; zero to disable
+	 * @throws IllegalArgumentException if budget is less than zero
+	 * @since 3.3.0
+	 */
+	public void setBroadphaseOptimizationBudget(int budget) {
+		if (budget < 0) throw new IllegalArgumentException(Messages.getString("dynamics.settings.invalidBroadphaseOptimizationBudget"));
+		this.broadphaseOptimizationBudget = budget;
+	}
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import org.dyn4j.collision.broadphase.StaticClassifier;
+import org.dyn4j.collision.broadphase.StaticDynamicBroadphase;
+
+/**
+ * Represents the default {@link StaticClassifier} for the {@link StaticDynamicBroadphase} of a {@link World}.
+ * <p>
+ * The {@link BodyFixture}s of static {@link Body}s are static, unless they are sensors.  The 
+ * {@link DetectBroadphaseFilter} already excludes the pairs of non-sensor {@link BodyFixture}s of two 
+ * static {@link Body}s, so the {@link World} finds the same pairs with either broad-phase.
+ * <p>
+ * A {@link Body} is reclassified when it's updated in the broad-phase.  The {@link World} skips the
+ * update of {@link Body}s that haven't moved or changed, but making a {@link BodyFixture} a sensor 
+ * using {@link BodyFixture#setSensor(boolean)} marks its {@link Body} as changed.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ * @see World#setBroadphaseDetector(org.dyn4j.collision.broadphase.BroadphaseDetector)
+ */
+public class StaticBodyClassifier implements StaticClassifier<Body, BodyFixture> {
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.StaticClassifier#isStatic(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean isStatic(Body body, BodyFixture fixture) {
+		return body.isStatic() && !fixture.isSensor();
+	}
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import org.dyn4j.collision.broadphase.BroadphaseDetector;
+import org.dyn4j.collision.narrowphase.Penetration;
+
+/**
+ * Represents the timings and counts of a single {@link World} step.
+ * <p>
+ * A new {@link StepProfile} is created for each step when {@link Settings#isStepProfilingEnabled()} 
+ * is true and can be obtained from {@link World#getStepProfile()} once the step has completed, including
+ * from the {@link StepListener#end(Step, World)} method.
+ * <p>
+ * All times are in nanoseconds.  Collision detection may be performed twice in a step (see 
+ * {@link World#isUpdateRequired()}), in which case the collision detection times, the pair count
+ * and the iteration counts are the totals of both.  When the narrow-phase is performed in parallel,
+ * the narrow-phase time is the elapsed time of the parallel narrow-phase and manifold solving and
+ * the manifold time is zero.  When islands are solved in parallel, the velocity, position and sleep
+ * times are the sum of the times on each thread.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class StepProfile {
+	/** The time spent updating the broad-phase */
+	long broadphaseUpdateTime;
+	
+	/** The time spent finding pairs in the broad-phase */
+	long broadphaseDetectTime;
+	
+	/** The time spent in the narrow-phase */
+	long narrowphaseTime;
+	
+	/** The time spent finding contact manifolds */
+	long manifoldTime;
+	
+	/** The time spent updating and warm starting the contacts */
+	long contactUpdateTime;
+	
+	/** The time spent building islands */
+	long islandBuildTime;
+	
+	/** The time spent integrating velocities and solving the velocity constraints */
+	long velocitySolveTime;
+	
+	/** The time spent integrating positions and solving the position constraints */
+	long positionSolveTime;
+	
+	/** The time spent solving time of impact */
+	long timeOfImpactTime;
+	
+	/** The time spent determining whether bodies can sleep */
+	long sleepTime;
+	
+	/** The total time of the step */
+	long totalTime;
+	
+	/** The number of broad-phase pairs */
+	int pairCount;
+	
+	/** The number of contacts */
+	int contactCount;
+	
+	/** The number of islands */
+	int islandCount;
+	
+	/** The number of awake bodies */
+	int awakeBodyCount;
+	
+	/** The number of narrow-phase detection iterations */
+	long detectIterations;
+	
+	/** The number of penetration iterations */
+	long penetrationIterations;
+	
+	/**
+	 * Default constructor.
+	 */
+	StepProfile() {}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("StepProfile[BroadphaseUpdateTime=").append(this.broadphaseUpdateTime)
+		.append("|BroadphaseDetectTime=").append(this.broadphaseDetectTime)
+		.append("|NarrowphaseTime=").append(this.narrowphaseTime)
+		.append("|ManifoldTime=").append(this.manifoldTime)
+		.append("|ContactUpdateTime=").append(this.contactUpdateTime)
+		.append("|IslandBuildTime=").append(this.islandBuildTime)
+		.append("|VelocitySolveTime=").append(this.velocitySolveTime)
+		.append("|PositionSolveTime=").append(this.positionSolveTime)
+		.append("|TimeOfImpactTime=").append(this.timeOfImpactTime)
+		.append("|SleepTime=").append(this.sleepTime)
+		.append("|TotalTime=").append(this.totalTime)
+		.append("|PairCount=").append(this.pairCount)
+		.append("|ContactCount=").append(this.contactCount)
+		.append("|IslandCount=").append(this.islandCount)
+		.append("|AwakeBodyCount=").append(this.awakeBodyCount)
+		.append("|DetectIterations=").append(this.detectIterations)
+		.append("|PenetrationIterations=").append(this.penetrationIterations)
+		.append("]");
+		return sb.toString();
+	}
+	
+	/**
+	 * Returns the time spent updating the {@link BroadphaseDetector} in nanoseconds.
+	 * <p>
+	 * This includes clearing the contacts of each {@link Body} and checking the bounds.
+	 * @return long
+	 */
+	public long getBroadphaseUpdateTime() {
+		return this.broadphaseUpdateTime;
+	}
+	
+	/**
+	 * Returns the time spent finding the pairs in the {@link BroadphaseDetector} in nanoseconds.
+	 * @return long
+	 */
+	public long getBroadphaseDetectTime() {
+		return this.broadphaseDetectTime;
+	}
+	
+	/**
+	 * Returns the time spent in the narrow-phase in nanoseconds.
+	 * @return long
+	 */
+	public long getNarrowphaseTime() {
+		return this.narrowphaseTime;
+	}
+	
+	/**
+	 * Returns the time spent finding contact manifolds in nanoseconds.
+	 * @return long
+	 */
+	public long getManifoldTime() {
+		return this.manifoldTime;
+	}
+	
+	/**
+	 * Returns the time spent updating, warm starting, and notifying of the contacts in nanoseconds.
+	 * @return long
+	 */
+	public long getContactUpdateTime() {
+		return this.contactUpdateTime;
+	}
+	
+	/**
+	 * Returns the time spent building the islands in nanoseconds.
+	 * @return long
+	 */
+	public long getIslandBuildTime() {
+		return this.islandBuildTime;
+	}
+	
+	/**
+	 * Returns the time spent integrating the velocities and solving the velocity constraints in nanoseconds.
+	 * @return long
+	 */
+	public long getVelocitySolveTime() {
+		return this.velocitySolveTime;
+	}
+	
+	/**
+	 * Returns the time spent integrating the positions and solving the position constraints in nanoseconds.
+	 * @return long
+	 */
+	public long getPositionSolveTime() {
+		return this.positionSolveTime;
+	}
+	
+	/**
+	 * Returns the time spent solving time of impact in nanoseconds.
+	 * @return long
+	 */
+	public long getTimeOfImpactTime() {
+		return this.timeOfImpactTime;
+	}
+	
+	/**
+	 * Returns the time spent determining whether bodies can sleep in nanoseconds.
+	 * @return long
+	 */
+	public long getSleepTime() {
+		return this.sleepTime;
+	}
+	
+	/**
+	 * Returns the total time of the step in nanoseconds.
+	 * <p>
+	 * This includes the time spent notifying listeners, except for the
+	 * {@link StepListener#end(Step, World)} notification.
+	 * @return long
+	 */
+	public long getTotalTime() {
+		return this.totalTime;
+	}
+	
+	/**
+	 * Returns the number of pairs found by the {@link BroadphaseDetector}.
+	 * @return int
+	 */
+	public int getPairCount() {
+		return this.pairCount;
+	}
+	
+	/**
+	 * Returns the number of contacts at the end of the step.
+	 * @return int
+	 */
+	public int getContactCount() {
+		return this.contactCount;
+	}
+	
+	/**
+	 * Returns the number of islands solved.
+	 * @return int
+	 */
+	public int getIslandCount() {
+		return this.islandCount;
+	}
+	
+	/**
+	 * Returns the number of active, non-static, awake bodies at the end of the step.
+	 * @return int
+	 */
+	public int getAwakeBodyCount() {
+		return this.awakeBodyCount;
+	}
+	
+	/**
+	 * Returns the total number of narrow-phase detection iterations (Gjk iterations by default).
+	 * @return long
+	 * @see Penetration#getDetectIterations()
+	 */
+	public long getDetectIterations() {
+		return this.detectIterations;
+	}
+	
+	/**
+	 * Returns the total number of penetration iterations (Epa iterations by default).
+	 * @return long
+	 * @see Penetration#getPenetrationIterations()
+	 */
+	public long getPenetrationIterations() {
+		return this.penetrationIterations;
+	}
+}
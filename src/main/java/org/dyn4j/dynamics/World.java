@@ -26,14 +26,17 @@ package org.dyn4j.dynamics;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 import org.dyn4j.DataContainer;
 import org.dyn4j.Listener;
+import org.dyn4j.Parallel;
 import org.dyn4j.collision.Bounds;
 import org.dyn4j.collision.BoundsListener;
 import org.dyn4j.collision.Filter;
@@ -43,14 +46,17 @@ import org.dyn4j.collision.broadphase.BroadphaseFilter;
 import org.dyn4j.collision.broadphase.BroadphaseItem;
 import org.dyn4j.collision.broadphase.BroadphasePair;
 import org.dyn4j.collision.broadphase.DynamicAABBTree;
+import org.dyn4j.collision.broadphase.StaticDynamicBroadphase;
 import org.dyn4j.collision.continuous.ConservativeAdvancement;
 import org.dyn4j.collision.continuous.TimeOfImpact;
 import org.dyn4j.collision.continuous.TimeOfImpactDetector;
 import org.dyn4j.collision.manifold.ClippingManifoldSolver;
 import org.dyn4j.collision.manifold.Manifold;
 import org.dyn4j.collision.manifold.ManifoldSolver;
+import org.dyn4j.collision.narrowphase.CachingNarrowphaseDetector;
 import org.dyn4j.collision.narrowphase.Gjk;
 import org.dyn4j.collision.narrowphase.LinkPostProcessor;
+import org.dyn4j.collision.narrowphase.NarrowphaseCache;
 import org.dyn4j.collision.narrowphase.NarrowphaseDetector;
 import org.dyn4j.collision.narrowphase.NarrowphasePostProcessor;
 import org.dyn4j.collision.narrowphase.Penetration;
@@ -58,6 +64,7 @@ import org.dyn4j.collision.narrowphase.Raycast;
 import org.dyn4j.collision.narrowphase.RaycastDetector;
 import org.dyn4j.dynamics.contact.Contact;
 import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.dynamics.contact.ContactConstraintPool;
 import org.dyn4j.dynamics.contact.ContactConstraintSolver;
 import org.dyn4j.dynamics.contact.ContactListener;
 import org.dyn4j.dynamics.contact.ContactManager;
@@ -85,6 +92,15 @@ import org.dyn4j.resources.Messages;
  * Some listener types return a boolean to indicate continuing or allowing something, like {@link CollisionListener}.  If, for example,
  * there are multiple {@link CollisionListener}s and <b>any</b> one of them returns false for an event, the collision is skipped.  However,
  * all listeners will still be called no matter if the first returned false.
+ * <p>
+ * The broad-phase entries of static and sleeping bodies are only updated after they move or
+ * change.  Call {@link Body#invalidateBroadphase()} after modifying the {@link Convex} shape of 
+ * a {@link BodyFixture} in place.
+ * <p>
+ * The islands are found each step by a depth first search that starts only from the awake
+ * bodies, so sleeping islands aren't visited unless an awake body touches them.  Island
+ * membership isn't kept across steps since the contacts, and therefore the edges between
+ * the bodies, are found again by every detection pass.
  * @author William Bittle
  * @version 3.3.0
  * @since 1.0.0
@@ -147,6 +163,9 @@ public class World implements Shiftable, DataContainer {
 	
 	/** The {@link TimeOfImpactSolver} */
 	protected TimeOfImpactSolver timeOfImpactSolver;
+	
+	/** The {@link Executor} used for the parallel parts of a step; can be null */
+	protected Executor executor;
 
 	/** The application data associated */
 	protected Object userData;
@@ -158,6 +177,33 @@ public class World implements Shiftable, DataContainer {
 	/** The list of listeners for this world */
 	private final List<Listener> listeners;
 	
+	/** The cached {@link StepListener}s */
+	private List<StepListener> stepListeners;
+	
+	/** The cached {@link ContactListener}s */
+	private List<ContactListener> contactListeners;
+	
+	/** The cached {@link BoundsListener}s */
+	private List<BoundsListener> boundsListeners;
+	
+	/** The cached {@link CollisionListener}s */
+	private List<CollisionListener> collisionListeners;
+	
+	/** The cached {@link TimeOfImpactListener}s */
+	private List<TimeOfImpactListener> timeOfImpactListeners;
+	
+	/** The cached {@link RaycastListener}s */
+	private List<RaycastListener> raycastListeners;
+	
+	/** The cached {@link ConvexCastListener}s */
+	private List<ConvexCastListener> convexCastListeners;
+	
+	/** The cached {@link DetectListener}s */
+	private List<DetectListener> detectListeners;
+	
+	/** The cached {@link DestructionListener}s */
+	private List<DestructionListener> destructionListeners;
+	
 	// bodies/joints
 	
 	/** The {@link Body} list */
@@ -166,17 +212,77 @@ public class World implements Shiftable, DataContainer {
 	/** The {@link Joint} list */
 	private final List<Joint> joints;
 	
+	/** The {@link Body}s that are awake, including any put to sleep since the last step */
+	private final List<Body> awakeBodies;
+	
+	/** The id to assign to the next {@link Body} added */
+	private int nextBodyId;
+	
+	/** The id to assign to the next {@link BodyFixture} added */
+	private int nextFixtureId;
+	
 	// temp data
 	
 	/** The reusable island */
 	private Island island;
 	
+	/** The reusable islands for parallel solving */
+	private final List<Island> islands;
+	
+	/** The reusable narrow-phase results for parallel detection */
+	private Penetration[] penetrations;
+	
+	/** The reusable manifold results for parallel detection */
+	private Manifold[] manifolds;
+	
+	/** The stage reached by each pair during parallel detection */
+	private int[] narrowphaseStages;
+	
+	/** The narrow-phase cache of each pair during parallel detection */
+	private NarrowphaseCache[] narrowphaseCaches;
+	
+	/** The reusable penetration used when contact pooling is enabled */
+	private final Penetration penetration;
+	
+	/** The reusable manifold used when contact pooling is enabled */
+	private final Manifold manifold;
+	
+	/** The pool of contact constraints used when contact pooling is enabled */
+	private final ContactConstraintPool contactConstraintPool;
+	
+	/** The pool of contact edges used when contact pooling is enabled */
+	private final List<ContactEdge> contactEdgePool;
+	
+	/** The stationary bodies that kept some of their contacts during detection */
+	private final List<Body> stationaryBodies;
+	
+	/** The {@link BroadphaseFilter} for the time of impact candidate search */
+	private final BroadphaseFilter<Body, BodyFixture> timeOfImpactBroadphaseFilter;
+	
+	/** The maximum swept width and height of the moving kinematic bodies for the current time step */
+	private final Vector2 kinematicSweepExtent;
+	
+	/** The maximum swept width and height of the moving dynamic bodies for the current time step */
+	private final Vector2 dynamicSweepExtent;
+	
 	/** The accumulated time */
 	private double time;
 	
 	/** Flag to find new contacts */
 	private boolean updateRequired;
 	
+	/** The profile of the step in progress; null if profiling is disabled */
+	private StepProfile profile;
+	
+	/** The profile of the last step; null if profiling was disabled */
+	private StepProfile stepProfile;
+	
+	/** The last published query snapshot; null if none has been published */
+	private volatile QuerySnapshot querySnapshot;
+	
+	/** The version of the last published query snapshot */
+	private long querySnapshotVersion;
+	
 	/**
 	 * Default constructor.
 	 * <p>
@@ -255,10 +361,27 @@ public class World implements Shiftable, DataContainer {
 		this.timeOfImpactSolver = new TimeOfImpactSolver();
 		
 		this.bodies = new ArrayList<Body>(initialCapacity.getBodyCount());
+		this.awakeBodies = new ArrayList<Body>(initialCapacity.getBodyCount());
 		this.joints = new ArrayList<Joint>(initialCapacity.getJointCount());
+		this.nextBodyId = 0;
+		this.nextFixtureId = 0;
 		this.listeners = new ArrayList<Listener>(initialCapacity.getListenerCount());
+		this.cacheListeners();
 		
 		this.island = new Island(initialCapacity);
+		this.islands = new ArrayList<Island>();
+		this.penetrations = new Penetration[0];
+		this.manifolds = new Manifold[0];
+		this.narrowphaseStages = new int[0];
+		this.narrowphaseCaches = new NarrowphaseCache[0];
+		this.penetration = new Penetration();
+		this.manifold = new Manifold();
+		this.contactConstraintPool = new ContactConstraintPool();
+		this.contactEdgePool = new ArrayList<ContactEdge>();
+		this.stationaryBodies = new ArrayList<Body>();
+		this.timeOfImpactBroadphaseFilter = new AABBBroadphaseFilter(true, true, null);
+		this.kinematicSweepExtent = new Vector2();
+		this.dynamicSweepExtent = new Vector2();
 		
 		this.time = 0.0;
 		this.updateRequired = true;
@@ -481,11 +604,22 @@ public class World implements Shiftable, DataContainer {
 	 */
 	protected void step() {
 		// get all the step listeners
-		List<StepListener> stepListeners = this.getListeners(StepListener.class);
-		List<ContactListener> contactListeners = this.getListeners(ContactListener.class);
+		List<StepListener> stepListeners = this.stepListeners;
+		List<ContactListener> contactListeners = this.contactListeners;
 		
 		int sSize = stepListeners.size();
 		
+		// only take timings when profiling
+		boolean profiling = this.settings.isStepProfilingEnabled();
+		StepProfile profile = null;
+		long startTime = 0;
+		long time = 0;
+		if (profiling) {
+			profile = new StepProfile();
+			startTime = System.nanoTime();
+		}
+		this.profile = profile;
+		
 		// notify the step listeners
 		for (int i = 0; i < sSize; i++) {
 			StepListener sl = stepListeners.get(i);
@@ -511,127 +645,134 @@ public class World implements Shiftable, DataContainer {
 		// check for CCD
 		ContinuousDetectionMode continuousDetectionMode = this.settings.getContinuousDetectionMode();
 		
-		// get the number of bodies
-		int size = this.bodies.size();
+		// only the awake bodies are visited when building the islands; any
+		// body that is woken up (by the user or while building the islands)
+		// is added to the list of awake bodies
+		List<Body> awakeBodies = this.awakeBodies;
+		int aSize = awakeBodies.size();
 		
-		// test for out of bounds objects
-		// clear the body contacts
 		// clear the island flag
+		// remove the bodies that were put to sleep
 		// save the current transform for CCD
-		for (int i = 0; i < size; i++) {
-			Body body = this.bodies.get(i);
+		int size = 0;
+		for (int i = 0; i < aSize; i++) {
+			Body body = awakeBodies.get(i);
 			// remove the island flag
 			body.setOnIsland(false);
+			// remove sleeping bodies from the list
+			if (body.isAsleep()) {
+				body.onAwakeList = false;
+				continue;
+			}
 			// save the current transform into the previous transform
 			body.transform0.set(body.getTransform());
+			awakeBodies.set(size++, body);
 		}
-		
-		// clear the joint island flags
-		int jSize = this.joints.size();
-		for (int i = 0; i < jSize; i++) {
-			// get the joint
-			Constraint joint = this.joints.get(i);
-			// set the island flag to false
-			joint.setOnIsland(false);
+		for (int i = aSize - 1; i >= size; i--) {
+			awakeBodies.remove(i);
 		}
 		
 		// perform a depth first search of the contact graph
 		// to create islands for constraint solving
 		Deque<Body> stack = new ArrayDeque<Body>(size);
-
-		// temp storage
-		// we put these here so we can implicitly convert from joint and
-		// contact constraint to constraint so that we have package private
-		// access to the isOnIsland and setOnIsland methods
-		Joint joint;
-		ContactConstraint contactConstraint;
-		Constraint constraint;
 		
-		// loop over the bodies and their contact edges to create the islands
-		for (int i = 0; i < size; i++) {
-			Body seed = this.bodies.get(i);
-			// skip if asleep, in active, static, or already on an island
-			if (seed.isOnIsland() || seed.isAsleep() || !seed.isActive() || seed.isStatic()) continue;
+		// the executor used to solve the constraints of large islands
+		Executor constraintExecutor = this.settings.isParallelConstraintSolvingEnabled() ? this.executor : null;
+		
+		// check if the islands should be solved in parallel
+		if (this.executor != null && this.settings.isParallelIslandSolvingEnabled()) {
+			// find all the islands first
+			int iSize = 0;
+			for (int i = 0; i < size; i++) {
+				Body seed = awakeBodies.get(i);
+				// skip if asleep, in active, static, or already on an island
+				if (seed.isOnIsland() || seed.isAsleep() || !seed.isActive() || seed.isStatic()) continue;
+				
+				// get a reusable island
+				Island island;
+				if (iSize < this.islands.size()) {
+					island = this.islands.get(iSize);
+				} else {
+					island = new Island();
+					island.sleepStaticBodies = false;
+					this.islands.add(island);
+				}
+				iSize++;
+				
+				if (profiling) time = System.nanoTime();
+				this.buildIsland(seed, island, stack);
+				if (profiling) profile.islandBuildTime += System.nanoTime() - time;
+				
+				// allow static bodies to participate in other islands
+				this.releaseIsland(island);
+			}
 			
-			// set the island to the reusable island
-			Island island = this.island;
+			// solve the large islands one at a time so that their
+			// constraints can be solved in parallel
+			if (constraintExecutor != null) {
+				for (int i = 0; i < iSize; i++) {
+					Island island = this.islands.get(i);
+					if (island.isParallelSolvable()) {
+						island.solve(this.contactConstraintSolver, this.gravity, this.step, this.settings, constraintExecutor);
+					}
+				}
+			}
 			
-			island.clear();
-			stack.clear();
-			stack.push(seed);
+			// then solve the others concurrently
+			final List<Island> islands = this.islands;
+			final ContactConstraintSolver solver = this.contactConstraintSolver;
+			final Vector2 gravity = this.gravity;
+			final Step step = this.step;
+			final Settings settings = this.settings;
+			final boolean skipLarge = constraintExecutor != null;
+			Parallel.execute(this.executor, this.settings.getParallelism(), iSize, new Parallel.Task() {
+				public void run(int worker, int index) {
+					Island island = islands.get(index);
+					if (skipLarge && island.isParallelSolvable()) return;
+					island.solve(solver, gravity, step, settings);
+				}
+			});
 			
-			while (stack.size() > 0) {
-				// get the next body
-				Body body = stack.pop();
-				// add it to the island
-				island.add(body);
-				// flag that it has been added
-				body.setOnIsland(true);
-				// make sure the body is awake
-				body.setAsleep(false);
-				// if its static then continue since we dont want the
-				// island to span more than one static object
-				// this keeps the size of the islands small
-				if (body.isStatic()) continue;
-				// loop over the contact edges of this body
-				int ceSize = body.contacts.size();
-				for (int j = 0; j < ceSize; j++) {
-					ContactEdge contactEdge = body.contacts.get(j);
-					// get the contact constraint
-					constraint = contactConstraint = contactEdge.interaction;
-					// skip sensor contacts
-					// check if the contact constraint has already been added to an island
-					if (!contactConstraint.isEnabled() || contactConstraint.isSensor() || constraint.isOnIsland()) continue;
-					// get the other body
-					Body other = contactEdge.other;
-					// add the contact constraint to the island list
-					island.add(contactConstraint);
-					// set the island flag on the contact constraint
-					constraint.setOnIsland(true);
-					// has the other body been added to an island yet?
-					if (!other.isOnIsland()) {
-						// if not then add this body to the stack
-						stack.push(other);
-						other.setOnIsland(true);
+			// the static bodies are left in the state of the last island 
+			// they were on, which is the same result as solving serially
+			for (int i = 0; i < iSize; i++) {
+				Island island = this.islands.get(i);
+				int isize = island.bodies.size();
+				for (int j = 0; j < isize; j++) {
+					Body body = island.bodies.get(j);
+					if (body.isStatic()) {
+						body.setAsleep(island.asleep);
 					}
 				}
-				// loop over the joint edges of this body
-				int jeSize = body.joints.size();
-				for (int j = 0; j < jeSize; j++) {
-					// get the joint edge
-					JointEdge jointEdge = body.joints.get(j);
-					// get the joint
-					constraint = joint = jointEdge.interaction;
-					// check if the joint is inactive
-					if (!joint.isActive() || constraint.isOnIsland()) continue;
-					// get the other body
-					Body other = jointEdge.other;
-					// check if the joint has already been added to an island
-					// or if the other body is not active
-					if (!other.isActive()) continue;
-					// add the joint to the island
-					island.add(joint);
-					// set the island flag on the joint
-					constraint.setOnIsland(true);
-					// check if the other body has been added to an island
-					if (!other.isOnIsland()) {
-						// if not then add the body to the stack
-						stack.push(other);
-						other.setOnIsland(true);
-					}
+				if (profiling) {
+					this.addIslandTimes(island, profile);
 				}
+				// allow memory to be reclaimed
+				island.clear();
 			}
-			
-			// solve the island
-			island.solve(this.contactConstraintSolver, this.gravity, this.step, this.settings);
-			
-			// allow static bodies to participate in other islands
-			int isize = island.bodies.size();
-			for (int j = 0; j < isize; j++) {
-				Body body = island.bodies.get(j);
-				if (body.isStatic()) {
-					body.setOnIsland(false);
+		} else {
+			// loop over the bodies and their contact edges to create the islands
+			for (int i = 0; i < size; i++) {
+				Body seed = awakeBodies.get(i);
+				// skip if asleep, in active, static, or already on an island
+				if (seed.isOnIsland() || seed.isAsleep() || !seed.isActive() || seed.isStatic()) continue;
+				
+				// set the island to the reusable island
+				Island island = this.island;
+				
+				if (profiling) time = System.nanoTime();
+				this.buildIsland(seed, island, stack);
+				if (profiling) profile.islandBuildTime += System.nanoTime() - time;
+				
+				// solve the island
+				island.solve(this.contactConstraintSolver, this.gravity, this.step, this.settings, constraintExecutor);
+				
+				if (profiling) {
+					this.addIslandTimes(island, profile);
 				}
+				
+				// allow static bodies to participate in other islands
+				this.releaseIsland(island);
 			}
 		}
 		
@@ -645,7 +786,9 @@ public class World implements Shiftable, DataContainer {
 		// make sure CCD is enabled
 		if (continuousDetectionMode != ContinuousDetectionMode.NONE) {
 			// solve time of impact
+			if (profiling) time = System.nanoTime();
 			this.solveTOI(continuousDetectionMode);
+			if (profiling) profile.timeOfImpactTime = System.nanoTime() - time;
 		}
 		
 		// notify the step listener
@@ -662,11 +805,189 @@ public class World implements Shiftable, DataContainer {
 		// set the update required flag to false
 		this.updateRequired = false;
 		
+		// publish the profile before the end notification
+		if (profiling) {
+			profile.contactCount = this.contactManager.getContactCount();
+			aSize = awakeBodies.size();
+			for (int i = 0; i < aSize; i++) {
+				Body body = awakeBodies.get(i);
+				if (body.isActive() && !body.isAsleep() && !body.isStatic()) {
+					profile.awakeBodyCount++;
+				}
+			}
+			profile.totalTime = System.nanoTime() - startTime;
+			this.profile = null;
+		}
+		this.stepProfile = profile;
+		
 		// notify the step listener
 		for (int i = 0; i < sSize; i++) {
 			StepListener sl = stepListeners.get(i);
 			sl.end(this.step, this);
 		}
+		
+		// publish the final state for the concurrent queries
+		if (this.settings.isQuerySnapshotEnabled()) {
+			this.publishQuerySnapshot();
+		}
+	}
+	
+	/**
+	 * Clears the island flags of the static {@link Body}s and the {@link Joint}s
+	 * of the given {@link Island} after it has been built.
+	 * <p>
+	 * Static bodies are allowed to participate in other islands.  The joints of an
+	 * island can't be reached when building other islands so their flags can be cleared
+	 * immediately, rather than clearing the flags of all joints every step.
+	 * @param island the {@link Island}
+	 * @since 3.3.0
+	 */
+	private void releaseIsland(Island island) {
+		int isize = island.bodies.size();
+		for (int j = 0; j < isize; j++) {
+			Body body = island.bodies.get(j);
+			if (body.isStatic()) {
+				body.setOnIsland(false);
+			}
+		}
+		int jsize = island.joints.size();
+		for (int j = 0; j < jsize; j++) {
+			Constraint joint = island.joints.get(j);
+			joint.setOnIsland(false);
+		}
+	}
+	
+	/**
+	 * Adds the given {@link Body} to the list of awake bodies if it's not already on it.
+	 * <p>
+	 * This is called when a {@link Body} of this world is woken up.
+	 * <p>
+	 * The initial transform of the {@link Body} is saved for CCD unless it has
+	 * already moved this step.  A {@link Body} that isn't on the list hasn't
+	 * moved this step, even if it was just added to an island.
+	 * @param body the {@link Body}
+	 * @since 3.3.0
+	 */
+	void addAwakeBody(Body body) {
+		// it may move this step so save its transform for CCD
+		if (!body.onAwakeList || !body.isOnIsland()) {
+			body.transform0.set(body.getTransform());
+		}
+		if (!body.onAwakeList) {
+			body.onAwakeList = true;
+			this.awakeBodies.add(body);
+		}
+	}
+	
+	/**
+	 * Adds the solve times of the given {@link Island} to the given {@link StepProfile}.
+	 * @param island the {@link Island} that was just solved
+	 * @param profile the {@link StepProfile}
+	 * @since 3.3.0
+	 */
+	private void addIslandTimes(Island island, StepProfile profile) {
+		profile.islandCount++;
+		profile.velocitySolveTime += island.velocitySolveTime;
+		profile.positionSolveTime += island.positionSolveTime;
+		profile.sleepTime += island.sleepSolveTime;
+	}
+	
+	/**
+	 * Builds the {@link Island} containing the given seed {@link Body} using a depth
+	 * first search of the contact and joint graph.
+	 * <p>
+	 * The {@link Body}s, {@link ContactConstraint}s, and {@link Joint}s added to the island 
+	 * are flagged as being on an island.  The {@link Body}s are added when they are found so
+	 * that both {@link Body}s of a {@link ContactConstraint} are on the island before it is.
+	 * @param seed the {@link Body} to start from
+	 * @param island the {@link Island} to fill
+	 * @param stack the stack to use for the search
+	 * @since 3.3.0
+	 */
+	private void buildIsland(Body seed, Island island, Deque<Body> stack) {
+		// temp storage
+		// we put these here so we can implicitly convert from joint and
+		// contact constraint to constraint so that we have package private
+		// access to the isOnIsland and setOnIsland methods
+		Joint joint;
+		ContactConstraint contactConstraint;
+		Constraint constraint;
+		
+		island.clear();
+		stack.clear();
+		this.addToIsland(seed, island, stack);
+		
+		while (stack.size() > 0) {
+			// get the next body
+			Body body = stack.pop();
+			// if its static then continue since we dont want the
+			// island to span more than one static object
+			// this keeps the size of the islands small
+			if (body.isStatic()) continue;
+			// loop over the contact edges of this body
+			int ceSize = body.contacts.size();
+			for (int j = 0; j < ceSize; j++) {
+				ContactEdge contactEdge = body.contacts.get(j);
+				// get the contact constraint
+				constraint = contactConstraint = contactEdge.interaction;
+				// skip sensor contacts
+				// check if the contact constraint has already been added to an island
+				if (!contactConstraint.isEnabled() || contactConstraint.isSensor() || constraint.isOnIsland()) continue;
+				// get the other body
+				Body other = contactEdge.other;
+				// has the other body been added to an island yet?
+				if (!other.isOnIsland()) {
+					// if not then add it to the island and the stack
+					this.addToIsland(other, island, stack);
+				}
+				// add the contact constraint to the island list
+				island.add(contactConstraint);
+				// set the island flag on the contact constraint
+				constraint.setOnIsland(true);
+			}
+			// loop over the joint edges of this body
+			int jeSize = body.joints.size();
+			for (int j = 0; j < jeSize; j++) {
+				// get the joint edge
+				JointEdge jointEdge = body.joints.get(j);
+				// get the joint
+				constraint = joint = jointEdge.interaction;
+				// check if the joint is inactive
+				if (!joint.isActive() || constraint.isOnIsland()) continue;
+				// get the other body
+				Body other = jointEdge.other;
+				// check if the joint has already been added to an island
+				// or if the other body is not active
+				if (!other.isActive()) continue;
+				// add the joint to the island
+				island.add(joint);
+				// set the island flag on the joint
+				constraint.setOnIsland(true);
+				// check if the other body has been added to an island
+				if (!other.isOnIsland()) {
+					// if not then add it to the island and the stack
+					this.addToIsland(other, island, stack);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Adds the given {@link Body} to the given {@link Island} and pushes it
+	 * onto the given stack to have its edges searched.
+	 * @param body the {@link Body}
+	 * @param island the {@link Island}
+	 * @param stack the stack to use for the search
+	 * @since 3.3.0
+	 */
+	private void addToIsland(Body body, Island island, Deque<Body> stack) {
+		// add it to the island
+		island.add(body);
+		// flag that it has been added
+		body.setOnIsland(true);
+		// make sure the body is awake
+		body.setAsleep(false);
+		stack.push(body);
 	}
 	
 	/**
@@ -687,17 +1008,50 @@ public class World implements Shiftable, DataContainer {
 	 * returns false, the collision is ignored.
 	 * <p>
 	 * This method also notifies any {@link ContactListener}s.
+	 * <p>
+	 * Bodies that are asleep or static and haven't moved since their last broad-phase update
+	 * are considered stationary.  They are not checked against the bounds and their
+	 * broad-phase entries are not updated.  When there are no {@link CollisionListener}s or
+	 * {@link ContactListener}s, the contacts between two stationary bodies are carried
+	 * forward without running the narrow-phase, since it would find the same contacts.
+	 * <p>
+	 * Adding or removing fixtures, changing the mass or the active state of a body or changing
+	 * the shape, filter or sensor flag of a fixture through the {@link BodyFixture} methods all
+	 * make the body non-stationary for the next detection.  A {@link Convex} shape that is 
+	 * modified in place is not detected; {@link Body#invalidateBroadphase()} must be called 
+	 * afterwards, otherwise the broad-phase keeps the old {@link AABB}s and the old contacts
+	 * may be carried forward.
 	 * @since 3.0.0
 	 */
 	protected void detect() {
 		// get the bounds listeners
-		List<BoundsListener> boundsListeners = this.getListeners(BoundsListener.class);
-		List<CollisionListener> collisionListeners = this.getListeners(CollisionListener.class);
+		List<BoundsListener> boundsListeners = this.boundsListeners;
+		List<CollisionListener> collisionListeners = this.collisionListeners;
 		
 		// get the number of bodies
 		int size = this.bodies.size();
 		int blSize = boundsListeners.size();
 		int clSize = collisionListeners.size();
+		boolean pooling = this.settings.isContactPoolingEnabled();
+		// contacts between stationary bodies can only be carried forward
+		// when no one is listening for them
+		final boolean carry = clSize == 0 && this.contactListeners.isEmpty();
+		// the narrow-phase detector to use when reusing the results of the last step
+		CachingNarrowphaseDetector cachingDetector = this.getCachingNarrowphaseDetector();
+		
+		// only take timings when profiling
+		StepProfile profile = this.profile;
+		boolean profiling = profile != null;
+		long time = profiling ? System.nanoTime() : 0;
+		
+		// find the bodies that can't have moved since the last broad-phase update
+		for (int i = 0; i < size; i++) {
+			Body body = this.bodies.get(i);
+			body.stationary = body.isActive() &&
+					!body.broadphaseDirty && 
+					(body.isAsleep() || body.isStatic()) && 
+					body.getTransform().isSame(body.broadphaseTransform);
+		}
 		
 		// test for out of bounds objects
 		// clear the body contacts
@@ -706,8 +1060,14 @@ public class World implements Shiftable, DataContainer {
 			Body body = this.bodies.get(i);
 			// skip if already not active
 			if (!body.isActive()) continue;
+			// stationary bodies keep their broad-phase entries and the contacts
+			// with other stationary bodies (if they can be carried forward)
+			if (body.stationary) {
+				this.clearContacts(body, carry, pooling);
+				continue;
+			}
 			// clear all the old contacts
-			body.contacts.clear();
+			this.clearContacts(body, false, pooling);
 			// check if bounds have been set
 			// check if the body is out of bounds
 			if (this.bounds != null && this.bounds.isOutside(body)) {
@@ -721,6 +1081,25 @@ public class World implements Shiftable, DataContainer {
 			}
 			// update the broadphase with the new position/orientation
 			this.broadphaseDetector.update(body);
+			body.broadphaseTransform.set(body.getTransform());
+			body.broadphaseDirty = false;
+		}
+		
+		// incrementally improve the broad-phase tree (only the detectors
+		// that support it; the others ignore the budget)
+		int budget = this.settings.getBroadphaseOptimizationBudget();
+		if (budget > 0) {
+			if (this.broadphaseDetector instanceof DynamicAABBTree) {
+				((DynamicAABBTree<Body, BodyFixture>)this.broadphaseDetector).optimize(budget);
+			} else if (this.broadphaseDetector instanceof StaticDynamicBroadphase) {
+				((StaticDynamicBroadphase<Body, BodyFixture>)this.broadphaseDetector).optimize(budget);
+			}
+		}
+		
+		if (profiling) {
+			long now = System.nanoTime();
+			profile.broadphaseUpdateTime += now - time;
+			time = now;
 		}
 		
 		// make sure there are some bodies
@@ -730,6 +1109,22 @@ public class World implements Shiftable, DataContainer {
 			int pSize = pairs.size();
 			boolean allow = true;
 			
+			if (profiling) {
+				long now = System.nanoTime();
+				profile.broadphaseDetectTime += now - time;
+				profile.pairCount += pSize;
+				time = now;
+			}
+			
+			// check if the narrow-phase should be performed in parallel
+			if (this.executor != null && this.settings.isParallelNarrowphaseEnabled()) {
+				this.detectParallel(pairs, collisionListeners, carry, cachingDetector);
+				pSize = 0;
+				if (profiling) {
+					profile.narrowphaseTime += System.nanoTime() - time;
+				}
+			}
+			
 			// using the broad-phase results, test for narrow-phase
 			for (int i = 0; i < pSize; i++) {
 				BroadphasePair<Body, BodyFixture> pair = pairs.get(i);
@@ -740,6 +1135,12 @@ public class World implements Shiftable, DataContainer {
 				BodyFixture fixture1 = pair.getFixture1();
 				BodyFixture fixture2 = pair.getFixture2();
 				
+				// the narrow-phase would give the same result as last time
+				if (carry && body1.stationary && body2.stationary) {
+					this.carryContact(body1, fixture1, body2, fixture2);
+					continue;
+				}
+				
 				allow = true;
 				for (int j = 0; j < clSize; j++) {
 					CollisionListener cl = collisionListeners.get(j);
@@ -759,9 +1160,27 @@ public class World implements Shiftable, DataContainer {
 				Convex convex2 = fixture2.getShape();
 				Convex convex1 = fixture1.getShape();
 				
-				Penetration penetration = new Penetration();
+				Penetration penetration = this.penetration;
+				if (pooling) {
+					penetration.clear();
+				} else {
+					penetration = new Penetration();
+				}
 				// test the two convex shapes
-				if (this.narrowphaseDetector.detect(convex1, transform1, convex2, transform2, penetration)) {
+				if (profiling) time = System.nanoTime();
+				boolean collision;
+				if (cachingDetector != null) {
+					NarrowphaseCache cache = this.contactManager.getNarrowphaseCache(fixture1, fixture2);
+					collision = cachingDetector.detect(convex1, transform1, convex2, transform2, penetration, cache);
+				} else {
+					collision = this.narrowphaseDetector.detect(convex1, transform1, convex2, transform2, penetration);
+				}
+				if (profiling) {
+					profile.narrowphaseTime += System.nanoTime() - time;
+					profile.detectIterations += penetration.getDetectIterations();
+					profile.penetrationIterations += penetration.getPenetrationIterations();
+				}
+				if (collision) {
 					// check for zero penetration
 					if (penetration.getDepth() == 0.0) {
 						// this should only happen if numerical error occurs
@@ -783,10 +1202,13 @@ public class World implements Shiftable, DataContainer {
 						}
 					}
 					if (!allow) continue;
-					Manifold manifold = new Manifold();
+					Manifold manifold = pooling ? this.manifold : new Manifold();
 					// if there is penetration then find a contact manifold
 					// using the filled in penetration object
-					if (this.manifoldSolver.getManifold(penetration, convex1, transform1, convex2, transform2, manifold)) {
+					if (profiling) time = System.nanoTime();
+					boolean found = this.manifoldSolver.getManifold(penetration, convex1, transform1, convex2, transform2, manifold);
+					if (profiling) profile.manifoldTime += System.nanoTime() - time;
+					if (found) {
 						// check for zero points
 						if (manifold.getPoints().size() == 0) {
 							// this should only happen if numerical error occurs
@@ -804,40 +1226,432 @@ public class World implements Shiftable, DataContainer {
 							}
 						}
 						if (!allow) continue;
-						// create a contact constraint
-						ContactConstraint contactConstraint = new ContactConstraint(body1, fixture1, 
-								                                                    body2, fixture2, 
-								                                                    manifold,
-								                                                    this.coefficientMixer.mixFriction(fixture1.getFriction(), fixture2.getFriction()),
-								                                                    this.coefficientMixer.mixRestitution(fixture1.getRestitution(), fixture2.getRestitution()));
-						
-						allow = true;
-						// notify of the created contact constraint
-						for (int j = 0; j < clSize; j++) {
-							CollisionListener cl = collisionListeners.get(j);
-							if (!cl.collision(contactConstraint)) {
-								// if any collision listener returned false then skip this collision
-								// we must allow all the listeners to get notified first, then skip
-								// the collision
-								allow = false;
-							}
-						}
-						if (!allow) continue;
-						
-						// add a contact edge to both bodies
-						ContactEdge contactEdge1 = new ContactEdge(body2, contactConstraint);
-						ContactEdge contactEdge2 = new ContactEdge(body1, contactConstraint);
-						body1.contacts.add(contactEdge1);
-						body2.contacts.add(contactEdge2);
-						// add the contact constraint to the contact manager
-						this.contactManager.queue(contactConstraint);
+						// create and queue a contact constraint
+						this.queueContactConstraint(body1, fixture1, body2, fixture2, manifold, collisionListeners);
 					}
 				}
 			}
 		}
 		
+		// remove the kept contacts that weren't carried forward
+		this.clearStationaryContacts(pooling);
+		
 		// warm start the contact constraints
-		this.contactManager.updateAndNotify(this.getListeners(ContactListener.class), this.settings);
+		if (profiling) time = System.nanoTime();
+		this.contactManager.updateAndNotify(this.contactListeners, this.settings);
+		
+		// the contact manager no longer references the old contacts
+		// so they are safe to reuse
+		if (pooling) {
+			this.contactConstraintPool.recycle();
+		}
+		
+		if (profiling) {
+			profile.contactUpdateTime += System.nanoTime() - time;
+		}
+	}
+	
+	/**
+	 * Clears the contacts of the given {@link Body}, releasing them to the contact pools
+	 * if pooling is enabled.
+	 * <p>
+	 * If keepStationary is true, the contacts with other stationary bodies are kept so that 
+	 * they can be carried forward.  In that case the body is added to the list of stationary
+	 * bodies so that the kept contacts that aren't carried forward are cleared by the
+	 * {@link #clearStationaryContacts(boolean)} method.
+	 * @param body the {@link Body}
+	 * @param keepStationary true if the contacts with stationary bodies should be kept
+	 * @param pooling true if contact pooling is enabled
+	 * @since 3.3.0
+	 */
+	private void clearContacts(Body body, boolean keepStationary, boolean pooling) {
+		List<ContactEdge> contacts = body.contacts;
+		int ceSize = contacts.size();
+		int n = 0;
+		for (int i = 0; i < ceSize; i++) {
+			ContactEdge contactEdge = contacts.get(i);
+			if (keepStationary && contactEdge.other.stationary) {
+				contacts.set(n++, contactEdge);
+				continue;
+			}
+			// release the old contact to the pools
+			if (pooling) {
+				this.releaseContact(body, contactEdge);
+			}
+		}
+		// remove the rest
+		if (n == 0) {
+			contacts.clear();
+		} else {
+			for (int i = ceSize - 1; i >= n; i--) {
+				contacts.remove(i);
+			}
+			this.stationaryBodies.add(body);
+		}
+	}
+	
+	/**
+	 * Clears the kept contacts of the stationary bodies that weren't carried forward
+	 * during detection.
+	 * <p>
+	 * The contacts with non-stationary bodies were created during this detection and are retained.
+	 * @param pooling true if contact pooling is enabled
+	 * @since 3.3.0
+	 */
+	private void clearStationaryContacts(boolean pooling) {
+		int size = this.stationaryBodies.size();
+		for (int i = 0; i < size; i++) {
+			Body body = this.stationaryBodies.get(i);
+			List<ContactEdge> contacts = body.contacts;
+			int ceSize = contacts.size();
+			int n = 0;
+			for (int j = 0; j < ceSize; j++) {
+				ContactEdge contactEdge = contacts.get(j);
+				// keep the carried contacts and the new contacts with moving bodies
+				if (contactEdge.carried || !contactEdge.other.stationary) {
+					contactEdge.carried = false;
+					contacts.set(n++, contactEdge);
+				} else if (pooling) {
+					this.releaseContact(body, contactEdge);
+				}
+			}
+			for (int j = ceSize - 1; j >= n; j--) {
+				contacts.remove(j);
+			}
+		}
+		this.stationaryBodies.clear();
+	}
+	
+	/**
+	 * Returns the {@link NarrowphaseDetector} as a {@link CachingNarrowphaseDetector} if
+	 * narrow-phase caching is enabled and the detector supports it.
+	 * @return {@link CachingNarrowphaseDetector}; null if the caches should not be used
+	 * @see Settings#isNarrowphaseCachingEnabled()
+	 * @since 3.3.0
+	 */
+	private CachingNarrowphaseDetector getCachingNarrowphaseDetector() {
+		if (this.settings.isNarrowphaseCachingEnabled() && this.narrowphaseDetector instanceof CachingNarrowphaseDetector) {
+			return (CachingNarrowphaseDetector)this.narrowphaseDetector;
+		}
+		return null;
+	}
+	
+	/**
+	 * Carries forward the existing {@link ContactConstraint} between the given fixtures of
+	 * the given stationary bodies, if there is one, by queueing it again in the {@link ContactManager}.
+	 * @param body1 the first {@link Body}
+	 * @param fixture1 the first {@link Body}'s {@link BodyFixture}
+	 * @param body2 the second {@link Body}
+	 * @param fixture2 the second {@link Body}'s {@link BodyFixture}
+	 * @since 3.3.0
+	 */
+	private void carryContact(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2) {
+		List<ContactEdge> contacts = body1.contacts;
+		int ceSize = contacts.size();
+		for (int i = 0; i < ceSize; i++) {
+			ContactEdge contactEdge = contacts.get(i);
+			if (contactEdge.other != body2 || contactEdge.carried) continue;
+			ContactConstraint contactConstraint = contactEdge.interaction;
+			BodyFixture f1 = contactConstraint.getFixture1();
+			BodyFixture f2 = contactConstraint.getFixture2();
+			if ((f1 == fixture1 && f2 == fixture2) || (f1 == fixture2 && f2 == fixture1)) {
+				// flag the edges on both bodies
+				contactEdge.carried = true;
+				List<ContactEdge> others = body2.contacts;
+				int oSize = others.size();
+				for (int j = 0; j < oSize; j++) {
+					ContactEdge other = others.get(j);
+					if (other.interaction == contactConstraint) {
+						other.carried = true;
+						break;
+					}
+				}
+				// new contact constraints start enabled
+				contactConstraint.setEnabled(true);
+				this.contactManager.queue(contactConstraint);
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Releases the given {@link ContactEdge} of the given {@link Body} and its
+	 * {@link ContactConstraint} to the contact pools.
+	 * <p>
+	 * This method should only be called just before the contact is removed from the given
+	 * {@link Body}.  A {@link ContactConstraint} is only released once, by its first body,
+	 * and only if both bodies are active, since inactive bodies retain their contacts.
+	 * @param body the {@link Body}
+	 * @param contactEdge the {@link ContactEdge}
+	 * @since 3.3.0
+	 */
+	private void releaseContact(Body body, ContactEdge contactEdge) {
+		ContactConstraint contactConstraint = contactEdge.interaction;
+		if (contactConstraint.getBody1() == body && contactEdge.other.isActive()) {
+			this.contactConstraintPool.release(contactConstraint);
+		}
+		contactEdge.set(null, null);
+		this.contactEdgePool.add(contactEdge);
+	}
+	
+	/**
+	 * Returns a {@link ContactEdge} for the given {@link Body} and {@link ContactConstraint}.
+	 * <p>
+	 * A recycled {@link ContactEdge} is returned if contact pooling is enabled and one is
+	 * available, otherwise a new one is created.
+	 * @param other the other {@link Body} in contact
+	 * @param contactConstraint the {@link ContactConstraint}
+	 * @param pooling true if contact pooling is enabled
+	 * @return {@link ContactEdge}
+	 * @since 3.3.0
+	 */
+	private ContactEdge createContactEdge(Body other, ContactConstraint contactConstraint, boolean pooling) {
+		int size = this.contactEdgePool.size();
+		if (pooling && size > 0) {
+			ContactEdge contactEdge = this.contactEdgePool.remove(size - 1);
+			contactEdge.set(other, contactConstraint);
+			return contactEdge;
+		}
+		return new ContactEdge(other, contactConstraint);
+	}
+	
+	/**
+	 * Performs the narrow-phase and manifold solving of the given broad-phase pairs in parallel
+	 * using this world's {@link Executor}.
+	 * <p>
+	 * The pairs are tested concurrently and the results are then merged, in the order of the
+	 * given list, on the calling thread.  The {@link CollisionListener}s are notified during the
+	 * merge, so they see the same events in the same order as when the narrow-phase is performed
+	 * serially.  The only difference is that pairs vetoed by a {@link CollisionListener} at the
+	 * broad-phase stage have already been tested.
+	 * <p>
+	 * The {@link NarrowphaseDetector}, {@link NarrowphasePostProcessor}, and {@link ManifoldSolver}
+	 * are called from multiple threads and must be thread-safe. All the default implementations
+	 * only store configuration.
+	 * @param pairs the broad-phase pairs
+	 * @param collisionListeners the {@link CollisionListener}s to notify
+	 * @param carry true if the contacts between stationary bodies should be carried forward
+	 * @param cachingDetector the detector to use with the narrow-phase caches; null if caching is disabled
+	 * @since 3.3.0
+	 */
+	private void detectParallel(final List<BroadphasePair<Body, BodyFixture>> pairs, List<CollisionListener> collisionListeners, final boolean carry, final CachingNarrowphaseDetector cachingDetector) {
+		int pSize = pairs.size();
+		int clSize = collisionListeners.size();
+		final boolean pooling = this.settings.isContactPoolingEnabled();
+		StepProfile profile = this.profile;
+		
+		// make sure we have enough room for the results
+		if (this.narrowphaseStages.length < pSize) {
+			int length = Math.max(pSize, this.narrowphaseStages.length * 2);
+			Penetration[] penetrations = new Penetration[length];
+			Manifold[] manifolds = new Manifold[length];
+			// keep any pooled results
+			System.arraycopy(this.penetrations, 0, penetrations, 0, this.penetrations.length);
+			System.arraycopy(this.manifolds, 0, manifolds, 0, this.manifolds.length);
+			this.penetrations = penetrations;
+			this.manifolds = manifolds;
+			this.narrowphaseStages = new int[length];
+			this.narrowphaseCaches = new NarrowphaseCache[length];
+		}
+		
+		final Penetration[] penetrations = this.penetrations;
+		final Manifold[] manifolds = this.manifolds;
+		final int[] stages = this.narrowphaseStages;
+		final NarrowphaseCache[] caches = this.narrowphaseCaches;
+		
+		// the contact manager isn't thread-safe so get the caches up front;
+		// each pair is unique so no cache is shared between tasks
+		if (cachingDetector != null) {
+			for (int i = 0; i < pSize; i++) {
+				BroadphasePair<Body, BodyFixture> pair = pairs.get(i);
+				if (carry && pair.getCollidable1().stationary && pair.getCollidable2().stationary) {
+					caches[i] = null;
+				} else {
+					caches[i] = this.contactManager.getNarrowphaseCache(pair.getFixture1(), pair.getFixture2());
+				}
+			}
+		}
+		final NarrowphaseDetector narrowphaseDetector = this.narrowphaseDetector;
+		final NarrowphasePostProcessor narrowphasePostProcessor = this.narrowphasePostProcessor;
+		final ManifoldSolver manifoldSolver = this.manifoldSolver;
+		
+		// test all the pairs concurrently
+		Parallel.execute(this.executor, this.settings.getParallelism(), pSize, new Parallel.Task() {
+			public void run(int worker, int index) {
+				BroadphasePair<Body, BodyFixture> pair = pairs.get(index);
+				Body body1 = pair.getCollidable1();
+				Body body2 = pair.getCollidable2();
+				
+				// -1 = carried forward, 0 = no collision, 1 = penetration only, 2 = penetration and manifold
+				if (carry && body1.stationary && body2.stationary) {
+					stages[index] = -1;
+					return;
+				}
+				stages[index] = 0;
+				
+				Transform transform1 = body1.getTransform();
+				Transform transform2 = body2.getTransform();
+				Convex convex1 = pair.getFixture1().getShape();
+				Convex convex2 = pair.getFixture2().getShape();
+				
+				Penetration penetration = penetrations[index];
+				if (pooling && penetration != null) {
+					penetration.clear();
+				} else {
+					penetration = new Penetration();
+					penetrations[index] = penetration;
+				}
+				
+				// test the two convex shapes; a zero depth should
+				// only happen if numerical error occurs
+				boolean collision;
+				if (cachingDetector != null) {
+					collision = cachingDetector.detect(convex1, transform1, convex2, transform2, penetration, caches[index]);
+				} else {
+					collision = narrowphaseDetector.detect(convex1, transform1, convex2, transform2, penetration);
+				}
+				if (collision && penetration.getDepth() != 0.0) {
+					// perform post processing
+					if (narrowphasePostProcessor != null) {
+						narrowphasePostProcessor.process(convex1, transform1, convex2, transform2, penetration);
+					}
+					stages[index] = 1;
+					
+					Manifold manifold = manifolds[index];
+					if (!pooling || manifold == null) {
+						manifold = new Manifold();
+						manifolds[index] = manifold;
+					}
+					// find a contact manifold using the filled in penetration object
+					if (manifoldSolver.getManifold(penetration, convex1, transform1, convex2, transform2, manifold) && manifold.getPoints().size() != 0) {
+						stages[index] = 2;
+					}
+				}
+			}
+		});
+		
+		// merge the results in order
+		boolean allow = true;
+		for (int i = 0; i < pSize; i++) {
+			BroadphasePair<Body, BodyFixture> pair = pairs.get(i);
+			int stage = stages[i];
+			
+			// the narrow-phase would give the same result as last time
+			if (stage < 0) {
+				this.carryContact(pair.getCollidable1(), pair.getFixture1(), pair.getCollidable2(), pair.getFixture2());
+				continue;
+			}
+			
+			Penetration penetration = penetrations[i];
+			Manifold manifold = manifolds[i];
+			
+			// clear the results so they can be reclaimed
+			if (!pooling) {
+				penetrations[i] = null;
+				manifolds[i] = null;
+			}
+			
+			if (profile != null) {
+				profile.detectIterations += penetration.getDetectIterations();
+				profile.penetrationIterations += penetration.getPenetrationIterations();
+			}
+			
+			// get the bodies
+			Body body1 = pair.getCollidable1();
+			Body body2 = pair.getCollidable2();
+			BodyFixture fixture1 = pair.getFixture1();
+			BodyFixture fixture2 = pair.getFixture2();
+			
+			allow = true;
+			for (int j = 0; j < clSize; j++) {
+				CollisionListener cl = collisionListeners.get(j);
+				if (!cl.collision(body1, fixture1, body2, fixture2)) {
+					allow = false;
+				}
+			}
+			if (!allow || stage < 1) continue;
+			
+			// notify of the narrow-phase collision
+			allow = true;
+			for (int j = 0; j < clSize; j++) {
+				CollisionListener cl = collisionListeners.get(j);
+				if (!cl.collision(body1, fixture1, body2, fixture2, penetration)) {
+					allow = false;
+				}
+			}
+			if (!allow || stage < 2) continue;
+			
+			// notify of the manifold solving result
+			allow = true;
+			for (int j = 0; j < clSize; j++) {
+				CollisionListener cl = collisionListeners.get(j);
+				if (!cl.collision(body1, fixture1, body2, fixture2, manifold)) {
+					allow = false;
+				}
+			}
+			if (!allow) continue;
+			
+			// create and queue a contact constraint
+			this.queueContactConstraint(body1, fixture1, body2, fixture2, manifold, collisionListeners);
+		}
+	}
+	
+	/**
+	 * Creates a new {@link ContactConstraint} for the given fixtures and manifold and queues
+	 * it in the {@link ContactManager} if none of the {@link CollisionListener}s veto it.
+	 * <p>
+	 * A {@link ContactEdge} is added to both bodies for queued contact constraints.
+	 * @param body1 the first {@link Body}
+	 * @param fixture1 the first {@link Body}'s {@link BodyFixture}
+	 * @param body2 the second {@link Body}
+	 * @param fixture2 the second {@link Body}'s {@link BodyFixture}
+	 * @param manifold the contact {@link Manifold}
+	 * @param collisionListeners the {@link CollisionListener}s to notify
+	 * @since 3.3.0
+	 */
+	private void queueContactConstraint(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, Manifold manifold, List<CollisionListener> collisionListeners) {
+		double friction = this.coefficientMixer.mixFriction(fixture1.getFriction(), fixture2.getFriction());
+		double restitution = this.coefficientMixer.mixRestitution(fixture1.getRestitution(), fixture2.getRestitution());
+		boolean pooling = this.settings.isContactPoolingEnabled();
+		
+		// create a contact constraint
+		ContactConstraint contactConstraint = null;
+		if (pooling) {
+			contactConstraint = this.contactConstraintPool.acquire(body1, fixture1, body2, fixture2, manifold, friction, restitution);
+			// the island flag isn't visible through the contact constraint type
+			Constraint constraint = contactConstraint;
+			constraint.setOnIsland(false);
+		} else {
+			contactConstraint = new ContactConstraint(body1, fixture1, body2, fixture2, manifold, friction, restitution);
+		}
+		
+		boolean allow = true;
+		// notify of the created contact constraint
+		int clSize = collisionListeners.size();
+		for (int j = 0; j < clSize; j++) {
+			CollisionListener cl = collisionListeners.get(j);
+			if (!cl.collision(contactConstraint)) {
+				// if any collision listener returned false then skip this collision
+				// we must allow all the listeners to get notified first, then skip
+				// the collision
+				allow = false;
+			}
+		}
+		if (!allow) {
+			// the constraint was never used so it can be reused
+			if (pooling) {
+				this.contactConstraintPool.release(contactConstraint);
+			}
+			return;
+		}
+		
+		// add a contact edge to both bodies
+		ContactEdge contactEdge1 = this.createContactEdge(body2, contactConstraint, pooling);
+		ContactEdge contactEdge2 = this.createContactEdge(body1, contactConstraint, pooling);
+		body1.contacts.add(contactEdge1);
+		body2.contacts.add(contactEdge2);
+		// add the contact constraint to the contact manager
+		this.contactManager.queue(contactConstraint);
 	}
 	
 	/**
@@ -856,18 +1670,53 @@ public class World implements Shiftable, DataContainer {
 	 * <li>Fixtures whose filters return false</li>
 	 * <li>Sensor fixtures</li>
 	 * </ul>
+	 * <p>
+	 * The swept {@link AABB} of each {@link Body} is computed once at the beginning
+	 * of this method and the candidates for each {@link Body} are found using the 
+	 * {@link BroadphaseDetector}.  The broad-phase entries of {@link Body}s that were
+	 * moved since the last step are updated before the candidates are found.
 	 * @param mode the continuous collision detection mode
 	 * @see ContinuousDetectionMode
 	 * @since 1.2.0
 	 */
 	protected void solveTOI(ContinuousDetectionMode mode) {
-		List<TimeOfImpactListener> listeners = this.getListeners(TimeOfImpactListener.class);
+		List<TimeOfImpactListener> listeners = this.timeOfImpactListeners;
 		// get the number of bodies
 		int size = this.bodies.size();
 		
 		// check the CCD mode
 		boolean bulletsOnly = (mode == ContinuousDetectionMode.BULLETS_ONLY);
 		
+		// compute the swept AABBs once for this time step and find how far
+		// the moving bodies could have swept beyond the AABBs stored in the
+		// broad-phase (which were computed at the beginning of the time step)
+		this.kinematicSweepExtent.zero();
+		this.dynamicSweepExtent.zero();
+		for (int i = 0; i < size; i++) {
+			Body body = this.bodies.get(i);
+			if (!body.isActive()) continue;
+			
+			AABB aabb = body.createSweptAABB();
+			body.sweptAABB = aabb;
+			
+			// the broad-phase AABBs of bodies moved by the user since the last
+			// step (a teleported static body for example) are stale; update
+			// them so the queries below can find them.  The broad-phase transform
+			// is left alone so that detect() still sees these bodies as moved
+			Transform start = body.isOnIsland() ? body.getInitialTransform() : body.getTransform();
+			if (body.broadphaseDirty || !start.isSame(body.broadphaseTransform)) {
+				this.broadphaseDetector.update(body);
+			}
+			
+			// bodies that were not on an island did not move so their
+			// broad-phase AABBs are sufficient
+			if (!body.isOnIsland()) continue;
+			
+			Vector2 extent = body.isDynamic() ? this.dynamicSweepExtent : this.kinematicSweepExtent;
+			extent.x = Math.max(extent.x, aabb.getWidth());
+			extent.y = Math.max(extent.y, aabb.getHeight());
+		}
+		
 		// loop over all the bodies and find the minimum TOI for each
 		// dynamic body
 		for (int i = 0; i < size; i++) {
@@ -914,17 +1763,43 @@ public class World implements Shiftable, DataContainer {
 	 * Then the {@link Body}s are position solved using the {@link TimeOfImpactSolver}
 	 * to force the {@link Body}s into collision.  This causes the discrete collision
 	 * detector to detect the collision on the next time step.
+	 * <p>
+	 * The candidate {@link Body}s are those with a fixture whose broad-phase {@link AABB}
+	 * overlaps the swept {@link AABB} of the given {@link Body}, expanded by the maximum
+	 * distance any other moving {@link Body} could have swept this time step.  This method
+	 * uses the swept {@link AABB}s cached by the {@link #solveTOI(ContinuousDetectionMode)}
+	 * method.
 	 * @param body1 the {@link Body}
 	 * @param listeners the list of {@link TimeOfImpactListener}s
 	 * @since 3.1.0
 	 */
 	protected void solveTOI(Body body1, List<TimeOfImpactListener> listeners) {
-		int size = this.bodies.size();
-		
-		// generate a swept AABB for this body
-		AABB aabb1 = body1.createSweptAABB();
+		// get the swept AABB for this body
+		AABB aabb1 = body1.sweptAABB;
+		if (aabb1 == null) {
+			aabb1 = body1.createSweptAABB();
+		}
 		boolean bullet = body1.isBullet();
 		
+		// expand the swept AABB by the maximum sweep of the other moving 
+		// bodies; we only do TOI for dynamic vs. static/kinematic unless
+		// its a bullet
+		double ex = this.kinematicSweepExtent.x;
+		double ey = this.kinematicSweepExtent.y;
+		if (bullet) {
+			ex = Math.max(ex, this.dynamicSweepExtent.x);
+			ey = Math.max(ey, this.dynamicSweepExtent.y);
+		}
+		AABB query = new AABB(
+				aabb1.getMinX() - ex,
+				aabb1.getMinY() - ey,
+				aabb1.getMaxX() + ex,
+				aabb1.getMaxY() + ey);
+		
+		// find the candidates using the broad-phase
+		List<BroadphaseItem<Body, BodyFixture>> items = this.broadphaseDetector.detect(query, this.timeOfImpactBroadphaseFilter);
+		int size = items.size();
+		
 		// setup the initial time bounds [0, 1]
 		double t1 = 0.0;
 		double t2 = 1.0;
@@ -933,15 +1808,18 @@ public class World implements Shiftable, DataContainer {
 		TimeOfImpact minToi = null;
 		Body minBody = null;
 		
-		// loop over all the other bodies to find the minimum TOI
+		// loop over all the candidate fixtures to find the minimum TOI
 		for (int i = 0; i < size; i++) {
-			// get the other body
-			Body body2 = this.bodies.get(i);
+			// get the other body and fixture
+			BroadphaseItem<Body, BodyFixture> item = items.get(i);
+			Body body2 = item.getCollidable();
+			BodyFixture f2 = item.getFixture();
 
 			// skip this test if they are the same body
 			if (body1 == body2) continue;
 			
-			// make sure the other body is active
+			// make sure the other body is active (the filter excludes
+			// inactive bodies, but a custom filter may not)
 			if (!body2.isActive()) continue;
 
 			// skip other dynamic bodies; we only do TOI for
@@ -954,14 +1832,13 @@ public class World implements Shiftable, DataContainer {
 			// check for bodies already in collision
 			if (body1.isInContact(body2)) continue;
 
-			// create a swept AABB for the other body
-			AABB aabb2 = body2.createSweptAABB();
+			// get the swept AABB for the other body
+			AABB aabb2 = body2.sweptAABB;
 			// if the swept AABBs don't overlap then don't bother testing them
 			if (!aabb1.overlaps(aabb2)) continue; 
 
 			TimeOfImpact toi = new TimeOfImpact();
 			int fc1 = body1.getFixtureCount();
-			int fc2 = body2.getFixtureCount();
 			
 			// get the velocities for the time step since we want
 			// [t1, t2] to be bound to this time step
@@ -981,62 +1858,62 @@ public class World implements Shiftable, DataContainer {
 			double av2 = body2.getAngularVelocity() * dt;
 			
 			Transform tx1 = body1.getInitialTransform();
-			Transform tx2 = body2.getInitialTransform();
+			// bodies that were not on an island didn't move this step (and the
+			// initial transform is only saved for awake bodies)
+			Transform tx2 = body2.isOnIsland() ? body2.getInitialTransform() : body2.getTransform();
 			
-			// test against all fixture pairs taking the fixture
-			// with the smallest time of impact
+			// skip sensor fixtures
+			if (f2.isSensor()) continue;
+			
+			// test the candidate fixture against all of this body's 
+			// fixtures taking the fixture with the smallest time of impact
 			for (int j = 0; j < fc1; j++) {
 				BodyFixture f1 = body1.getFixture(j);
 				
 				// skip sensor fixtures
 				if (f1.isSensor()) continue;
-				
-				for (int k = 0; k < fc2; k++) {
-					BodyFixture f2 = body2.getFixture(k);
-					
-					// skip sensor fixtures
-					if (f2.isSensor()) continue;
 
-					Filter filter1 = f1.getFilter();
-					Filter filter2 = f2.getFilter();
-					
-					// make sure the fixture filters allow the collision
-					if (!filter1.isAllowed(filter2)) {
-						continue;
-					}
-					
-					Convex c1 = f1.getShape();
-					Convex c2 = f2.getShape();
-					
-					// get the time of impact for the fixture pair
-					if (this.timeOfImpactDetector.getTimeOfImpact(c1, tx1, v1, av1, c2, tx2, v2, av2, t1, t2, toi)) {
-						// get the time of impact
-						double t = toi.getTime();
-						// check if the time of impact is less than
-						// the current time of impact
-						if (t < t2) {
-							// if it is then ask the listeners if we should use this collision
-							boolean allow = true;
-							for (TimeOfImpactListener tl : listeners) {
-								if (!tl.collision(body1, f1, body2, f2, toi)) {
-									// if any toi listener doesnt allow it, then don't allow it
-									// we need to allow all listeners to be notified before we continue
-									allow = false;
-								}
-							}
-							if (allow) {
-								// set the new upper bound
-								t2 = t;
-								// save the minimum toi and body
-								minToi = toi;
-								minBody = body2;
+				Filter filter1 = f1.getFilter();
+				Filter filter2 = f2.getFilter();
+				
+				// make sure the fixture filters allow the collision
+				if (!filter1.isAllowed(filter2)) {
+					continue;
+				}
+				
+				Convex c1 = f1.getShape();
+				Convex c2 = f2.getShape();
+				
+				// get the time of impact for the fixture pair
+				if (this.timeOfImpactDetector.getTimeOfImpact(c1, tx1, v1, av1, c2, tx2, v2, av2, t1, t2, toi)) {
+					// get the time of impact
+					double t = toi.getTime();
+					// check if the time of impact is less than
+					// the current time of impact
+					if (t < t2) {
+						// if it is then ask the listeners if we should use this collision
+						boolean allow = true;
+						for (TimeOfImpactListener tl : listeners) {
+							if (!tl.collision(body1, f1, body2, f2, toi)) {
+								// if any toi listener doesnt allow it, then don't allow it
+								// we need to allow all listeners to be notified before we continue
+								allow = false;
 							}
 						}
+						if (allow) {
+							// set the new upper bound
+							t2 = t;
+							// save the minimum toi and body
+							minToi = toi;
+							minBody = body2;
+							// use a new toi object for the next candidate
+							toi = new TimeOfImpact();
+						}
 					}
 				}
 			}
 			// if the bodies are intersecting or do not intersect
-			// within the range of motion then skip this body
+			// within the range of motion then skip this fixture
 			// and move to the next
 		}
 		
@@ -1061,6 +1938,10 @@ public class World implements Shiftable, DataContainer {
 			// in collision and will be detected in the next time step
 			this.timeOfImpactSolver.solve(body1, minBody, minToi, this.settings);
 			
+			// the bodies have moved so update their cached swept AABBs
+			body1.sweptAABB = body1.createSweptAABB();
+			minBody.sweptAABB = minBody.createSweptAABB();
+			
 			// this method does not conserve time
 		}
 	}
@@ -1077,7 +1958,9 @@ public class World implements Shiftable, DataContainer {
 	 * If the all flag is false, the results list will only contain the closest result (if any).
 	 * <p>
 	 * All raycasts pass through the {@link RaycastListener}s before being tested.  If <b>any</b>
-	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.
+	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.  When
+	 * the all flag is false the listeners are not notified of the bodies beyond the closest
+	 * result; see {@link #raycast(Ray, double, Filter, boolean, boolean, boolean, List)}.
 	 * <p>
 	 * Bodies that contain the start of the ray will not be included in the results.
 	 * <p>
@@ -1109,7 +1992,9 @@ public class World implements Shiftable, DataContainer {
 	 * If the all flag is false, the results list will only contain the closest result (if any).
 	 * <p>
 	 * All raycasts pass through the {@link RaycastListener}s before being tested.  If <b>any</b>
-	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.
+	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.  When
+	 * the all flag is false the listeners are not notified of the bodies beyond the closest
+	 * result; see {@link #raycast(Ray, double, Filter, boolean, boolean, boolean, List)}.
 	 * <p>
 	 * Bodies that contain the start of the ray will not be included in the results.
 	 * @param start the start point
@@ -1140,7 +2025,9 @@ public class World implements Shiftable, DataContainer {
 	 * If the all flag is false, the results list will only contain the closest result (if any).
 	 * <p>
 	 * All raycasts pass through the {@link RaycastListener}s before being tested.  If <b>any</b>
-	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.
+	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.  When
+	 * the all flag is false the listeners are not notified of the bodies beyond the closest
+	 * result; see {@link #raycast(Ray, double, Filter, boolean, boolean, boolean, List)}.
 	 * <p>
 	 * Bodies that contain the start of the ray will not be included in the results.
 	 * @param start the start point
@@ -1179,7 +2066,9 @@ public class World implements Shiftable, DataContainer {
 	 * Pass 0 into the maxLength field to specify an infinite length {@link Ray}.
 	 * <p>
 	 * All raycasts pass through the {@link RaycastListener}s before being tested.  If <b>any</b>
-	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.
+	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.  When
+	 * the all flag is false the listeners are not notified of the bodies beyond the closest
+	 * result; see {@link #raycast(Ray, double, Filter, boolean, boolean, boolean, List)}.
 	 * <p>
 	 * Bodies that contain the start of the ray will not be included in the results.
 	 * <p>
@@ -1213,7 +2102,9 @@ public class World implements Shiftable, DataContainer {
 	 * Pass 0 into the maxLength field to specify an infinite length {@link Ray}.
 	 * <p>
 	 * All raycasts pass through the {@link RaycastListener}s before being tested.  If <b>any</b>
-	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.
+	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.  When
+	 * the all flag is false the listeners are not notified of the bodies beyond the closest
+	 * result; see {@link #raycast(Ray, double, Filter, boolean, boolean, boolean, List)}.
 	 * <p>
 	 * Bodies that contain the start of the ray will not be included in the results.
 	 * @param ray the {@link Ray}
@@ -1242,12 +2133,21 @@ public class World implements Shiftable, DataContainer {
 	 * distance from the ray's origin.
 	 * <p>
 	 * If the all flag is false, the results list will only contain the closest result (if any).
+	 * In this case the ray is clipped as closer results are found so that the broad-phase can
+	 * skip the bodies beyond it.
 	 * <p>
 	 * Pass 0 into the maxLength field to specify an infinite length {@link Ray}.
 	 * <p>
 	 * All raycasts pass through the {@link RaycastListener}s before being tested.  If <b>any</b>
 	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.
 	 * <p>
+	 * When the all flag is false the {@link RaycastListener}s are notified in the order the
+	 * broad-phase reaches the bodies, roughly front to back, and only for the bodies it doesn't
+	 * skip.  Bodies beyond the closest result so far are never passed to the listeners and
+	 * {@link RaycastListener#allow(Ray, Body, BodyFixture, Raycast)} is only called for results
+	 * closer than the closest result so far.  Listeners that must see every body along the
+	 * ray should be used with the all flag set to true.
+	 * <p>
 	 * Bodies that contain the start of the ray will not be included in the results.
 	 * @param ray the {@link Ray}
 	 * @param maxLength the maximum length of the ray; 0 for infinite length
@@ -1263,16 +2163,27 @@ public class World implements Shiftable, DataContainer {
 	 * @since 3.1.9
 	 */
 	public boolean raycast(Ray ray, double maxLength, Filter filter, boolean ignoreSensors, boolean ignoreInactive, boolean all, List<RaycastResult> results) {
-		List<RaycastListener> listeners = this.getListeners(RaycastListener.class);
+		List<RaycastListener> listeners = this.raycastListeners;
 		int rlSize = listeners.size();
 		// check for the desired length
 		double max = 0.0;
 		if (maxLength > 0.0) {
 			max = maxLength;
 		}
-		// create a raycast result
-		RaycastResult result = null;
 		RaycastBroadphaseFilter bpFilter = new RaycastBroadphaseFilter(ignoreInactive, ignoreSensors, filter);
+		
+		if (!all) {
+			// test the fixtures as the broadphase finds them, front to back,
+			// clipping the ray to the closest result so far
+			ClosestRaycastCallback callback = new ClosestRaycastCallback(bpFilter, this.raycastDetector, listeners);
+			this.broadphaseDetector.raycast(ray, max, callback);
+			if (callback.body != null) {
+				results.add(new RaycastResult(callback.body, callback.fixture, callback.result));
+				return true;
+			}
+			return false;
+		}
+		
 		// filter using the broadphase first
 		List<BroadphaseItem<Body, BodyFixture>> items = this.broadphaseDetector.raycast(ray, maxLength, bpFilter);
 		// loop over the list of bodies testing each one
@@ -1314,29 +2225,85 @@ public class World implements Shiftable, DataContainer {
 				}
 				if (!allow) continue;
 				
-				if (!all) {
-					if (result == null) {
-						result = new RaycastResult(body, fixture, raycast);
-						results.add(result);
-						found = true;
-					} else {
-						result.body = body;
-						result.fixture = fixture;
-						result.raycast = raycast;
-					}
-					// we are only looking for the closest so
-					// set the new maximum
-					max = result.raycast.getDistance();
-				} else {
-					// add this result to the results
-					results.add(new RaycastResult(body, fixture, raycast));
-					found = true;
-				}
+				// add this result to the results
+				results.add(new RaycastResult(body, fixture, raycast));
+				found = true;
 			}
 		}
 		
 		return found;
 	}
+	
+	/**
+	 * Performs a raycast for each ray in the given {@link RaycastBatch} against all the {@link Body}s
+	 * in the {@link World} and stores the closest result of each in the batch.
+	 * <p>
+	 * This is equivalent to calling {@link #raycast(Ray, double, Filter, boolean, boolean, boolean, List)}
+	 * with the all flag set to false for each ray, but without creating any results, lists or
+	 * rays per raycast.  As closer results are found each ray is clipped so that the broad-phase 
+	 * can skip the bodies beyond it.
+	 * <p>
+	 * When parallel is true and an {@link Executor} has been set using {@link #setExecutor(Executor)}
+	 * the rays are raycast concurrently.  In this case, any {@link RaycastListener}s and the given
+	 * {@link Filter} must be thread safe.  The {@link World} must not be modified during the raycast.
+	 * <p>
+	 * All raycasts pass through the {@link RaycastListener}s before being tested.  If <b>any</b>
+	 * {@link RaycastListener} doesn't allow the raycast then the body will not be tested.
+	 * <p>
+	 * Bodies that contain the start of a ray will not be included in the results.
+	 * @param batch the rays to cast and the results
+	 * @param filter the {@link Filter} to use against the fixtures; can be null
+	 * @param ignoreSensors true if sensor {@link BodyFixture}s should be ignored
+	 * @param ignoreInactive true if inactive bodies should be ignored
+	 * @param parallel true if the rays should be raycast concurrently using the {@link Executor}
+	 * @return int the number of rays that intersected a {@link Body}
+	 * @throws NullPointerException if batch is null
+	 * @see #raycast(Ray, double, Filter, boolean, boolean, boolean, List)
+	 * @since 3.3.0
+	 */
+	public int raycast(final RaycastBatch batch, Filter filter, boolean ignoreSensors, boolean ignoreInactive, boolean parallel) {
+		final int size = batch.size;
+		if (size == 0) return 0;
+		
+		boolean concurrent = parallel && this.executor != null && size > 1;
+		int workers = concurrent ? Parallel.getWorkerCount(this.settings.getParallelism(), size) : 1;
+		
+		// create the worker confined state once per batch
+		RaycastBroadphaseFilter bpFilter = new RaycastBroadphaseFilter(ignoreInactive, ignoreSensors, filter);
+		final ClosestRaycastCallback[] callbacks = new ClosestRaycastCallback[workers];
+		final Ray[] rays = new Ray[workers];
+		for (int i = 0; i < workers; i++) {
+			callbacks[i] = new ClosestRaycastCallback(bpFilter, this.raycastDetector, this.raycastListeners);
+			rays[i] = new Ray(new Vector2(), new Vector2(1.0, 0.0));
+		}
+		
+		final BroadphaseDetector<Body, BodyFixture> broadphaseDetector = this.broadphaseDetector;
+		Parallel.Task task = new Parallel.Task() {
+			public void run(int worker, int index) {
+				Ray ray = rays[worker];
+				ClosestRaycastCallback callback = callbacks[worker];
+				batch.getRay(index, ray);
+				callback.reset();
+				broadphaseDetector.raycast(ray, batch.length[index], callback);
+				batch.setResult(index, callback.body, callback.fixture, callback.result);
+			}
+		};
+		
+		if (concurrent) {
+			Parallel.execute(this.executor, this.settings.getParallelism(), size, task);
+		} else {
+			for (int i = 0; i < size; i++) {
+				task.run(0, i);
+			}
+		}
+		
+		// count the hits
+		int hits = 0;
+		for (int i = 0; i < size; i++) {
+			if (batch.bodies[i] != null) hits++;
+		}
+		return hits;
+	}
 
 	/**
 	 * Performs a raycast against the given {@link Body} and returns true
@@ -1450,7 +2417,7 @@ public class World implements Shiftable, DataContainer {
 	 * @since 3.1.9
 	 */
 	public boolean raycast(Ray ray, Body body, double maxLength, Filter filter, boolean ignoreSensors, RaycastResult result) {
-		List<RaycastListener> listeners = this.getListeners(RaycastListener.class);
+		List<RaycastListener> listeners = this.raycastListeners;
 		int rlSize = listeners.size();
 		boolean allow = true;
 		// get the number of fixtures
@@ -1706,7 +2673,7 @@ public class World implements Shiftable, DataContainer {
 	 */
 	public boolean convexCast(Convex convex, Transform transform, Vector2 deltaPosition, double deltaAngle, Filter filter, boolean ignoreSensors, boolean ignoreInactive, boolean all, List<ConvexCastResult> results) {
 		// get the listeners
-		List<ConvexCastListener> listeners = this.getListeners(ConvexCastListener.class);
+		List<ConvexCastListener> listeners = this.convexCastListeners;
 		int clSize = listeners.size();
 		
 		// compute a conservative AABB for the motion of the convex
@@ -1886,7 +2853,7 @@ public class World implements Shiftable, DataContainer {
 	 */
 	public boolean convexCast(Convex convex, Transform transform, Vector2 deltaPosition, double deltaAngle, Body body, Filter filter, boolean ignoreSensors, ConvexCastResult result) {
 		// get the listeners
-		List<ConvexCastListener> listeners = this.getListeners(ConvexCastListener.class);
+		List<ConvexCastListener> listeners = this.convexCastListeners;
 		int clSize = listeners.size();
 		
 		boolean allow = true;
@@ -2017,7 +2984,7 @@ public class World implements Shiftable, DataContainer {
 	 * @since 3.1.9
 	 */
 	public boolean detect(AABB aabb, Filter filter, boolean ignoreSensors, boolean ignoreInactive, List<DetectResult> results) {
-		List<DetectListener> listeners = this.getListeners(DetectListener.class);
+		List<DetectListener> listeners = this.detectListeners;
 		int dlSize = listeners.size();
 		
 		AABBBroadphaseFilter bpFilter = new AABBBroadphaseFilter(ignoreInactive, ignoreSensors, filter);
@@ -2291,7 +3258,7 @@ public class World implements Shiftable, DataContainer {
 	 * @since 3.1.9
 	 */
 	public boolean detect(Convex convex, Transform transform, Filter filter, boolean ignoreSensors, boolean ignoreInactive, boolean includeCollisionData, List<DetectResult> results) {
-		List<DetectListener> listeners = this.getListeners(DetectListener.class);
+		List<DetectListener> listeners = this.detectListeners;
 		int dlSize = listeners.size();
 		boolean allow = true;
 		
@@ -2379,7 +3346,7 @@ public class World implements Shiftable, DataContainer {
 	 * @since 3.1.9
 	 */
 	public boolean detect(AABB aabb, Body body, Filter filter, boolean ignoreSensors, List<DetectResult> results) {
-		List<DetectListener> listeners = this.getListeners(DetectListener.class);
+		List<DetectListener> listeners = this.detectListeners;
 		int dlSize = listeners.size();
 		boolean allow = true;
 		// test the AABBs
@@ -2558,7 +3525,7 @@ public class World implements Shiftable, DataContainer {
 	 * @since 3.1.9
 	 */
 	public boolean detect(Convex convex, Transform transform, Body body, Filter filter, boolean ignoreSensors, boolean includeCollisionData, List<DetectResult> results) {
-		List<DetectListener> listeners = this.getListeners(DetectListener.class);
+		List<DetectListener> listeners = this.detectListeners;
 		int dlSize = listeners.size();
 		// make sure we can test the body
 		boolean allow = true;
@@ -2685,10 +3652,98 @@ public class World implements Shiftable, DataContainer {
 		this.bodies.add(body);
 		// set the world property on the body
 		body.world = this;
+		// assign the ids for the body and its fixtures
+		body.worldId = this.nextBodyId++;
+		int fSize = body.getFixtureCount();
+		for (int i = 0; i < fSize; i++) {
+			this.assignId(body.getFixture(i));
+		}
+		// track it if it's awake
+		if (!body.isAsleep()) {
+			this.addAwakeBody(body);
+		}
 		// add it to the broadphase
 		this.broadphaseDetector.add(body);
 	}
 	
+	/**
+	 * Adds all the given {@link Body}s to the {@link World}.
+	 * <p>
+	 * This method gives the same result as calling {@link #addBody(Body)} for each {@link Body}, but 
+	 * adds them to the broad-phase all at once using the {@link BroadphaseDetector#batchAdd(Collection)} 
+	 * method.  Use this method when adding many {@link Body}s, like when loading a level.
+	 * <p>
+	 * If any of the {@link Body}s can't be added, none of them are added.
+	 * @param bodies the {@link Body}s to add
+	 * @throws NullPointerException if bodies is null or contains null
+	 * @throws IllegalArgumentException if any body has already been added to this world, is in the collection more than once, or is a member of another world instance
+	 * @since 3.3.0
+	 */
+	public void addBodies(Collection<Body> bodies) {
+		// validate all the bodies first, claiming each so that duplicates are found
+		int claimed = 0;
+		RuntimeException exception = null;
+		for (Body body : bodies) {
+			if (body == null) {
+				exception = new NullPointerException(Messages.getString("dynamics.world.addNullBody"));
+			} else if (body.world == this) {
+				exception = new IllegalArgumentException(Messages.getString("dynamics.world.addExistingBody"));
+			} else if (body.world != null) {
+				exception = new IllegalArgumentException(Messages.getString("dynamics.world.addOtherWorldBody"));
+			}
+			if (exception != null) break;
+			body.world = this;
+			claimed++;
+		}
+		if (exception != null) {
+			// release the bodies claimed so far
+			Iterator<Body> it = bodies.iterator();
+			for (int i = 0; i < claimed; i++) {
+				it.next().world = null;
+			}
+			throw exception;
+		}
+		
+		// add them to the world, growing the list only once
+		this.bodies.addAll(bodies);
+		for (Body body : bodies) {
+			// assign the ids for the body and its fixtures
+			body.worldId = this.nextBodyId++;
+			int fSize = body.getFixtureCount();
+			for (int i = 0; i < fSize; i++) {
+				this.assignId(body.getFixture(i));
+			}
+			// track it if it's awake
+			if (!body.isAsleep()) {
+				this.addAwakeBody(body);
+			}
+		}
+		// add them to the broadphase all at once
+		this.broadphaseDetector.batchAdd(bodies);
+	}
+	
+	/**
+	 * Assigns a new id to the given {@link BodyFixture} of a {@link Body} in this {@link World}.
+	 * @param fixture the fixture
+	 * @since 3.3.0
+	 */
+	void assignId(BodyFixture fixture) {
+		fixture.worldId = this.nextFixtureId++;
+	}
+	
+	/**
+	 * Clears the ids of the given {@link Body} and its {@link BodyFixture}s.
+	 * @param body the body being removed from this {@link World}
+	 * @since 3.3.0
+	 */
+	private void clearIds(Body body) {
+		body.worldId = -1;
+		int fSize = body.getFixtureCount();
+		for (int i = 0; i < fSize; i++) {
+			body.getFixture(i).worldId = -1;
+		}
+	}
+	
 	/**
 	 * Adds the given {@link Joint} to the {@link World}.
 	 * @param joint the {@link Joint} to add
@@ -2803,7 +3858,7 @@ public class World implements Shiftable, DataContainer {
 	public boolean removeBody(Body body, boolean notify) {
 		List<DestructionListener> listeners = null;
 		if (notify) {
-			listeners = this.getListeners(DestructionListener.class);
+			listeners = this.destructionListeners;
 		}
 		// check for null body
 		if (body == null) return false;
@@ -2814,6 +3869,11 @@ public class World implements Shiftable, DataContainer {
 		if (removed) {
 			// set the world property to null
 			body.world = null;
+			this.clearIds(body);
+			if (body.onAwakeList) {
+				this.awakeBodies.remove(body);
+				body.onAwakeList = false;
+			}
 			
 			// remove the body from the broadphase
 			this.broadphaseDetector.remove(body);
@@ -3003,7 +4063,7 @@ public class World implements Shiftable, DataContainer {
 	public void removeAllBodiesAndJoints(boolean notify) {
 		List<DestructionListener> listeners = null;
 		if (notify) {
-			listeners = this.getListeners(DestructionListener.class);
+			listeners = this.destructionListeners;
 		}
 		// loop over the bodies and clear the
 		// joints and contacts
@@ -3063,7 +4123,10 @@ public class World implements Shiftable, DataContainer {
 			body.contacts.clear();
 			// set the world to null
 			body.world = null;
+			this.clearIds(body);
+			body.onAwakeList = false;
 		}
+		this.awakeBodies.clear();
 		// do we need to notify?
 		if (notify) {
 			// notify of all the destroyed joints
@@ -3131,7 +4194,7 @@ public class World implements Shiftable, DataContainer {
 	public void removeAllJoints(boolean notify) {
 		List<DestructionListener> listeners = null;
 		if (notify) {
-			listeners = this.getListeners(DestructionListener.class);
+			listeners = this.destructionListeners;
 		}
 		// get the number of joints
 		int jSize = this.joints.size();
@@ -3244,6 +4307,51 @@ public class World implements Shiftable, DataContainer {
 		return this.settings;
 	}
 	
+	/**
+	 * Returns the {@link StepProfile} of the last step.
+	 * <p>
+	 * Returns null if {@link Settings#isStepProfilingEnabled()} was false during the last step.
+	 * A new {@link StepProfile} is created for each step, so the returned object can be kept.
+	 * @return {@link StepProfile}
+	 * @see Settings#setStepProfilingEnabled(boolean)
+	 * @since 3.3.0
+	 */
+	public StepProfile getStepProfile() {
+		return this.stepProfile;
+	}
+	
+	/**
+	 * Returns the last published {@link QuerySnapshot}.
+	 * <p>
+	 * This method can be called from any thread.  The returned snapshot is immutable and
+	 * can be queried from any number of threads while this world is stepped.
+	 * <p>
+	 * A new snapshot is published at the end of each step when {@link Settings#isQuerySnapshotEnabled()}
+	 * is true or when {@link #publishQuerySnapshot()} is called.
+	 * @return {@link QuerySnapshot}; null if a snapshot hasn't been published
+	 * @see Settings#setQuerySnapshotEnabled(boolean)
+	 * @since 3.3.0
+	 */
+	public QuerySnapshot getQuerySnapshot() {
+		return this.querySnapshot;
+	}
+	
+	/**
+	 * Captures the current state of this world into a new {@link QuerySnapshot} and publishes it.
+	 * <p>
+	 * Like the other methods of this class, this method must not be called while the world is
+	 * being stepped or modified.  Use it to publish the state of the world after changes made 
+	 * outside of a step, adding bodies for example.
+	 * @return {@link QuerySnapshot} the published snapshot
+	 * @see #getQuerySnapshot()
+	 * @since 3.3.0
+	 */
+	public QuerySnapshot publishQuerySnapshot() {
+		QuerySnapshot snapshot = new QuerySnapshot(++this.querySnapshotVersion, this.bodies, this.narrowphaseDetector, this.raycastDetector, this.timeOfImpactDetector);
+		this.querySnapshot = snapshot;
+		return snapshot;
+	}
+	
 	/**
 	 * Sets the dynamics settings for this world.
 	 * @param settings the desired settings
@@ -3275,10 +4383,19 @@ public class World implements Shiftable, DataContainer {
 
 	/**
 	 * Sets the bounds of this {@link World}.
+	 * <p>
+	 * Bodies that are asleep or static are only checked against the bounds after they
+	 * move or after this method is called.  Call this method again after modifying the
+	 * current bounds.
 	 * @param bounds the bounds; can be null
 	 */
 	public void setBounds(Bounds bounds) {
 		this.bounds = bounds;
+		// check all the bodies against the new bounds
+		int size = this.bodies.size();
+		for (int i = 0; i < size; i++) {
+			this.bodies.get(i).broadphaseDirty = true;
+		}
 	}
 	
 	/**
@@ -3375,6 +4492,7 @@ public class World implements Shiftable, DataContainer {
 		if (this.listeners.contains(listener)) throw new IllegalArgumentException("dynamics.world.addExistingListener");
 		// then add the listener
 		this.listeners.add(listener);
+		this.cacheListeners();
 	}
 	
 	/**
@@ -3394,7 +4512,11 @@ public class World implements Shiftable, DataContainer {
 	 * @since 3.1.0
 	 */
 	public boolean removeListener(Listener listener) {
-		return this.listeners.remove(listener);
+		boolean removed = this.listeners.remove(listener);
+		if (removed) {
+			this.cacheListeners();
+		}
+		return removed;
 	}
 	
 	/**
@@ -3405,6 +4527,7 @@ public class World implements Shiftable, DataContainer {
 	public int removeAllListeners() {
 		int count = this.listeners.size();
 		this.listeners.clear();
+		this.cacheListeners();
 		return count;
 	}
 	
@@ -3438,9 +4561,46 @@ public class World implements Shiftable, DataContainer {
 				count++;
 			}
 		}
+		if (count > 0) {
+			this.cacheListeners();
+		}
 		return count;
 	}
 	
+	/**
+	 * Rebuilds the cached lists of the listener types this world notifies.
+	 * <p>
+	 * This method is called when a listener is added or removed.  New lists are created
+	 * each time so that any list currently being iterated is not modified.
+	 * @since 3.3.0
+	 */
+	private void cacheListeners() {
+		this.stepListeners = this.cacheListeners(StepListener.class);
+		this.contactListeners = this.cacheListeners(ContactListener.class);
+		this.boundsListeners = this.cacheListeners(BoundsListener.class);
+		this.collisionListeners = this.cacheListeners(CollisionListener.class);
+		this.timeOfImpactListeners = this.cacheListeners(TimeOfImpactListener.class);
+		this.raycastListeners = this.cacheListeners(RaycastListener.class);
+		this.convexCastListeners = this.cacheListeners(ConvexCastListener.class);
+		this.detectListeners = this.cacheListeners(DetectListener.class);
+		this.destructionListeners = this.cacheListeners(DestructionListener.class);
+	}
+	
+	/**
+	 * Returns an unmodifiable list of the listeners of the given type (or sub types).
+	 * @param <T> the listener type
+	 * @param clazz the listener type
+	 * @return List&lt;T&gt;
+	 * @since 3.3.0
+	 */
+	private <T extends Listener> List<T> cacheListeners(Class<T> clazz) {
+		List<T> listeners = this.getListeners(clazz);
+		if (listeners.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(listeners);
+	}
+	
 	/**
 	 * Returns the total number of listeners attached to this world.
 	 * @return int
@@ -3690,6 +4850,34 @@ public class World implements Shiftable, DataContainer {
 		return this.contactConstraintSolver;
 	}
 	
+	/**
+	 * Sets the {@link Executor} used to run the parallel parts of a step.
+	 * <p>
+	 * The executor is only used by the parts of a step that have been enabled in the
+	 * {@link Settings}, like {@link Settings#setParallelIslandSolvingEnabled(boolean)},
+	 * {@link Settings#setParallelNarrowphaseEnabled(boolean)}, and
+	 * {@link Settings#setParallelConstraintSolvingEnabled(boolean)}.
+	 * The calling thread always participates in the work so an executor with fewer 
+	 * threads than processors, or one that rejects tasks, can still be used.
+	 * <p>
+	 * Set to null (the default) to perform all steps on the calling thread.
+	 * @param executor the executor; can be null
+	 * @since 3.3.0
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+	
+	/**
+	 * Returns the {@link Executor} used to run the parallel parts of a step.
+	 * @return Executor the executor; null if not set
+	 * @see #setExecutor(Executor)
+	 * @since 3.3.0
+	 */
+	public Executor getExecutor() {
+		return this.executor;
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.DataContainer#getUserData()
 	 */
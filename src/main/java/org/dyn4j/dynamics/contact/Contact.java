@@ -26,23 +26,24 @@ package org.dyn4j.dynamics.contact;
 
 import org.dyn4j.collision.manifold.ManifoldPointId;
 import org.dyn4j.dynamics.Body;
+import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
 
 /**
  * Represents a contact point between two {@link Body} objects.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  */
 public final class Contact {
 	/** The manifold point id for warm starting */
-	final ManifoldPointId id;
+	ManifoldPointId id;
 	
 	/** The contact point in world space */
 	final Vector2 p;
 	
 	/** The contact penetration depth */
-	final double depth;
+	double depth;
 	
 	/** The contact point in {@link Body}1 space */
 	final Vector2 p1;
@@ -90,6 +91,32 @@ public final class Contact {
 		this.p2 = p2;
 	}
 	
+	/**
+	 * Sets this contact to the given manifold point.
+	 * <p>
+	 * The world space point is copied and the local points are computed in place
+	 * using the given transforms.  All accumulated impulses are reset.
+	 * @param id the manifold point id used for warm starting
+	 * @param point the world space collision point
+	 * @param depth the penetration depth of this point
+	 * @param transform1 the transform of {@link Body}1
+	 * @param transform2 the transform of {@link Body}2
+	 * @since 3.3.0
+	 */
+	void set(ManifoldPointId id, Vector2 point, double depth, Transform transform1, Transform transform2) {
+		this.id = id;
+		this.p.set(point);
+		this.depth = depth;
+		transform1.getInverseTransformed(point, this.p1);
+		transform2.getInverseTransformed(point, this.p2);
+		this.jn = 0.0;
+		this.jt = 0.0;
+		this.jp = 0.0;
+		this.massN = 0.0;
+		this.massT = 0.0;
+		this.vb = 0.0;
+	}
+	
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -34,12 +34,13 @@ import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.dynamics.Constraint;
 import org.dyn4j.geometry.Matrix22;
 import org.dyn4j.geometry.Shiftable;
+import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
 
 /**
  * Represents a {@link Contact} constraint for each {@link Body} pair.  
  * @author William Bittle
- * @version 3.2.5
+ * @version 3.3.0
  * @since 1.0.0
  */
 public class ContactConstraint extends Constraint implements Shiftable {
@@ -47,10 +48,10 @@ public class ContactConstraint extends Constraint implements Shiftable {
 	protected final ContactConstraintId id;
 	
 	/** The first {@link Body}'s {@link BodyFixture} */
-	protected final BodyFixture fixture1;
+	protected BodyFixture fixture1;
 	
 	/** The second {@link Body}'s {@link BodyFixture} */
-	protected final BodyFixture fixture2;
+	protected BodyFixture fixture2;
 	
 	/** The {@link Contact}s */
 	protected final List<Contact> contacts;
@@ -82,6 +83,12 @@ public class ContactConstraint extends Constraint implements Shiftable {
 	/** The inverse of the {@link #K} matrix */
 	Matrix22 invK;
 	
+	/** The index of the first {@link Body} in a {@link SolverBodyState} */
+	int index1;
+	
+	/** The index of the second {@link Body} in a {@link SolverBodyState} */
+	int index2;
+	
 	/**
 	 * Full constructor.
 	 * @param body1 the first {@link Body}
@@ -133,6 +140,64 @@ public class ContactConstraint extends Constraint implements Shiftable {
 		this.enabled = true;
 	}
 	
+	/**
+	 * Reinitializes this contact constraint with the given bodies, fixtures and manifold.
+	 * <p>
+	 * The existing {@link Contact}s, id, normal and tangent are reused and the manifold 
+	 * values are copied into them.  This method is used by the {@link ContactConstraintPool}
+	 * to recycle contact constraints.
+	 * @param body1 the first {@link Body}
+	 * @param fixture1 the first {@link Body}'s {@link BodyFixture}
+	 * @param body2 the second {@link Body}
+	 * @param fixture2 the second {@link Body}'s {@link BodyFixture}
+	 * @param manifold the contact {@link Manifold}
+	 * @param friction the friction for the contact constraint
+	 * @param restitution the restitution for the contact constraint
+	 * @since 3.3.0
+	 */
+	void set(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, Manifold manifold, double friction, double restitution) {
+		this.body1 = body1;
+		this.body2 = body2;
+		this.fixture1 = fixture1;
+		this.fixture2 = fixture2;
+		this.id.set(body1, fixture1, body2, fixture2);
+		// get the manifold points
+		List<ManifoldPoint> points = manifold.getPoints();
+		int mSize = points.size();
+		// remove any extra contacts
+		for (int l = this.contacts.size() - 1; l >= mSize; l--) {
+			this.contacts.remove(l);
+		}
+		Transform transform1 = body1.getTransform();
+		Transform transform2 = body2.getTransform();
+		int cSize = this.contacts.size();
+		for (int l = 0; l < mSize; l++) {
+			ManifoldPoint point = points.get(l);
+			if (l < cSize) {
+				// reuse the existing contact
+				this.contacts.get(l).set(point.getId(), point.getPoint(), point.getDepth(), transform1, transform2);
+			} else {
+				Contact contact = new Contact(point.getId(),
+						                      point.getPoint().copy(), 
+						                      point.getDepth(), 
+						                      transform1.getInverseTransformed(point.getPoint()), 
+						                      transform2.getInverseTransformed(point.getPoint()));
+				this.contacts.add(contact);
+			}
+		}
+		// set the normal and tangent
+		Vector2 n = manifold.getNormal();
+		this.normal.set(n);
+		this.tangent.set(-n.y, n.x);
+		// set coefficients
+		this.friction = friction;
+		this.restitution = restitution;
+		this.sensor = fixture1.isSensor() || fixture2.isSensor();
+		this.tangentSpeed = 0;
+		this.enabled = true;
+		// the K and invK matrices are kept and recomputed by the solver
+	}
+	
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -28,28 +28,34 @@ import java.util.UUID;
 
 import org.dyn4j.dynamics.Body;
 import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.dynamics.World;
 import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.Shape;
 
 /**
  * Represents and id for a contact constraint between two {@link Convex}
  * {@link Shape}s on two {@link Body}s.
+ * <p>
+ * Two ids are equal if they refer to the same bodies and fixtures, in either order.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  */
 public final class ContactConstraintId {
-	/** The first {@link Body}'s id */
-	private final UUID body1Id;
+	/** The first {@link Body} */
+	private Body body1;
 	
-	/** The second {@link Body}'s id */
-	private final UUID body2Id;
+	/** The second {@link Body} */
+	private Body body2;
 	
-	/** The first {@link Body}'s {@link Convex} {@link Shape} id */
-	private final UUID fixture1Id;
+	/** The first {@link Body}'s {@link BodyFixture} */
+	private BodyFixture fixture1;
 	
-	/** The second {@link Body}'s {@link Convex} {@link Shape} id */
-	private final UUID fixture2Id;
+	/** The second {@link Body}'s {@link BodyFixture} */
+	private BodyFixture fixture2;
+	
+	/** The order independent key built from the fixture ids */
+	long key;
 	
 	/**
 	 * Full constructor.
@@ -59,10 +65,50 @@ public final class ContactConstraintId {
 	 * @param fixture2 the second {@link Body}'s {@link BodyFixture}
 	 */
 	public ContactConstraintId(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2) {
-		this.body1Id = body1.getId();
-		this.body2Id = body2.getId();
-		this.fixture1Id = fixture1.getId();
-		this.fixture2Id = fixture2.getId();
+		this.set(body1, fixture1, body2, fixture2);
+	}
+	
+	/**
+	 * Sets this id to the given bodies and fixtures.
+	 * <p>
+	 * This id must not be used as a key in any map when this method is called.
+	 * @param body1 the first {@link Body}
+	 * @param fixture1 the first {@link Body}'s {@link BodyFixture}
+	 * @param body2 the second {@link Body}
+	 * @param fixture2 the second {@link Body}'s {@link BodyFixture}
+	 * @since 3.3.0
+	 */
+	void set(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2) {
+		this.body1 = body1;
+		this.body2 = body2;
+		this.fixture1 = fixture1;
+		this.fixture2 = fixture2;
+		this.key = ContactConstraintId.getKey(fixture1, fixture2);
+	}
+	
+	/**
+	 * Returns a key for the given pair of fixtures that doesn't depend
+	 * on the order of the fixtures.
+	 * <p>
+	 * The key packs the ids assigned by the {@link World} into a long.  Fixtures
+	 * that are not in a {@link World} use their identity hash code instead.  The key 
+	 * is not guaranteed to be unique, only that equal ids have equal keys.
+	 * @param fixture1 the first fixture
+	 * @param fixture2 the second fixture
+	 * @return long
+	 * @since 3.3.0
+	 */
+	static long getKey(BodyFixture fixture1, BodyFixture fixture2) {
+		int id1 = fixture1.getWorldId();
+		int id2 = fixture2.getWorldId();
+		if (id1 < 0) id1 = System.identityHashCode(fixture1);
+		if (id2 < 0) id2 = System.identityHashCode(fixture2);
+		if (id1 > id2) {
+			int t = id1;
+			id1 = id2;
+			id2 = t;
+		}
+		return ((long) id2 << 32) | (id1 & 0xFFFFFFFFL);
 	}
 	
 	/* (non-Javadoc)
@@ -74,11 +120,11 @@ public final class ContactConstraintId {
 		if (other == this) return true;
 		if (other instanceof ContactConstraintId) {
 			ContactConstraintId o = (ContactConstraintId) other;
-			if ((this.body1Id.equals(o.body1Id) && this.body2Id.equals(o.body2Id)
-			  && this.fixture1Id.equals(o.fixture1Id) && this.fixture2Id.equals(o.fixture2Id))
+			if ((this.body1 == o.body1 && this.body2 == o.body2
+			  && this.fixture1 == o.fixture1 && this.fixture2 == o.fixture2)
 			  // the order of the objects doesn't matter
-			 || (this.body1Id.equals(o.body2Id) && this.body2Id.equals(o.body1Id)
-			  && this.fixture1Id.equals(o.fixture2Id) && this.fixture2Id.equals(o.fixture1Id))) {
+			 || (this.body1 == o.body2 && this.body2 == o.body1
+			  && this.fixture1 == o.fixture2 && this.fixture2 == o.fixture1)) {
 				return true;
 			}
 		}
@@ -90,10 +136,7 @@ public final class ContactConstraintId {
 	 */
 	@Override
 	public int hashCode() {
-		int hash = 1;
-		hash = hash * 31 + body1Id.hashCode() + body2Id.hashCode();
-		hash = hash * 31 + fixture1Id.hashCode() + fixture2Id.hashCode();
-		return hash;
+		return (int) (this.key ^ (this.key >>> 32));
 	}
 	
 	/* (non-Javadoc)
@@ -102,10 +145,10 @@ public final class ContactConstraintId {
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
-		sb.append("ContactConstraintId[Body1Id=").append(this.body1Id)
-		.append("|Body2Id=").append(this.body2Id)
-		.append("|Fixture1Id=").append(this.fixture1Id)
-		.append("|Fixture2Id=").append(this.fixture2Id)
+		sb.append("ContactConstraintId[Body1Id=").append(this.body1.getId())
+		.append("|Body2Id=").append(this.body2.getId())
+		.append("|Fixture1Id=").append(this.fixture1.getId())
+		.append("|Fixture2Id=").append(this.fixture2.getId())
 		.append("]");
 		return sb.toString();
 	}
@@ -116,7 +159,7 @@ public final class ContactConstraintId {
 	 * @since 3.1.2
 	 */
 	public UUID getBody1Id() {
-		return this.body1Id;
+		return this.body1.getId();
 	}
 
 	/**
@@ -125,7 +168,7 @@ public final class ContactConstraintId {
 	 * @since 3.1.2
 	 */
 	public UUID getBody2Id() {
-		return this.body2Id;
+		return this.body2.getId();
 	}
 
 	/**
@@ -134,7 +177,7 @@ public final class ContactConstraintId {
 	 * @since 3.1.2
 	 */
 	public UUID getFixture1Id() {
-		return this.fixture1Id;
+		return this.fixture1.getId();
 	}
 
 	/**
@@ -143,6 +186,6 @@ public final class ContactConstraintId {
 	 * @since 3.1.2
 	 */
 	public UUID getFixture2Id() {
-		return this.fixture2Id;
+		return this.fixture2.getId();
 	}
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.Arrays;
+
+/**
+ * Represents an open addressing hash map of {@link ContactConstraint}s keyed by their
+ * {@link ContactConstraintId}s.
+ * <p>
+ * The {@link LongKeyIndex} hashes the long keys of the ids
+ * (see {@link ContactConstraintId#getKey(org.dyn4j.dynamics.BodyFixture, org.dyn4j.dynamics.BodyFixture)})
+ * and this map only falls back to {@link ContactConstraintId#equals(Object)} when the keys match.
+ * The values are stored densely so that they can be iterated by index using the
+ * {@link #size()} and {@link #get(int)} methods.  Removing the value at an index moves the
+ * last value into its place, so removal while iterating must iterate backwards.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+final class ContactConstraintMap {
+	/** The hash table of the value indices */
+	private final LongKeyIndex index;
+	
+	/** The dense array of values */
+	private ContactConstraint[] values;
+	
+	/** The number of values */
+	private int size;
+	
+	/**
+	 * Full constructor.
+	 * @param initialCapacity the initial number of values
+	 */
+	public ContactConstraintMap(int initialCapacity) {
+		this.index = new LongKeyIndex(initialCapacity);
+		this.values = new ContactConstraint[Math.max(initialCapacity, 4)];
+		this.size = 0;
+	}
+	
+	/**
+	 * Returns the slot of the given id or -1 if it's not in this map.
+	 * @param id the id
+	 * @return int
+	 */
+	private int find(ContactConstraintId id) {
+		long key = id.key;
+		LongKeyIndex index = this.index;
+		int i = index.find(key, index.getHome(key));
+		while (i >= 0) {
+			ContactConstraintId other = this.values[index.getIndex(i)].id;
+			if (other == id || other.equals(id)) return i;
+			i = index.find(key, index.next(i));
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the {@link ContactConstraint} with the given id or null if not found.
+	 * @param id the id
+	 * @return {@link ContactConstraint}
+	 */
+	public ContactConstraint get(ContactConstraintId id) {
+		int i = this.find(id);
+		if (i < 0) return null;
+		return this.values[this.index.getIndex(i)];
+	}
+	
+	/**
+	 * Returns the {@link ContactConstraint} at the given index.
+	 * @param index the index between 0 and {@link #size()} - 1
+	 * @return {@link ContactConstraint}
+	 */
+	public ContactConstraint get(int index) {
+		return this.values[index];
+	}
+	
+	/**
+	 * Adds the given {@link ContactConstraint} to this map using its id, replacing
+	 * any existing {@link ContactConstraint} with an equal id.
+	 * @param constraint the constraint
+	 * @return {@link ContactConstraint} the replaced constraint or null
+	 */
+	public ContactConstraint put(ContactConstraint constraint) {
+		int i = this.find(constraint.id);
+		if (i >= 0) {
+			int index = this.index.getIndex(i);
+			ContactConstraint old = this.values[index];
+			this.values[index] = constraint;
+			return old;
+		}
+		
+		// make sure there's room
+		if (this.size == this.values.length) {
+			this.values = Arrays.copyOf(this.values, this.size * 2);
+		}
+		
+		this.values[this.size] = constraint;
+		this.index.insert(constraint.id.key, this.size, this.size + 1);
+		this.size++;
+		return null;
+	}
+	
+	/**
+	 * Removes the {@link ContactConstraint} with the given id.
+	 * @param id the id
+	 * @return {@link ContactConstraint} the removed constraint or null if not found
+	 */
+	public ContactConstraint remove(ContactConstraintId id) {
+		int i = this.find(id);
+		if (i < 0) return null;
+		int index = this.index.getIndex(i);
+		ContactConstraint constraint = this.values[index];
+		this.index.remove(i);
+		this.compact(index);
+		return constraint;
+	}
+	
+	/**
+	 * Removes the {@link ContactConstraint} at the given index.
+	 * <p>
+	 * The last {@link ContactConstraint} is moved to the given index.
+	 * @param index the index between 0 and {@link #size()} - 1
+	 * @return {@link ContactConstraint} the removed constraint
+	 */
+	public ContactConstraint remove(int index) {
+		ContactConstraint constraint = this.values[index];
+		this.index.remove(this.find(constraint.id));
+		this.compact(index);
+		return constraint;
+	}
+	
+	/**
+	 * Fills the given index in the dense array of values with the last value.
+	 * @param index the index of the removed value
+	 */
+	private void compact(int index) {
+		int last = this.size - 1;
+		if (index != last) {
+			ContactConstraint moved = this.values[last];
+			this.values[index] = moved;
+			this.index.setIndex(this.find(moved.id), index);
+		}
+		this.values[last] = null;
+		this.size = last;
+	}
+	
+	/**
+	 * Removes all the {@link ContactConstraint}s from this map.
+	 */
+	public void clear() {
+		if (this.size == 0) return;
+		this.index.clear();
+		Arrays.fill(this.values, 0, this.size, null);
+		this.size = 0;
+	}
+	
+	/**
+	 * Returns the number of {@link ContactConstraint}s in this map.
+	 * @return int
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns true if this map is empty.
+	 * @return boolean
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+}
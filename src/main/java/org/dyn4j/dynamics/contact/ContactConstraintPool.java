@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
+
+/**
+ * Represents a pool of {@link ContactConstraint}s that can be reused from step to step.
+ * <p>
+ * Contact constraints are recycled in two stages.  Constraints that are no longer needed
+ * are passed to the {@link #release(ContactConstraint)} method, but they are not reused 
+ * until the {@link #recycle()} method is called.  This allows the constraints of the last
+ * detection to be released while the {@link ContactManager} still uses them to warm start 
+ * and report the new constraints.
+ * <p>
+ * Any reference to a released {@link ContactConstraint}, or any of its {@link Contact}s, 
+ * is invalid after the {@link #recycle()} method is called.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class ContactConstraintPool {
+	/** The contact constraints available for reuse */
+	private final List<ContactConstraint> available;
+	
+	/** The contact constraints released since the last recycle */
+	private final List<ContactConstraint> released;
+	
+	/**
+	 * Default constructor.
+	 */
+	public ContactConstraintPool() {
+		this.available = new ArrayList<ContactConstraint>();
+		this.released = new ArrayList<ContactConstraint>();
+	}
+	
+	/**
+	 * Returns a {@link ContactConstraint} for the given bodies, fixtures and manifold.
+	 * <p>
+	 * A recycled {@link ContactConstraint} is returned if one is available, otherwise a new
+	 * one is created.
+	 * @param body1 the first {@link Body}
+	 * @param fixture1 the first {@link Body}'s {@link BodyFixture}
+	 * @param body2 the second {@link Body}
+	 * @param fixture2 the second {@link Body}'s {@link BodyFixture}
+	 * @param manifold the contact {@link Manifold}
+	 * @param friction the friction for the contact constraint
+	 * @param restitution the restitution for the contact constraint
+	 * @return {@link ContactConstraint}
+	 */
+	public ContactConstraint acquire(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, Manifold manifold, double friction, double restitution) {
+		int size = this.available.size();
+		if (size == 0) {
+			return new ContactConstraint(body1, fixture1, body2, fixture2, manifold, friction, restitution);
+		}
+		ContactConstraint contactConstraint = this.available.remove(size - 1);
+		contactConstraint.set(body1, fixture1, body2, fixture2, manifold, friction, restitution);
+		return contactConstraint;
+	}
+	
+	/**
+	 * Releases the given {@link ContactConstraint} to this pool.
+	 * <p>
+	 * The given {@link ContactConstraint} will not be reused until the {@link #recycle()}
+	 * method is called.
+	 * @param contactConstraint the {@link ContactConstraint}
+	 */
+	public void release(ContactConstraint contactConstraint) {
+		this.released.add(contactConstraint);
+	}
+	
+	/**
+	 * Makes all the released {@link ContactConstraint}s available for reuse.
+	 */
+	public void recycle() {
+		// avoid addAll since it copies the list to an array
+		int size = this.released.size();
+		for (int i = 0; i < size; i++) {
+			this.available.add(this.released.get(i));
+		}
+		this.released.clear();
+	}
+	
+	/**
+	 * Removes all the released and available {@link ContactConstraint}s from this pool.
+	 */
+	public void clear() {
+		this.available.clear();
+		this.released.clear();
+	}
+	
+	/**
+	 * Returns the number of {@link ContactConstraint}s available for reuse.
+	 * @return int
+	 */
+	public int getAvailableCount() {
+		return this.available.size();
+	}
+}
@@ -26,7 +26,9 @@ package org.dyn4j.dynamics.contact;
 
 import java.util.List;
 
+import org.dyn4j.collision.narrowphase.NarrowphaseCache;
 import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.dynamics.Settings;
 import org.dyn4j.geometry.Shiftable;
 
@@ -48,6 +50,20 @@ public interface ContactManager extends Shiftable {
 	 * @param constraint the {@link ContactConstraint}
 	 */
 	public void queue(ContactConstraint constraint);
+	
+	/**
+	 * Returns the {@link NarrowphaseCache} for the given pair of {@link BodyFixture}s.
+	 * <p>
+	 * The cache is created if it doesn't exist.  Caches that are not requested between
+	 * two calls to the {@link #updateAndNotify(List, Settings)} method are removed.
+	 * <p>
+	 * The cache is oriented from the first fixture to the second fixture.
+	 * @param fixture1 the first fixture
+	 * @param fixture2 the second fixture
+	 * @return {@link NarrowphaseCache}
+	 * @since 3.3.0
+	 */
+	public NarrowphaseCache getNarrowphaseCache(BodyFixture fixture1, BodyFixture fixture2);
 
 	// notification stage
 	
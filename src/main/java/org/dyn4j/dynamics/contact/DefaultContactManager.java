@@ -25,14 +25,13 @@
 package org.dyn4j.dynamics.contact;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import org.dyn4j.collision.Collisions;
 import org.dyn4j.collision.manifold.ManifoldPointId;
+import org.dyn4j.collision.narrowphase.NarrowphaseCache;
 import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.dynamics.Capacity;
 import org.dyn4j.dynamics.Settings;
 import org.dyn4j.geometry.Shiftable;
@@ -51,14 +50,20 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 	private final List<ContactConstraint> constraintQueue;
 	
 	/** Map for fast look up of  {@link ContactConstraint}s */
-	private Map<ContactConstraintId, ContactConstraint> constraints;
+	private ContactConstraintMap constraints;
 	
 	/** Another map that will be reused */
-	private Map<ContactConstraintId, ContactConstraint> constraints1;
+	private ContactConstraintMap constraints1;
 	
 	/** True if warm starting is enabled */
 	private boolean warmStartingEnabled;
 	
+	/** The reusable flags for the persisted contacts of a contact constraint */
+	private boolean[] persisted;
+	
+	/** The narrow-phase caches for the fixture pairs */
+	private final NarrowphaseCacheMap narrowphaseCaches;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -83,13 +88,14 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 		int eSize = Collisions.getEstimatedCollisionPairs(initialCapacity.getBodyCount());
 		// initialize the members
 		this.constraintQueue = new ArrayList<ContactConstraint>(eSize);
-		// 0.75 = 3/4, we can garuantee that the hashmap will not need to be rehashed
-		// if we take capacity / load factor
-		// the default load factor is 0.75 according to the javadocs, but lets assign it to be sure
-		this.constraints = new HashMap<ContactConstraintId, ContactConstraint>(eSize * 4 / 3 + 1, 0.75f);
-		this.constraints1 = new HashMap<ContactConstraintId, ContactConstraint>(eSize * 4 / 3 + 1, 0.75f);
+		this.constraints = new ContactConstraintMap(eSize);
+		this.constraints1 = new ContactConstraintMap(eSize);
 		// enabled by default
 		this.warmStartingEnabled = true;
+		// contact constraints typically have at most two contacts
+		this.persisted = new boolean[2];
+		// the caches are only created when requested
+		this.narrowphaseCaches = new NarrowphaseCacheMap(0);
 	}
 	
 	/* (non-Javadoc)
@@ -100,6 +106,14 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 		this.constraintQueue.add(constraint);
 	}
 	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.ContactManager#getNarrowphaseCache(org.dyn4j.dynamics.BodyFixture, org.dyn4j.dynamics.BodyFixture)
+	 */
+	@Override
+	public NarrowphaseCache getNarrowphaseCache(BodyFixture fixture1, BodyFixture fixture2) {
+		return this.narrowphaseCaches.get(fixture1, fixture2);
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.dynamics.contact.ContactManager#clear()
 	 */
@@ -107,6 +121,7 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 	public void clear() {
 		this.constraintQueue.clear();
 		this.constraints.clear();
+		this.narrowphaseCaches.clear();
 	}
 	
 	/* (non-Javadoc)
@@ -122,9 +137,9 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 	 */
 	public void shift(Vector2 shift) {
 		// update all the contacts
-		Iterator<ContactConstraint> it = this.constraints.values().iterator();
-		while (it.hasNext()) {
-			ContactConstraint cc = it.next();
+		int size = this.constraints.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint cc = this.constraints.get(i);
 			cc.shift(shift);
 		}
 	}
@@ -133,6 +148,9 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 	 * @see org.dyn4j.dynamics.contact.SimpleContactManager#updateAndNotify(java.util.List, org.dyn4j.dynamics.Settings)
 	 */
 	public void updateAndNotify(List<ContactListener> listeners, Settings settings) {
+		// remove the narrow-phase caches of the pairs that were not tested
+		this.narrowphaseCaches.sweep();
+		
 		// get the size of the list
 		int size = this.constraintQueue.size();
 		int lsize = listeners != null ? listeners.size() : 0;
@@ -141,7 +159,7 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 		double warmStartDistanceSquared = settings.getWarmStartDistanceSquared();
 		
 		// create a new map for the new contacts constraints
-		Map<ContactConstraintId, ContactConstraint> newMap = this.constraints1;
+		ContactConstraintMap newMap = this.constraints1;
 		
 		// loop over the new contact constraints
 		// and attempt to persist contacts
@@ -164,8 +182,14 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 			if (oldContactConstraint != null) {
 				List<Contact> ocontacts = oldContactConstraint.contacts;
 				int osize = ocontacts.size();
-				// create an array for removed contacts
-				boolean[] persisted = new boolean[osize];
+				// use a reusable array for removed contacts
+				if (this.persisted.length < osize) {
+					this.persisted = new boolean[osize];
+				}
+				boolean[] persisted = this.persisted;
+				for (int j = 0; j < osize; j++) {
+					persisted[j] = false;
+				}
 				// warm start the constraint
 				for (int j = nsize - 1; j >= 0; j--) {
 					// get the new contact
@@ -186,17 +210,19 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 								newContact.jt = oldContact.jt;
 							}
 							// notify of a persisted contact
-							PersistedContactPoint point = new PersistedContactPoint(newContactConstraint, newContact, oldContactConstraint, oldContact);
-							// call the listeners and set the enabled flag to the result
-							boolean allow = true;
-							for (int l = 0; l < lsize; l++) {
-								ContactListener listener = listeners.get(l);
-								if (!listener.persist(point)) {
-									allow = false;
+							if (lsize > 0) {
+								PersistedContactPoint point = new PersistedContactPoint(newContactConstraint, newContact, oldContactConstraint, oldContact);
+								// call the listeners and set the enabled flag to the result
+								boolean allow = true;
+								for (int l = 0; l < lsize; l++) {
+									ContactListener listener = listeners.get(l);
+									if (!listener.persist(point)) {
+										allow = false;
+									}
+								}
+								if (!allow) {
+									newContactConstraint.enabled = false;
 								}
-							}
-							if (!allow) {
-								newContactConstraint.enabled = false;
 							}
 							// flag that the contact was persisted
 							persisted[k] = true;
@@ -205,7 +231,7 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 						}
 					}
 					// check for persistence, if it wasn't persisted its a new contact
-					if (!found) {
+					if (!found && lsize > 0) {
 						// notify of new contact (begin of contact)
 						ContactPoint point = new ContactPoint(newContactConstraint, newContact);
 						// call the listeners and set the enabled flag to the result
@@ -224,10 +250,9 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 				
 				// check for removed contacts
 				// if the contact was not persisted then it was removed
-				int rsize = persisted.length;
-				for (int j = 0; j < rsize; j++) {
+				for (int j = 0; j < osize; j++) {
 					// check the boolean array
-					if (!persisted[j]) {
+					if (!persisted[j] && lsize > 0) {
 						// get the contact
 						Contact contact = ocontacts.get(j);
 						// notify of new contact (begin of contact)
@@ -239,7 +264,7 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 						}
 					}
 				}
-			} else {
+			} else if (lsize > 0) {
 				// notify new contacts
 				// if the old contact point was not found notify of the new contact
 				for (int j = nsize - 1; j >= 0; j--) {
@@ -262,16 +287,16 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 			}
 			// add the contact constraint to the map
 			if (newContactConstraint.contacts.size() > 0) {
-				newMap.put(newContactConstraint.id, newContactConstraint);
+				newMap.put(newContactConstraint);
 			}
 		}
 		
 		// check the map and its size
-		if (!this.constraints.isEmpty()) {
+		if (!this.constraints.isEmpty() && lsize > 0) {
 			// now loop over the remaining contacts in the map to notify of any removed contacts
-			Iterator<ContactConstraint> icc = this.constraints.values().iterator();
-			while (icc.hasNext()) {
-				ContactConstraint contactConstraint = icc.next();
+			int csize = this.constraints.size();
+			for (int c = 0; c < csize; c++) {
+				ContactConstraint contactConstraint = this.constraints.get(c);
 				// loop over the contact points
 				int rsize = contactConstraint.contacts.size();
 				for (int i = 0; i < rsize; i++) {
@@ -307,12 +332,14 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 	 */
 	public void preSolveNotify(List<ContactListener> listeners) {
 		int lsize = listeners != null ? listeners.size() : 0;
+		// no contacts can be disabled without listeners
+		if (lsize == 0) return;
 		
-		// loop through the list of contacts that were solved
-		Iterator<ContactConstraint> itContactConstraints = this.constraints.values().iterator();
-		while (itContactConstraints.hasNext()) {
+		// loop through the list of contacts that will be solved
+		// (iterate backwards so we can remove)
+		for (int i = this.constraints.size() - 1; i >= 0; i--) {
 			// get the contact constraint
-			ContactConstraint contactConstraint = itContactConstraints.next();
+			ContactConstraint contactConstraint = this.constraints.get(i);
 			// don't report preSolve of disabled contact constraints
 			if (!contactConstraint.enabled || contactConstraint.sensor) continue;
 			// loop over the contacts
@@ -340,7 +367,7 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 			// check if all the contacts were not allowed
 			if (contactConstraint.contacts.size() == 0) {
 				// remove the constraint
-				itContactConstraints.remove();
+				this.constraints.remove(i);
 			}
 		}
 	}
@@ -350,9 +377,13 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 	 */
 	public void postSolveNotify(List<ContactListener> listeners) {
 		int lsize = listeners != null ? listeners.size() : 0;
+		// nothing to do without listeners
+		if (lsize == 0) return;
 		
 		// loop through the list of contacts that were solved
-		for (ContactConstraint contactConstraint : this.constraints.values()) {
+		int size = this.constraints.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint contactConstraint = this.constraints.get(i);
 			// don't report postSolve of disabled contact constraints
 			if (!contactConstraint.enabled || contactConstraint.sensor) continue;
 			// loop over the contacts
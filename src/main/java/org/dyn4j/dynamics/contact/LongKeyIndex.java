@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.Arrays;
+
+/**
+ * Represents an open addressing hash table from long keys to the indices of values
+ * stored densely by the owner of the table.
+ * <p>
+ * The table uses linear probing and keeps the load factor at or below 0.5.  Different
+ * values can have the same key, so the table only finds the slots whose keys match; the
+ * owner compares the values themselves.  To find a value start with
+ * {@link #find(long, int)} at the {@link #getHome(long)} slot and continue at the
+ * {@link #next(int)} slot until the value matches or -1 is returned.
+ * <p>
+ * Removing a slot shifts back the following slots of the same probe sequence so that
+ * no tombstones are needed.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+final class LongKeyIndex {
+	/** The key for each slot */
+	private long[] keys;
+	
+	/** The index + 1 of the value for each slot; zero if the slot is empty */
+	private int[] slots;
+	
+	/** The mask used to wrap indices into the table */
+	private int mask;
+	
+	/**
+	 * Full constructor.
+	 * @param initialCapacity the initial number of values
+	 */
+	public LongKeyIndex(int initialCapacity) {
+		int capacity = 8;
+		while (capacity < initialCapacity * 2) {
+			capacity <<= 1;
+		}
+		this.keys = new long[capacity];
+		this.slots = new int[capacity];
+		this.mask = capacity - 1;
+	}
+	
+	/**
+	 * Returns the home slot for the given key.
+	 * @param key the key
+	 * @return int
+	 */
+	public int getHome(long key) {
+		// mix the bits of the key (the finalizer from MurmurHash3)
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) key & this.mask;
+	}
+	
+	/**
+	 * Returns the slot following the given slot in the probe sequence.
+	 * @param slot the slot
+	 * @return int
+	 */
+	public int next(int slot) {
+		return (slot + 1) & this.mask;
+	}
+	
+	/**
+	 * Returns the first slot, starting from the given slot, with the given key
+	 * or -1 if the end of the probe sequence is reached first.
+	 * @param key the key
+	 * @param slot the slot to start from
+	 * @return int
+	 */
+	public int find(long key, int slot) {
+		int i = slot;
+		while (true) {
+			if (this.slots[i] == 0) return -1;
+			if (this.keys[i] == key) return i;
+			i = (i + 1) & this.mask;
+		}
+	}
+	
+	/**
+	 * Returns the index of the value in the given slot.
+	 * @param slot the slot
+	 * @return int
+	 */
+	public int getIndex(int slot) {
+		return this.slots[slot] - 1;
+	}
+	
+	/**
+	 * Sets the index of the value in the given slot.
+	 * @param slot the slot
+	 * @param index the index of the value
+	 */
+	public void setIndex(int slot, int index) {
+		this.slots[slot] = index + 1;
+	}
+	
+	/**
+	 * Inserts the given key and index, growing the table if needed.
+	 * <p>
+	 * The value must not already be in the table.
+	 * @param key the key
+	 * @param index the index of the value
+	 * @param count the number of values including the new value
+	 */
+	public void insert(long key, int index, int count) {
+		if (count * 2 > this.keys.length) {
+			this.rehash(this.keys.length * 2);
+		}
+		this.put(key, index + 1);
+	}
+	
+	/**
+	 * Puts the given key and slot value into the first empty slot of its probe sequence.
+	 * @param key the key
+	 * @param value the index + 1 of the value
+	 */
+	private void put(long key, int value) {
+		int i = this.getHome(key);
+		while (this.slots[i] != 0) {
+			i = (i + 1) & this.mask;
+		}
+		this.keys[i] = key;
+		this.slots[i] = value;
+	}
+	
+	/**
+	 * Rebuilds the table with the given capacity.
+	 * @param capacity the new capacity; must be a power of two
+	 */
+	private void rehash(int capacity) {
+		long[] keys = this.keys;
+		int[] slots = this.slots;
+		this.keys = new long[capacity];
+		this.slots = new int[capacity];
+		this.mask = capacity - 1;
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] != 0) {
+				this.put(keys[i], slots[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Empties the given slot, shifting back any entries in the same probe sequence.
+	 * @param slot the slot
+	 */
+	public void remove(int slot) {
+		int hole = slot;
+		int j = slot;
+		while (true) {
+			j = (j + 1) & this.mask;
+			if (this.slots[j] == 0) break;
+			int home = this.getHome(this.keys[j]);
+			// move the entry into the hole if its home is not
+			// between the hole and its current slot
+			boolean move = j > hole ? (home <= hole || home > j) : (home <= hole && home > j);
+			if (move) {
+				this.keys[hole] = this.keys[j];
+				this.slots[hole] = this.slots[j];
+				hole = j;
+			}
+		}
+		this.slots[hole] = 0;
+	}
+	
+	/**
+	 * Empties all the slots.
+	 */
+	public void clear() {
+		Arrays.fill(this.slots, 0);
+	}
+	
+	/**
+	 * Returns the number of slots.
+	 * @return int
+	 */
+	public int getCapacity() {
+		return this.keys.length;
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.Arrays;
+
+import org.dyn4j.collision.narrowphase.NarrowphaseCache;
+import org.dyn4j.dynamics.BodyFixture;
+
+/**
+ * Represents an open addressing hash map of {@link NarrowphaseCache}s keyed by pairs of 
+ * {@link BodyFixture}s.
+ * <p>
+ * Like the {@link ContactConstraintMap}, a {@link LongKeyIndex} hashes the order independent
+ * long keys of the fixture pairs and the values are stored densely.  Removed
+ * caches are kept past the end of the dense array and reused.
+ * <p>
+ * Each cache is marked when it's requested.  The {@link #sweep()} method removes the caches
+ * that were not requested since the last sweep.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+final class NarrowphaseCacheMap {
+	/** The hash table of the cache indices */
+	private final LongKeyIndex index;
+	
+	/** The dense array of caches */
+	private NarrowphaseCache[] values;
+	
+	/** The key of each cache; kept since the ids of the fixtures can change */
+	private long[] pairKeys;
+	
+	/** The first fixture of each cache; the cached axis points away from it */
+	private BodyFixture[] fixtures1;
+	
+	/** The second fixture of each cache */
+	private BodyFixture[] fixtures2;
+	
+	/** True if the cache was requested since the last sweep */
+	private boolean[] used;
+	
+	/** The number of caches */
+	private int size;
+	
+	/**
+	 * Full constructor.
+	 * @param initialCapacity the initial number of caches
+	 */
+	public NarrowphaseCacheMap(int initialCapacity) {
+		int length = Math.max(initialCapacity, 4);
+		this.index = new LongKeyIndex(initialCapacity);
+		this.values = new NarrowphaseCache[length];
+		this.pairKeys = new long[length];
+		this.fixtures1 = new BodyFixture[length];
+		this.fixtures2 = new BodyFixture[length];
+		this.used = new boolean[length];
+		this.size = 0;
+	}
+	
+	/**
+	 * Returns the slot of the given pair of fixtures, in either order, or -1 if it's not in this map.
+	 * @param key the key of the pair
+	 * @param fixture1 the first fixture
+	 * @param fixture2 the second fixture
+	 * @return int
+	 */
+	private int find(long key, BodyFixture fixture1, BodyFixture fixture2) {
+		LongKeyIndex index = this.index;
+		int i = index.find(key, index.getHome(key));
+		while (i >= 0) {
+			int value = index.getIndex(i);
+			BodyFixture f1 = this.fixtures1[value];
+			BodyFixture f2 = this.fixtures2[value];
+			if ((f1 == fixture1 && f2 == fixture2) || (f1 == fixture2 && f2 == fixture1)) return i;
+			i = index.find(key, index.next(i));
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the {@link NarrowphaseCache} for the given pair of fixtures, adding an
+	 * empty one if the pair is not in this map.
+	 * <p>
+	 * The cached axis is oriented from the given first fixture to the given second fixture.
+	 * @param fixture1 the first fixture
+	 * @param fixture2 the second fixture
+	 * @return {@link NarrowphaseCache}
+	 */
+	public NarrowphaseCache get(BodyFixture fixture1, BodyFixture fixture2) {
+		long key = ContactConstraintId.getKey(fixture1, fixture2);
+		int i = this.find(key, fixture1, fixture2);
+		if (i >= 0) {
+			int index = this.index.getIndex(i);
+			NarrowphaseCache cache = this.values[index];
+			// flip the axis if the pair was requested in the other order
+			if (this.fixtures1[index] != fixture1) {
+				this.fixtures1[index] = fixture1;
+				this.fixtures2[index] = fixture2;
+				cache.setAxis(cache.getAxis().negate());
+			}
+			this.used[index] = true;
+			return cache;
+		}
+		
+		// make sure there's room
+		if (this.size == this.values.length) {
+			int length = this.size * 2;
+			this.values = Arrays.copyOf(this.values, length);
+			this.pairKeys = Arrays.copyOf(this.pairKeys, length);
+			this.fixtures1 = Arrays.copyOf(this.fixtures1, length);
+			this.fixtures2 = Arrays.copyOf(this.fixtures2, length);
+			this.used = Arrays.copyOf(this.used, length);
+		}
+		
+		// reuse a removed cache if there is one
+		int index = this.size;
+		NarrowphaseCache cache = this.values[index];
+		if (cache == null) {
+			cache = new NarrowphaseCache();
+			this.values[index] = cache;
+		} else {
+			cache.clear();
+		}
+		this.pairKeys[index] = key;
+		this.fixtures1[index] = fixture1;
+		this.fixtures2[index] = fixture2;
+		this.used[index] = true;
+		this.index.insert(key, index, index + 1);
+		this.size++;
+		return cache;
+	}
+	
+	/**
+	 * Removes the caches that were not requested since the last sweep and clears
+	 * the marks of the rest.
+	 */
+	public void sweep() {
+		for (int i = this.size - 1; i >= 0; i--) {
+			if (this.used[i]) {
+				this.used[i] = false;
+			} else {
+				this.remove(i);
+			}
+		}
+	}
+	
+	/**
+	 * Removes the cache at the given index.
+	 * <p>
+	 * The last cache is moved to the given index and the removed cache is kept
+	 * past the end for reuse.
+	 * @param index the index between 0 and {@link #size()} - 1
+	 */
+	private void remove(int index) {
+		this.index.remove(this.find(this.pairKeys[index], this.fixtures1[index], this.fixtures2[index]));
+		
+		int last = this.size - 1;
+		if (index != last) {
+			NarrowphaseCache removed = this.values[index];
+			this.values[index] = this.values[last];
+			this.pairKeys[index] = this.pairKeys[last];
+			this.fixtures1[index] = this.fixtures1[last];
+			this.fixtures2[index] = this.fixtures2[last];
+			this.used[index] = this.used[last];
+			this.values[last] = removed;
+			this.index.setIndex(this.find(this.pairKeys[index], this.fixtures1[index], this.fixtures2[index]), index);
+		}
+		this.fixtures1[last] = null;
+		this.fixtures2[last] = null;
+		this.used[last] = false;
+		this.size = last;
+	}
+	
+	/**
+	 * Removes all the caches from this map.
+	 */
+	public void clear() {
+		if (this.size == 0) return;
+		this.index.clear();
+		Arrays.fill(this.fixtures1, 0, this.size, null);
+		Arrays.fill(this.fixtures2, 0, this.size, null);
+		Arrays.fill(this.used, 0, this.size, false);
+		this.size = 0;
+	}
+	
+	/**
+	 * Returns the number of caches in this map.
+	 * @return int
+	 */
+	public int size() {
+		return this.size;
+	}
+}
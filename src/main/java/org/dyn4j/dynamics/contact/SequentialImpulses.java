@@ -39,10 +39,10 @@ import org.dyn4j.geometry.Vector2;
 /**
  * Represents an impulse based rigid {@link Body} physics collision resolver.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 3.2.0
  */
-public class SequentialImpulses implements ContactConstraintSolver {
+public class SequentialImpulses implements ArrayContactConstraintSolver {
 	/* (non-Javadoc)
 	 * @see org.dyn4j.dynamics.contact.ContactConstraintSolver#initialize(java.util.List, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
 	 */
@@ -71,8 +71,10 @@ public class SequentialImpulses implements ContactConstraintSolver {
 			double invI2 = m2.getInverseInertia();
 			
 			// get the transformed centers of mass
-			Vector2 c1 = t1.getTransformed(m1.getCenter());
-			Vector2 c2 = t2.getTransformed(m2.getCenter());
+			double c1x = t1.getTransformedX(m1.getCenter());
+			double c1y = t1.getTransformedY(m1.getCenter());
+			double c2x = t2.getTransformedX(m2.getCenter());
+			double c2y = t2.getTransformedY(m2.getCenter());
 			
 			// get the contacts
 			List<Contact> contacts = contactConstraint.contacts;
@@ -89,11 +91,19 @@ public class SequentialImpulses implements ContactConstraintSolver {
 			for (int j = 0; j < cSize; j++) {
 				Contact contact = contacts.get(j);
 				
-				// get ra and rb
-				Vector2 r1 = c1.to(contact.p);
-				Vector2 r2 = c2.to(contact.p);
-				contact.r1 = r1;
-				contact.r2 = r2;
+				// get ra and rb (reusing the vectors of a pooled contact)
+				Vector2 r1 = contact.r1;
+				Vector2 r2 = contact.r2;
+				if (r1 == null) {
+					r1 = new Vector2();
+					r2 = new Vector2();
+					contact.r1 = r1;
+					contact.r2 = r2;
+				}
+				r1.x = contact.p.x - c1x;
+				r1.y = contact.p.y - c1y;
+				r2.x = contact.p.x - c2x;
+				r2.y = contact.p.y - c2y;
 				
 				// pre calculate the mass normal
 				double r1CrossN = r1.cross(N);
@@ -109,12 +119,13 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				contact.vb = 0.0;
 				
 				// find the relative velocity
-				Vector2 lv1 = r1.cross(b1.getAngularVelocity()).add(b1.getLinearVelocity());
-				Vector2 lv2 = r2.cross(b2.getAngularVelocity()).add(b2.getLinearVelocity());
-				Vector2 rv = lv1.subtract(lv2);
+				Vector2 v1 = b1.getLinearVelocity();
+				Vector2 v2 = b2.getLinearVelocity();
+				double rvx = (-r1.y * b1.getAngularVelocity() + v1.x) - (-r2.y * b2.getAngularVelocity() + v2.x);
+				double rvy = (r1.x * b1.getAngularVelocity() + v1.y) - (r2.x * b2.getAngularVelocity() + v2.y);
 				
 				// project the relative velocity onto the penetration normal
-				double rvn = N.dot(rv);
+				double rvn = N.x * rvx + N.y * rvy;
 				// if its negative then the bodies are moving away from one another
 				if (rvn < -restitutionVelocity) {
 					// use the coefficient of elasticity
@@ -133,8 +144,11 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				double rn2A = contact2.r1.cross(N);
 				double rn2B = contact2.r2.cross(N);
 				
-				// compute the K matrix for the constraints
-				Matrix22 K = new Matrix22();
+				// compute the K matrix for the constraints (reusing the matrices of a pooled constraint)
+				Matrix22 K = contactConstraint.K;
+				if (K == null) {
+					K = new Matrix22();
+				}
 				K.m00 = invM1 + invM2 + invI1 * rn1A * rn1A + invI2 * rn1B * rn1B;
 				K.m01 = invM1 + invM2 + invI1 * rn1A * rn2A + invI2 * rn1B * rn2B;
 				K.m10 = K.m01;
@@ -145,8 +159,17 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				if (K.m00 * K.m00 < maxCondition * K.determinant()) {
 					// if the condition number is below the max then we can
 					// assume that we can invert K
+					Matrix22 invK = contactConstraint.invK;
+					if (invK == null) {
+						invK = new Matrix22();
+					}
+					invK.m00 = K.m00;
+					invK.m01 = K.m01;
+					invK.m10 = K.m10;
+					invK.m11 = K.m11;
+					invK.invert();
 					contactConstraint.K = K;
-					contactConstraint.invK = K.getInverse();
+					contactConstraint.invK = invK;
 				} else {
 					// otherwise the matrix is ill conditioned
 					
@@ -200,6 +223,11 @@ public class SequentialImpulses implements ContactConstraintSolver {
 			double invI1 = m1.getInverseInertia();
 			double invI2 = m2.getInverseInertia();
 			
+			// bodies with infinite mass are never changed by the solver; skipping them also keeps
+			// them from being written to by other threads when the constraints are solved in batches
+			boolean dynamic1 = b1.isDynamic();
+			boolean dynamic2 = b2.isDynamic();
+			
 			// get the penetration axis
 			Vector2 N = contactConstraint.normal;
 			// get the tangent vector
@@ -220,13 +248,18 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				// apply accumulated impulses to warm start the solver
 
 //				Vector2 J = N.product(contact.jn).add(T.product(contact.jt));
-				Vector2 J = new Vector2(N.x * contact.jn + T.x * contact.jt, N.y * contact.jn + T.y * contact.jt);
+				double jx = N.x * contact.jn + T.x * contact.jt;
+				double jy = N.y * contact.jn + T.y * contact.jt;
 //				b1.getVelocity().add(J.product(invM1));
-				b1.getLinearVelocity().add(J.x * invM1, J.y * invM1);
-				b1.setAngularVelocity(b1.getAngularVelocity() + invI1 * contact.r1.cross(J));
+				if (dynamic1) {
+					b1.getLinearVelocity().add(jx * invM1, jy * invM1);
+					b1.setAngularVelocity(b1.getAngularVelocity() + invI1 * (contact.r1.x * jy - contact.r1.y * jx));
+				}
 //				b2.getVelocity().subtract(J.product(invM2));
-				b2.getLinearVelocity().subtract(J.x * invM2, J.y * invM2);
-				b2.setAngularVelocity(b2.getAngularVelocity() - invI2 * contact.r2.cross(J));
+				if (dynamic2) {
+					b2.getLinearVelocity().subtract(jx * invM2, jy * invM2);
+					b2.setAngularVelocity(b2.getAngularVelocity() - invI2 * (contact.r2.x * jy - contact.r2.y * jx));
+				}
 			}
 		}
 	}
@@ -250,6 +283,11 @@ public class SequentialImpulses implements ContactConstraintSolver {
 			double invM2 = m2.getInverseMass();
 			double invI1 = m1.getInverseInertia();
 			double invI2 = m2.getInverseInertia();
+			
+			// bodies with infinite mass are never changed by the solver; skipping them also keeps
+			// them from being written to by other threads when the constraints are solved in batches
+			boolean dynamic1 = b1.isDynamic();
+			boolean dynamic2 = b2.isDynamic();
 
 			// get the contact list
 			List<Contact> contacts = contactConstraint.contacts;
@@ -271,12 +309,17 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				Vector2 r2 = contact.r2;
 				
 				// get the relative velocity
-				Vector2 lv1 = r1.cross(b1.getAngularVelocity()).add(b1.getLinearVelocity());
-				Vector2 lv2 = r2.cross(b2.getAngularVelocity()).add(b2.getLinearVelocity());
-				Vector2 rv = lv1.subtract(lv2);
+//				Vector2 lv1 = r1.cross(b1.getAngularVelocity()).add(b1.getLinearVelocity());
+//				Vector2 lv2 = r2.cross(b2.getAngularVelocity()).add(b2.getLinearVelocity());
+//				Vector2 rv = lv1.subtract(lv2);
+				// inline the computation
+				Vector2 v1 = b1.getLinearVelocity();
+				Vector2 v2 = b2.getLinearVelocity();
+				double rvx = (-r1.y * b1.getAngularVelocity() + v1.x) - (-r2.y * b2.getAngularVelocity() + v2.x);
+				double rvy = (r1.x * b1.getAngularVelocity() + v1.y) - (r2.x * b2.getAngularVelocity() + v2.y);
 				
 				// project the relative velocity onto the tangent normal
-				double rvt = T.dot(rv) - tangentSpeed;
+				double rvt = T.x * rvx + T.y * rvy - tangentSpeed;
 				// calculate the tangential impulse
 				double jt = contact.massT * (-rvt);
 				
@@ -290,13 +333,18 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				// apply to the bodies immediately
 
 //				Vector2 J = T.product(jt);
-				Vector2 J = new Vector2(T.x * jt, T.y * jt);
+				double jx = T.x * jt;
+				double jy = T.y * jt;
 //				b1.getVelocity().add(J.product(invM1));
-				b1.getLinearVelocity().add(J.x * invM1, J.y * invM1);
-				b1.setAngularVelocity(b1.getAngularVelocity() + invI1 * r1.cross(J));
+				if (dynamic1) {
+					v1.add(jx * invM1, jy * invM1);
+					b1.setAngularVelocity(b1.getAngularVelocity() + invI1 * (r1.x * jy - r1.y * jx));
+				}
 //				b2.getVelocity().subtract(J.product(invM2));
-				b2.getLinearVelocity().subtract(J.x * invM2, J.y * invM2);
-				b2.setAngularVelocity(b2.getAngularVelocity() - invI2 * r2.cross(J));
+				if (dynamic2) {
+					v2.subtract(jx * invM2, jy * invM2);
+					b2.setAngularVelocity(b2.getAngularVelocity() - invI2 * (r2.x * jy - r2.y * jx));
+				}
 			}
 			
 			// evalutate the normal impulse
@@ -311,12 +359,13 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				Vector2 r2 = contact.r2;
 				
 				// get the relative velocity
-				Vector2 lv1 = r1.cross(b1.getAngularVelocity()).add(b1.getLinearVelocity());
-				Vector2 lv2 = r2.cross(b2.getAngularVelocity()).add(b2.getLinearVelocity());
-				Vector2 rv = lv1.subtract(lv2);
+				Vector2 v1 = b1.getLinearVelocity();
+				Vector2 v2 = b2.getLinearVelocity();
+				double rvx = (-r1.y * b1.getAngularVelocity() + v1.x) - (-r2.y * b2.getAngularVelocity() + v2.x);
+				double rvy = (r1.x * b1.getAngularVelocity() + v1.y) - (r2.x * b2.getAngularVelocity() + v2.y);
 				
 				// project the relative velocity onto the penetration normal
-				double rvn = N.dot(rv);
+				double rvn = N.x * rvx + N.y * rvy;
 				
 				// calculate the impulse using the velocity bias
 				double j = -contact.massN * (rvn - contact.vb);
@@ -329,13 +378,18 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				// only update the bodies after processing all the contacts
 				
 //				Vector2 J = N.product(j);
-				Vector2 J = new Vector2(N.x * j, N.y * j);
+				double jx = N.x * j;
+				double jy = N.y * j;
 //				b1.getVelocity().add(J.product(invM1));
-				b1.getLinearVelocity().add(J.x * invM1, J.y * invM1);
-				b1.setAngularVelocity(b1.getAngularVelocity() + invI1 * r1.cross(J));
+				if (dynamic1) {
+					v1.add(jx * invM1, jy * invM1);
+					b1.setAngularVelocity(b1.getAngularVelocity() + invI1 * (r1.x * jy - r1.y * jx));
+				}
 //				b2.getVelocity().subtract(J.product(invM2));
-				b2.getLinearVelocity().subtract(J.x * invM2, J.y * invM2);
-				b2.setAngularVelocity(b2.getAngularVelocity() - invI2 * r2.cross(J));
+				if (dynamic2) {
+					v2.subtract(jx * invM2, jy * invM2);
+					b2.setAngularVelocity(b2.getAngularVelocity() - invI2 * (r2.x * jy - r2.y * jx));
+				}
 			} else {
 				// if its 2 then solve the contacts simultaneously using a mini-LCP
 				
@@ -385,177 +439,308 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				double av1 = b1.getAngularVelocity();
 				double av2 = b2.getAngularVelocity();
 				
-				// create a vector containing the current accumulated impulses
-				Vector2 a = new Vector2(contact1.jn, contact2.jn);
+				// the current accumulated impulses
+				double ax = contact1.jn;
+				double ay = contact2.jn;
 				
 				// get the relative velocity at both contacts
 //				Vector2 lv11 = contact1.r1.cross(b1.getAngularVelocity()).add(b1.getVelocity());
 //				Vector2 lv21 = contact1.r2.cross(b2.getAngularVelocity()).add(b2.getVelocity());
 //				Vector2 rv1 = lv11.subtract(lv21);
 				// inline the computation
-				Vector2 rv1 = new Vector2();
-				rv1.x = -r11.y * av1 + v1.x + r21.y * av2 - v2.x;
-				rv1.y =  r11.x * av1 + v1.y - r21.x * av2 - v2.y;
-				
-//				Vector2 lv12 = contact2.r1.cross(b1.getAngularVelocity()).add(b1.getVelocity());
-//				Vector2 lv22 = contact2.r2.cross(b2.getAngularVelocity()).add(b2.getVelocity());
-//				Vector2 rv2 = lv12.subtract(lv22);
-				// inline the computation
-				Vector2 rv2 = new Vector2();
-				rv2.x = -r12.y * av1 + v1.x + r22.y * av2 - v2.x;
-				rv2.y =  r12.x * av1 + v1.y - r22.x * av2 - v2.y; 
+				double rv1x = -r11.y * av1 + v1.x + r21.y * av2 - v2.x;
+				double rv1y =  r11.x * av1 + v1.y - r21.x * av2 - v2.y;
+				double rv2x = -r12.y * av1 + v1.x + r22.y * av2 - v2.x;
+				double rv2y =  r12.x * av1 + v1.y - r22.x * av2 - v2.y;
 				
 				// compute the relative velocities along the collision normal
-				double rvn1 = N.dot(rv1);
-				double rvn2 = N.dot(rv2);
+				double rvn1 = N.x * rv1x + N.y * rv1y;
+				double rvn2 = N.x * rv2x + N.y * rv2y;
 				
 				// create the b vector
-				Vector2 b = new Vector2();
-				b.x = rvn1 - contact1.vb;
-				b.y = rvn2 - contact2.vb;
-				b.subtract(contactConstraint.K.product(a));
+				Matrix22 K = contactConstraint.K;
+				Matrix22 invK = contactConstraint.invK;
+				double bx = rvn1 - contact1.vb;
+				double by = rvn2 - contact2.vb;
+				bx -= K.m00 * ax + K.m01 * ay;
+				by -= K.m10 * ax + K.m11 * ay;
 				
-				for (;;) {
-					//
-					// Case 1: vn = 0
-					//
-					// 0 = A * x + b'
-					//
-					// Solve for x:
-					//
-					// x = - inv(A) * b'
-					//
-					Vector2 x = contactConstraint.invK.product(b).negate();
-
-					if (x.x >= 0.0f && x.y >= 0.0f)
-					{
-						// find the incremental impulse
-						Vector2 d = x.difference(a);
-
-						// apply the incremental impulse
-						Vector2 J1 = N.product(d.x);
-						Vector2 J2 = N.product(d.y);
-						
-						//v1.add(J1.sum(J2).multiply(invM1));
-						v1.add((J1.x + J2.x) * invM1, (J1.y + J2.y) * invM1);
-						b1.setAngularVelocity(av1 + invI1 * (r11.cross(J1) + r12.cross(J2)));
-						v2.subtract((J1.x + J2.x) * invM2, (J1.y + J2.y) * invM2);
-						b2.setAngularVelocity(av2 - invI2 * (r21.cross(J1) + r22.cross(J2)));
-
-						// set the new accumulated impulse
-						contact1.jn = x.x;
-						contact2.jn = x.y;
-						
-						break;
-					}
-
+				double xx, xy;
+				
+				//
+				// Case 1: vn = 0
+				//
+				// 0 = A * x + b'
+				//
+				// Solve for x:
+				//
+				// x = - inv(A) * b'
+				//
+				xx = -(invK.m00 * bx + invK.m01 * by);
+				xy = -(invK.m10 * bx + invK.m11 * by);
+				if (!(xx >= 0.0f && xy >= 0.0f)) {
 					//
 					// Case 2: vn1 = 0 and x2 = 0
 					//
 					//   0 = a11 * x1 + a12 * 0 + b1' 
 					// vn2 = a21 * x1 + a22 * 0 + b2'
 					//
-					
-					x.x = -contact1.massN * b.x;
-					x.y = 0.0;
-					rvn1 = 0.0;
-					rvn2 = contactConstraint.K.m10 * x.x + b.y;
-
-					if (x.x >= 0.0f && rvn2 >= 0.0f)
-					{
-						// find the incremental impulse
-						Vector2 d = x.difference(a);
-
-						// apply the incremental impulse
-						Vector2 J1 = N.product(d.x);
-						Vector2 J2 = N.product(d.y);
-						
-						//v1.add(J1.sum(J2).multiply(invM1));
-						v1.add((J1.x + J2.x) * invM1, (J1.y + J2.y) * invM1);
-						b1.setAngularVelocity(av1 + invI1 * (r11.cross(J1) + r12.cross(J2)));
-						//v2.subtract(J1.sum(J2).multiply(invM2));
-						v2.subtract((J1.x + J2.x) * invM2, (J1.y + J2.y) * invM2);
-						b2.setAngularVelocity(av2 - invI2 * (r21.cross(J1) + r22.cross(J2)));
-						
-						// set the new incremental impulse
-						contact1.jn = x.x;
-						contact2.jn = x.y;
-						
-						break;
-					}
-
-
-					//
-					// Case 3: vn2 = 0 and x1 = 0
-					//
-					// vn1 = a11 * 0 + a12 * x2 + b1' 
-					//   0 = a21 * 0 + a22 * x2 + b2'
-					//
-					
-					x.x = 0.0;
-					x.y = -contact2.massN * b.y;
-					rvn1 = contactConstraint.K.m01 * x.y + b.x;
-					rvn2 = 0.0;
-
-					if (x.y >= 0.0f && rvn1 >= 0.0f)
-					{
-						// find the incremental impulse
-						Vector2 d = x.difference(a);
-
-						// apply the incremental impulse
-						Vector2 J1 = N.product(d.x);
-						Vector2 J2 = N.product(d.y);
-						
-						//v1.add(J1.sum(J2).multiply(invM1));
-						v1.add((J1.x + J2.x) * invM1, (J1.y + J2.y) * invM1);
-						b1.setAngularVelocity(av1 + invI1 * (r11.cross(J1) + r12.cross(J2)));
-						//v2.subtract(J1.sum(J2).multiply(invM2));
-						v2.subtract((J1.x + J2.x) * invM2, (J1.y + J2.y) * invM2);
-						b2.setAngularVelocity(av2 - invI2 * (r21.cross(J1) + r22.cross(J2)));
-						
-						// set the new incremental impulse
-						contact1.jn = x.x;
-						contact2.jn = x.y;
-						
-						break;
+					xx = -contact1.massN * bx;
+					xy = 0.0;
+					rvn2 = K.m10 * xx + by;
+					if (!(xx >= 0.0f && rvn2 >= 0.0f)) {
+						//
+						// Case 3: vn2 = 0 and x1 = 0
+						//
+						// vn1 = a11 * 0 + a12 * x2 + b1' 
+						//   0 = a21 * 0 + a22 * x2 + b2'
+						//
+						xx = 0.0;
+						xy = -contact2.massN * by;
+						rvn1 = K.m01 * xy + bx;
+						if (!(xy >= 0.0f && rvn1 >= 0.0f)) {
+							//
+							// Case 4: x1 = 0 and x2 = 0
+							// 
+							// vn1 = b1
+							// vn2 = b2;
+							xx = 0.0f;
+							xy = 0.0f;
+							rvn1 = bx;
+							rvn2 = by;
+							if (!(rvn1 >= 0.0f && rvn2 >= 0.0f)) {
+								// No solution, give up. This is hit sometimes, but it doesn't seem to matter.
+								continue;
+							}
+						}
 					}
-
-					//
-					// Case 4: x1 = 0 and x2 = 0
-					// 
-					// vn1 = b1
-					// vn2 = b2;
-					x.x = 0.0f;
-					x.y = 0.0f;
-					rvn1 = b.x;
-					rvn2 = b.y;
-
-					if (rvn1 >= 0.0f && rvn2 >= 0.0f )
-					{
-						// find the incremental impulse
-						Vector2 d = x.difference(a);
-
-						// apply the incremental impulse
-						Vector2 J1 = N.product(d.x);
-						Vector2 J2 = N.product(d.y);
-						
-						//v1.add(J1.sum(J2).multiply(invM1));
-						v1.add((J1.x + J2.x) * invM1, (J1.y + J2.y) * invM1);
-						b1.setAngularVelocity(av1 + invI1 * (r11.cross(J1) + r12.cross(J2)));
-						//v2.subtract(J1.sum(J2).multiply(invM2));
-						v2.subtract((J1.x + J2.x) * invM2, (J1.y + J2.y) * invM2);
-						b2.setAngularVelocity(av2 - invI2 * (r21.cross(J1) + r22.cross(J2)));
-						
-						// set the new incremental impulse
-						contact1.jn = x.x;
-						contact2.jn = x.y;
-						
-						break;
+				}
+				
+				// find the incremental impulse
+				double dx = xx - ax;
+				double dy = xy - ay;
+				
+				// apply the incremental impulse
+				double j1x = N.x * dx;
+				double j1y = N.y * dx;
+				double j2x = N.x * dy;
+				double j2y = N.y * dy;
+				
+				//v1.add(J1.sum(J2).multiply(invM1));
+				if (dynamic1) {
+					v1.add((j1x + j2x) * invM1, (j1y + j2y) * invM1);
+					b1.setAngularVelocity(av1 + invI1 * ((r11.x * j1y - r11.y * j1x) + (r12.x * j2y - r12.y * j2x)));
+				}
+				//v2.subtract(J1.sum(J2).multiply(invM2));
+				if (dynamic2) {
+					v2.subtract((j1x + j2x) * invM2, (j1y + j2y) * invM2);
+					b2.setAngularVelocity(av2 - invI2 * ((r21.x * j1y - r21.y * j1x) + (r22.x * j2y - r22.y * j2x)));
+				}
+				
+				// set the new accumulated impulse
+				contact1.jn = xx;
+				contact2.jn = xy;
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.ArrayContactConstraintSolver#solveVelocityContraints(java.util.List, org.dyn4j.dynamics.contact.SolverBodyState, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	public void solveVelocityContraints(List<ContactConstraint> contactConstraints, SolverBodyState state, Step step, Settings settings) {
+		// this is the same as the other solveVelocityContraints method, only
+		// with the body state read from and written to the arrays
+		double[] vx = state.vx;
+		double[] vy = state.vy;
+		double[] w = state.w;
+		double[] invM = state.invM;
+		double[] invI = state.invI;
+		
+		// loop through the contact constraints
+		int size = contactConstraints.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint contactConstraint = contactConstraints.get(i);
+			
+			// get the contact list
+			List<Contact> contacts = contactConstraint.contacts;
+			int cSize = contacts.size();
+			if (cSize == 0) continue;
+			
+			// get the body indices
+			int i1 = contactConstraint.index1;
+			int i2 = contactConstraint.index2;
+			
+			double invM1 = invM[i1];
+			double invM2 = invM[i2];
+			double invI1 = invI[i1];
+			double invI2 = invI[i2];
+			
+			// get the penetration axis and tangent
+			double nx = contactConstraint.normal.x;
+			double ny = contactConstraint.normal.y;
+			double tx = contactConstraint.tangent.x;
+			double ty = contactConstraint.tangent.y;
+			
+			double tangentSpeed = contactConstraint.tangentSpeed;
+			
+			// evaluate friction impulse
+			for (int k = 0; k < cSize; k++) {
+				Contact contact = contacts.get(k);
+				
+				// get ra and rb
+				Vector2 r1 = contact.r1;
+				Vector2 r2 = contact.r2;
+				
+				// get the relative velocity
+				double rvx = (-r1.y * w[i1] + vx[i1]) - (-r2.y * w[i2] + vx[i2]);
+				double rvy = (r1.x * w[i1] + vy[i1]) - (r2.x * w[i2] + vy[i2]);
+				
+				// project the relative velocity onto the tangent normal
+				double rvt = tx * rvx + ty * rvy - tangentSpeed;
+				// calculate the tangential impulse
+				double jt = contact.massT * (-rvt);
+				
+				// apply the coefficient of friction
+				double maxJt = contactConstraint.friction * contact.jn;
+				// clamp the accumulated tangential impulse
+				double Jt0 = contact.jt;
+				contact.jt = Math.max(-maxJt, Math.min(Jt0 + jt, maxJt));
+				jt = contact.jt - Jt0;
+				
+				// apply to the bodies immediately
+				double jx = tx * jt;
+				double jy = ty * jt;
+				vx[i1] += jx * invM1;
+				vy[i1] += jy * invM1;
+				w[i1] = w[i1] + invI1 * (r1.x * jy - r1.y * jx);
+				vx[i2] -= jx * invM2;
+				vy[i2] -= jy * invM2;
+				w[i2] = w[i2] - invI2 * (r2.x * jy - r2.y * jx);
+			}
+			
+			// evalutate the normal impulse
+			
+			// check the number of contacts to solve
+			if (cSize == 1) {
+				// if its one then solve the one contact
+				Contact contact = contacts.get(0);
+				
+				// get ra and rb
+				Vector2 r1 = contact.r1;
+				Vector2 r2 = contact.r2;
+				
+				// get the relative velocity
+				double rvx = (-r1.y * w[i1] + vx[i1]) - (-r2.y * w[i2] + vx[i2]);
+				double rvy = (r1.x * w[i1] + vy[i1]) - (r2.x * w[i2] + vy[i2]);
+				
+				// project the relative velocity onto the penetration normal
+				double rvn = nx * rvx + ny * rvy;
+				
+				// calculate the impulse using the velocity bias
+				double j = -contact.massN * (rvn - contact.vb);
+				
+				// clamp the accumulated impulse
+				double j0 = contact.jn;
+				contact.jn = Math.max(j0 + j, 0.0);
+				j = contact.jn - j0;
+				
+				double jx = nx * j;
+				double jy = ny * j;
+				vx[i1] += jx * invM1;
+				vy[i1] += jy * invM1;
+				w[i1] = w[i1] + invI1 * (r1.x * jy - r1.y * jx);
+				vx[i2] -= jx * invM2;
+				vy[i2] -= jy * invM2;
+				w[i2] = w[i2] - invI2 * (r2.x * jy - r2.y * jx);
+			} else {
+				// if its 2 then solve the contacts simultaneously using a mini-LCP
+				// (see the other solveVelocityContraints method for details)
+				Contact contact1 = contacts.get(0);
+				Contact contact2 = contacts.get(1);
+				
+				Vector2 r11 = contact1.r1;
+				Vector2 r21 = contact1.r2;
+				Vector2 r12 = contact2.r1;
+				Vector2 r22 = contact2.r2;
+				
+				double v1x = vx[i1];
+				double v1y = vy[i1];
+				double v2x = vx[i2];
+				double v2y = vy[i2];
+				double av1 = w[i1];
+				double av2 = w[i2];
+				
+				// the current accumulated impulses
+				double ax = contact1.jn;
+				double ay = contact2.jn;
+				
+				// get the relative velocity at both contacts
+				double rv1x = -r11.y * av1 + v1x + r21.y * av2 - v2x;
+				double rv1y =  r11.x * av1 + v1y - r21.x * av2 - v2y;
+				double rv2x = -r12.y * av1 + v1x + r22.y * av2 - v2x;
+				double rv2y =  r12.x * av1 + v1y - r22.x * av2 - v2y;
+				
+				// compute the relative velocities along the collision normal
+				double rvn1 = nx * rv1x + ny * rv1y;
+				double rvn2 = nx * rv2x + ny * rv2y;
+				
+				// create the b vector
+				Matrix22 K = contactConstraint.K;
+				Matrix22 invK = contactConstraint.invK;
+				double bx = rvn1 - contact1.vb;
+				double by = rvn2 - contact2.vb;
+				bx -= K.m00 * ax + K.m01 * ay;
+				by -= K.m10 * ax + K.m11 * ay;
+				
+				double xx, xy;
+				
+				// Case 1: vn = 0
+				xx = -(invK.m00 * bx + invK.m01 * by);
+				xy = -(invK.m10 * bx + invK.m11 * by);
+				if (!(xx >= 0.0f && xy >= 0.0f)) {
+					// Case 2: vn1 = 0 and x2 = 0
+					xx = -contact1.massN * bx;
+					xy = 0.0;
+					rvn2 = K.m10 * xx + by;
+					if (!(xx >= 0.0f && rvn2 >= 0.0f)) {
+						// Case 3: vn2 = 0 and x1 = 0
+						xx = 0.0;
+						xy = -contact2.massN * by;
+						rvn1 = K.m01 * xy + bx;
+						if (!(xy >= 0.0f && rvn1 >= 0.0f)) {
+							// Case 4: x1 = 0 and x2 = 0
+							xx = 0.0f;
+							xy = 0.0f;
+							rvn1 = bx;
+							rvn2 = by;
+							if (!(rvn1 >= 0.0f && rvn2 >= 0.0f)) {
+								// No solution, give up. This is hit sometimes, but it doesn't seem to matter.
+								continue;
+							}
+						}
 					}
-					
-					// No solution, give up. This is hit sometimes, but it doesn't seem to matter.
-					break;
 				}
+				
+				// find the incremental impulse
+				double dx = xx - ax;
+				double dy = xy - ay;
+				
+				// apply the incremental impulse
+				double j1x = nx * dx;
+				double j1y = ny * dx;
+				double j2x = nx * dy;
+				double j2y = ny * dy;
+				
+				vx[i1] = v1x + (j1x + j2x) * invM1;
+				vy[i1] = v1y + (j1y + j2y) * invM1;
+				w[i1] = av1 + invI1 * ((r11.x * j1y - r11.y * j1x) + (r12.x * j2y - r12.y * j2x));
+				vx[i2] = v2x - (j1x + j2x) * invM2;
+				vy[i2] = v2y - (j1y + j2y) * invM2;
+				w[i2] = av2 - invI2 * ((r21.x * j1y - r21.y * j1x) + (r22.x * j2y - r22.y * j2x));
+				
+				// set the new accumulated impulse
+				contact1.jn = xx;
+				contact2.jn = xy;
 			}
 		}
 	}
@@ -576,6 +761,13 @@ public class SequentialImpulses implements ContactConstraintSolver {
 		double allowedPenetration = settings.getLinearTolerance();
 		double baumgarte = settings.getBaumgarte();
 		
+		// create the working vectors once per call; the solver can be called
+		// from many threads at once, so they can't be kept in fields
+		Vector2 c1 = new Vector2();
+		Vector2 c2 = new Vector2();
+		Vector2 r1 = new Vector2();
+		Vector2 r2 = new Vector2();
+		
 		// loop through the contact constraints
 		int size = contactConstraints.size();
 		for (int i = 0; i < size; i++) {
@@ -609,27 +801,31 @@ public class SequentialImpulses implements ContactConstraintSolver {
 			double invMass2 = mass2 * m2.getInverseMass();
 			double invI2 = mass2 * m2.getInverseInertia();
 			
+			// bodies with infinite mass are never changed by the solver; skipping them also keeps
+			// them from being written to by other threads when the constraints are solved in batches
+			boolean dynamic1 = b1.isDynamic();
+			boolean dynamic2 = b2.isDynamic();
+			
 			// solve normal constraints
 			for (int k = 0; k < cSize; k++) {
 				Contact contact = contacts.get(k);
 				
 				// get the world centers of mass
-				Vector2 c1 = t1.getTransformed(m1.getCenter());
-				Vector2 c2 = t2.getTransformed(m2.getCenter());
+				t1.getTransformed(m1.getCenter(), c1);
+				t2.getTransformed(m2.getCenter(), c2);
 
 				// get r1 and r2
-				Vector2 r1 = contact.p1.difference(m1.getCenter());
+				r1.set(contact.p1).subtract(m1.getCenter());
 				t1.transformR(r1);
-				Vector2 r2 = contact.p2.difference(m2.getCenter());
+				r2.set(contact.p2).subtract(m2.getCenter());
 				t2.transformR(r2);
 				
 				// get the world contact points
-				Vector2 p1 = c1.sum(r1);
-				Vector2 p2 = c2.sum(r2);
-				Vector2 dp = p1.subtract(p2);
+				double dpx = (c1.x + r1.x) - (c2.x + r2.x);
+				double dpy = (c1.y + r1.y) - (c2.y + r2.y);
 
 				// estimate the current penetration
-				double penetration = dp.dot(N) - contact.depth;
+				double penetration = dpx * N.x + dpy * N.y - contact.depth;
 
 				// track the maximum error
 				minSeparation = Math.min(minSeparation, penetration);
@@ -652,14 +848,19 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				contact.jp = Math.max(jp0 + jp, 0.0);
 				jp = contact.jp - jp0;
 
-				Vector2 J = N.product(jp);
+				double jx = N.x * jp;
+				double jy = N.y * jp;
 
 				// translate and rotate the objects
-				b1.translate(J.product(invMass1));
-				b1.rotate(invI1 * r1.cross(J), c1.x, c1.y);
+				if (dynamic1) {
+					b1.translate(jx * invMass1, jy * invMass1);
+					b1.rotate(invI1 * (r1.x * jy - r1.y * jx), c1.x, c1.y);
+				}
 				
-				b2.translate(J.product(-invMass2));
-				b2.rotate(-invI2 * r2.cross(J), c2.x, c2.y);
+				if (dynamic2) {
+					b2.translate(jx * -invMass2, jy * -invMass2);
+					b2.rotate(-invI2 * (r2.x * jy - r2.y * jx), c2.x, c2.y);
+				}
 			}
 		}
 		// check if the minimum separation between all objects is still
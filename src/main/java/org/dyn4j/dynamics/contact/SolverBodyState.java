@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.geometry.Mass;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Stores the velocity and mass state of a group of {@link Body}s in contiguous arrays.
+ * <p>
+ * The {@link ContactConstraint}s are bound to the indices of their {@link Body}s using
+ * the {@link #bind(ContactConstraint, int, int)} method so that an {@link ArrayContactConstraintSolver}
+ * can solve them against the arrays rather than the {@link Body}s.  The velocities must be 
+ * {@link #store(int, Body)}d back to the {@link Body}s before anything else uses them.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public final class SolverBodyState {
+	/** The default capacity */
+	private static final int DEFAULT_CAPACITY = 64;
+	
+	/** The linear velocities along the x-axis */
+	double[] vx;
+	
+	/** The linear velocities along the y-axis */
+	double[] vy;
+	
+	/** The angular velocities */
+	double[] w;
+	
+	/** The inverse masses */
+	double[] invM;
+	
+	/** The inverse inertias */
+	double[] invI;
+	
+	/** The number of {@link Body}s */
+	private int size;
+	
+	/**
+	 * Default constructor.
+	 */
+	public SolverBodyState() {
+		this.vx = new double[DEFAULT_CAPACITY];
+		this.vy = new double[DEFAULT_CAPACITY];
+		this.w = new double[DEFAULT_CAPACITY];
+		this.invM = new double[DEFAULT_CAPACITY];
+		this.invI = new double[DEFAULT_CAPACITY];
+		this.size = 0;
+	}
+	
+	/**
+	 * Adds the given {@link Body} and returns its index.
+	 * @param body the {@link Body}
+	 * @return int
+	 */
+	public int add(Body body) {
+		int index = this.size;
+		if (index == this.vx.length) {
+			int capacity = index * 2;
+			this.vx = this.grow(this.vx, capacity);
+			this.vy = this.grow(this.vy, capacity);
+			this.w = this.grow(this.w, capacity);
+			this.invM = this.grow(this.invM, capacity);
+			this.invI = this.grow(this.invI, capacity);
+		}
+		Mass mass = body.getMass();
+		this.invM[index] = mass.getInverseMass();
+		this.invI[index] = mass.getInverseInertia();
+		this.load(index, body);
+		this.size++;
+		return index;
+	}
+	
+	/**
+	 * Returns a copy of the given array with the given capacity.
+	 * @param array the array
+	 * @param capacity the new capacity
+	 * @return double[]
+	 */
+	private double[] grow(double[] array, int capacity) {
+		double[] copy = new double[capacity];
+		System.arraycopy(array, 0, copy, 0, this.size);
+		return copy;
+	}
+	
+	/**
+	 * Binds the given {@link ContactConstraint} to the given indices.
+	 * @param contactConstraint the {@link ContactConstraint}
+	 * @param index1 the index of the first {@link Body}
+	 * @param index2 the index of the second {@link Body}
+	 */
+	public void bind(ContactConstraint contactConstraint, int index1, int index2) {
+		contactConstraint.index1 = index1;
+		contactConstraint.index2 = index2;
+	}
+	
+	/**
+	 * Copies the velocities of the given {@link Body} to the given index.
+	 * @param index the index
+	 * @param body the {@link Body}
+	 */
+	public void load(int index, Body body) {
+		Vector2 v = body.getLinearVelocity();
+		this.vx[index] = v.x;
+		this.vy[index] = v.y;
+		this.w[index] = body.getAngularVelocity();
+	}
+	
+	/**
+	 * Copies the velocities at the given index to the given {@link Body}.
+	 * @param index the index
+	 * @param body the {@link Body}
+	 */
+	public void store(int index, Body body) {
+		body.setLinearVelocity(this.vx[index], this.vy[index]);
+		body.setAngularVelocity(this.w[index]);
+	}
+	
+	/**
+	 * Removes all the {@link Body}s.
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+	
+	/**
+	 * Returns the number of {@link Body}s.
+	 * @return int
+	 */
+	public int size() {
+		return this.size;
+	}
+}
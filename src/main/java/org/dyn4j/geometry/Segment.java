@@ -35,7 +35,7 @@ import org.dyn4j.resources.Messages;
  * <p>
  * This class represents a line segment that is infinitely thin.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.0
  * @since 1.0.0
  */
 public class Segment extends AbstractShape implements Convex, Wound, Shape, Transformable, DataContainer {
@@ -274,22 +274,44 @@ public class Segment extends AbstractShape implements Convex, Wound, Shape, Tran
 	 * @throws NullPointerException if point, linePoint1, or linePoint2 is null
 	 */
 	public static Vector2 getPointOnSegmentClosestToPoint(Vector2 point, Vector2 linePoint1, Vector2 linePoint2) {
-		// create a vector from the point to the first line point
-		Vector2 p1ToP = point.difference(linePoint1);
+		Vector2 result = new Vector2();
+		Segment.getPointOnSegmentClosestToPoint(point, linePoint1, linePoint2, result);
+		return result;
+	}
+	
+	/**
+	 * Computes the point on the given line segment closest to the given point and
+	 * places the result in the given destination {@link Vector2}.
+	 * <p>
+	 * The destination can be any of the given points.
+	 * @see #getPointOnSegmentClosestToPoint(Vector2, Vector2, Vector2)
+	 * @param point the point
+	 * @param linePoint1 the first point of the line
+	 * @param linePoint2 the second point of the line
+	 * @param destination the {@link Vector2} containing the result
+	 * @throws NullPointerException if point, linePoint1, linePoint2, or destination is null
+	 * @since 3.3.0
+	 */
+	public static void getPointOnSegmentClosestToPoint(Vector2 point, Vector2 linePoint1, Vector2 linePoint2, Vector2 destination) {
 		// create a vector representing the line
-	    Vector2 line = linePoint2.difference(linePoint1);
-	    // get the length squared of the line
-	    double ab2 = line.dot(line);
-	    // get the projection of AP on AB
-	    double ap_ab = p1ToP.dot(line);
-	    // check ab2 for zero (linePoint1 == linePoint2)
-	    if (ab2 <= Epsilon.E) return linePoint1.copy();
-	    // get the position from the first line point to the projection
-	    double t = ap_ab / ab2;
-	    // make sure t is in between 0.0 and 1.0
-	    t = Interval.clamp(t, 0.0, 1.0);
-	    // create the point on the line
-	    return line.multiply(t).add(linePoint1);
+		double lx = linePoint2.x - linePoint1.x;
+		double ly = linePoint2.y - linePoint1.y;
+		// get the length squared of the line
+		double ab2 = lx * lx + ly * ly;
+		// get the projection of AP on AB (AP being the vector from the first line point to the point)
+		double ap_ab = (point.x - linePoint1.x) * lx + (point.y - linePoint1.y) * ly;
+		// check ab2 for zero (linePoint1 == linePoint2)
+		if (ab2 <= Epsilon.E) {
+			destination.set(linePoint1);
+			return;
+		}
+		// get the position from the first line point to the projection
+		double t = ap_ab / ab2;
+		// make sure t is in between 0.0 and 1.0
+		t = Interval.clamp(t, 0.0, 1.0);
+		// create the point on the line
+		destination.x = lx * t + linePoint1.x;
+		destination.y = ly * t + linePoint1.y;
 	}
 	
 	/**
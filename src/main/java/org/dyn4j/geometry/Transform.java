@@ -31,7 +31,7 @@ import org.dyn4j.resources.Messages;
  * <p>
  * Supported operations are rotation and translation.
  * @author William Bittle
- * @version 3.1.11
+ * @version 3.3.0
  * @since 1.0.0
  */
 public class Transform implements Transformable {
@@ -219,6 +219,11 @@ public class Transform implements Transformable {
 	 */
 	@Override
 	public void rotate(double theta, double x, double y) {
+		// a zero rotation is a no-op, but would still accumulate
+		// round-off error in the translation below (this also keeps
+		// bodies with infinite mass from being written to by the solvers)
+		if (theta == 0.0) return;
+		
 		// pre-compute cos/sin of the given angle
 		double cos = Math.cos(theta);
 		double sin = Math.sin(theta);
@@ -282,6 +287,20 @@ public class Transform implements Transformable {
 		this.y = transform.y;
 	}
 	
+	/**
+	 * Returns true if this {@link Transform} has exactly the same rotation and
+	 * translation as the given {@link Transform}.
+	 * @param transform the {@link Transform} to compare to
+	 * @return boolean
+	 * @since 3.3.0
+	 */
+	public boolean isSame(Transform transform) {
+		return this.x == transform.x && 
+			   this.y == transform.y && 
+			   this.cost == transform.cost && 
+			   this.sint == transform.sint;
+	}
+	
 	/**
 	 * Sets this {@link Transform} to the identity.
 	 */
@@ -39,7 +39,7 @@ import org.dyn4j.Epsilon;
  * a.zero().add(1, 2).multiply(2);
  * </pre>
  * @author William Bittle
- * @version 3.1.11
+ * @version 3.3.0
  * @since 1.0.0
  */
 public class Vector2 {
@@ -222,6 +222,26 @@ public class Vector2 {
 		return r;
 	}
 	
+	/**
+	 * Performs the same triple product as {@link #tripleProduct(Vector2, Vector2, Vector2)}
+	 * placing the result in the given destination {@link Vector2}.
+	 * <p>
+	 * The destination can be any of the given vectors.
+	 * @param a the a {@link Vector2} in the above equation
+	 * @param b the b {@link Vector2} in the above equation
+	 * @param c the c {@link Vector2} in the above equation
+	 * @param destination the {@link Vector2} containing the result
+	 * @see #tripleProduct(Vector2, Vector2, Vector2)
+	 * @since 3.3.0
+	 */
+	public static void tripleProduct(Vector2 a, Vector2 b, Vector2 c, Vector2 destination) {
+		double dot = a.x * b.y - b.x * a.y;
+		double cx = c.x;
+		double cy = c.y;
+		destination.x = -cy * dot;
+		destination.y = cx * dot;
+	}
+	
 	/* (non-Javadoc)
 	 * @see java.lang.Object#hashCode()
 	 */
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link Parallel} class.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class ParallelTest {
+	/** The executor */
+	private ExecutorService executor;
+	
+	/**
+	 * Sets up the executor.
+	 */
+	@Before
+	public void setup() {
+		this.executor = Executors.newFixedThreadPool(4);
+	}
+	
+	/**
+	 * Shuts down the executor.
+	 */
+	@After
+	public void teardown() {
+		this.executor.shutdown();
+	}
+	
+	/**
+	 * Tests the getWorkerCount method.
+	 */
+	@Test
+	public void getWorkerCount() {
+		TestCase.assertEquals(3, Parallel.getWorkerCount(3, 100));
+		TestCase.assertEquals(2, Parallel.getWorkerCount(3, 2));
+		TestCase.assertEquals(1, Parallel.getWorkerCount(3, 0));
+		TestCase.assertEquals(1, Parallel.getWorkerCount(0, 100));
+	}
+	
+	/**
+	 * Tests that the work is run on more than one thread.
+	 * @throws InterruptedException if interrupted
+	 */
+	@Test
+	public void executeConcurrently() throws InterruptedException {
+		final Set<Thread> threads = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<Thread, Boolean>()));
+		final CountDownLatch latch = new CountDownLatch(2);
+		final AtomicInteger count = new AtomicInteger();
+		Parallel.execute(this.executor, 4, 100, new Parallel.Task() {
+			public void run(int worker, int index) {
+				if (threads.add(Thread.currentThread())) {
+					latch.countDown();
+				}
+				count.incrementAndGet();
+				// hold the first thread until another joins in
+				try {
+					latch.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		
+		TestCase.assertEquals(100, count.get());
+		TestCase.assertTrue(threads.size() > 1);
+	}
+	
+	/**
+	 * Tests that the work is run inline with a parallelism of one.
+	 */
+	@Test
+	public void executeInline() {
+		final Thread thread = Thread.currentThread();
+		final AtomicInteger count = new AtomicInteger();
+		Parallel.execute(this.executor, 1, 100, new Parallel.Task() {
+			public void run(int worker, int index) {
+				TestCase.assertSame(thread, Thread.currentThread());
+				TestCase.assertEquals(0, worker);
+				count.incrementAndGet();
+			}
+		});
+		
+		TestCase.assertEquals(100, count.get());
+	}
+	
+	/**
+	 * Tests that the work completes when called from the only thread of the executor.
+	 * <p>
+	 * The other workers can't start until the calling thread returns, so the calling
+	 * thread must do all the work and must not wait on them.
+	 * @throws Exception if the nested work fails
+	 */
+	@Test(timeout = 10000)
+	public void executeNested() throws Exception {
+		final ExecutorService single = Executors.newSingleThreadExecutor();
+		try {
+			final AtomicInteger count = new AtomicInteger();
+			Future<?> future = single.submit(new Runnable() {
+				public void run() {
+					Parallel.execute(single, 4, 100, new Parallel.Task() {
+						public void run(int worker, int index) {
+							TestCase.assertEquals(0, worker);
+							count.incrementAndGet();
+						}
+					});
+				}
+			});
+			future.get();
+			TestCase.assertEquals(100, count.get());
+		} finally {
+			single.shutdown();
+		}
+	}
+	
+	/**
+	 * Tests that the work completes when the executor rejects the other workers.
+	 */
+	@Test
+	public void executeRejected() {
+		this.executor.shutdown();
+		
+		final AtomicInteger count = new AtomicInteger();
+		Parallel.execute(this.executor, 4, 100, new Parallel.Task() {
+			public void run(int worker, int index) {
+				count.incrementAndGet();
+			}
+		});
+		
+		TestCase.assertEquals(100, count.get());
+	}
+	
+	/**
+	 * Tests that an exception thrown by the work is rethrown.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void executeException() {
+		Parallel.execute(this.executor, 4, 100, new Parallel.Task() {
+			public void run(int worker, int index) {
+				if (index == 50) throw new IllegalStateException();
+			}
+		});
+	}
+}
@@ -24,7 +24,12 @@
  */
 package org.dyn4j.collision;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import junit.framework.TestCase;
 
@@ -32,8 +37,15 @@ import org.dyn4j.collision.broadphase.AbstractBroadphaseDetector;
 import org.dyn4j.collision.broadphase.BroadphaseDetector;
 import org.dyn4j.collision.broadphase.BroadphaseItem;
 import org.dyn4j.collision.broadphase.BroadphasePair;
+import org.dyn4j.collision.broadphase.BroadphaseRaycastCallback;
+import org.dyn4j.collision.broadphase.CompactDynamicAABBTree;
+import org.dyn4j.collision.broadphase.DefaultBroadphaseFilter;
 import org.dyn4j.collision.broadphase.DynamicAABBTree;
+import org.dyn4j.collision.broadphase.HashGrid;
+import org.dyn4j.collision.broadphase.IncrementalSap;
 import org.dyn4j.collision.broadphase.Sap;
+import org.dyn4j.collision.broadphase.StaticClassifier;
+import org.dyn4j.collision.broadphase.StaticDynamicBroadphase;
 import org.dyn4j.geometry.AABB;
 import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.Ray;
@@ -44,7 +56,7 @@ import org.junit.Test;
 /**
  * Class used to test the {@link BroadphaseDetector} methods.
  * @author William Bittle
- * @version 3.1.0
+ * @version 3.3.0
  * @since 3.0.0
  */
 public class BroadphaseTest {
@@ -526,4 +538,864 @@ public class BroadphaseTest {
 	public void DynamicAABBTreeNegativeInitialCapacity() {
 		new DynamicAABBTree<CollidableTest, Fixture>(-10);
 	}
+	
+	/**
+	 * Tests the pair cache of the DynamicAABBTree.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void pairCache() {
+		CollidableTest ct1 = new CollidableTest(Geometry.createCircle(1.0));
+		CollidableTest ct2 = new CollidableTest(Geometry.createUnitCirclePolygon(5, 0.5));
+		CollidableTest ct3 = new CollidableTest(Geometry.createRectangle(1.0, 0.5));
+		
+		ct1.translate(-2.0, 0.0);
+		ct2.translate(-1.0, 1.0);
+		ct3.translate(3.0, -2.0);
+		
+		this.dyn.add(ct1); this.dyn.add(ct2); this.dyn.add(ct3);
+		this.dyn.setPairCacheEnabled(true);
+		TestCase.assertTrue(this.dyn.isPairCacheEnabled());
+		
+		// all pairs should begin
+		List<BroadphasePair<CollidableTest, Fixture>> pairs = this.dyn.detect();
+		TestCase.assertEquals(1, pairs.size());
+		TestCase.assertEquals(1, this.dyn.getBeginPairs().size());
+		TestCase.assertEquals(0, this.dyn.getPersistPairs().size());
+		TestCase.assertEquals(0, this.dyn.getEndPairs().size());
+		BroadphasePair<CollidableTest, Fixture> pair = pairs.get(0);
+		
+		// nothing moved so the pair should persist
+		this.dyn.update(ct1); this.dyn.update(ct2); this.dyn.update(ct3);
+		pairs = this.dyn.detect();
+		TestCase.assertEquals(1, pairs.size());
+		TestCase.assertSame(pair, pairs.get(0));
+		TestCase.assertEquals(0, this.dyn.getBeginPairs().size());
+		TestCase.assertEquals(1, this.dyn.getPersistPairs().size());
+		TestCase.assertEquals(0, this.dyn.getEndPairs().size());
+		
+		// move one away and one into another
+		ct1.translate(-5.0, 0.0);
+		ct3.translate(-3.0, 3.0);
+		this.dyn.update(ct1); this.dyn.update(ct3);
+		pairs = this.dyn.detect();
+		TestCase.assertEquals(1, pairs.size());
+		TestCase.assertEquals(1, this.dyn.getBeginPairs().size());
+		TestCase.assertEquals(0, this.dyn.getPersistPairs().size());
+		TestCase.assertEquals(1, this.dyn.getEndPairs().size());
+		TestCase.assertSame(pair, this.dyn.getEndPairs().get(0));
+		
+		// removal should be reported on the next update
+		this.dyn.remove(ct3);
+		this.dyn.updatePairs();
+		TestCase.assertEquals(0, this.dyn.getBeginPairs().size());
+		TestCase.assertEquals(0, this.dyn.getPersistPairs().size());
+		TestCase.assertEquals(1, this.dyn.getEndPairs().size());
+		TestCase.assertEquals(0, this.dyn.detect().size());
+		
+		// disabling should return to the normal behavior
+		this.dyn.add(ct3);
+		this.dyn.setPairCacheEnabled(false);
+		TestCase.assertFalse(this.dyn.isPairCacheEnabled());
+		TestCase.assertEquals(1, this.dyn.detect().size());
+	}
+	
+	/**
+	 * Tests that the pair cache of the DynamicAABBTree produces the same pairs
+	 * as a full detection.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void pairCacheRandom() {
+		DynamicAABBTree<CollidableTest, Fixture> cached = new DynamicAABBTree<CollidableTest, Fixture>();
+		cached.setPairCacheEnabled(true);
+		
+		Random random = new Random(5);
+		List<CollidableTest> collidables = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 200; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.2 + random.nextDouble() * 0.5));
+			if (random.nextBoolean()) {
+				ct.addFixture(Geometry.createSquare(0.5));
+			}
+			ct.translate(random.nextDouble() * 20.0 - 10.0, random.nextDouble() * 20.0 - 10.0);
+			collidables.add(ct);
+			cached.add(ct);
+			this.dyn.add(ct);
+		}
+		
+		for (int i = 0; i < 50; i++) {
+			// move some of the collidables
+			for (int j = 0; j < 20; j++) {
+				CollidableTest ct = collidables.get(random.nextInt(collidables.size()));
+				ct.translate(random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+				cached.update(ct);
+				this.dyn.update(ct);
+			}
+			// remove and add some of the collidables
+			CollidableTest ct = collidables.get(random.nextInt(collidables.size()));
+			cached.remove(ct);
+			this.dyn.remove(ct);
+			if (random.nextBoolean()) {
+				cached.add(ct);
+				this.dyn.add(ct);
+			} else {
+				collidables.remove(ct);
+			}
+			
+			Set<String> expected = new HashSet<String>();
+			for (BroadphasePair<CollidableTest, Fixture> pair : this.dyn.detect()) {
+				expected.add(this.getKey(pair));
+			}
+			Set<String> actual = new HashSet<String>();
+			for (BroadphasePair<CollidableTest, Fixture> pair : cached.detect()) {
+				actual.add(this.getKey(pair));
+			}
+			TestCase.assertEquals(expected, actual);
+		}
+	}
+	
+	/**
+	 * Tests the updatePairs method with the pair cache disabled.
+	 * @since 3.3.0
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void updatePairsPairCacheDisabled() {
+		this.dyn.updatePairs();
+	}
+	
+	/**
+	 * Returns an order independent key for the given pair.
+	 * @param pair the pair
+	 * @return String
+	 */
+	private String getKey(BroadphasePair<CollidableTest, Fixture> pair) {
+		String a = pair.getCollidable1().getId() + ":" + pair.getFixture1().getId();
+		String b = pair.getCollidable2().getId() + ":" + pair.getFixture2().getId();
+		return a.compareTo(b) < 0 ? a + "|" + b : b + "|" + a;
+	}
+	
+	/**
+	 * Tests that the CompactDynamicAABBTree produces the same results, in the
+	 * same order, as the DynamicAABBTree.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void compactDynamicAABBTree() {
+		CompactDynamicAABBTree<CollidableTest, Fixture> cmp = new CompactDynamicAABBTree<CollidableTest, Fixture>(4);
+		
+		Random random = new Random(7);
+		List<CollidableTest> collidables = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 200; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.2 + random.nextDouble() * 0.5));
+			if (random.nextBoolean()) {
+				ct.addFixture(Geometry.createSquare(0.5));
+			}
+			ct.translate(random.nextDouble() * 20.0 - 10.0, random.nextDouble() * 20.0 - 10.0);
+			collidables.add(ct);
+			cmp.add(ct);
+			this.dyn.add(ct);
+		}
+		TestCase.assertEquals(this.dyn.size(), cmp.size());
+		
+		for (int i = 0; i < 30; i++) {
+			// move some of the collidables
+			for (int j = 0; j < 20; j++) {
+				CollidableTest ct = collidables.get(random.nextInt(collidables.size()));
+				ct.translate(random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+				cmp.update(ct);
+				this.dyn.update(ct);
+			}
+			// remove and add some of the collidables
+			CollidableTest ct = collidables.get(random.nextInt(collidables.size()));
+			cmp.remove(ct);
+			this.dyn.remove(ct);
+			TestCase.assertFalse(cmp.contains(ct));
+			if (random.nextBoolean()) {
+				cmp.add(ct);
+				this.dyn.add(ct);
+				TestCase.assertTrue(cmp.contains(ct));
+			} else {
+				collidables.remove(ct);
+			}
+			TestCase.assertEquals(this.dyn.size(), cmp.size());
+			
+			// detect
+			TestCase.assertEquals(this.dyn.detect(), cmp.detect());
+			
+			// detect AABB
+			AABB aabb = new AABB(new Vector2(random.nextDouble() * 10.0 - 5.0, random.nextDouble() * 10.0 - 5.0), 3.0);
+			TestCase.assertEquals(this.dyn.detect(aabb), cmp.detect(aabb));
+			
+			// raycast
+			Ray ray = new Ray(new Vector2(-10.0, random.nextDouble() * 10.0 - 5.0), random.nextDouble() - 0.5);
+			TestCase.assertEquals(this.dyn.raycast(ray, 0.0), cmp.raycast(ray, 0.0));
+			TestCase.assertEquals(this.dyn.raycast(ray, 5.0), cmp.raycast(ray, 5.0));
+			
+			// getAABB
+			CollidableTest c = collidables.get(0);
+			AABB a1 = this.dyn.getAABB(c, c.getFixture(0));
+			AABB a2 = cmp.getAABB(c, c.getFixture(0));
+			TestCase.assertEquals(a1.getMinX(), a2.getMinX());
+			TestCase.assertEquals(a1.getMaxY(), a2.getMaxY());
+		}
+		
+		// shift
+		Vector2 shift = new Vector2(1.0, -2.0);
+		this.dyn.shift(shift);
+		cmp.shift(shift);
+		AABB aabb = new AABB(new Vector2(1.0, -2.0), 4.0);
+		TestCase.assertEquals(this.dyn.detect(aabb), cmp.detect(aabb));
+		
+		// clear
+		cmp.clear();
+		TestCase.assertEquals(0, cmp.size());
+		TestCase.assertEquals(0, cmp.detect().size());
+		cmp.add(collidables.get(0));
+		TestCase.assertEquals(collidables.get(0).getFixtureCount(), cmp.size());
+	}
+	
+	/**
+	 * Tests creating a CompactDynamicAABBTree detector using a negative capacity.
+	 * @since 3.3.0
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void CompactDynamicAABBTreeNegativeInitialCapacity() {
+		new CompactDynamicAABBTree<CollidableTest, Fixture>(-10);
+	}
+	
+	/**
+	 * Tests that the HashGrid produces the same results as the DynamicAABBTree.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void hashGrid() {
+		HashGrid<CollidableTest, Fixture> grid = new HashGrid<CollidableTest, Fixture>(1.0, 4);
+		
+		Random random = new Random(11);
+		List<CollidableTest> collidables = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 200; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.2 + random.nextDouble() * 0.5));
+			if (random.nextBoolean()) {
+				ct.addFixture(Geometry.createSquare(0.5));
+			}
+			// include some large collidables that span many cells
+			if (i % 50 == 0) {
+				ct.addFixture(Geometry.createRectangle(6.0, 0.5));
+			}
+			ct.translate(random.nextDouble() * 20.0 - 10.0, random.nextDouble() * 20.0 - 10.0);
+			collidables.add(ct);
+			grid.add(ct);
+			this.dyn.add(ct);
+		}
+		TestCase.assertEquals(this.dyn.size(), grid.size());
+		
+		for (int i = 0; i < 30; i++) {
+			// move some of the collidables
+			for (int j = 0; j < 20; j++) {
+				CollidableTest ct = collidables.get(random.nextInt(collidables.size()));
+				ct.translate(random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+				grid.update(ct);
+				this.dyn.update(ct);
+			}
+			// remove and add some of the collidables
+			CollidableTest ct = collidables.get(random.nextInt(collidables.size()));
+			grid.remove(ct);
+			this.dyn.remove(ct);
+			TestCase.assertFalse(grid.contains(ct));
+			if (random.nextBoolean()) {
+				grid.add(ct);
+				this.dyn.add(ct);
+				TestCase.assertTrue(grid.contains(ct));
+			} else {
+				collidables.remove(ct);
+			}
+			TestCase.assertEquals(this.dyn.size(), grid.size());
+			
+			// detect
+			this.assertSamePairs(this.dyn.detect(), grid.detect());
+			
+			// detect AABB
+			AABB aabb = new AABB(new Vector2(random.nextDouble() * 10.0 - 5.0, random.nextDouble() * 10.0 - 5.0), 3.0);
+			this.assertSameItems(this.dyn.detect(aabb), grid.detect(aabb));
+			aabb = new AABB(-100.0, -100.0, 100.0, 100.0);
+			this.assertSameItems(this.dyn.detect(aabb), grid.detect(aabb));
+			
+			// raycast
+			Ray ray = new Ray(new Vector2(-10.0, random.nextDouble() * 10.0 - 5.0), random.nextDouble() - 0.5);
+			this.assertSameItems(this.dyn.raycast(ray, 0.0), grid.raycast(ray, 0.0));
+			this.assertSameItems(this.dyn.raycast(ray, 5.0), grid.raycast(ray, 5.0));
+			
+			// getAABB
+			CollidableTest c = collidables.get(0);
+			AABB a1 = this.dyn.getAABB(c, c.getFixture(0));
+			AABB a2 = grid.getAABB(c, c.getFixture(0));
+			TestCase.assertEquals(a1.getMinX(), a2.getMinX(), 1.0e-9);
+			TestCase.assertEquals(a1.getMaxY(), a2.getMaxY(), 1.0e-9);
+		}
+		
+		// shift
+		Vector2 shift = new Vector2(1.5, -2.0);
+		this.dyn.shift(shift);
+		grid.shift(shift);
+		this.assertSamePairs(this.dyn.detect(), grid.detect());
+		AABB aabb = new AABB(new Vector2(1.0, -2.0), 4.0);
+		this.assertSameItems(this.dyn.detect(aabb), grid.detect(aabb));
+		
+		// clear
+		grid.clear();
+		TestCase.assertEquals(0, grid.size());
+		TestCase.assertEquals(0, grid.detect().size());
+		TestCase.assertEquals(0, grid.detect(aabb).size());
+		TestCase.assertEquals(0, grid.raycast(new Ray(0.0), 0.0).size());
+		grid.add(collidables.get(0));
+		TestCase.assertEquals(collidables.get(0).getFixtureCount(), grid.size());
+	}
+	
+	/**
+	 * Tests creating a HashGrid detector using an invalid cell size.
+	 * @since 3.3.0
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void HashGridInvalidCellSize() {
+		new HashGrid<CollidableTest, Fixture>(0.0);
+	}
+	
+	/**
+	 * Tests creating a HashGrid detector using a negative capacity.
+	 * @since 3.3.0
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void HashGridNegativeInitialCapacity() {
+		new HashGrid<CollidableTest, Fixture>(1.0, -10);
+	}
+	
+	/**
+	 * Asserts that the given lists contain the same pairs, in any order.
+	 * @param expected the expected pairs
+	 * @param actual the actual pairs
+	 */
+	private void assertSamePairs(List<BroadphasePair<CollidableTest, Fixture>> expected, List<BroadphasePair<CollidableTest, Fixture>> actual) {
+		Set<String> e = new HashSet<String>();
+		for (BroadphasePair<CollidableTest, Fixture> pair : expected) {
+			e.add(this.getKey(pair));
+		}
+		Set<String> a = new HashSet<String>();
+		for (BroadphasePair<CollidableTest, Fixture> pair : actual) {
+			TestCase.assertTrue(a.add(this.getKey(pair)));
+		}
+		TestCase.assertEquals(e, a);
+	}
+	
+	/**
+	 * Asserts that the given lists contain the same items, in any order.
+	 * @param expected the expected items
+	 * @param actual the actual items
+	 */
+	private void assertSameItems(List<BroadphaseItem<CollidableTest, Fixture>> expected, List<BroadphaseItem<CollidableTest, Fixture>> actual) {
+		TestCase.assertEquals(expected.size(), actual.size());
+		TestCase.assertEquals(new HashSet<BroadphaseItem<CollidableTest, Fixture>>(expected), new HashSet<BroadphaseItem<CollidableTest, Fixture>>(actual));
+	}
+	
+	/**
+	 * Tests the raycast method that uses a callback.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void raycastCallback() {
+		List<BroadphaseDetector<CollidableTest, Fixture>> detectors = new ArrayList<BroadphaseDetector<CollidableTest, Fixture>>();
+		detectors.add(this.sap);
+		detectors.add(this.dyn);
+		detectors.add(new CompactDynamicAABBTree<CollidableTest, Fixture>());
+		detectors.add(new HashGrid<CollidableTest, Fixture>(1.0));
+		detectors.add(new IncrementalSap<CollidableTest, Fixture>());
+		detectors.add(new StaticDynamicBroadphase<CollidableTest, Fixture>(new StaticClassifier<CollidableTest, Fixture>() {
+			public boolean isStatic(CollidableTest collidable, Fixture fixture) {
+				return collidable.getTransform().getTranslationX() < 0.0;
+			}
+		}));
+		
+		Random random = new Random(5);
+		for (int i = 0; i < 100; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.2 + random.nextDouble() * 0.5));
+			ct.translate(random.nextDouble() * 20.0 - 10.0, random.nextDouble() * 20.0 - 10.0);
+			for (BroadphaseDetector<CollidableTest, Fixture> detector : detectors) {
+				detector.add(ct);
+			}
+		}
+		
+		final Set<BroadphaseItem<CollidableTest, Fixture>> found = new HashSet<BroadphaseItem<CollidableTest, Fixture>>();
+		BroadphaseRaycastCallback<CollidableTest, Fixture> all = new BroadphaseRaycastCallback<CollidableTest, Fixture>() {
+			public double found(Ray ray, double length, CollidableTest collidable, Fixture fixture) {
+				TestCase.assertTrue(found.add(new BroadphaseItem<CollidableTest, Fixture>(collidable, fixture)));
+				return length;
+			}
+		};
+		BroadphaseRaycastCallback<CollidableTest, Fixture> first = new BroadphaseRaycastCallback<CollidableTest, Fixture>() {
+			public double found(Ray ray, double length, CollidableTest collidable, Fixture fixture) {
+				found.add(new BroadphaseItem<CollidableTest, Fixture>(collidable, fixture));
+				return -1.0;
+			}
+		};
+		
+		for (int i = 0; i < 20; i++) {
+			Ray ray = new Ray(new Vector2(-12.0, random.nextDouble() * 20.0 - 10.0), random.nextDouble() - 0.5);
+			double length = random.nextBoolean() ? 0.0 : 15.0;
+			for (BroadphaseDetector<CollidableTest, Fixture> detector : detectors) {
+				// without clipping the callback should see the same items as the list
+				found.clear();
+				detector.raycast(ray, length, all);
+				List<BroadphaseItem<CollidableTest, Fixture>> items = detector.raycast(ray, length);
+				TestCase.assertEquals(new HashSet<BroadphaseItem<CollidableTest, Fixture>>(items), found);
+				
+				// a negative length should stop the raycast
+				found.clear();
+				detector.raycast(ray, length, first);
+				TestCase.assertEquals(Math.min(1, items.size()), found.size());
+			}
+		}
+	}
+	
+	/**
+	 * Tests that the tree detectors visit the nodes closest to the start of the ray first
+	 * so that clipping the ray skips the rest.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void raycastFrontToBack() {
+		List<BroadphaseDetector<CollidableTest, Fixture>> detectors = new ArrayList<BroadphaseDetector<CollidableTest, Fixture>>();
+		detectors.add(this.dyn);
+		detectors.add(new CompactDynamicAABBTree<CollidableTest, Fixture>());
+		detectors.add(new StaticDynamicBroadphase<CollidableTest, Fixture>(new StaticClassifier<CollidableTest, Fixture>() {
+			public boolean isStatic(CollidableTest collidable, Fixture fixture) {
+				return true;
+			}
+		}));
+		
+		// a row of boxes added in random order
+		Random random = new Random(25);
+		List<CollidableTest> cts = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 200; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createSquare(1.0));
+			ct.translate(i * 1.5, random.nextDouble() * 0.4 - 0.2);
+			cts.add(ct);
+		}
+		List<CollidableTest> shuffled = new ArrayList<CollidableTest>(cts);
+		Collections.shuffle(shuffled, random);
+		for (BroadphaseDetector<CollidableTest, Fixture> detector : detectors) {
+			for (CollidableTest ct : shuffled) {
+				detector.add(ct);
+			}
+		}
+		
+		// clip the ray to the left side of each box found
+		final List<CollidableTest> found = new ArrayList<CollidableTest>();
+		BroadphaseRaycastCallback<CollidableTest, Fixture> closest = new BroadphaseRaycastCallback<CollidableTest, Fixture>() {
+			public double found(Ray ray, double length, CollidableTest collidable, Fixture fixture) {
+				found.add(collidable);
+				return Math.min(length, collidable.getTransform().getTranslationX() - 0.5 - ray.getStart().x);
+			}
+		};
+		
+		for (int i = 0; i < 3; i++) {
+			CollidableTest first = cts.get(i * 60);
+			Ray ray = new Ray(new Vector2(first.getTransform().getTranslationX() - 0.75, 0.0), 0.0);
+			double length = i == 2 ? 500.0 : 0.0;
+			for (BroadphaseDetector<CollidableTest, Fixture> detector : detectors) {
+				found.clear();
+				detector.raycast(ray, length, closest);
+				TestCase.assertFalse(found.isEmpty());
+				TestCase.assertSame(first, found.get(found.size() - 1));
+				// the sub trees can overlap so a few items beyond the closest may be
+				// found first, but not the majority that the ray passes through
+				TestCase.assertTrue(found.size() <= 4);
+				TestCase.assertTrue(detector.raycast(ray, length).size() > 50);
+			}
+		}
+	}
+	
+	/**
+	 * Tests that the IncrementalSap produces the same results as the DynamicAABBTree.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void incrementalSap() {
+		IncrementalSap<CollidableTest, Fixture> sap = new IncrementalSap<CollidableTest, Fixture>(4);
+		
+		Random random = new Random(13);
+		List<CollidableTest> collidables = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 200; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.2 + random.nextDouble() * 0.5));
+			if (random.nextBoolean()) {
+				ct.addFixture(Geometry.createSquare(0.5));
+			}
+			// include some degenerate bounds
+			if (i % 50 == 0) {
+				ct.addFixture(Geometry.createVerticalSegment(2.0));
+			}
+			ct.translate(random.nextDouble() * 20.0 - 10.0, random.nextDouble() * 20.0 - 10.0);
+			collidables.add(ct);
+			sap.add(ct);
+			this.dyn.add(ct);
+		}
+		TestCase.assertEquals(this.dyn.size(), sap.size());
+		
+		for (int i = 0; i < 30; i++) {
+			// move all of the collidables a little and some of them a lot
+			for (CollidableTest ct : collidables) {
+				double scale = random.nextInt(10) == 0 ? 5.0 : 0.2;
+				ct.translate((random.nextDouble() - 0.5) * scale, (random.nextDouble() - 0.5) * scale);
+				sap.update(ct);
+				this.dyn.update(ct);
+			}
+			// remove and add some of the collidables
+			for (int j = 0; j < 3; j++) {
+				CollidableTest ct = collidables.get(random.nextInt(collidables.size()));
+				sap.remove(ct);
+				this.dyn.remove(ct);
+				TestCase.assertFalse(sap.contains(ct));
+				if (random.nextBoolean()) {
+					sap.add(ct);
+					this.dyn.add(ct);
+					TestCase.assertTrue(sap.contains(ct));
+				} else {
+					collidables.remove(ct);
+				}
+			}
+			TestCase.assertEquals(this.dyn.size(), sap.size());
+			
+			// detect
+			this.assertSamePairs(this.dyn.detect(), sap.detect());
+			
+			// detect AABB
+			AABB aabb = new AABB(new Vector2(random.nextDouble() * 10.0 - 5.0, random.nextDouble() * 10.0 - 5.0), 3.0);
+			this.assertSameItems(this.dyn.detect(aabb), sap.detect(aabb));
+			
+			// raycast
+			Ray ray = new Ray(new Vector2(-10.0, random.nextDouble() * 10.0 - 5.0), random.nextDouble() - 0.5);
+			this.assertSameItems(this.dyn.raycast(ray, 0.0), sap.raycast(ray, 0.0));
+			this.assertSameItems(this.dyn.raycast(ray, 5.0), sap.raycast(ray, 5.0));
+			
+			// getAABB
+			CollidableTest c = collidables.get(0);
+			AABB a1 = this.dyn.getAABB(c, c.getFixture(0));
+			AABB a2 = sap.getAABB(c, c.getFixture(0));
+			TestCase.assertEquals(a1.getMinX(), a2.getMinX());
+			TestCase.assertEquals(a1.getMaxY(), a2.getMaxY());
+		}
+		
+		// nothing moved so the same pair objects should be returned
+		List<BroadphasePair<CollidableTest, Fixture>> pairs = sap.detect();
+		TestCase.assertFalse(pairs.isEmpty());
+		TestCase.assertEquals(new HashSet<BroadphasePair<CollidableTest, Fixture>>(pairs), new HashSet<BroadphasePair<CollidableTest, Fixture>>(sap.detect()));
+		
+		// shift
+		Vector2 shift = new Vector2(1.5, -2.0);
+		this.dyn.shift(shift);
+		sap.shift(shift);
+		this.assertSamePairs(this.dyn.detect(), sap.detect());
+		AABB aabb = new AABB(new Vector2(1.0, -2.0), 4.0);
+		this.assertSameItems(this.dyn.detect(aabb), sap.detect(aabb));
+		
+		// clear
+		sap.clear();
+		TestCase.assertEquals(0, sap.size());
+		TestCase.assertEquals(0, sap.detect().size());
+		TestCase.assertEquals(0, sap.detect(aabb).size());
+		TestCase.assertEquals(0, sap.raycast(new Ray(0.0), 0.0).size());
+		sap.add(collidables.get(0));
+		TestCase.assertEquals(collidables.get(0).getFixtureCount(), sap.size());
+	}
+	
+	/**
+	 * Tests creating an IncrementalSap detector using a negative capacity.
+	 * @since 3.3.0
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void IncrementalSapNegativeInitialCapacity() {
+		new IncrementalSap<CollidableTest, Fixture>(-10);
+	}
+	
+	/**
+	 * Tests that the StaticDynamicBroadphase produces the same results as the DynamicAABBTree
+	 * without the pairs of static fixtures.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void staticDynamic() {
+		final Set<CollidableTest> statics = new HashSet<CollidableTest>();
+		StaticDynamicBroadphase<CollidableTest, Fixture> sd = new StaticDynamicBroadphase<CollidableTest, Fixture>(new StaticClassifier<CollidableTest, Fixture>() {
+			public boolean isStatic(CollidableTest collidable, Fixture fixture) {
+				return statics.contains(collidable);
+			}
+		}, 4);
+		DefaultBroadphaseFilter<CollidableTest, Fixture> filter = new DefaultBroadphaseFilter<CollidableTest, Fixture>() {
+			@Override
+			public boolean isAllowed(CollidableTest collidable1, Fixture fixture1, CollidableTest collidable2, Fixture fixture2) {
+				return !statics.contains(collidable1) || !statics.contains(collidable2);
+			}
+		};
+		// the static fixtures aren't expanded
+		sd.setAABBExpansion(0.0);
+		this.dyn.setAABBExpansion(0.0);
+		
+		Random random = new Random(17);
+		List<CollidableTest> collidables = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 300; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.2 + random.nextDouble() * 0.5));
+			if (random.nextBoolean()) {
+				ct.addFixture(Geometry.createSquare(0.5));
+			}
+			ct.translate(random.nextDouble() * 20.0 - 10.0, random.nextDouble() * 20.0 - 10.0);
+			if (random.nextInt(4) != 0) {
+				statics.add(ct);
+			}
+			collidables.add(ct);
+			sd.add(ct);
+			this.dyn.add(ct);
+		}
+		TestCase.assertEquals(this.dyn.size(), sd.size());
+		TestCase.assertTrue(sd.getStaticCount() > sd.getDynamicCount());
+		TestCase.assertFalse(sd.detect().isEmpty());
+		
+		for (int i = 0; i < 20; i++) {
+			for (CollidableTest ct : collidables) {
+				if (statics.contains(ct)) {
+					// move some static collidables far enough to change their bounds
+					if (random.nextInt(50) != 0) continue;
+					ct.translate(random.nextBoolean() ? 3.0 : -3.0, 0.0);
+				} else {
+					ct.translate((random.nextDouble() - 0.5) * 0.5, (random.nextDouble() - 0.5) * 0.5);
+				}
+				sd.update(ct);
+				this.dyn.update(ct);
+			}
+			// reclassify some collidables
+			for (int j = 0; j < 3; j++) {
+				CollidableTest ct = collidables.get(random.nextInt(collidables.size()));
+				if (!statics.remove(ct)) {
+					statics.add(ct);
+				}
+				// remove and add it so that the fixtures are tight in both
+				sd.remove(ct);
+				this.dyn.remove(ct);
+				TestCase.assertFalse(sd.contains(ct));
+				sd.add(ct);
+				this.dyn.add(ct);
+				TestCase.assertTrue(sd.contains(ct));
+				TestCase.assertEquals(statics.contains(ct), sd.isStatic(ct, ct.getFixture(0)));
+			}
+			TestCase.assertEquals(this.dyn.size(), sd.size());
+			
+			// detect
+			this.assertSamePairs(this.dyn.detect(filter), sd.detect());
+			
+			// detect AABB
+			AABB aabb = new AABB(new Vector2(random.nextDouble() * 10.0 - 5.0, random.nextDouble() * 10.0 - 5.0), 3.0);
+			this.assertSameItems(this.dyn.detect(aabb), sd.detect(aabb));
+			
+			// raycast
+			Ray ray = new Ray(new Vector2(-10.0, random.nextDouble() * 10.0 - 5.0), random.nextDouble() - 0.5);
+			this.assertSameItems(this.dyn.raycast(ray, 0.0), sd.raycast(ray, 0.0));
+			this.assertSameItems(this.dyn.raycast(ray, 5.0), sd.raycast(ray, 5.0));
+		}
+		
+		// updating a static collidable that hasn't moved shouldn't change anything
+		CollidableTest ct = statics.iterator().next();
+		AABB before = sd.getAABB(ct, ct.getFixture(0));
+		sd.update(ct);
+		TestCase.assertSame(before, sd.getAABB(ct, ct.getFixture(0)));
+		
+		// a static collidable that starts moving becomes dynamic
+		statics.remove(ct);
+		sd.update(ct);
+		TestCase.assertFalse(sd.isStatic(ct, ct.getFixture(0)));
+		TestCase.assertEquals(this.dyn.size(), sd.size());
+		this.assertSamePairs(this.dyn.detect(filter), sd.detect());
+		
+		// shift
+		Vector2 shift = new Vector2(1.5, -2.0);
+		this.dyn.shift(shift);
+		sd.shift(shift);
+		this.assertSamePairs(this.dyn.detect(filter), sd.detect());
+		AABB aabb = new AABB(new Vector2(1.0, -2.0), 4.0);
+		this.assertSameItems(this.dyn.detect(aabb), sd.detect(aabb));
+		
+		// clear
+		sd.clear();
+		TestCase.assertEquals(0, sd.size());
+		TestCase.assertEquals(0, sd.detect().size());
+		TestCase.assertEquals(0, sd.detect(aabb).size());
+		TestCase.assertEquals(0, sd.raycast(new Ray(0.0), 0.0).size());
+	}
+	
+	/**
+	 * Tests creating a StaticDynamicBroadphase detector without a classifier.
+	 * @since 3.3.0
+	 */
+	@Test(expected = NullPointerException.class)
+	public void StaticDynamicBroadphaseNullClassifier() {
+		new StaticDynamicBroadphase<CollidableTest, Fixture>(null);
+	}
+	
+	/**
+	 * Tests that adding collidables in a batch gives the same results as adding them one at a time.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void batchAdd() {
+		List<BroadphaseDetector<CollidableTest, Fixture>> detectors = new ArrayList<BroadphaseDetector<CollidableTest, Fixture>>();
+		detectors.add(new DynamicAABBTree<CollidableTest, Fixture>());
+		// the pair cache should find the pairs of the new nodes
+		DynamicAABBTree<CollidableTest, Fixture> cached = new DynamicAABBTree<CollidableTest, Fixture>();
+		cached.setPairCacheEnabled(true);
+		detectors.add(cached);
+		detectors.add(new CompactDynamicAABBTree<CollidableTest, Fixture>());
+		detectors.add(new HashGrid<CollidableTest, Fixture>(1.0));
+		detectors.add(new IncrementalSap<CollidableTest, Fixture>());
+		
+		Random random = new Random(23);
+		List<CollidableTest> first = new ArrayList<CollidableTest>();
+		List<CollidableTest> second = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 400; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.2 + random.nextDouble() * 0.5));
+			if (random.nextBoolean()) {
+				ct.addFixture(Geometry.createSquare(0.5));
+			}
+			ct.translate(random.nextDouble() * 20.0 - 10.0, random.nextDouble() * 20.0 - 10.0);
+			if (i < 300) {
+				first.add(ct);
+			} else {
+				second.add(ct);
+			}
+		}
+		
+		for (BroadphaseDetector<CollidableTest, Fixture> detector : detectors) {
+			// the expected results come from adding them one at a time
+			this.dyn.clear();
+			for (CollidableTest ct : first) {
+				this.dyn.add(ct);
+			}
+			for (CollidableTest ct : second) {
+				this.dyn.add(ct);
+			}
+			
+			// build a new tree
+			detector.batchAdd(first);
+			// add to the existing tree, including some already added
+			second.add(first.get(0));
+			detector.batchAdd(second);
+			second.remove(second.size() - 1);
+			TestCase.assertEquals(this.dyn.size(), detector.size());
+			
+			this.assertSamePairs(this.dyn.detect(), detector.detect());
+			for (int i = 0; i < 10; i++) {
+				AABB aabb = new AABB(new Vector2(random.nextDouble() * 10.0 - 5.0, random.nextDouble() * 10.0 - 5.0), 3.0);
+				this.assertSameItems(this.dyn.detect(aabb), detector.detect(aabb));
+				Ray ray = new Ray(new Vector2(-10.0, random.nextDouble() * 10.0 - 5.0), random.nextDouble() - 0.5);
+				this.assertSameItems(this.dyn.raycast(ray, 0.0), detector.raycast(ray, 0.0));
+			}
+			
+			// the tree should still be updatable
+			for (CollidableTest ct : first) {
+				ct.translate(0.5, 0.0);
+				detector.update(ct);
+				this.dyn.update(ct);
+			}
+			this.assertSamePairs(this.dyn.detect(), detector.detect());
+			for (CollidableTest ct : first) {
+				ct.translate(-0.5, 0.0);
+				detector.update(ct);
+				this.dyn.update(ct);
+			}
+			detector.remove(second.get(0));
+			this.dyn.remove(second.get(0));
+			this.assertSamePairs(this.dyn.detect(), detector.detect());
+			detector.add(second.get(0));
+			this.dyn.add(second.get(0));
+		}
+		
+		// adding more than the tree has should rebuild the whole tree
+		DynamicAABBTree<CollidableTest, Fixture> tree = new DynamicAABBTree<CollidableTest, Fixture>();
+		for (CollidableTest ct : second) {
+			tree.add(ct);
+		}
+		tree.batchAdd(first);
+		this.dyn.clear();
+		for (CollidableTest ct : first) {
+			this.dyn.add(ct);
+		}
+		for (CollidableTest ct : second) {
+			this.dyn.add(ct);
+		}
+		TestCase.assertEquals(this.dyn.size(), tree.size());
+		this.assertSamePairs(this.dyn.detect(), tree.detect());
+		for (CollidableTest ct : second) {
+			tree.remove(ct);
+		}
+		TestCase.assertEquals(0, tree.detect(new AABB(new Vector2(30.0, 0.0), 1.0)).size());
+		TestCase.assertFalse(tree.detect().isEmpty());
+	}
+	
+	/**
+	 * Tests that optimizing the tree improves its quality without changing the results.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void optimize() {
+		DynamicAABBTree<CollidableTest, Fixture> tree = new DynamicAABBTree<CollidableTest, Fixture>();
+		TestCase.assertEquals(-1, tree.getHeight());
+		TestCase.assertEquals(0, tree.getMaximumImbalance());
+		TestCase.assertEquals(0.0, tree.getPerimeterRatio());
+		tree.optimize(10);
+		
+		// sorted inserts and random moves give a poor tree
+		Random random = new Random(24);
+		List<CollidableTest> cts = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 500; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.5));
+			ct.translate(i * 0.1, random.nextDouble() * 2.0);
+			cts.add(ct);
+			tree.add(ct);
+			this.dyn.add(ct);
+		}
+		for (int i = 0; i < 5; i++) {
+			for (CollidableTest ct : cts) {
+				ct.translate(random.nextDouble() * 4.0 - 2.0, random.nextDouble() * 4.0 - 2.0);
+				tree.update(ct);
+				this.dyn.update(ct);
+			}
+		}
+		
+		double ratio = tree.getPerimeterRatio();
+		int height = tree.getHeight();
+		TestCase.assertTrue(ratio > 1.0);
+		TestCase.assertTrue(height >= 9);
+		TestCase.assertTrue(tree.getMaximumImbalance() <= height);
+		
+		for (int i = 0; i < 200; i++) {
+			tree.optimize(16);
+		}
+		TestCase.assertTrue(tree.getPerimeterRatio() < ratio * 0.9);
+		TestCase.assertTrue(tree.getHeight() >= 9);
+		TestCase.assertEquals(500, tree.size());
+		
+		// the results should be the same
+		this.assertSamePairs(this.dyn.detect(), tree.detect());
+		for (int i = 0; i < 10; i++) {
+			AABB aabb = new AABB(new Vector2(random.nextDouble() * 50.0, random.nextDouble() * 2.0), 3.0);
+			this.assertSameItems(this.dyn.detect(aabb), tree.detect(aabb));
+			Ray ray = new Ray(new Vector2(-5.0, random.nextDouble() * 4.0 - 1.0), random.nextDouble() * 0.2 - 0.1);
+			this.assertSameItems(this.dyn.raycast(ray, 0.0), tree.raycast(ray, 0.0));
+		}
+		
+		// and the tree should still be updatable
+		for (CollidableTest ct : cts) {
+			ct.translate(1.0, 0.0);
+			tree.update(ct);
+			this.dyn.update(ct);
+		}
+		tree.remove(cts.get(0));
+		this.dyn.remove(cts.get(0));
+		this.assertSamePairs(this.dyn.detect(), tree.detect());
+	}
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.manifold.ClippingManifoldSolver;
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.collision.manifold.ManifoldPoint;
+import org.dyn4j.collision.manifold.ManifoldPointId;
+import org.dyn4j.collision.narrowphase.DispatchingNarrowphaseDetector;
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Segment;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link DispatchingNarrowphaseDetector} class.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class DispatchingNarrowphaseDetectorTest {
+	/** A listing of shape types */
+	private static final Convex[] TYPES = new Convex[] {
+		// Capsule
+		Geometry.createCapsule(1.0, 0.5),
+		// Circle
+		Geometry.createCircle(0.5),
+		// Ellipse
+		Geometry.createEllipse(1.0, 0.5),
+		// HalfEllipse
+		Geometry.createHalfEllipse(1.0, 0.25),
+		// Segment
+		Geometry.createHorizontalSegment(1.0),
+		// Rectangle
+		Geometry.createRectangle(1.0, 2.0),
+		// Slice
+		Geometry.createSlice(0.5, Math.toRadians(50)),
+		// Polygon
+		Geometry.createUnitCirclePolygon(5, 0.5),
+		// Triangle
+		Geometry.createEquilateralTriangle(1.0)
+	};
+	
+	/**
+	 * Tests that the detector gives the same results as {@link Gjk} for all pairs of shape types.
+	 */
+	@Test
+	public void sameAsGjk() {
+		DispatchingNarrowphaseDetector detector = new DispatchingNarrowphaseDetector();
+		Gjk gjk = new Gjk();
+		Random random = new Random(20);
+		
+		Penetration p1 = new Penetration();
+		Penetration p2 = new Penetration();
+		for (int i = 0; i < TYPES.length; i++) {
+			for (int j = 0; j < TYPES.length; j++) {
+				Convex c1 = TYPES[i];
+				Convex c2 = TYPES[j];
+				int collisions = 0;
+				for (int k = 0; k < 200; k++) {
+					Transform t1 = new Transform();
+					t1.rotate(random.nextDouble() * Math.PI * 2.0);
+					t1.translate((random.nextDouble() - 0.5) * 0.5, (random.nextDouble() - 0.5) * 0.5);
+					Transform t2 = new Transform();
+					t2.rotate(random.nextDouble() * Math.PI * 2.0);
+					t2.translate((random.nextDouble() - 0.5) * 3.0, (random.nextDouble() - 0.5) * 3.0);
+					
+					boolean expected = gjk.detect(c1, t1, c2, t2, p1);
+					boolean actual = detector.detect(c1, t1, c2, t2, p2);
+					TestCase.assertEquals(expected, actual);
+					TestCase.assertEquals(expected, detector.detect(c1, t1, c2, t2));
+					if (!expected) continue;
+					
+					collisions++;
+					TestCase.assertEquals(p1.getDepth(), p2.getDepth(), 1.0e-3);
+					TestCase.assertEquals(1.0, p2.getNormal().getMagnitude(), 1.0e-9);
+					
+					// moving the second shape along the normal should separate them
+					Transform t3 = new Transform(t2);
+					t3.translate(p2.getNormal().product(p2.getDepth() + 1.0e-3));
+					TestCase.assertFalse(gjk.detect(c1, t1, c2, t3));
+				}
+				TestCase.assertTrue(collisions > 0);
+			}
+		}
+	}
+	
+	/**
+	 * Tests that the manifolds of the pairs with a circle are the same as the {@link ClippingManifoldSolver}'s.
+	 */
+	@Test
+	public void circleManifolds() {
+		DispatchingNarrowphaseDetector detector = new DispatchingNarrowphaseDetector();
+		ClippingManifoldSolver solver = new ClippingManifoldSolver();
+		Convex circle = Geometry.createCircle(0.5);
+		
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		t2.translate(0.3, 0.1);
+		
+		for (int i = 0; i < TYPES.length; i++) {
+			Convex other = TYPES[i];
+			this.compareManifolds(detector, solver, circle, t1, other, t2);
+			this.compareManifolds(detector, solver, other, t1, circle, t2);
+		}
+	}
+	
+	/**
+	 * Compares the manifolds of the given shapes produced by the detector and the solver.
+	 * @param detector the detector
+	 * @param solver the solver
+	 * @param c1 the first shape
+	 * @param t1 the first transform
+	 * @param c2 the second shape
+	 * @param t2 the second transform
+	 */
+	private void compareManifolds(DispatchingNarrowphaseDetector detector, ClippingManifoldSolver solver, Convex c1, Transform t1, Convex c2, Transform t2) {
+		Penetration p1 = new Penetration();
+		Penetration p2 = new Penetration();
+		TestCase.assertTrue(detector.detect(c1, t1, c2, t2, p1));
+		TestCase.assertTrue(detector.detect(c1, t1, c2, t2, p2));
+		
+		Manifold m1 = new Manifold();
+		Manifold m2 = new Manifold();
+		TestCase.assertEquals(solver.getManifold(p1, c1, t1, c2, t2, m1), detector.getManifold(p2, c1, t1, c2, t2, m2));
+		TestCase.assertEquals(m1.getNormal(), m2.getNormal());
+		TestCase.assertEquals(m1.getPoints().size(), m2.getPoints().size());
+		for (int i = 0; i < m1.getPoints().size(); i++) {
+			ManifoldPoint mp1 = m1.getPoints().get(i);
+			ManifoldPoint mp2 = m2.getPoints().get(i);
+			TestCase.assertEquals(mp1.getId(), mp2.getId());
+			TestCase.assertEquals(mp1.getPoint(), mp2.getPoint());
+			TestCase.assertEquals(mp1.getDepth(), mp2.getDepth());
+		}
+	}
+	
+	/**
+	 * Tests the closed form capsule and segment routines.
+	 */
+	@Test
+	public void capsulesAndSegments() {
+		DispatchingNarrowphaseDetector detector = new DispatchingNarrowphaseDetector();
+		Convex capsule = Geometry.createCapsule(2.0, 0.5);
+		
+		// two parallel capsules, one above the other
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		t2.translate(0.5, 0.4);
+		Penetration p = new Penetration();
+		TestCase.assertTrue(detector.detect(capsule, t1, capsule, t2, p));
+		TestCase.assertEquals(0.1, p.getDepth(), 1.0e-9);
+		TestCase.assertEquals(0.0, p.getNormal().x, 1.0e-9);
+		TestCase.assertEquals(1.0, p.getNormal().y, 1.0e-9);
+		
+		// end to end
+		t2.identity();
+		t2.translate(2.3, 0.0);
+		TestCase.assertFalse(detector.detect(capsule, t1, capsule, t2, p));
+		TestCase.assertFalse(detector.detect(capsule, t1, capsule, t2));
+		
+		// crossing segments have no closest points to separate them
+		Segment segment = new Segment(new Vector2(-1.0, 0.0), new Vector2(1.0, 0.0));
+		t2.identity();
+		t2.rotate(Math.PI * 0.5);
+		t2.translate(0.2, 0.1);
+		TestCase.assertTrue(detector.detect(segment, t1, segment, t2));
+		TestCase.assertTrue(detector.detect(segment, t1, segment, t2, p));
+		
+		// a segment resting on a capsule
+		t2.identity();
+		t2.translate(0.0, 0.2);
+		TestCase.assertTrue(detector.detect(capsule, t1, segment, t2, p));
+		TestCase.assertEquals(0.05, p.getDepth(), 1.0e-9);
+		TestCase.assertEquals(1.0, p.getNormal().y, 1.0e-9);
+		
+		// the same in the other order
+		TestCase.assertTrue(detector.detect(segment, t2, capsule, t1, p));
+		TestCase.assertEquals(0.05, p.getDepth(), 1.0e-9);
+		TestCase.assertEquals(-1.0, p.getNormal().y, 1.0e-9);
+		
+		// check the manifold id of a capsule pair
+		Manifold m = new Manifold();
+		t2.identity();
+		t2.translate(0.5, 0.4);
+		TestCase.assertTrue(detector.detect(capsule, t1, capsule, t2, p));
+		TestCase.assertTrue(detector.getManifold(p, capsule, t1, capsule, t2, m));
+		TestCase.assertNotSame(ManifoldPointId.DISTANCE, m.getPoints().get(0).getId());
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.collision.narrowphase.Separation;
+import org.dyn4j.geometry.Circle;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Polygon;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+/**
+ * Test cases for the reuse of the {@link Gjk} workspaces across calls and threads.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class GjkWorkspaceTest {
+	/**
+	 * Tests that results from one call are not modified by subsequent calls.
+	 */
+	@Test
+	public void resultsNotShared() {
+		Gjk gjk = new Gjk();
+		Polygon p = Geometry.createUnitCirclePolygon(6, 1.0);
+		Circle c = Geometry.createCircle(0.5);
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		t2.translate(1.2, 0.1);
+		
+		Penetration pen1 = new Penetration();
+		TestCase.assertTrue(gjk.detect(p, t1, c, t2, pen1));
+		Vector2 n1 = pen1.getNormal().copy();
+		double d1 = pen1.getDepth();
+		
+		// use the workspace again with different inputs
+		t2.translate(-0.3, 0.5);
+		Penetration pen2 = new Penetration();
+		TestCase.assertTrue(gjk.detect(p, t1, c, t2, pen2));
+		
+		TestCase.assertNotSame(pen1.getNormal(), pen2.getNormal());
+		TestCase.assertEquals(n1.x, pen1.getNormal().x);
+		TestCase.assertEquals(n1.y, pen1.getNormal().y);
+		TestCase.assertEquals(d1, pen1.getDepth());
+		
+		// the same for separation
+		t2.translate(3.0, 0.0);
+		Separation sep1 = new Separation();
+		TestCase.assertTrue(gjk.distance(p, t1, c, t2, sep1));
+		Vector2 sn1 = sep1.getNormal().copy();
+		Vector2 sp1 = sep1.getPoint1().copy();
+		
+		t2.translate(1.0, 1.0);
+		Separation sep2 = new Separation();
+		TestCase.assertTrue(gjk.distance(p, t1, c, t2, sep2));
+		
+		TestCase.assertNotSame(sep1.getNormal(), sep2.getNormal());
+		TestCase.assertNotSame(sep1.getPoint1(), sep2.getPoint1());
+		TestCase.assertEquals(sn1.x, sep1.getNormal().x);
+		TestCase.assertEquals(sn1.y, sep1.getNormal().y);
+		TestCase.assertEquals(sp1.x, sep1.getPoint1().x);
+		TestCase.assertEquals(sp1.y, sep1.getPoint1().y);
+	}
+	
+	/**
+	 * Tests that the same {@link Gjk} instance can be used from multiple threads
+	 * and produce the same results as serial use.
+	 * @throws InterruptedException if a worker thread is interrupted
+	 */
+	@Test
+	public void concurrentUse() throws InterruptedException {
+		final Gjk gjk = new Gjk();
+		final Polygon p = Geometry.createUnitCirclePolygon(7, 1.0);
+		final Polygon q = Geometry.createSquare(1.0);
+		final int n = 2000;
+		
+		// compute the expected results serially
+		final double[] expected = new double[n];
+		for (int i = 0; i < n; i++) {
+			expected[i] = depth(gjk, p, q, i);
+		}
+		
+		final double[][] actual = new double[4][n];
+		Thread[] threads = new Thread[actual.length];
+		for (int j = 0; j < threads.length; j++) {
+			final double[] results = actual[j];
+			threads[j] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < n; i++) {
+						results[i] = depth(gjk, p, q, i);
+					}
+				}
+			});
+			threads[j].start();
+		}
+		for (int j = 0; j < threads.length; j++) {
+			threads[j].join();
+		}
+		
+		for (int j = 0; j < actual.length; j++) {
+			for (int i = 0; i < n; i++) {
+				TestCase.assertEquals(expected[i], actual[j][i]);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the penetration depth of the given shapes for the given configuration
+	 * index or -1.0 if they are not overlapping.
+	 * @param gjk the detector
+	 * @param p the first shape
+	 * @param q the second shape
+	 * @param i the configuration index
+	 * @return double
+	 */
+	private static double depth(Gjk gjk, Polygon p, Polygon q, int i) {
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		t2.translate(Math.cos(i * 0.1) * 1.5, Math.sin(i * 0.13) * 1.5);
+		t2.rotate(i * 0.07);
+		Penetration penetration = new Penetration();
+		if (gjk.detect(p, t1, q, t2, penetration)) {
+			return penetration.getDepth();
+		}
+		return -1.0;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.manifold.ClippingManifoldSolver;
+import org.dyn4j.collision.manifold.IndexedManifoldPointId;
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.collision.manifold.ManifoldPoint;
+import org.dyn4j.collision.manifold.ManifoldPointId;
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+/**
+ * Test cases for the reuse of the {@link Manifold} points and ids.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class ManifoldTest {
+	/**
+	 * Tests that the points removed by clear are reused by addPoint.
+	 */
+	@Test
+	public void addPoint() {
+		Manifold manifold = new Manifold();
+		Vector2 p1 = new Vector2(1.0, 2.0);
+		Vector2 p2 = new Vector2(3.0, 4.0);
+		ManifoldPoint mp1 = manifold.addPoint(ManifoldPointId.DISTANCE, p1, 0.5);
+		ManifoldPoint mp2 = manifold.addPoint(ManifoldPointId.DISTANCE, p2, 0.25);
+		TestCase.assertEquals(2, manifold.getPoints().size());
+		TestCase.assertSame(mp1, manifold.getPoints().get(0));
+		TestCase.assertSame(p1, mp1.getPoint());
+		TestCase.assertEquals(0.5, mp1.getDepth());
+		
+		manifold.clear();
+		TestCase.assertEquals(0, manifold.getPoints().size());
+		TestCase.assertNull(manifold.getNormal());
+		
+		IndexedManifoldPointId id = IndexedManifoldPointId.valueOf(1, 2, 0, false);
+		ManifoldPoint mp3 = manifold.addPoint(id, p2, 0.75);
+		ManifoldPoint mp4 = manifold.addPoint(id, p1, 0.1);
+		ManifoldPoint mp5 = manifold.addPoint(id, p1, 0.2);
+		TestCase.assertTrue(mp3 == mp1 || mp3 == mp2);
+		TestCase.assertTrue(mp4 == mp1 || mp4 == mp2);
+		TestCase.assertNotSame(mp3, mp4);
+		TestCase.assertNotSame(mp1, mp5);
+		TestCase.assertNotSame(mp2, mp5);
+		TestCase.assertSame(id, mp3.getId());
+		TestCase.assertSame(p2, mp3.getPoint());
+		TestCase.assertEquals(0.75, mp3.getDepth());
+	}
+	
+	/**
+	 * Tests that the ids are reused for small indices.
+	 */
+	@Test
+	public void valueOf() {
+		IndexedManifoldPointId id = IndexedManifoldPointId.valueOf(3, 2, 1, true);
+		TestCase.assertSame(id, IndexedManifoldPointId.valueOf(3, 2, 1, true));
+		TestCase.assertEquals(new IndexedManifoldPointId(3, 2, 1, true), id);
+		TestCase.assertEquals(3, id.getReferenceEdge());
+		TestCase.assertEquals(2, id.getIncidentEdge());
+		TestCase.assertEquals(1, id.getIncidentVertex());
+		TestCase.assertTrue(id.isFlipped());
+		TestCase.assertNotSame(id, IndexedManifoldPointId.valueOf(3, 2, 1, false));
+		
+		// large indices aren't cached
+		IndexedManifoldPointId large = IndexedManifoldPointId.valueOf(40, 2, 1, false);
+		TestCase.assertEquals(large, IndexedManifoldPointId.valueOf(40, 2, 1, false));
+		TestCase.assertEquals(40, large.getReferenceEdge());
+	}
+	
+	/**
+	 * Tests that a reused manifold gives the same points as a new one.
+	 */
+	@Test
+	public void reuse() {
+		Gjk gjk = new Gjk();
+		ClippingManifoldSolver solver = new ClippingManifoldSolver();
+		
+		Convex c1 = Geometry.createSquare(1.0);
+		Convex c2 = Geometry.createSquare(1.0);
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		
+		Manifold reused = new Manifold();
+		for (int i = 0; i < 10; i++) {
+			t2.setTranslation(0.5 + i * 0.02, 0.1 * i - 0.5);
+			Penetration p = new Penetration();
+			TestCase.assertTrue(gjk.detect(c1, t1, c2, t2, p));
+			
+			Manifold expected = new Manifold();
+			TestCase.assertTrue(solver.getManifold(p, c1, t1, c2, t2, expected));
+			
+			p = new Penetration();
+			gjk.detect(c1, t1, c2, t2, p);
+			TestCase.assertTrue(solver.getManifold(p, c1, t1, c2, t2, reused));
+			
+			TestCase.assertEquals(expected.getNormal(), reused.getNormal());
+			TestCase.assertEquals(expected.getPoints().size(), reused.getPoints().size());
+			for (int j = 0; j < expected.getPoints().size(); j++) {
+				ManifoldPoint e = expected.getPoints().get(j);
+				ManifoldPoint a = reused.getPoints().get(j);
+				TestCase.assertEquals(e.getId(), a.getId());
+				TestCase.assertEquals(e.getPoint(), a.getPoint());
+				TestCase.assertEquals(e.getDepth(), a.getDepth());
+			}
+		}
+	}
+}
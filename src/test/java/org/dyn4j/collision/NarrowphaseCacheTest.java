@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.narrowphase.CachingNarrowphaseDetector;
+import org.dyn4j.collision.narrowphase.FallbackNarrowphaseDetector;
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.NarrowphaseCache;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.collision.narrowphase.Sat;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link NarrowphaseCache} class and its use by the {@link CachingNarrowphaseDetector}s.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class NarrowphaseCacheTest {
+	/**
+	 * Tests the cache by itself.
+	 */
+	@Test
+	public void cache() {
+		NarrowphaseCache cache = new NarrowphaseCache();
+		TestCase.assertTrue(cache.isEmpty());
+		
+		cache.setAxis(new Vector2(0.0, 1.0));
+		TestCase.assertFalse(cache.isEmpty());
+		
+		// make sure a copy is returned
+		Vector2 axis = cache.getAxis();
+		axis.set(1.0, 0.0);
+		TestCase.assertEquals(0.0, cache.getAxis().x);
+		TestCase.assertEquals(1.0, cache.getAxis().y);
+		
+		cache.clear();
+		TestCase.assertTrue(cache.isEmpty());
+	}
+	
+	/**
+	 * Tests that the axis is saved when the shapes are separated and
+	 * cleared when they intersect.
+	 */
+	@Test
+	public void separatedThenIntersecting() {
+		this.separatedThenIntersecting(new Gjk());
+		this.separatedThenIntersecting(new Sat());
+	}
+	
+	/**
+	 * Tests that the given detector saves the axis when the shapes are separated 
+	 * and clears it when they intersect.
+	 * @param detector the detector
+	 */
+	private void separatedThenIntersecting(CachingNarrowphaseDetector detector) {
+		Convex c1 = Geometry.createSquare(1.0);
+		Convex c2 = Geometry.createUnitCirclePolygon(5, 0.5);
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		t2.translate(2.0, 0.0);
+		
+		NarrowphaseCache cache = new NarrowphaseCache();
+		Penetration p = new Penetration();
+		TestCase.assertFalse(detector.detect(c1, t1, c2, t2, p, cache));
+		TestCase.assertFalse(cache.isEmpty());
+		
+		// the axis should point from the first shape to the second
+		TestCase.assertTrue(cache.getAxis().x > 0.0);
+		
+		// the cached axis should still separate them
+		t2.translate(-0.2, 0.1);
+		TestCase.assertFalse(detector.detect(c1, t1, c2, t2, p, cache));
+		TestCase.assertFalse(cache.isEmpty());
+		
+		// the same result should be produced with the shapes swapped
+		NarrowphaseCache swapped = new NarrowphaseCache();
+		TestCase.assertFalse(detector.detect(c2, t2, c1, t1, p, swapped));
+		TestCase.assertTrue(swapped.getAxis().x < 0.0);
+		
+		// now make them intersect
+		t2.translate(-1.0, 0.0);
+		TestCase.assertTrue(detector.detect(c1, t1, c2, t2, p, cache));
+		TestCase.assertTrue(cache.isEmpty());
+	}
+	
+	/**
+	 * Tests that the cached detection gives the same results as the uncached
+	 * detection for a pair of shapes moving through each other.
+	 */
+	@Test
+	public void sameResults() {
+		this.sameResults(new Gjk());
+		this.sameResults(new Sat());
+		this.sameResults(new FallbackNarrowphaseDetector(new Sat(), new Gjk()));
+	}
+	
+	/**
+	 * Tests that the cached detection of the given detector gives the same results 
+	 * as its uncached detection.
+	 * @param detector the detector
+	 */
+	private void sameResults(CachingNarrowphaseDetector detector) {
+		Random random = new Random(19);
+		Convex c1 = Geometry.createUnitCirclePolygon(7, 1.0);
+		Convex c2 = Geometry.createRectangle(0.5, 1.5);
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		t2.translate(-4.0, 0.5);
+		
+		NarrowphaseCache cache = new NarrowphaseCache();
+		Penetration p1 = new Penetration();
+		Penetration p2 = new Penetration();
+		int collisions = 0;
+		for (int i = 0; i < 400; i++) {
+			// a random walk toward and then past the first shape
+			t2.translate(0.02 + random.nextDouble() * 0.01, (random.nextDouble() - 0.5) * 0.02);
+			t2.rotate((random.nextDouble() - 0.5) * 0.1, t2.getTransformed(new Vector2()));
+			
+			boolean expected = detector.detect(c1, t1, c2, t2, p1);
+			boolean actual = detector.detect(c1, t1, c2, t2, p2, cache);
+			TestCase.assertEquals(expected, actual);
+			if (expected) {
+				collisions++;
+				TestCase.assertEquals(p1.getDepth(), p2.getDepth(), 1.0e-9);
+				TestCase.assertEquals(p1.getNormal().x, p2.getNormal().x, 1.0e-9);
+				TestCase.assertEquals(p1.getNormal().y, p2.getNormal().y, 1.0e-9);
+				TestCase.assertTrue(cache.isEmpty());
+			} else {
+				TestCase.assertFalse(cache.isEmpty());
+			}
+		}
+		// make sure the shapes passed through each other
+		TestCase.assertTrue(collisions > 0);
+		TestCase.assertTrue(collisions < 400);
+	}
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.dynamics.joint.DistanceJoint;
+import org.dyn4j.dynamics.joint.Joint;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link ConstraintBatches} class.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class ConstraintBatchesTest {
+	/**
+	 * Creates a chain of joined bodies where every body is also joined to a static body.
+	 * @param bodies the list to add the bodies to
+	 * @param size the number of dynamic bodies
+	 * @return List&lt;Joint&gt;
+	 */
+	private List<Joint> createJoints(List<Body> bodies, int size) {
+		Body ground = new Body();
+		ground.addFixture(Geometry.createRectangle(10.0, 1.0));
+		ground.setMass(MassType.INFINITE);
+		bodies.add(ground);
+		
+		List<Joint> joints = new ArrayList<Joint>();
+		Body previous = null;
+		for (int i = 0; i < size; i++) {
+			Body body = new Body();
+			body.addFixture(Geometry.createCircle(0.5));
+			body.setMass(MassType.NORMAL);
+			body.translate(i, 2.0);
+			bodies.add(body);
+			if (previous != null) {
+				joints.add(new DistanceJoint(previous, body, previous.getWorldCenter(), body.getWorldCenter()));
+			}
+			joints.add(new DistanceJoint(ground, body, new Vector2(i, 0.0), body.getWorldCenter()));
+			previous = body;
+		}
+		return joints;
+	}
+	
+	/**
+	 * Asserts that the batches contain all the given joints, in their relative order,
+	 * and that no two joints of a batch share a dynamic body.
+	 * @param batches the batches
+	 * @param joints the joints
+	 */
+	private void assertBatches(ConstraintBatches<Joint> batches, List<Joint> joints) {
+		Map<Joint, Boolean> found = new IdentityHashMap<Joint, Boolean>();
+		for (int i = 0; i < batches.getBatchCount(); i++) {
+			List<Joint> batch = batches.getBatch(i);
+			Map<Body, Boolean> used = new IdentityHashMap<Body, Boolean>();
+			int last = -1;
+			for (Joint joint : batch) {
+				TestCase.assertNull(found.put(joint, Boolean.TRUE));
+				// the relative order is kept
+				int index = joints.indexOf(joint);
+				TestCase.assertTrue(index > last);
+				last = index;
+				for (Body body : new Body[] { joint.getBody1(), joint.getBody2() }) {
+					if (body.isDynamic()) {
+						TestCase.assertNull(used.put(body, Boolean.TRUE));
+					}
+				}
+			}
+		}
+		TestCase.assertEquals(joints.size(), found.size());
+	}
+	
+	/**
+	 * Tests that the batches contain all the constraints and that no two constraints
+	 * of a batch share a dynamic body.
+	 */
+	@Test
+	public void build() {
+		List<Body> bodies = new ArrayList<Body>();
+		List<Joint> joints = this.createJoints(bodies, 100);
+		
+		ConstraintBatches<Joint> batches = new ConstraintBatches<Joint>();
+		batches.build(bodies, joints, 4);
+		
+		// a chain joined to a static body only needs three batches
+		TestCase.assertEquals(3, batches.getBatchCount());
+		this.assertBatches(batches, joints);
+		
+		// rebuilding should give the same result
+		batches.build(bodies, joints, 4);
+		TestCase.assertEquals(3, batches.getBatchCount());
+		this.assertBatches(batches, joints);
+		
+		batches.clear();
+		TestCase.assertEquals(0, batches.getBatchCount());
+	}
+	
+	/**
+	 * Tests rebuilding the batches with more and fewer constraints than before.
+	 */
+	@Test
+	public void rebuild() {
+		ConstraintBatches<Joint> batches = new ConstraintBatches<Joint>();
+		for (int size : new int[] { 100, 20, 300, 1, 50 }) {
+			List<Body> bodies = new ArrayList<Body>();
+			List<Joint> joints = this.createJoints(bodies, size);
+			batches.build(bodies, joints, 4);
+			this.assertBatches(batches, joints);
+		}
+		
+		// an empty list
+		batches.build(new ArrayList<Body>(), new ArrayList<Joint>(), 4);
+		TestCase.assertEquals(0, batches.getBatchCount());
+	}
+	
+	/**
+	 * Tests that constraints that can't be placed in any batch are placed in a final batch.
+	 */
+	@Test
+	public void buildOverflow() {
+		Body hub = new Body();
+		hub.addFixture(Geometry.createCircle(0.5));
+		hub.setMass(MassType.NORMAL);
+		
+		List<Body> bodies = new ArrayList<Body>();
+		bodies.add(hub);
+		List<Joint> joints = new ArrayList<Joint>();
+		for (int i = 0; i < ConstraintBatches.MAXIMUM_BATCHES + 10; i++) {
+			Body body = new Body();
+			body.addFixture(Geometry.createCircle(0.5));
+			body.setMass(MassType.NORMAL);
+			body.translate(i + 1.0, 0.0);
+			bodies.add(body);
+			joints.add(new DistanceJoint(hub, body, hub.getWorldCenter(), body.getWorldCenter()));
+		}
+		
+		ConstraintBatches<Joint> batches = new ConstraintBatches<Joint>();
+		batches.build(bodies, joints, 4);
+		
+		TestCase.assertEquals(ConstraintBatches.MAXIMUM_BATCHES + 1, batches.getBatchCount());
+		TestCase.assertEquals(10, batches.getBatch(ConstraintBatches.MAXIMUM_BATCHES).size());
+	}
+	
+	/**
+	 * Tests the execute method.
+	 */
+	@Test
+	public void execute() {
+		List<Body> bodies = new ArrayList<Body>();
+		final List<Joint> joints = this.createJoints(bodies, 500);
+		
+		ConstraintBatches<Joint> batches = new ConstraintBatches<Joint>();
+		batches.build(bodies, joints, 4);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final AtomicInteger count = new AtomicInteger();
+			boolean result = batches.execute(executor, new ConstraintBatches.Work<Joint>() {
+				public boolean run(List<Joint> constraints) {
+					count.addAndGet(constraints.size());
+					return true;
+				}
+			});
+			TestCase.assertTrue(result);
+			TestCase.assertEquals(joints.size(), count.get());
+			
+			// any false result should be returned
+			result = batches.execute(executor, new ConstraintBatches.Work<Joint>() {
+				public boolean run(List<Joint> constraints) {
+					return !constraints.contains(joints.get(joints.size() - 1));
+				}
+			});
+			TestCase.assertFalse(result);
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Tests that a chunk is only run after all the chunks of the previous batches completed.
+	 */
+	@Test
+	public void executeOrder() {
+		List<Body> bodies = new ArrayList<Body>();
+		List<Joint> joints = this.createJoints(bodies, 2000);
+		
+		ConstraintBatches<Joint> batches = new ConstraintBatches<Joint>();
+		batches.build(bodies, joints, 4);
+		
+		// the number of constraints before each batch
+		final Map<Joint, Integer> before = new IdentityHashMap<Joint, Integer>();
+		int total = 0;
+		for (int i = 0; i < batches.getBatchCount(); i++) {
+			List<Joint> batch = batches.getBatch(i);
+			for (Joint joint : batch) {
+				before.put(joint, total);
+			}
+			total += batch.size();
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (int i = 0; i < 20; i++) {
+				final AtomicInteger count = new AtomicInteger();
+				boolean result = batches.execute(executor, new ConstraintBatches.Work<Joint>() {
+					public boolean run(List<Joint> constraints) {
+						boolean ordered = count.get() >= before.get(constraints.get(0));
+						// give the other workers time to run ahead if they could
+						try {
+							Thread.sleep(1);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						count.addAndGet(constraints.size());
+						return ordered;
+					}
+				});
+				TestCase.assertTrue(result);
+				TestCase.assertEquals(joints.size(), count.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Tests that an exception thrown by the work is rethrown and doesn't leave the
+	 * other workers waiting.
+	 */
+	@Test(timeout = 10000)
+	public void executeException() {
+		List<Body> bodies = new ArrayList<Body>();
+		final List<Joint> joints = this.createJoints(bodies, 500);
+		
+		ConstraintBatches<Joint> batches = new ConstraintBatches<Joint>();
+		batches.build(bodies, joints, 4);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			try {
+				batches.execute(executor, new ConstraintBatches.Work<Joint>() {
+					public boolean run(List<Joint> constraints) {
+						if (constraints.contains(joints.get(0))) {
+							throw new IllegalStateException();
+						}
+						return true;
+					}
+				});
+				TestCase.fail();
+			} catch (IllegalStateException e) {
+				// expected
+			}
+			
+			// the batches can still be used
+			final AtomicInteger count = new AtomicInteger();
+			TestCase.assertTrue(batches.execute(executor, new ConstraintBatches.Work<Joint>() {
+				public boolean run(List<Joint> constraints) {
+					count.addAndGet(constraints.size());
+					return true;
+				}
+			}));
+			TestCase.assertEquals(joints.size(), count.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Tests that executing from the only thread of the executor completes.
+	 * @throws Exception if the execution fails
+	 */
+	@Test(timeout = 10000)
+	public void executeNested() throws Exception {
+		List<Body> bodies = new ArrayList<Body>();
+		List<Joint> joints = this.createJoints(bodies, 500);
+		
+		final ConstraintBatches<Joint> batches = new ConstraintBatches<Joint>();
+		batches.build(bodies, joints, 4);
+		
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final AtomicInteger count = new AtomicInteger();
+			Future<Boolean> future = executor.submit(new Callable<Boolean>() {
+				public Boolean call() {
+					return batches.execute(executor, new ConstraintBatches.Work<Joint>() {
+						public boolean run(List<Joint> constraints) {
+							count.addAndGet(constraints.size());
+							return true;
+						}
+					});
+				}
+			});
+			TestCase.assertTrue(future.get());
+			TestCase.assertEquals(joints.size(), count.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
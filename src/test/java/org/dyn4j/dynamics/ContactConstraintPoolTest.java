@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.collision.manifold.ManifoldPoint;
+import org.dyn4j.collision.manifold.ManifoldPointId;
+import org.dyn4j.dynamics.contact.Contact;
+import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.dynamics.contact.ContactConstraintPool;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+/**
+ * Tests the methods of the {@link ContactConstraintPool} class.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class ContactConstraintPoolTest {
+	/**
+	 * Creates a manifold with the given number of points.
+	 * @param count the number of points
+	 * @param x the x coordinate of the first point
+	 * @return {@link Manifold}
+	 */
+	private Manifold createManifold(int count, double x) {
+		Manifold manifold = new Manifold();
+		for (int i = 0; i < count; i++) {
+			manifold.getPoints().add(new ManifoldPoint(ManifoldPointId.DISTANCE, new Vector2(x + i, 0.0), 0.1));
+		}
+		manifold.setNormal(new Vector2(0.0, 1.0));
+		return manifold;
+	}
+	
+	/**
+	 * Tests that released constraints are only reused after recycling.
+	 */
+	@Test
+	public void recycle() {
+		ContactConstraintPool pool = new ContactConstraintPool();
+		
+		Body b1 = new Body();
+		BodyFixture f1 = b1.addFixture(Geometry.createCircle(1.0));
+		b1.setMass(MassType.NORMAL);
+		Body b2 = new Body();
+		BodyFixture f2 = b2.addFixture(Geometry.createCircle(1.0));
+		b2.setMass(MassType.NORMAL);
+		
+		ContactConstraint cc1 = pool.acquire(b1, f1, b2, f2, this.createManifold(2, 0.0), 0.2, 0.0);
+		TestCase.assertEquals(2, cc1.getContacts().size());
+		
+		pool.release(cc1);
+		TestCase.assertEquals(0, pool.getAvailableCount());
+		
+		// not recycled yet
+		ContactConstraint cc2 = pool.acquire(b1, f1, b2, f2, this.createManifold(2, 0.0), 0.2, 0.0);
+		TestCase.assertNotSame(cc1, cc2);
+		
+		pool.recycle();
+		TestCase.assertEquals(1, pool.getAvailableCount());
+		
+		// reuse with the bodies swapped and fewer points
+		ContactConstraint cc3 = pool.acquire(b2, f2, b1, f1, this.createManifold(1, 5.0), 0.5, 0.3);
+		TestCase.assertSame(cc1, cc3);
+		TestCase.assertEquals(0, pool.getAvailableCount());
+		TestCase.assertSame(b2, cc3.getBody1());
+		TestCase.assertSame(f1, cc3.getFixture2());
+		TestCase.assertEquals(1, cc3.getContacts().size());
+		TestCase.assertEquals(0.5, cc3.getFriction());
+		TestCase.assertEquals(0.3, cc3.getRestitution());
+		TestCase.assertTrue(cc3.isEnabled());
+		TestCase.assertEquals(cc2.getId(), cc3.getId());
+		
+		Contact contact = cc3.getContacts().get(0);
+		TestCase.assertEquals(5.0, contact.getPoint().x);
+		TestCase.assertEquals(0.0, contact.getNormalImpulse());
+		
+		pool.release(cc3);
+		pool.clear();
+		pool.recycle();
+		TestCase.assertEquals(0, pool.getAvailableCount());
+	}
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.dyn4j.collision.CategoryFilter;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the methods of the {@link QuerySnapshot} class.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class QuerySnapshotTest {
+	/**
+	 * Creates a world with a floor and a number of randomly placed bodies.
+	 * @param random the random number generator
+	 * @return {@link World}
+	 */
+	private World createWorld(Random random) {
+		World world = new World();
+		
+		Body floor = new Body();
+		floor.addFixture(Geometry.createRectangle(50.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		world.addBody(floor);
+		
+		for (int i = 0; i < 150; i++) {
+			Body body = new Body();
+			BodyFixture fixture = body.addFixture(i % 3 == 0 ? Geometry.createCircle(0.4) : Geometry.createRectangle(0.6, 0.8));
+			fixture.setSensor(i % 10 == 0);
+			body.translate(random.nextDouble() * 40.0 - 20.0, random.nextDouble() * 20.0 + 1.0);
+			body.rotateAboutCenter(random.nextDouble());
+			body.setMass(MassType.NORMAL);
+			body.setActive(i % 17 != 0);
+			world.addBody(body);
+		}
+		
+		return world;
+	}
+	
+	/**
+	 * Returns the fixtures of the given results.
+	 * @param results the results
+	 * @return Set&lt;BodyFixture&gt;
+	 */
+	private Set<BodyFixture> detected(List<DetectResult> results) {
+		Set<BodyFixture> fixtures = new HashSet<BodyFixture>();
+		for (DetectResult result : results) {
+			fixtures.add(result.getFixture());
+		}
+		return fixtures;
+	}
+	
+	/**
+	 * Tests that the queries give the same results as the world's queries.
+	 */
+	@Test
+	public void queries() {
+		Random random = new Random(11);
+		World world = this.createWorld(random);
+		QuerySnapshot snapshot = world.publishQuerySnapshot();
+		
+		TestCase.assertSame(snapshot, world.getQuerySnapshot());
+		TestCase.assertEquals(world.getBodyCount(), snapshot.getBodyCount());
+		TestCase.assertEquals(world.getBodyCount(), snapshot.getFixtureCount());
+		
+		List<DetectResult> expected = new ArrayList<DetectResult>();
+		List<DetectResult> actual = new ArrayList<DetectResult>();
+		List<RaycastResult> rExpected = new ArrayList<RaycastResult>();
+		List<RaycastResult> rActual = new ArrayList<RaycastResult>();
+		List<ConvexCastResult> cExpected = new ArrayList<ConvexCastResult>();
+		List<ConvexCastResult> cActual = new ArrayList<ConvexCastResult>();
+		Convex convex = Geometry.createSquare(1.5);
+		
+		for (int i = 0; i < 50; i++) {
+			boolean ignoreSensors = i % 2 == 0;
+			boolean ignoreInactive = i % 3 == 0;
+			Vector2 p = new Vector2(random.nextDouble() * 40.0 - 20.0, random.nextDouble() * 20.0);
+			
+			// detect an AABB
+			AABB aabb = new AABB(p, 2.0);
+			expected.clear(); actual.clear();
+			TestCase.assertEquals(
+					world.detect(aabb, null, ignoreSensors, ignoreInactive, expected),
+					snapshot.detect(aabb, null, ignoreSensors, ignoreInactive, actual));
+			TestCase.assertEquals(this.detected(expected), this.detected(actual));
+			
+			// detect a convex
+			Transform tx = new Transform();
+			tx.translate(p);
+			tx.rotate(random.nextDouble());
+			expected.clear(); actual.clear();
+			TestCase.assertEquals(
+					world.detect(convex, tx, null, ignoreSensors, ignoreInactive, true, expected),
+					snapshot.detect(convex, tx, null, ignoreSensors, ignoreInactive, true, actual));
+			TestCase.assertEquals(this.detected(expected), this.detected(actual));
+			
+			// raycast
+			Ray ray = new Ray(p, new Vector2(random.nextDouble() * 2.0 - 1.0, random.nextDouble() * 2.0 - 1.0).getNormalized());
+			double length = i % 4 == 0 ? 0.0 : 10.0;
+			for (int j = 0; j < 2; j++) {
+				boolean all = j == 1;
+				rExpected.clear(); rActual.clear();
+				TestCase.assertEquals(
+						world.raycast(ray, length, null, ignoreSensors, ignoreInactive, all, rExpected),
+						snapshot.raycast(ray, length, null, ignoreSensors, ignoreInactive, all, rActual));
+				TestCase.assertEquals(rExpected.size(), rActual.size());
+				if (!all && rExpected.size() == 1) {
+					TestCase.assertSame(rExpected.get(0).getBody(), rActual.get(0).getBody());
+					TestCase.assertEquals(rExpected.get(0).getRaycast().getDistance(), rActual.get(0).getRaycast().getDistance(), 1.0e-9);
+				}
+			}
+			
+			// convex cast
+			Vector2 dp = new Vector2(random.nextDouble() * 10.0 - 5.0, random.nextDouble() * 10.0 - 5.0);
+			cExpected.clear(); cActual.clear();
+			TestCase.assertEquals(
+					world.convexCast(convex, tx, dp, 0.0, null, ignoreSensors, ignoreInactive, false, cExpected),
+					snapshot.convexCast(convex, tx, dp, 0.0, null, ignoreSensors, ignoreInactive, false, cActual));
+			TestCase.assertEquals(cExpected.size(), cActual.size());
+			if (cExpected.size() == 1) {
+				TestCase.assertEquals(cExpected.get(0).getTimeOfImpact().getTime(), cActual.get(0).getTimeOfImpact().getTime(), 1.0e-9);
+			}
+		}
+	}
+	
+	/**
+	 * Tests that a snapshot isn't affected by the steps that follow and that
+	 * a new snapshot is published at the end of each step.
+	 */
+	@Test
+	public void published() {
+		World world = this.createWorld(new Random(2));
+		TestCase.assertNull(world.getQuerySnapshot());
+		
+		// nothing should be published when disabled
+		world.step(1);
+		TestCase.assertNull(world.getQuerySnapshot());
+		
+		world.getSettings().setQuerySnapshotEnabled(true);
+		world.step(1);
+		QuerySnapshot snapshot = world.getQuerySnapshot();
+		TestCase.assertNotNull(snapshot);
+		
+		Body body = snapshot.getBody(5);
+		Transform tx = snapshot.getTransform(5);
+		List<DetectResult> before = new ArrayList<DetectResult>();
+		AABB aabb = body.createAABB();
+		snapshot.detect(aabb, null, false, false, before);
+		
+		// step the world so the bodies fall and move one out of the way
+		world.step(30);
+		body.translate(100.0, 0.0);
+		QuerySnapshot next = world.getQuerySnapshot();
+		TestCase.assertNotSame(snapshot, next);
+		TestCase.assertTrue(next.getVersion() > snapshot.getVersion());
+		
+		// the old snapshot should still give the same results
+		List<DetectResult> after = new ArrayList<DetectResult>();
+		snapshot.detect(aabb, null, false, false, after);
+		TestCase.assertEquals(this.detected(before), this.detected(after));
+		TestCase.assertTrue(this.detected(after).contains(body.getFixture(0)));
+		TestCase.assertEquals(tx.getTranslationX(), snapshot.getTransform(5).getTranslationX());
+		TestCase.assertEquals(tx.getTranslationY(), snapshot.getTransform(5).getTranslationY());
+		
+		// changing the returned transform should not change the snapshot
+		snapshot.getTransform(5).translate(1.0, 1.0);
+		TestCase.assertEquals(tx.getTranslationX(), snapshot.getTransform(5).getTranslationX());
+	}
+	
+	/**
+	 * Tests that a snapshot isn't affected by changes to the shapes, filters and
+	 * sensor flags of the fixtures.
+	 */
+	@Test
+	public void capturedFixtures() {
+		World world = this.createWorld(new Random(5));
+		world.getSettings().setQuerySnapshotEnabled(true);
+		world.step(1);
+		QuerySnapshot snapshot = world.getQuerySnapshot();
+		
+		Body body = snapshot.getBody(5);
+		BodyFixture fixture = body.getFixture(0);
+		AABB aabb = body.createAABB();
+		Vector2 center = body.getWorldCenter();
+		Convex circle = Geometry.createCircle(0.1);
+		Transform transform = new Transform();
+		transform.translate(center);
+		Ray ray = new Ray(new Vector2(center.x, center.y + 50.0), new Vector2(0.0, -1.0));
+		CategoryFilter filter = new CategoryFilter(1, 1);
+		
+		List<DetectResult> results = new ArrayList<DetectResult>();
+		TestCase.assertTrue(snapshot.detect(aabb, filter, true, false, results));
+		TestCase.assertTrue(this.detected(results).contains(fixture));
+		
+		// change the fixture after the snapshot was taken
+		fixture.setSensor(true);
+		fixture.setFilter(new CategoryFilter(2, 2));
+		fixture.setShape(Geometry.createCircle(0.01));
+		
+		results.clear();
+		TestCase.assertTrue(snapshot.detect(aabb, filter, true, false, results));
+		TestCase.assertTrue(this.detected(results).contains(fixture));
+		
+		results.clear();
+		TestCase.assertTrue(snapshot.detect(circle, transform, filter, true, false, false, results));
+		TestCase.assertTrue(this.detected(results).contains(fixture));
+		
+		List<RaycastResult> raycastResults = new ArrayList<RaycastResult>();
+		TestCase.assertTrue(snapshot.raycast(ray, 0.0, filter, true, false, true, raycastResults));
+		boolean hit = false;
+		for (RaycastResult result : raycastResults) {
+			hit |= result.getFixture() == fixture;
+		}
+		TestCase.assertTrue(hit);
+		
+		// the next snapshot should see the changes
+		world.step(1);
+		results.clear();
+		world.getQuerySnapshot().detect(aabb, filter, true, false, results);
+		TestCase.assertFalse(this.detected(results).contains(fixture));
+	}
+	
+	/**
+	 * Tests querying the published snapshots from other threads while the world steps.
+	 * @throws Exception if the readers fail
+	 */
+	@Test
+	public void concurrentReaders() throws Exception {
+		final World world = this.createWorld(new Random(4));
+		world.getSettings().setQuerySnapshotEnabled(true);
+		world.step(1);
+		
+		final AtomicBoolean done = new AtomicBoolean(false);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			List<Future<Integer>> readers = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < 3; i++) {
+				final Random random = new Random(i);
+				readers.add(executor.submit(new Callable<Integer>() {
+					public Integer call() throws Exception {
+						List<RaycastResult> results = new ArrayList<RaycastResult>();
+						long version = 0;
+						int queries = 0;
+						while (!done.get() || queries == 0) {
+							QuerySnapshot snapshot = world.getQuerySnapshot();
+							// the versions should never go backwards
+							TestCase.assertTrue(snapshot.getVersion() >= version);
+							version = snapshot.getVersion();
+							
+							Ray ray = new Ray(new Vector2(random.nextDouble() * 40.0 - 20.0, 25.0), new Vector2(0.0, -1.0));
+							results.clear();
+							snapshot.raycast(ray, 0.0, null, false, false, false, results);
+							// the floor is always below
+							TestCase.assertEquals(1, results.size());
+							queries++;
+						}
+						return queries;
+					}
+				}));
+			}
+			
+			for (int i = 0; i < 60; i++) {
+				world.step(1);
+			}
+			done.set(true);
+			
+			for (Future<Integer> reader : readers) {
+				TestCase.assertTrue(reader.get() > 0);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
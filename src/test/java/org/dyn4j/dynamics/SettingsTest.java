@@ -363,4 +363,146 @@ public class SettingsTest {
 		settings.setContinuousDetectionMode(ContinuousDetectionMode.NONE);
 		TestCase.assertEquals(ContinuousDetectionMode.NONE, settings.getContinuousDetectionMode());
 	}
+	
+	/**
+	 * Tests the set parallel island solving method.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void setParallelIslandSolvingEnabled() {
+		TestCase.assertFalse(settings.isParallelIslandSolvingEnabled());
+		settings.setParallelIslandSolvingEnabled(true);
+		TestCase.assertTrue(settings.isParallelIslandSolvingEnabled());
+		settings.reset();
+		TestCase.assertFalse(settings.isParallelIslandSolvingEnabled());
+	}
+	
+	/**
+	 * Tests the set parallel narrow-phase enabled method.
+	 */
+	@Test
+	public void setParallelNarrowphaseEnabled() {
+		TestCase.assertFalse(settings.isParallelNarrowphaseEnabled());
+		settings.setParallelNarrowphaseEnabled(true);
+		TestCase.assertTrue(settings.isParallelNarrowphaseEnabled());
+		settings.reset();
+		TestCase.assertFalse(settings.isParallelNarrowphaseEnabled());
+	}
+	
+	/**
+	 * Tests the set parallel constraint solving enabled method.
+	 */
+	@Test
+	public void setParallelConstraintSolvingEnabled() {
+		TestCase.assertFalse(settings.isParallelConstraintSolvingEnabled());
+		settings.setParallelConstraintSolvingEnabled(true);
+		TestCase.assertTrue(settings.isParallelConstraintSolvingEnabled());
+		settings.reset();
+		TestCase.assertFalse(settings.isParallelConstraintSolvingEnabled());
+	}
+	
+	/**
+	 * Tests the set array solving enabled method.
+	 */
+	@Test
+	public void setArraySolvingEnabled() {
+		TestCase.assertFalse(settings.isArraySolvingEnabled());
+		settings.setArraySolvingEnabled(true);
+		TestCase.assertTrue(settings.isArraySolvingEnabled());
+		settings.reset();
+		TestCase.assertFalse(settings.isArraySolvingEnabled());
+	}
+	
+	/**
+	 * Tests the set contact pooling enabled method.
+	 */
+	@Test
+	public void setContactPoolingEnabled() {
+		TestCase.assertFalse(settings.isContactPoolingEnabled());
+		settings.setContactPoolingEnabled(true);
+		TestCase.assertTrue(settings.isContactPoolingEnabled());
+		settings.reset();
+		TestCase.assertFalse(settings.isContactPoolingEnabled());
+	}
+	
+	/**
+	 * Tests the set step profiling enabled method.
+	 */
+	@Test
+	public void setStepProfilingEnabled() {
+		TestCase.assertFalse(settings.isStepProfilingEnabled());
+		settings.setStepProfilingEnabled(true);
+		TestCase.assertTrue(settings.isStepProfilingEnabled());
+		settings.reset();
+		TestCase.assertFalse(settings.isStepProfilingEnabled());
+	}
+	
+	/**
+	 * Tests the set query snapshot enabled method.
+	 */
+	@Test
+	public void setQuerySnapshotEnabled() {
+		TestCase.assertFalse(settings.isQuerySnapshotEnabled());
+		settings.setQuerySnapshotEnabled(true);
+		TestCase.assertTrue(settings.isQuerySnapshotEnabled());
+		settings.reset();
+		TestCase.assertFalse(settings.isQuerySnapshotEnabled());
+	}
+	
+	/**
+	 * Tests the set narrow-phase caching enabled method.
+	 */
+	@Test
+	public void setNarrowphaseCachingEnabled() {
+		TestCase.assertFalse(settings.isNarrowphaseCachingEnabled());
+		settings.setNarrowphaseCachingEnabled(true);
+		TestCase.assertTrue(settings.isNarrowphaseCachingEnabled());
+		settings.reset();
+		TestCase.assertFalse(settings.isNarrowphaseCachingEnabled());
+	}
+	
+	/**
+	 * Tests the set broad-phase optimization budget method.
+	 */
+	@Test
+	public void setBroadphaseOptimizationBudget() {
+		TestCase.assertEquals(0, settings.getBroadphaseOptimizationBudget());
+		settings.setBroadphaseOptimizationBudget(8);
+		TestCase.assertEquals(8, settings.getBroadphaseOptimizationBudget());
+		settings.setBroadphaseOptimizationBudget(0);
+		TestCase.assertEquals(0, settings.getBroadphaseOptimizationBudget());
+		settings.setBroadphaseOptimizationBudget(8);
+		settings.reset();
+		TestCase.assertEquals(0, settings.getBroadphaseOptimizationBudget());
+	}
+	
+	/**
+	 * Tests the set broad-phase optimization budget method with a negative value.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void setNegativeBroadphaseOptimizationBudget() {
+		settings.setBroadphaseOptimizationBudget(-1);
+	}
+	
+	/**
+	 * Tests the set parallelism method.
+	 */
+	@Test
+	public void setParallelism() {
+		TestCase.assertEquals(Runtime.getRuntime().availableProcessors(), settings.getParallelism());
+		settings.setParallelism(3);
+		TestCase.assertEquals(3, settings.getParallelism());
+		settings.setParallelism(1);
+		TestCase.assertEquals(1, settings.getParallelism());
+		settings.reset();
+		TestCase.assertEquals(Runtime.getRuntime().availableProcessors(), settings.getParallelism());
+	}
+	
+	/**
+	 * Tests the set parallelism method with a value of zero.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void setZeroParallelism() {
+		settings.setParallelism(0);
+	}
 }
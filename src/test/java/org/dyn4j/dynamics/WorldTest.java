@@ -25,26 +25,45 @@
 package org.dyn4j.dynamics;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.dyn4j.Listener;
 import org.dyn4j.collision.AxisAlignedBounds;
 import org.dyn4j.collision.BoundsAdapter;
 import org.dyn4j.collision.BoundsListener;
 import org.dyn4j.collision.CategoryFilter;
+import org.dyn4j.collision.Filter;
 import org.dyn4j.collision.broadphase.BroadphaseDetector;
+import org.dyn4j.collision.broadphase.CompactDynamicAABBTree;
+import org.dyn4j.collision.broadphase.DynamicAABBTree;
 import org.dyn4j.collision.broadphase.Sap;
+import org.dyn4j.collision.broadphase.StaticDynamicBroadphase;
 import org.dyn4j.collision.continuous.ConservativeAdvancement;
+import org.dyn4j.collision.continuous.TimeOfImpact;
 import org.dyn4j.collision.continuous.TimeOfImpactDetector;
 import org.dyn4j.collision.manifold.ClippingManifoldSolver;
 import org.dyn4j.collision.manifold.ManifoldSolver;
+import org.dyn4j.collision.narrowphase.DispatchingNarrowphaseDetector;
 import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.NarrowphaseCache;
 import org.dyn4j.collision.narrowphase.NarrowphaseDetector;
+import org.dyn4j.collision.narrowphase.Penetration;
 import org.dyn4j.dynamics.contact.ContactAdapter;
 import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.dynamics.contact.ContactListener;
 import org.dyn4j.dynamics.contact.ContactPoint;
+import org.dyn4j.dynamics.contact.PersistedContactPoint;
 import org.dyn4j.dynamics.contact.SequentialImpulses;
+import org.dyn4j.dynamics.contact.SolvedContactPoint;
 import org.dyn4j.dynamics.joint.AngleJoint;
 import org.dyn4j.dynamics.joint.DistanceJoint;
 import org.dyn4j.dynamics.joint.Joint;
@@ -52,7 +71,11 @@ import org.dyn4j.geometry.Circle;
 import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 import junit.framework.TestCase;
@@ -64,6 +87,25 @@ import junit.framework.TestCase;
  * @since 1.0.2
  */
 public class WorldTest {
+	/** The executor used by the parallel tests */
+	private ExecutorService executor;
+	
+	/**
+	 * Sets up the executor.
+	 */
+	@Before
+	public void setup() {
+		this.executor = Executors.newFixedThreadPool(4);
+	}
+	
+	/**
+	 * Shuts down the executor.
+	 */
+	@After
+	public void teardown() {
+		this.executor.shutdown();
+	}
+	
 	/**
 	 * Step listener for testing.
 	 * @author William Bittle
@@ -266,6 +308,90 @@ public class WorldTest {
 		w.addBody(b1);
 	}
 	
+	/**
+	 * Tests the add bodies method.
+	 */
+	@Test
+	public void addBodies() {
+		World w = new World();
+		Body b = new Body();
+		b.addFixture(Geometry.createCircle(0.5));
+		w.addBody(b);
+		
+		List<Body> bodies = new ArrayList<Body>();
+		for (int i = 0; i < 100; i++) {
+			Body body = new Body();
+			body.addFixture(Geometry.createSquare(1.0));
+			body.addFixture(Geometry.createCircle(0.25));
+			body.translate(i * 0.5, 0.0);
+			body.setMass(MassType.NORMAL);
+			bodies.add(body);
+		}
+		w.addBodies(bodies);
+		
+		TestCase.assertEquals(101, w.getBodyCount());
+		TestCase.assertEquals(201, w.broadphaseDetector.size());
+		for (int i = 0; i < bodies.size(); i++) {
+			Body body = bodies.get(i);
+			TestCase.assertSame(w, body.world);
+			TestCase.assertSame(body, w.getBody(i + 1));
+			TestCase.assertTrue(w.broadphaseDetector.contains(body));
+		}
+		
+		// the overlapping bodies should be found
+		w.step(1);
+		TestCase.assertTrue(w.getContactManager().getContactCount() > 0);
+		
+		// adding none should do nothing
+		w.addBodies(new ArrayList<Body>());
+		TestCase.assertEquals(101, w.getBodyCount());
+	}
+	
+	/**
+	 * Tests the add bodies method with bodies that can't be added.
+	 */
+	@Test
+	public void addBodiesInvalid() {
+		World w = new World();
+		Body b1 = new Body();
+		Body b2 = new Body();
+		Body b3 = new Body();
+		w.addBody(b3);
+		
+		List<Body> bodies = new ArrayList<Body>();
+		bodies.add(b1);
+		bodies.add(b2);
+		bodies.add(b1);
+		try {
+			w.addBodies(bodies);
+			TestCase.fail();
+		} catch (IllegalArgumentException e) {
+			// none of them should have been added
+			TestCase.assertEquals(1, w.getBodyCount());
+			TestCase.assertNull(b1.world);
+			TestCase.assertNull(b2.world);
+		}
+		
+		bodies.set(2, null);
+		try {
+			w.addBodies(bodies);
+			TestCase.fail();
+		} catch (NullPointerException e) {
+			TestCase.assertEquals(1, w.getBodyCount());
+			TestCase.assertNull(b1.world);
+		}
+		
+		bodies.set(2, b3);
+		try {
+			w.addBodies(bodies);
+			TestCase.fail();
+		} catch (IllegalArgumentException e) {
+			TestCase.assertEquals(1, w.getBodyCount());
+			TestCase.assertSame(w, b3.world);
+			TestCase.assertNull(b2.world);
+		}
+	}
+	
 	/**
 	 * Tests the add body method.
 	 */
@@ -1075,4 +1201,1331 @@ public class WorldTest {
 		
 		world.step(1);
 	}
+	
+	/**
+	 * Asserts that the given bodies are in exactly the same state.
+	 * @param expected the expected bodies
+	 * @param actual the actual bodies
+	 */
+	private void assertSameState(List<Body> expected, List<Body> actual) {
+		TestCase.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Body b1 = expected.get(i);
+			Body b2 = actual.get(i);
+			TestCase.assertEquals(b1.getTransform().getTranslationX(), b2.getTransform().getTranslationX());
+			TestCase.assertEquals(b1.getTransform().getTranslationY(), b2.getTransform().getTranslationY());
+			TestCase.assertEquals(b1.getTransform().getRotation(), b2.getTransform().getRotation());
+			TestCase.assertEquals(b1.getLinearVelocity(), b2.getLinearVelocity());
+			TestCase.assertEquals(b1.getAngularVelocity(), b2.getAngularVelocity());
+			TestCase.assertEquals(b1.isAsleep(), b2.isAsleep());
+			TestCase.assertEquals(b1.getContacts(false).size(), b2.getContacts(false).size());
+		}
+	}
+	
+	/**
+	 * Records the threads that enter it.
+	 * <p>
+	 * The first threads to enter wait a short time for another thread so that
+	 * the work can't all be claimed by one thread before the others start.
+	 * @author William Bittle
+	 * @version 3.3.0
+	 * @since 3.3.0
+	 */
+	private static final class ThreadProbe {
+		/** The threads that have entered */
+		private final Set<Thread> threads = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<Thread, Boolean>()));
+		
+		/** Released when two threads have entered */
+		private final CountDownLatch latch = new CountDownLatch(2);
+		
+		/** True if waiting timed out */
+		private volatile boolean timedOut = false;
+		
+		/**
+		 * Records the current thread.
+		 */
+		public void enter() {
+			if (this.threads.add(Thread.currentThread())) {
+				this.latch.countDown();
+			}
+			if (!this.timedOut && this.latch.getCount() > 0) {
+				try {
+					this.timedOut = !this.latch.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		
+		/**
+		 * Returns the number of distinct threads that have entered.
+		 * @return int
+		 */
+		public int getThreadCount() {
+			return this.threads.size();
+		}
+	}
+	
+	/**
+	 * A {@link SequentialImpulses} solver that records the distinct {@link ContactConstraint}s
+	 * it initializes and, optionally, the threads it's called on.
+	 * @author William Bittle
+	 * @version 3.3.0
+	 * @since 3.3.0
+	 */
+	private static final class ProbedSequentialImpulses extends SequentialImpulses {
+		/** The threads; null if not recorded */
+		private final ThreadProbe probe;
+		
+		/** The distinct contact constraints */
+		private final Set<ContactConstraint> constraints = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<ContactConstraint, Boolean>()));
+		
+		/**
+		 * Full constructor.
+		 * @param probe the thread probe; can be null
+		 */
+		public ProbedSequentialImpulses(ThreadProbe probe) {
+			this.probe = probe;
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.dynamics.contact.SequentialImpulses#initialize(java.util.List, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+		 */
+		@Override
+		public void initialize(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+			if (this.probe != null) this.probe.enter();
+			this.constraints.addAll(contactConstraints);
+			super.initialize(contactConstraints, step, settings);
+		}
+	}
+	
+	/**
+	 * A {@link Gjk} detector that records how often the {@link NarrowphaseCache}s
+	 * are empty and, optionally, the threads it's called on.
+	 * @author William Bittle
+	 * @version 3.3.0
+	 * @since 3.3.0
+	 */
+	private static final class ProbedGjk extends Gjk {
+		/** The threads; null if not recorded */
+		private final ThreadProbe probe;
+		
+		/** The number of detections with a cached axis */
+		private int hits;
+		
+		/** The number of detections without a cached axis */
+		private int misses;
+		
+		/**
+		 * Full constructor.
+		 * @param probe the thread probe; can be null
+		 */
+		public ProbedGjk(ThreadProbe probe) {
+			this.probe = probe;
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.collision.narrowphase.Gjk#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.narrowphase.Penetration, org.dyn4j.collision.narrowphase.NarrowphaseCache)
+		 */
+		@Override
+		public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, NarrowphaseCache cache) {
+			if (this.probe != null) this.probe.enter();
+			if (cache != null) {
+				synchronized (this) {
+					if (cache.isEmpty()) this.misses++;
+					else this.hits++;
+				}
+			}
+			return super.detect(convex1, transform1, convex2, transform2, penetration, cache);
+		}
+	}
+	
+	/**
+	 * Creates a number of independent piles of bodies resting on a shared static floor.
+	 * @param world the world to add the bodies to
+	 * @return List&lt;Body&gt; the bodies in the order they were added
+	 */
+	private List<Body> createPiles(World world) {
+		List<Body> bodies = new ArrayList<Body>();
+		
+		Body floor = new Body();
+		floor.addFixture(Geometry.createRectangle(60.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		world.addBody(floor);
+		bodies.add(floor);
+		
+		for (int i = 0; i < 10; i++) {
+			double x = -25.0 + i * 5.0;
+			Body previous = null;
+			for (int j = 0; j < 4; j++) {
+				Body body = new Body();
+				body.addFixture(j % 2 == 0 ? Geometry.createSquare(1.0) : Geometry.createCircle(0.5));
+				body.translate(x + j * 0.1, 1.0 + j * 1.1);
+				body.setMass(MassType.NORMAL);
+				world.addBody(body);
+				bodies.add(body);
+				// join the last two bodies of every other pile
+				if (i % 2 == 0 && j == 3) {
+					world.addJoint(new DistanceJoint(previous, body, previous.getWorldCenter(), body.getWorldCenter()));
+				}
+				previous = body;
+			}
+		}
+		
+		return bodies;
+	}
+	
+	/**
+	 * Tests that solving the islands in parallel gives the same results
+	 * as solving them serially and that the islands are solved on more
+	 * than one thread.
+	 */
+	@Test
+	public void parallelIslandSolving() {
+		World serial = new World();
+		List<Body> sb = this.createPiles(serial);
+		
+		World parallel = new World();
+		parallel.getSettings().setParallelIslandSolvingEnabled(true);
+		parallel.getSettings().setParallelism(4);
+		ProbedSequentialImpulses solver = new ProbedSequentialImpulses(new ThreadProbe());
+		parallel.setContactConstraintSolver(solver);
+		List<Body> pb = this.createPiles(parallel);
+		
+		parallel.setExecutor(this.executor);
+		TestCase.assertSame(this.executor, parallel.getExecutor());
+		
+		for (int i = 0; i < 120; i++) {
+			serial.step(1);
+			parallel.step(1);
+		}
+		
+		TestCase.assertTrue(solver.probe.getThreadCount() > 1);
+		this.assertSameState(sb, pb);
+	}
+	
+	/**
+	 * Tests that performing the narrow-phase in parallel gives the same 
+	 * results as performing it serially and that the pairs are tested
+	 * on more than one thread.
+	 */
+	@Test
+	public void parallelNarrowphase() {
+		World serial = new World();
+		List<Body> sb = this.createPiles(serial);
+		
+		World parallel = new World();
+		parallel.getSettings().setParallelNarrowphaseEnabled(true);
+		parallel.getSettings().setParallelism(4);
+		ProbedGjk gjk = new ProbedGjk(new ThreadProbe());
+		parallel.setNarrowphaseDetector(gjk);
+		List<Body> pb = this.createPiles(parallel);
+		
+		parallel.setExecutor(this.executor);
+		for (int i = 0; i < 120; i++) {
+			serial.step(1);
+			parallel.step(1);
+			TestCase.assertEquals(serial.getContactManager().getContactCount(), parallel.getContactManager().getContactCount());
+		}
+		
+		TestCase.assertTrue(gjk.probe.getThreadCount() > 1);
+		this.assertSameState(sb, pb);
+	}
+	
+	/**
+	 * Tests that reusing the contact objects gives the same results
+	 * as creating new ones, both serially and in parallel, and that
+	 * far fewer contact objects are created.
+	 */
+	@Test
+	public void contactPooling() {
+		World world = new World();
+		ProbedSequentialImpulses solver = new ProbedSequentialImpulses(null);
+		world.setContactConstraintSolver(solver);
+		List<Body> bodies = this.createPiles(world);
+		
+		World pooled = new World();
+		pooled.getSettings().setContactPoolingEnabled(true);
+		ProbedSequentialImpulses pooledSolver = new ProbedSequentialImpulses(null);
+		pooled.setContactConstraintSolver(pooledSolver);
+		List<Body> pb = this.createPiles(pooled);
+		
+		World parallel = new World();
+		parallel.getSettings().setContactPoolingEnabled(true);
+		parallel.getSettings().setParallelNarrowphaseEnabled(true);
+		parallel.getSettings().setParallelism(4);
+		List<Body> rb = this.createPiles(parallel);
+		
+		parallel.setExecutor(this.executor);
+		int max = 0;
+		for (int i = 0; i < 120; i++) {
+			world.step(1);
+			pooled.step(1);
+			parallel.step(1);
+			int count = world.getContactManager().getContactCount();
+			TestCase.assertEquals(count, pooled.getContactManager().getContactCount());
+			TestCase.assertEquals(count, parallel.getContactManager().getContactCount());
+			max = Math.max(max, count);
+		}
+		
+		this.assertSameState(bodies, pb);
+		this.assertSameState(bodies, rb);
+		
+		// the pool only needs the contacts of the current and last step
+		int created = solver.constraints.size();
+		int reused = pooledSolver.constraints.size();
+		TestCase.assertTrue(reused <= 2 * max);
+		TestCase.assertTrue(created > 10 * reused);
+	}
+	
+	/**
+	 * Tests that the time of impact is found for a fast body against a static body.
+	 */
+	@Test
+	public void solveTOIStatic() {
+		World world = new World();
+		world.setGravity(World.ZERO_GRAVITY);
+		world.getSettings().setContinuousDetectionMode(ContinuousDetectionMode.ALL);
+		
+		Body wall = new Body();
+		wall.addFixture(Geometry.createRectangle(0.1, 10.0));
+		wall.translate(1.5, 0.0);
+		wall.setMass(MassType.INFINITE);
+		world.addBody(wall);
+		
+		// add some bodies that are not in the path
+		for (int i = 0; i < 5; i++) {
+			Body body = new Body();
+			body.addFixture(Geometry.createUnitCirclePolygon(5, 0.5));
+			body.translate(-5.0, 20.0 + i * 2.0);
+			body.setMass(MassType.INFINITE);
+			world.addBody(body);
+		}
+		
+		Body bullet = new Body();
+		bullet.addFixture(Geometry.createCircle(0.1));
+		bullet.setMass(MassType.NORMAL);
+		bullet.setLinearVelocity(600.0, 0.0);
+		world.addBody(bullet);
+		
+		final List<Body> hits = new ArrayList<Body>();
+		world.addListener(new TimeOfImpactAdapter() {
+			@Override
+			public boolean collision(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, TimeOfImpact toi) {
+				hits.add(body2);
+				return true;
+			}
+		});
+		
+		world.step(1);
+		
+		// the bullet should have stopped at the wall
+		TestCase.assertEquals(1, hits.size());
+		TestCase.assertSame(wall, hits.get(0));
+		TestCase.assertTrue(bullet.getWorldCenter().x < 1.5);
+	}
+	
+	/**
+	 * Tests that the time of impact is found for a body and a fast kinematic
+	 * body whose broad-phase AABB at the beginning of the step is far away.
+	 */
+	@Test
+	public void solveTOIKinematic() {
+		World world = new World();
+		world.setGravity(World.ZERO_GRAVITY);
+		world.getSettings().setContinuousDetectionMode(ContinuousDetectionMode.ALL);
+		
+		Body wall = new Body();
+		wall.addFixture(Geometry.createRectangle(0.1, 1.0));
+		wall.translate(-1.5, 0.0);
+		wall.setMass(MassType.INFINITE);
+		wall.setLinearVelocity(600.0, 0.0);
+		world.addBody(wall);
+		
+		Body body = new Body();
+		body.addFixture(Geometry.createCircle(0.1));
+		body.setMass(MassType.NORMAL);
+		body.setLinearVelocity(0.1, 0.0);
+		world.addBody(body);
+		
+		final List<Body> hits = new ArrayList<Body>();
+		world.addListener(new TimeOfImpactAdapter() {
+			@Override
+			public boolean collision(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, TimeOfImpact toi) {
+				hits.add(body2);
+				return true;
+			}
+		});
+		
+		world.step(1);
+		
+		TestCase.assertEquals(1, hits.size());
+		TestCase.assertSame(wall, hits.get(0));
+	}
+	
+	/**
+	 * Tests that the time of impact is found for a fast body and a static
+	 * body that was moved into its path after the last step (and whose
+	 * broad-phase AABB is still at the old position).
+	 */
+	@Test
+	public void solveTOITeleported() {
+		World world = new World();
+		world.setGravity(World.ZERO_GRAVITY);
+		world.getSettings().setContinuousDetectionMode(ContinuousDetectionMode.ALL);
+		
+		Body wall = new Body();
+		wall.addFixture(Geometry.createRectangle(0.1, 10.0));
+		wall.translate(1.5, 50.0);
+		wall.setMass(MassType.INFINITE);
+		world.addBody(wall);
+		
+		Body bullet = new Body();
+		bullet.addFixture(Geometry.createCircle(0.1));
+		bullet.setMass(MassType.NORMAL);
+		world.addBody(bullet);
+		
+		final List<Body> hits = new ArrayList<Body>();
+		world.addListener(new TimeOfImpactAdapter() {
+			@Override
+			public boolean collision(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, TimeOfImpact toi) {
+				hits.add(body2);
+				return true;
+			}
+		});
+		
+		world.step(1);
+		TestCase.assertTrue(hits.isEmpty());
+		
+		// move the wall across the path of the bullet
+		wall.getTransform().setTranslation(1.5, 0.0);
+		bullet.setLinearVelocity(600.0, 0.0);
+		world.step(1);
+		
+		// the bullet should have stopped at the wall
+		TestCase.assertEquals(1, hits.size());
+		TestCase.assertSame(wall, hits.get(0));
+		TestCase.assertTrue(bullet.getWorldCenter().x < 1.5);
+	}
+	
+	/**
+	 * Tests that a world using the {@link CompactDynamicAABBTree} produces the
+	 * same results as one using the {@link DynamicAABBTree}, including when the
+	 * freed nodes are reused.
+	 */
+	@Test
+	public void compactDynamicAABBTree() {
+		World world = new World();
+		List<Body> bodies = this.createPiles(world);
+		
+		World compact = new World();
+		CompactDynamicAABBTree<Body, BodyFixture> tree = new CompactDynamicAABBTree<Body, BodyFixture>();
+		compact.setBroadphaseDetector(tree);
+		List<Body> cb = this.createPiles(compact);
+		
+		for (int i = 0; i < 120; i++) {
+			if (i == 60) {
+				// remove a pile and drop new bodies in its place to reuse the freed nodes
+				for (int j = 0; j < 4; j++) {
+					world.removeBody(bodies.remove(1));
+					compact.removeBody(cb.remove(1));
+				}
+				for (int j = 0; j < 4; j++) {
+					Body b1 = new Body();
+					b1.addFixture(Geometry.createSquare(1.0));
+					b1.translate(-25.0, 1.0 + j * 1.1);
+					b1.setMass(MassType.NORMAL);
+					world.addBody(b1);
+					bodies.add(b1);
+					
+					Body b2 = new Body();
+					b2.addFixture(Geometry.createSquare(1.0));
+					b2.translate(-25.0, 1.0 + j * 1.1);
+					b2.setMass(MassType.NORMAL);
+					compact.addBody(b2);
+					cb.add(b2);
+				}
+			}
+			world.step(1);
+			compact.step(1);
+			TestCase.assertEquals(world.getContactManager().getContactCount(), compact.getContactManager().getContactCount());
+		}
+		
+		TestCase.assertEquals(bodies.size(), tree.size());
+		this.assertSameState(bodies, cb);
+	}
+	
+	/**
+	 * Tests the step profile with serial and parallel stepping and that profiling
+	 * doesn't change the simulation.
+	 */
+	@Test
+	public void stepProfile() {
+		World world = new World();
+		List<Body> bodies = this.createPiles(world);
+		
+		World profiled = new World();
+		List<Body> pb = this.createPiles(profiled);
+		
+		// disabled by default
+		profiled.step(1);
+		world.step(1);
+		TestCase.assertNull(profiled.getStepProfile());
+		
+		profiled.getSettings().setStepProfilingEnabled(true);
+		final StepProfile[] ended = new StepProfile[1];
+		profiled.addListener(new StepAdapter() {
+			@Override
+			public void end(Step step, World world) {
+				ended[0] = world.getStepProfile();
+			}
+		});
+		
+		StepProfile last = null;
+		for (int i = 0; i < 60; i++) {
+			world.step(1);
+			profiled.step(1);
+			
+			StepProfile profile = profiled.getStepProfile();
+			TestCase.assertNotNull(profile);
+			TestCase.assertSame(profile, ended[0]);
+			TestCase.assertNotSame(last, profile);
+			TestCase.assertEquals(profiled.getContactManager().getContactCount(), profile.getContactCount());
+			TestCase.assertTrue(profile.getPairCount() >= profile.getContactCount());
+			TestCase.assertTrue(profile.getTotalTime() > 0);
+			TestCase.assertTrue(profile.getTotalTime() >= profile.getBroadphaseDetectTime() + profile.getNarrowphaseTime() + profile.getVelocitySolveTime());
+			last = profile;
+		}
+		
+		TestCase.assertTrue(last.getIslandCount() > 0);
+		TestCase.assertTrue(last.getAwakeBodyCount() > 0);
+		TestCase.assertTrue(last.getDetectIterations() > 0);
+		TestCase.assertTrue(last.getPenetrationIterations() > 0);
+		TestCase.assertTrue(last.getVelocitySolveTime() > 0);
+		
+		// profiling shouldn't change the result
+		this.assertSameState(bodies, pb);
+		
+		// the counts should be the same in parallel
+		World parallel = new World();
+		parallel.getSettings().setStepProfilingEnabled(true);
+		parallel.getSettings().setParallelIslandSolvingEnabled(true);
+		parallel.getSettings().setParallelNarrowphaseEnabled(true);
+		parallel.getSettings().setParallelism(4);
+		this.createPiles(parallel);
+		
+		World serial = new World();
+		serial.getSettings().setStepProfilingEnabled(true);
+		this.createPiles(serial);
+		
+		parallel.setExecutor(this.executor);
+		for (int i = 0; i < 60; i++) {
+			serial.step(1);
+			parallel.step(1);
+			StepProfile sp = serial.getStepProfile();
+			StepProfile pp = parallel.getStepProfile();
+			TestCase.assertEquals(sp.getPairCount(), pp.getPairCount());
+			TestCase.assertEquals(sp.getContactCount(), pp.getContactCount());
+			TestCase.assertEquals(sp.getIslandCount(), pp.getIslandCount());
+			TestCase.assertEquals(sp.getAwakeBodyCount(), pp.getAwakeBodyCount());
+			TestCase.assertEquals(sp.getDetectIterations(), pp.getDetectIterations());
+			TestCase.assertEquals(sp.getPenetrationIterations(), pp.getPenetrationIterations());
+			TestCase.assertEquals(0, pp.getManifoldTime());
+		}
+		
+		// disabling clears the profile
+		profiled.getSettings().setStepProfilingEnabled(false);
+		profiled.step(1);
+		TestCase.assertNull(profiled.getStepProfile());
+	}
+	
+	/**
+	 * Tests that the cached listeners are updated when listeners are added and removed,
+	 * including during a step.
+	 */
+	@Test
+	public void listenerCache() {
+		final World w = new World();
+		List<Body> bodies = this.createPiles(w);
+		
+		final int[] counts = new int[2];
+		final ContactAdapter contactListener = new ContactAdapter() {
+			@Override
+			public boolean persist(PersistedContactPoint point) {
+				counts[0]++;
+				return super.persist(point);
+			}
+			@Override
+			public void postSolve(SolvedContactPoint point) {
+				counts[1]++;
+			}
+		};
+		
+		// settle the piles without any contact listeners
+		for (int i = 0; i < 30; i++) {
+			w.step(1);
+		}
+		TestCase.assertEquals(0, counts[0]);
+		
+		// add the contact listener in the middle of a step
+		StepAdapter stepListener = new StepAdapter() {
+			@Override
+			public void begin(Step step, World world) {
+				world.addListener(contactListener);
+			}
+		};
+		w.addListener(stepListener);
+		w.step(1);
+		// the contacts are detected at the end of the step using the new listener
+		TestCase.assertTrue(counts[0] > 0);
+		TestCase.assertTrue(w.removeListener(stepListener));
+		
+		// the next step solves the contacts
+		w.step(1);
+		TestCase.assertTrue(counts[1] > 0);
+		
+		// the returned list is a copy
+		List<ContactListener> contactListeners = w.getListeners(ContactListener.class);
+		TestCase.assertEquals(1, contactListeners.size());
+		contactListeners.clear();
+		TestCase.assertEquals(1, w.getListenerCount(ContactListener.class));
+		
+		// removing the listener should stop the notifications
+		TestCase.assertEquals(1, w.removeAllListeners(ContactListener.class));
+		counts[0] = 0;
+		counts[1] = 0;
+		w.step(1);
+		TestCase.assertEquals(0, counts[0]);
+		TestCase.assertEquals(0, counts[1]);
+		
+		// the contacts should still be tracked without listeners
+		TestCase.assertTrue(w.getContactManager().getContactCount() > 0);
+		TestCase.assertFalse(bodies.get(0).getContacts(false).isEmpty());
+	}
+	
+	/**
+	 * Tests the ids assigned to bodies and fixtures by the world.
+	 */
+	@Test
+	public void worldIds() {
+		World w = new World();
+		
+		Body b1 = new Body();
+		BodyFixture f1 = b1.addFixture(Geometry.createCircle(1.0));
+		Body b2 = new Body();
+		BodyFixture f2 = b2.addFixture(Geometry.createCircle(1.0));
+		BodyFixture f3 = b2.addFixture(Geometry.createSquare(1.0));
+		
+		TestCase.assertEquals(-1, b1.getWorldId());
+		TestCase.assertEquals(-1, f1.getWorldId());
+		
+		w.addBody(b1);
+		w.addBody(b2);
+		
+		TestCase.assertTrue(b1.getWorldId() >= 0);
+		TestCase.assertTrue(b2.getWorldId() >= 0);
+		TestCase.assertFalse(b1.getWorldId() == b2.getWorldId());
+		TestCase.assertTrue(f1.getWorldId() >= 0);
+		TestCase.assertTrue(f2.getWorldId() >= 0);
+		TestCase.assertTrue(f3.getWorldId() >= 0);
+		TestCase.assertFalse(f1.getWorldId() == f2.getWorldId());
+		TestCase.assertFalse(f2.getWorldId() == f3.getWorldId());
+		
+		// fixtures added after the body are assigned ids too
+		BodyFixture f4 = b1.addFixture(Geometry.createCircle(0.5));
+		TestCase.assertTrue(f4.getWorldId() >= 0);
+		TestCase.assertFalse(f4.getWorldId() == f1.getWorldId());
+		
+		// removing a fixture clears its id
+		b1.removeFixture(f4);
+		TestCase.assertEquals(-1, f4.getWorldId());
+		
+		// removing a body clears the ids
+		w.removeBody(b2);
+		TestCase.assertEquals(-1, b2.getWorldId());
+		TestCase.assertEquals(-1, f2.getWorldId());
+		TestCase.assertEquals(-1, f3.getWorldId());
+		
+		// ids are not reused
+		int id = b1.getWorldId();
+		w.addBody(b2);
+		TestCase.assertTrue(b2.getWorldId() > id);
+		
+		w.removeAllBodies();
+		TestCase.assertEquals(-1, b1.getWorldId());
+		TestCase.assertEquals(-1, f1.getWorldId());
+	}
+	
+	/**
+	 * Tests that sleeping bodies are not simulated and that bodies are
+	 * simulated again when they are woken up.
+	 */
+	@Test
+	public void sleepingBodies() {
+		World w = new World();
+		
+		Body floor = new Body();
+		floor.addFixture(Geometry.createRectangle(20.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		w.addBody(floor);
+		
+		Body box = new Body();
+		box.addFixture(Geometry.createSquare(1.0));
+		box.setMass(MassType.NORMAL);
+		box.translate(-5.0, 1.0);
+		w.addBody(box);
+		
+		// a body added asleep should not fall
+		Body sleeper = new Body();
+		sleeper.addFixture(Geometry.createSquare(1.0));
+		sleeper.setMass(MassType.NORMAL);
+		sleeper.translate(5.0, 5.0);
+		sleeper.setAsleep(true);
+		w.addBody(sleeper);
+		
+		// let the box come to rest and fall asleep
+		for (int i = 0; i < 300 && !box.isAsleep(); i++) {
+			w.step(1);
+		}
+		TestCase.assertTrue(box.isAsleep());
+		TestCase.assertTrue(sleeper.isAsleep());
+		TestCase.assertEquals(5.0, sleeper.getTransform().getTranslationY(), 1e-10);
+		
+		// sleeping bodies should stay put
+		double y = box.getTransform().getTranslationY();
+		w.step(10);
+		TestCase.assertEquals(y, box.getTransform().getTranslationY(), 1e-10);
+		
+		// waking a body should simulate it again
+		sleeper.applyImpulse(new Vector2(0.0, -1.0));
+		TestCase.assertFalse(sleeper.isAsleep());
+		w.step(1);
+		TestCase.assertTrue(sleeper.getTransform().getTranslationY() < 5.0);
+		
+		// a body can be woken up by an awake body hitting it
+		Body ball = new Body();
+		ball.addFixture(Geometry.createCircle(0.25));
+		ball.setMass(MassType.NORMAL);
+		ball.translate(-5.0, 3.0);
+		w.addBody(ball);
+		for (int i = 0; i < 60 && box.isAsleep(); i++) {
+			w.step(1);
+		}
+		TestCase.assertFalse(box.isAsleep());
+		
+		// removing and adding a body back again should simulate it
+		w.removeBody(sleeper);
+		w.addBody(sleeper);
+		sleeper.setLinearVelocity(0.0, 10.0);
+		y = sleeper.getTransform().getTranslationY();
+		w.step(1);
+		TestCase.assertTrue(sleeper.getTransform().getTranslationY() > y);
+	}
+	
+	/**
+	 * Tests that waking a body saves its initial transform for CCD unless
+	 * it already moved this step.
+	 */
+	@Test
+	public void wokenBodyInitialTransform() {
+		World w = new World();
+		w.setGravity(World.ZERO_GRAVITY);
+		
+		// a sleeping body moved by the user starts from its new position
+		Body sleeper = new Body();
+		sleeper.addFixture(Geometry.createSquare(1.0));
+		sleeper.setMass(MassType.NORMAL);
+		sleeper.setAsleep(true);
+		w.addBody(sleeper);
+		w.step(1);
+		
+		sleeper.translate(3.0, 0.0);
+		sleeper.setAsleep(false);
+		TestCase.assertEquals(3.0, sleeper.getInitialTransform().getTranslationX());
+		
+		// a body woken after it moved keeps the transform it started the step with
+		final Body mover = new Body();
+		mover.addFixture(Geometry.createSquare(1.0));
+		mover.setMass(MassType.NORMAL);
+		mover.translate(-3.0, 0.0);
+		mover.setLinearVelocity(60.0, 0.0);
+		w.addBody(mover);
+		w.addListener(new StepAdapter() {
+			@Override
+			public void postSolve(Step step, World world) {
+				mover.setAsleep(true);
+				mover.setAsleep(false);
+			}
+		});
+		w.step(1);
+		TestCase.assertEquals(-3.0, mover.getInitialTransform().getTranslationX());
+		TestCase.assertTrue(mover.getTransform().getTranslationX() > -3.0);
+		
+		// a sleeping body moved by the user and woken by a contact starts from its new position
+		Body moved = new Body();
+		moved.addFixture(Geometry.createSquare(1.0));
+		moved.setMass(MassType.NORMAL);
+		moved.translate(20.0, 0.0);
+		moved.setAsleep(true);
+		w.addBody(moved);
+		w.step(1);
+		
+		Body hitter = new Body();
+		hitter.addFixture(Geometry.createSquare(1.0));
+		hitter.setMass(MassType.NORMAL);
+		hitter.translate(30.0, 0.0);
+		w.addBody(hitter);
+		moved.translate(10.5, 0.0);
+		// the contact is found at the end of the first step and wakes the body on the second
+		w.step(1);
+		TestCase.assertTrue(moved.isAsleep());
+		w.step(1);
+		TestCase.assertFalse(moved.isAsleep());
+		TestCase.assertEquals(30.5, moved.getInitialTransform().getTranslationX());
+	}
+	
+	/**
+	 * Tests that the contacts between stationary bodies are carried forward and that
+	 * moving a static body updates its contacts.
+	 */
+	@Test
+	public void stationaryContacts() {
+		World w = new World();
+		w.getSettings().setContactPoolingEnabled(true);
+		
+		Body floor = new Body();
+		floor.addFixture(Geometry.createRectangle(20.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		w.addBody(floor);
+		
+		Body box = new Body();
+		box.addFixture(Geometry.createSquare(1.0));
+		box.setMass(MassType.NORMAL);
+		box.translate(0.0, 1.0);
+		w.addBody(box);
+		
+		// let the box come to rest and fall asleep
+		for (int i = 0; i < 300 && !box.isAsleep(); i++) {
+			w.step(1);
+		}
+		TestCase.assertTrue(box.isAsleep());
+		int count = w.getContactManager().getContactCount();
+		TestCase.assertTrue(count > 0);
+		int points = box.getContacts(false).size();
+		TestCase.assertTrue(points > 0);
+		
+		// the contacts should be carried forward while both bodies are stationary
+		w.step(10);
+		TestCase.assertTrue(box.isAsleep());
+		TestCase.assertEquals(count, w.getContactManager().getContactCount());
+		TestCase.assertEquals(points, box.getContacts(false).size());
+		TestCase.assertEquals(points, floor.getContacts(false).size());
+		
+		// the contacts should still be reported to contact listeners
+		final int[] persisted = new int[1];
+		w.addListener(new ContactAdapter() {
+			@Override
+			public boolean persist(PersistedContactPoint point) {
+				persisted[0]++;
+				return true;
+			}
+		});
+		w.step(1);
+		TestCase.assertEquals(points, persisted[0]);
+		TestCase.assertEquals(count, w.getContactManager().getContactCount());
+		
+		// moving the static body should update the broad-phase and the contacts
+		floor.translate(0.0, -5.0);
+		w.step(1);
+		TestCase.assertEquals(0, w.getContactManager().getContactCount());
+		TestCase.assertEquals(0, box.getContacts(false).size());
+		TestCase.assertEquals(0, floor.getContacts(false).size());
+		TestCase.assertTrue(w.getBroadphaseDetector().getAABB(floor).getMaxY() < 0.0);
+	}
+	
+	/**
+	 * Tests that changing the fixtures of stationary bodies updates the broad-phase
+	 * and the contacts.
+	 */
+	@Test
+	public void stationaryFixtureChanges() {
+		World w = new World();
+		
+		Body floor = new Body();
+		BodyFixture ff = floor.addFixture(Geometry.createRectangle(20.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		w.addBody(floor);
+		
+		Body box = new Body();
+		BodyFixture bf = box.addFixture(Geometry.createSquare(1.0));
+		box.setMass(MassType.NORMAL);
+		box.translate(0.0, 1.0);
+		w.addBody(box);
+		
+		for (int i = 0; i < 300 && !box.isAsleep(); i++) {
+			w.step(1);
+		}
+		TestCase.assertTrue(box.isAsleep());
+		TestCase.assertTrue(w.getContactManager().getContactCount() > 0);
+		
+		// filtering out the pair should remove the carried forward contacts
+		ff.setFilter(new CategoryFilter(1, 1));
+		bf.setFilter(new CategoryFilter(2, 2));
+		w.step(1);
+		TestCase.assertEquals(0, w.getContactManager().getContactCount());
+		TestCase.assertEquals(0, box.getContacts(false).size());
+		
+		// restore the filters and let the box rest again
+		ff.setFilter(Filter.DEFAULT_FILTER);
+		bf.setFilter(Filter.DEFAULT_FILTER);
+		box.setAsleep(false);
+		for (int i = 0; i < 300 && !box.isAsleep(); i++) {
+			w.step(1);
+		}
+		TestCase.assertTrue(box.isAsleep());
+		int count = w.getContactManager().getContactCount();
+		TestCase.assertTrue(count > 0);
+		
+		// the contacts with a sensor aren't solved
+		ff.setSensor(true);
+		w.step(1);
+		TestCase.assertTrue(box.getContacts(false).isEmpty());
+		ff.setSensor(false);
+		box.setAsleep(false);
+		for (int i = 0; i < 300 && !box.isAsleep(); i++) {
+			w.step(1);
+		}
+		TestCase.assertTrue(box.isAsleep());
+		TestCase.assertEquals(count, w.getContactManager().getContactCount());
+		
+		// a shape modified in place requires the body to be invalidated
+		ff.getShape().translate(0.0, -5.0);
+		floor.invalidateBroadphase();
+		w.step(1);
+		TestCase.assertEquals(0, w.getContactManager().getContactCount());
+		TestCase.assertTrue(w.getBroadphaseDetector().getAABB(floor).getMaxY() < 0.0);
+		
+		// a new shape is detected
+		ff.setShape(Geometry.createRectangle(20.0, 1.0));
+		w.step(1);
+		TestCase.assertTrue(w.getBroadphaseDetector().getAABB(floor).getMaxY() > 0.0);
+		
+		// removed fixtures no longer affect the body
+		floor.removeFixture(ff);
+		w.step(1);
+		TestCase.assertFalse(floor.stationary);
+		w.step(1);
+		TestCase.assertTrue(floor.stationary);
+		ff.setSensor(true);
+		w.step(1);
+		TestCase.assertTrue(floor.stationary);
+	}
+	
+	/**
+	 * Tests solving the constraints of a large island in parallel.
+	 */
+	@Test
+	public void parallelConstraintSolving() {
+		World[] worlds = new World[3];
+		List<List<Body>> bodies = new ArrayList<List<Body>>();
+		for (int w = 0; w < worlds.length; w++) {
+			World world = new World();
+			worlds[w] = world;
+			
+			List<Body> list = new ArrayList<Body>();
+			Body floor = new Body();
+			floor.addFixture(Geometry.createRectangle(40.0, 1.0));
+			floor.setMass(MassType.INFINITE);
+			world.addBody(floor);
+			list.add(floor);
+			
+			// a pyramid is a single island
+			for (int i = 0; i < 15; i++) {
+				for (int j = i; j < 15; j++) {
+					Body body = new Body();
+					body.addFixture(Geometry.createSquare(1.0));
+					body.translate(-7.0 + j - 0.5 * i, 1.0 + i);
+					body.setMass(MassType.NORMAL);
+					world.addBody(body);
+					list.add(body);
+				}
+			}
+			bodies.add(list);
+		}
+		
+		worlds[1].getSettings().setParallelConstraintSolvingEnabled(true);
+		worlds[2].getSettings().setParallelConstraintSolvingEnabled(true);
+		worlds[2].getSettings().setParallelIslandSolvingEnabled(true);
+		worlds[2].getSettings().setStepProfilingEnabled(true);
+		worlds[1].getSettings().setParallelism(4);
+		worlds[2].getSettings().setParallelism(4);
+		
+		worlds[1].setExecutor(this.executor);
+		worlds[2].setExecutor(this.executor);
+		for (int i = 0; i < 120; i++) {
+			for (World world : worlds) {
+				world.step(1);
+			}
+		}
+		TestCase.assertEquals(1, worlds[2].getStepProfile().getIslandCount());
+		
+		// the floor is shared by the constraints of a batch, but never changed
+		for (List<Body> list : bodies) {
+			Body floor = list.get(0);
+			TestCase.assertTrue(floor.getLinearVelocity().isZero());
+			TestCase.assertEquals(0.0, floor.getAngularVelocity());
+			TestCase.assertTrue(floor.getTransform().getTranslation().isZero());
+			TestCase.assertEquals(0.0, floor.getTransform().getRotation());
+		}
+		
+		// the order the constraints are solved in is different, but
+		// the pyramid should still be standing
+		List<Body> serial = bodies.get(0);
+		for (int w = 1; w < worlds.length; w++) {
+			List<Body> parallel = bodies.get(w);
+			for (int i = 0; i < serial.size(); i++) {
+				Transform t1 = serial.get(i).getTransform();
+				Transform t2 = parallel.get(i).getTransform();
+				TestCase.assertEquals(t1.getTranslationX(), t2.getTranslationX(), 0.05);
+				TestCase.assertEquals(t1.getTranslationY(), t2.getTranslationY(), 0.05);
+			}
+		}
+	}
+	
+	/**
+	 * Tests that solving the velocity constraints against arrays gives the same
+	 * results as solving them against the bodies.
+	 */
+	@Test
+	public void arraySolving() {
+		World world = new World();
+		List<Body> bodies = this.createPiles(world);
+		
+		World arrays = new World();
+		arrays.getSettings().setArraySolvingEnabled(true);
+		List<Body> ab = this.createPiles(arrays);
+		
+		for (int i = 0; i < 120; i++) {
+			world.step(1);
+			arrays.step(1);
+		}
+		
+		this.assertSameState(bodies, ab);
+	}
+	
+	/**
+	 * Tests solving the velocity constraints against arrays while solving the
+	 * islands in parallel; the islands all share the same static floor.
+	 */
+	@Test
+	public void parallelArraySolving() {
+		World serial = new World();
+		serial.getSettings().setArraySolvingEnabled(true);
+		List<Body> sb = this.createPiles(serial);
+		
+		World parallel = new World();
+		parallel.getSettings().setArraySolvingEnabled(true);
+		parallel.getSettings().setParallelIslandSolvingEnabled(true);
+		parallel.getSettings().setStepProfilingEnabled(true);
+		parallel.getSettings().setParallelism(4);
+		ProbedSequentialImpulses solver = new ProbedSequentialImpulses(new ThreadProbe());
+		parallel.setContactConstraintSolver(solver);
+		List<Body> pb = this.createPiles(parallel);
+		
+		parallel.setExecutor(this.executor);
+		for (int i = 0; i < 120; i++) {
+			serial.step(1);
+			parallel.step(1);
+		}
+		
+		// every pile should be its own island resting on the floor
+		TestCase.assertTrue(parallel.getStepProfile().getIslandCount() >= 10);
+		TestCase.assertTrue(pb.get(0).getContacts(false).size() >= 10);
+		TestCase.assertTrue(solver.probe.getThreadCount() > 1);
+		this.assertSameState(sb, pb);
+	}
+	
+	/**
+	 * Tests that the batched raycast finds the same closest results as raycasting
+	 * each ray on its own, both serially and in parallel.
+	 */
+	@Test
+	public void raycastBatch() {
+		World world = new World();
+		this.createPiles(world);
+		world.step(10);
+		
+		Random random = new Random(3);
+		RaycastBatch batch = new RaycastBatch(200);
+		for (int i = 0; i < 200; i++) {
+			double sx = random.nextDouble() * 60.0 - 30.0;
+			double sy = random.nextDouble() * 10.0 + 1.0;
+			double dx = random.nextDouble() * 2.0 - 1.0;
+			double dy = random.nextDouble() * 2.0 - 1.5;
+			batch.add(sx, sy, dx, dy, i % 2 == 0 ? 0.0 : 8.0);
+		}
+		TestCase.assertEquals(200, batch.getSize());
+		
+		// raycast each ray on its own
+		int hits = 0;
+		List<RaycastResult> results = new ArrayList<RaycastResult>();
+		Body[] bodies = new Body[200];
+		double[] distances = new double[200];
+		for (int i = 0; i < 200; i++) {
+			Ray ray = new Ray(new Vector2(batch.startX[i], batch.startY[i]), new Vector2(batch.directionX[i], batch.directionY[i]));
+			results.clear();
+			if (world.raycast(ray, batch.length[i], null, false, false, false, results)) {
+				bodies[i] = results.get(0).getBody();
+				distances[i] = results.get(0).getRaycast().getDistance();
+				hits++;
+			}
+		}
+		TestCase.assertTrue(hits > 0);
+		
+		world.getSettings().setParallelism(4);
+		world.setExecutor(this.executor);
+		for (int k = 0; k < 2; k++) {
+			TestCase.assertEquals(hits, world.raycast(batch, null, false, false, k == 1));
+			for (int i = 0; i < 200; i++) {
+				TestCase.assertEquals(bodies[i] != null, batch.isHit(i));
+				TestCase.assertSame(bodies[i], batch.getBody(i));
+				if (batch.isHit(i)) {
+					TestCase.assertNotNull(batch.getFixture(i));
+					TestCase.assertEquals(distances[i], batch.getDistance(i), 1.0e-9);
+					// the hit point should be along the ray
+					TestCase.assertEquals(batch.startX[i] + batch.directionX[i] * batch.getDistance(i), batch.getPointX(i), 1.0e-9);
+					TestCase.assertEquals(batch.startY[i] + batch.directionY[i] * batch.getDistance(i), batch.getPointY(i), 1.0e-9);
+				}
+			}
+		}
+		
+		// make sure the batch can be reused
+		batch.set(0, 0.0, 20.0, 0.0, -1.0, 0.0);
+		batch.clear();
+		TestCase.assertEquals(0, batch.getSize());
+		TestCase.assertEquals(0, world.raycast(batch, null, false, false, false));
+	}
+	
+	/**
+	 * Tests adding too many rays to a batch.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void raycastBatchFull() {
+		RaycastBatch batch = new RaycastBatch(1);
+		batch.add(0.0, 0.0, 1.0, 0.0, 0.0);
+		batch.add(0.0, 0.0, 1.0, 0.0, 0.0);
+	}
+	
+	/**
+	 * Tests that caching the separating axis of each pair gives the same
+	 * results as not caching, both serially and in parallel, and that the
+	 * cached axes are used.
+	 */
+	@Test
+	public void narrowphaseCaching() {
+		World world = new World();
+		List<Body> bodies = this.createPiles(world);
+		
+		World cached = new World();
+		cached.getSettings().setNarrowphaseCachingEnabled(true);
+		ProbedGjk gjk = new ProbedGjk(null);
+		cached.setNarrowphaseDetector(gjk);
+		List<Body> cb = this.createPiles(cached);
+		
+		World parallel = new World();
+		parallel.getSettings().setNarrowphaseCachingEnabled(true);
+		parallel.getSettings().setParallelNarrowphaseEnabled(true);
+		parallel.getSettings().setParallelism(4);
+		List<Body> pb = this.createPiles(parallel);
+		
+		parallel.setExecutor(this.executor);
+		for (int i = 0; i < 120; i++) {
+			world.step(1);
+			cached.step(1);
+			parallel.step(1);
+			TestCase.assertEquals(world.getContactManager().getContactCount(), cached.getContactManager().getContactCount());
+			TestCase.assertEquals(world.getContactManager().getContactCount(), parallel.getContactManager().getContactCount());
+		}
+		
+		this.assertSameState(bodies, cb);
+		this.assertSameState(bodies, pb);
+		
+		// new and colliding pairs miss, persistent separated pairs hit
+		TestCase.assertTrue(gjk.misses > 0);
+		TestCase.assertTrue(gjk.hits > 0);
+		
+		// removing everything should drop the caches with the contacts
+		cached.removeAllBodies();
+		TestCase.assertEquals(0, cached.getContactManager().getContactCount());
+	}
+	
+	/**
+	 * Tests a world using the {@link DispatchingNarrowphaseDetector} for both the
+	 * narrow-phase and the manifolds.
+	 */
+	@Test
+	public void dispatchingNarrowphase() {
+		World world = new World();
+		DispatchingNarrowphaseDetector detector = new DispatchingNarrowphaseDetector();
+		world.setNarrowphaseDetector(detector);
+		world.setManifoldSolver(detector);
+		List<Body> bodies = this.createPiles(world);
+		
+		for (int i = 0; i < 240; i++) {
+			world.step(1);
+		}
+		
+		// everything should be resting on the floor
+		TestCase.assertTrue(world.getContactManager().getContactCount() > 0);
+		for (int i = 1; i < bodies.size(); i++) {
+			Body body = bodies.get(i);
+			TestCase.assertTrue(body.getWorldCenter().y > 0.5);
+		}
+	}
+	
+	/**
+	 * Tests a world using the {@link StaticDynamicBroadphase}.
+	 */
+	@Test
+	public void staticDynamicBroadphase() {
+		World world = new World();
+		StaticDynamicBroadphase<Body, BodyFixture> broadphase = new StaticDynamicBroadphase<Body, BodyFixture>(new StaticBodyClassifier());
+		world.setBroadphaseDetector(broadphase);
+		List<Body> bodies = this.createPiles(world);
+		
+		// add some static bodies that overlap the floor
+		for (int i = 0; i < 20; i++) {
+			Body body = new Body();
+			body.addFixture(Geometry.createRectangle(0.5, 2.0));
+			body.translate(-30.0 + i * 3.0, -1.0);
+			body.setMass(MassType.INFINITE);
+			world.addBody(body);
+		}
+		
+		Body floor = bodies.get(0);
+		TestCase.assertTrue(broadphase.isStatic(floor, floor.getFixture(0)));
+		TestCase.assertEquals(21, broadphase.getStaticCount());
+		TestCase.assertEquals(40, broadphase.getDynamicCount());
+		
+		for (int i = 0; i < 240; i++) {
+			world.step(1);
+		}
+		
+		// everything should be resting on the floor
+		TestCase.assertTrue(world.getContactManager().getContactCount() > 0);
+		for (int i = 1; i < bodies.size(); i++) {
+			Body body = bodies.get(i);
+			TestCase.assertTrue(body.getWorldCenter().y > 0.5);
+		}
+		// only the dynamic bodies should be touching the floor
+		for (Body other : floor.getInContactBodies(false)) {
+			TestCase.assertTrue(other.isDynamic());
+		}
+		
+		// the static bodies should still be found by the queries
+		List<RaycastResult> results = new ArrayList<RaycastResult>();
+		TestCase.assertTrue(world.raycast(new Vector2(-25.5, -10.0), new Vector2(-25.5, 10.0), false, false, results));
+		TestCase.assertSame(floor, results.get(0).getBody());
+		
+		// a static body that becomes dynamic should leave the static tree
+		floor.setMass(MassType.NORMAL);
+		world.step(1);
+		TestCase.assertFalse(broadphase.isStatic(floor, floor.getFixture(0)));
+	}
+	
+	/**
+	 * Tests stepping the world with the broad-phase optimization enabled.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void broadphaseOptimization() {
+		World world = new World();
+		world.getSettings().setBroadphaseOptimizationBudget(16);
+		List<Body> bodies = this.createPiles(world);
+		
+		for (int i = 0; i < 240; i++) {
+			world.step(1);
+		}
+		
+		// everything should be resting on the floor
+		TestCase.assertTrue(world.getContactManager().getContactCount() > 0);
+		for (int i = 1; i < bodies.size(); i++) {
+			Body body = bodies.get(i);
+			TestCase.assertTrue(body.getWorldCenter().y > 0.5);
+		}
+		
+		DynamicAABBTree<Body, BodyFixture> tree = (DynamicAABBTree<Body, BodyFixture>)world.getBroadphaseDetector();
+		TestCase.assertEquals(41, tree.size());
+		TestCase.assertTrue(tree.getHeight() > 0);
+	}
+	
+	/**
+	 * Tests stepping the world with the broad-phase optimization enabled and
+	 * the {@link StaticDynamicBroadphase}.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void staticDynamicBroadphaseOptimization() {
+		World world = new World();
+		world.getSettings().setBroadphaseOptimizationBudget(16);
+		StaticDynamicBroadphase<Body, BodyFixture> broadphase = new StaticDynamicBroadphase<Body, BodyFixture>(new StaticBodyClassifier());
+		world.setBroadphaseDetector(broadphase);
+		List<Body> bodies = this.createPiles(world);
+		
+		for (int i = 0; i < 240; i++) {
+			world.step(1);
+		}
+		
+		// everything should be resting on the floor
+		TestCase.assertTrue(world.getContactManager().getContactCount() > 0);
+		for (int i = 1; i < bodies.size(); i++) {
+			Body body = bodies.get(i);
+			TestCase.assertTrue(body.getWorldCenter().y > 0.5);
+		}
+		TestCase.assertEquals(41, broadphase.size());
+		TestCase.assertEquals(1, broadphase.getStaticCount());
+	}
+	
+	/**
+	 * Tests that the closest raycast result is the closest of all the results.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void raycastClosest() {
+		List<BroadphaseDetector<Body, BodyFixture>> detectors = new ArrayList<BroadphaseDetector<Body, BodyFixture>>();
+		detectors.add(new DynamicAABBTree<Body, BodyFixture>());
+		detectors.add(new CompactDynamicAABBTree<Body, BodyFixture>());
+		detectors.add(new StaticDynamicBroadphase<Body, BodyFixture>(new StaticBodyClassifier()));
+		detectors.add(new Sap<Body, BodyFixture>());
+		
+		for (BroadphaseDetector<Body, BodyFixture> detector : detectors) {
+			World world = new World();
+			world.setBroadphaseDetector(detector);
+			this.createPiles(world);
+			world.step(10);
+			
+			Random random = new Random(4);
+			List<RaycastResult> closest = new ArrayList<RaycastResult>();
+			List<RaycastResult> all = new ArrayList<RaycastResult>();
+			int hits = 0;
+			for (int i = 0; i < 100; i++) {
+				Vector2 start = new Vector2(random.nextDouble() * 60.0 - 30.0, random.nextDouble() * 10.0 + 1.0);
+				Ray ray = new Ray(start, new Vector2(random.nextDouble() * 2.0 - 1.0, random.nextDouble() * 2.0 - 1.5));
+				double length = i % 2 == 0 ? 0.0 : 8.0;
+				closest.clear();
+				all.clear();
+				boolean hit = world.raycast(ray, length, false, false, false, closest);
+				TestCase.assertEquals(hit, world.raycast(ray, length, false, false, true, all));
+				if (hit) {
+					hits++;
+					TestCase.assertEquals(1, closest.size());
+					Collections.sort(all);
+					TestCase.assertEquals(all.get(0).getRaycast().getDistance(), closest.get(0).getRaycast().getDistance(), 1.0e-9);
+				} else {
+					TestCase.assertTrue(closest.isEmpty());
+				}
+			}
+			TestCase.assertTrue(hits > 0);
+		}
+	}
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.collision.manifold.ManifoldPoint;
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.dynamics.World;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the methods of the {@link ContactConstraintMap} class.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class ContactConstraintMapTest {
+	/**
+	 * Creates a new body with the given fixture and adds it to the given world.
+	 * @param world the world
+	 * @param fixture the fixture
+	 * @return {@link Body}
+	 */
+	private Body createBody(World world, BodyFixture fixture) {
+		Body body = new Body();
+		body.addFixture(fixture);
+		world.addBody(body);
+		return body;
+	}
+	
+	/**
+	 * Creates a new contact constraint between the given bodies.
+	 * @param b1 the first body
+	 * @param b2 the second body
+	 * @return {@link ContactConstraint}
+	 */
+	private ContactConstraint create(Body b1, Body b2) {
+		Manifold manifold = new Manifold(new ArrayList<ManifoldPoint>(), new Vector2(0.0, 1.0));
+		return new ContactConstraint(b1, b1.getFixture(0), b2, b2.getFixture(0), manifold, 0.2, 0.0);
+	}
+	
+	/**
+	 * Tests the put, get and remove methods.
+	 */
+	@Test
+	public void putGetRemove() {
+		World world = new World();
+		Body b1 = this.createBody(world, new BodyFixture(Geometry.createCircle(1.0)));
+		Body b2 = this.createBody(world, new BodyFixture(Geometry.createCircle(1.0)));
+		Body b3 = this.createBody(world, new BodyFixture(Geometry.createCircle(1.0)));
+		
+		ContactConstraintMap map = new ContactConstraintMap(1);
+		TestCase.assertTrue(map.isEmpty());
+		
+		ContactConstraint c12 = this.create(b1, b2);
+		ContactConstraint c23 = this.create(b2, b3);
+		TestCase.assertNull(map.put(c12));
+		TestCase.assertNull(map.put(c23));
+		TestCase.assertEquals(2, map.size());
+		
+		// the order of the bodies doesn't matter
+		ContactConstraint c21 = this.create(b2, b1);
+		TestCase.assertSame(c12, map.get(c21.id));
+		TestCase.assertSame(c12, map.put(c21));
+		TestCase.assertEquals(2, map.size());
+		TestCase.assertSame(c21, map.get(c12.id));
+		
+		TestCase.assertNull(map.get(this.create(b1, b3).id));
+		TestCase.assertNull(map.remove(this.create(b1, b3).id));
+		
+		TestCase.assertSame(c21, map.remove(c12.id));
+		TestCase.assertEquals(1, map.size());
+		TestCase.assertSame(c23, map.get(0));
+		TestCase.assertNull(map.get(c12.id));
+		
+		map.clear();
+		TestCase.assertTrue(map.isEmpty());
+		TestCase.assertNull(map.get(c23.id));
+	}
+	
+	/**
+	 * Tests the map against a {@link HashMap} using random operations, including
+	 * constraints that have the same key but are not equal.
+	 */
+	@Test
+	public void random() {
+		World world = new World();
+		List<Body> bodies = new ArrayList<Body>();
+		for (int i = 0; i < 20; i++) {
+			bodies.add(this.createBody(world, new BodyFixture(Geometry.createCircle(1.0))));
+		}
+		
+		// a fixture shared by two bodies gives the same key for different constraints
+		BodyFixture shared = new BodyFixture(Geometry.createSquare(1.0));
+		bodies.add(this.createBody(world, shared));
+		bodies.add(this.createBody(world, shared));
+		
+		Random random = new Random(42);
+		ContactConstraintMap map = new ContactConstraintMap(2);
+		Map<ContactConstraintId, ContactConstraint> expected = new HashMap<ContactConstraintId, ContactConstraint>();
+		int n = bodies.size();
+		for (int i = 0; i < 10000; i++) {
+			Body b1 = bodies.get(random.nextInt(n));
+			Body b2 = bodies.get(random.nextInt(n));
+			if (b1 == b2) continue;
+			ContactConstraint cc = this.create(b1, b2);
+			int op = random.nextInt(4);
+			if (op < 2) {
+				TestCase.assertSame(expected.put(cc.id, cc), map.put(cc));
+			} else if (op == 2) {
+				TestCase.assertSame(expected.remove(cc.id), map.remove(cc.id));
+			} else if (!expected.isEmpty()) {
+				// remove by index
+				ContactConstraint removed = map.remove(random.nextInt(map.size()));
+				TestCase.assertSame(expected.remove(removed.id), removed);
+			}
+			TestCase.assertEquals(expected.size(), map.size());
+			TestCase.assertSame(expected.get(cc.id), map.get(cc.id));
+		}
+		
+		// all the values should be reachable by index and by id
+		for (int i = 0; i < map.size(); i++) {
+			ContactConstraint cc = map.get(i);
+			TestCase.assertSame(cc, expected.get(cc.id));
+			TestCase.assertSame(cc, map.get(cc.id));
+		}
+	}
+}
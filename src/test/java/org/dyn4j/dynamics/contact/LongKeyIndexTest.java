@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the methods of the {@link LongKeyIndex} class.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class LongKeyIndexTest {
+	/**
+	 * Returns the slot of the given index with the given key or -1 if not found.
+	 * @param table the table
+	 * @param key the key
+	 * @param index the index of the value
+	 * @return int
+	 */
+	private int find(LongKeyIndex table, long key, int index) {
+		int i = table.find(key, table.getHome(key));
+		while (i >= 0) {
+			if (table.getIndex(i) == index) return i;
+			i = table.find(key, table.next(i));
+		}
+		return -1;
+	}
+	
+	/**
+	 * Tests the insert, find and remove methods with duplicate keys.
+	 */
+	@Test
+	public void insertFindRemove() {
+		LongKeyIndex table = new LongKeyIndex(1);
+		TestCase.assertEquals(8, table.getCapacity());
+		TestCase.assertEquals(-1, table.find(5L, table.getHome(5L)));
+		
+		// values can share a key
+		table.insert(5L, 0, 1);
+		table.insert(5L, 1, 2);
+		table.insert(7L, 2, 3);
+		TestCase.assertTrue(this.find(table, 5L, 0) >= 0);
+		TestCase.assertTrue(this.find(table, 5L, 1) >= 0);
+		TestCase.assertTrue(this.find(table, 7L, 2) >= 0);
+		TestCase.assertEquals(-1, this.find(table, 7L, 0));
+		
+		// removing the first of the shared keys keeps the other
+		table.remove(this.find(table, 5L, 0));
+		TestCase.assertEquals(-1, this.find(table, 5L, 0));
+		TestCase.assertTrue(this.find(table, 5L, 1) >= 0);
+		
+		// move a value to a new index
+		table.setIndex(this.find(table, 7L, 2), 0);
+		TestCase.assertEquals(-1, this.find(table, 7L, 2));
+		TestCase.assertTrue(this.find(table, 7L, 0) >= 0);
+		
+		table.clear();
+		TestCase.assertEquals(-1, this.find(table, 5L, 1));
+		TestCase.assertEquals(-1, this.find(table, 7L, 0));
+	}
+	
+	/**
+	 * Tests growing the table and removing in random order against a list.
+	 */
+	@Test
+	public void randomized() {
+		Random random = new Random(42);
+		LongKeyIndex table = new LongKeyIndex(4);
+		List<Long> keys = new ArrayList<Long>();
+		
+		for (int n = 0; n < 5000; n++) {
+			if (keys.isEmpty() || random.nextInt(3) != 0) {
+				// few distinct keys to force long probe sequences
+				long key = random.nextInt(64);
+				keys.add(key);
+				table.insert(key, keys.size() - 1, keys.size());
+			} else {
+				// remove a value, moving the last value into its place
+				int index = random.nextInt(keys.size());
+				int last = keys.size() - 1;
+				table.remove(this.find(table, keys.get(index), index));
+				if (index != last) {
+					table.setIndex(this.find(table, keys.get(last), last), index);
+					keys.set(index, keys.get(last));
+				}
+				keys.remove(last);
+			}
+			TestCase.assertTrue(keys.size() * 2 <= table.getCapacity());
+		}
+		
+		for (int i = 0; i < keys.size(); i++) {
+			TestCase.assertTrue(this.find(table, keys.get(i), i) >= 0);
+		}
+		TestCase.assertEquals(-1, this.find(table, 64L, 0));
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dyn4j.collision.narrowphase.NarrowphaseCache;
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.dynamics.World;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the methods of the {@link NarrowphaseCacheMap} class.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class NarrowphaseCacheMapTest {
+	/**
+	 * Creates the given number of fixtures on bodies in a world.
+	 * @param n the number of fixtures
+	 * @return List&lt;{@link BodyFixture}&gt;
+	 */
+	private List<BodyFixture> createFixtures(int n) {
+		World world = new World();
+		List<BodyFixture> fixtures = new ArrayList<BodyFixture>();
+		for (int i = 0; i < n; i++) {
+			Body body = new Body();
+			fixtures.add(body.addFixture(Geometry.createCircle(1.0)));
+			world.addBody(body);
+		}
+		return fixtures;
+	}
+	
+	/**
+	 * Tests the get method.
+	 */
+	@Test
+	public void get() {
+		List<BodyFixture> fixtures = this.createFixtures(3);
+		BodyFixture f1 = fixtures.get(0);
+		BodyFixture f2 = fixtures.get(1);
+		BodyFixture f3 = fixtures.get(2);
+		
+		NarrowphaseCacheMap map = new NarrowphaseCacheMap(1);
+		NarrowphaseCache c12 = map.get(f1, f2);
+		NarrowphaseCache c13 = map.get(f1, f3);
+		TestCase.assertNotNull(c12);
+		TestCase.assertNotSame(c12, c13);
+		TestCase.assertTrue(c12.isEmpty());
+		TestCase.assertEquals(2, map.size());
+		
+		c12.setAxis(new Vector2(1.0, 0.0));
+		TestCase.assertSame(c12, map.get(f1, f2));
+		TestCase.assertEquals(1.0, c12.getAxis().x);
+		
+		// requesting the pair in the other order should flip the axis
+		TestCase.assertSame(c12, map.get(f2, f1));
+		TestCase.assertEquals(-1.0, c12.getAxis().x);
+		TestCase.assertSame(c12, map.get(f1, f2));
+		TestCase.assertEquals(1.0, c12.getAxis().x);
+		TestCase.assertEquals(2, map.size());
+		
+		map.clear();
+		TestCase.assertEquals(0, map.size());
+	}
+	
+	/**
+	 * Tests the sweep method.
+	 */
+	@Test
+	public void sweep() {
+		List<BodyFixture> fixtures = this.createFixtures(40);
+		NarrowphaseCacheMap map = new NarrowphaseCacheMap(4);
+		
+		// add all the pairs
+		int n = fixtures.size();
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				map.get(fixtures.get(i), fixtures.get(j)).setAxis(new Vector2(i, j));
+			}
+		}
+		TestCase.assertEquals(n * (n - 1) / 2, map.size());
+		
+		// everything was used
+		map.sweep();
+		TestCase.assertEquals(n * (n - 1) / 2, map.size());
+		
+		// only use the pairs with the first fixture
+		for (int j = 1; j < n; j++) {
+			map.get(fixtures.get(0), fixtures.get(j));
+		}
+		map.sweep();
+		TestCase.assertEquals(n - 1, map.size());
+		
+		// the remaining caches should still be intact
+		for (int j = 1; j < n; j++) {
+			NarrowphaseCache cache = map.get(fixtures.get(0), fixtures.get(j));
+			TestCase.assertEquals(0.0, cache.getAxis().x);
+			TestCase.assertEquals((double)j, cache.getAxis().y);
+		}
+		TestCase.assertEquals(n - 1, map.size());
+		
+		// the removed caches should come back empty
+		NarrowphaseCache cache = map.get(fixtures.get(1), fixtures.get(2));
+		TestCase.assertTrue(cache.isEmpty());
+		TestCase.assertEquals(n, map.size());
+		
+		// nothing used
+		map.sweep();
+		map.sweep();
+		TestCase.assertEquals(0, map.size());
+	}
+}
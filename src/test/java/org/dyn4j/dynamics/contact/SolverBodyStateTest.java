@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the methods of the {@link SolverBodyState} class.
+ * @author William Bittle
+ * @version 3.3.0
+ * @since 3.3.0
+ */
+public class SolverBodyStateTest {
+	/**
+	 * Tests the add, load, and store methods.
+	 */
+	@Test
+	public void addLoadStore() {
+		SolverBodyState state = new SolverBodyState();
+		
+		// add enough bodies to grow the arrays
+		Body[] bodies = new Body[100];
+		for (int i = 0; i < bodies.length; i++) {
+			Body body = new Body();
+			body.addFixture(Geometry.createCircle(0.5));
+			body.setMass(i == 0 ? MassType.INFINITE : MassType.NORMAL);
+			body.setLinearVelocity(i, -i);
+			body.setAngularVelocity(i * 0.5);
+			bodies[i] = body;
+			TestCase.assertEquals(i, state.add(body));
+		}
+		TestCase.assertEquals(bodies.length, state.size());
+		
+		for (int i = 0; i < bodies.length; i++) {
+			Body body = bodies[i];
+			TestCase.assertEquals((double)i, state.vx[i]);
+			TestCase.assertEquals((double)-i, state.vy[i]);
+			TestCase.assertEquals(i * 0.5, state.w[i]);
+			TestCase.assertEquals(body.getMass().getInverseMass(), state.invM[i]);
+			TestCase.assertEquals(body.getMass().getInverseInertia(), state.invI[i]);
+		}
+		TestCase.assertEquals(0.0, state.invM[0]);
+		
+		// store the state
+		state.vx[50] = 1.0;
+		state.vy[50] = 2.0;
+		state.w[50] = 3.0;
+		state.store(50, bodies[50]);
+		TestCase.assertEquals(1.0, bodies[50].getLinearVelocity().x);
+		TestCase.assertEquals(2.0, bodies[50].getLinearVelocity().y);
+		TestCase.assertEquals(3.0, bodies[50].getAngularVelocity());
+		
+		// load the state
+		bodies[50].setLinearVelocity(4.0, 5.0);
+		bodies[50].setAngularVelocity(6.0);
+		state.load(50, bodies[50]);
+		TestCase.assertEquals(4.0, state.vx[50]);
+		TestCase.assertEquals(5.0, state.vy[50]);
+		TestCase.assertEquals(6.0, state.w[50]);
+		
+		state.clear();
+		TestCase.assertEquals(0, state.size());
+		TestCase.assertEquals(0, state.add(bodies[1]));
+	}
+}
@@ -158,6 +158,15 @@ public class SegmentTest {
 		p = Segment.getPointOnSegmentClosestToPoint(pt, new Vector2(), new Vector2(2.5, 5.0));
 		TestCase.assertEquals(0.000, p.x, 1.0e-3);
 		TestCase.assertEquals(0.000, p.y, 1.0e-3);
+		
+		// test the destination version
+		Segment.getPointOnSegmentClosestToPoint(pt, new Vector2(1.0, 1.0), new Vector2(1.0, 1.0), p);
+		TestCase.assertEquals(1.000, p.x, 1.0e-3);
+		TestCase.assertEquals(1.000, p.y, 1.0e-3);
+		
+		Segment.getPointOnSegmentClosestToPoint(pt, new Vector2(-1.0, -1.0), new Vector2(1.0, 1.0), p);
+		TestCase.assertEquals(0.000, p.x, 1.0e-3);
+		TestCase.assertEquals(0.000, p.y, 1.0e-3);
 	}
 	
 	/**
@@ -430,4 +430,26 @@ public class TransformTest {
 	public void identityTranslate2() {
 		Transform.IDENTITY.translate(2, 3);
 	}
+	
+	/**
+	 * Tests the isSame method.
+	 * @since 3.3.0
+	 */
+	@Test
+	public void isSame() {
+		Transform t1 = new Transform();
+		t1.translate(1.0, 2.0);
+		t1.rotate(Math.toRadians(30.0));
+		
+		Transform t2 = t1.copy();
+		TestCase.assertTrue(t1.isSame(t2));
+		TestCase.assertTrue(t2.isSame(t1));
+		
+		t2.translate(0.0, 1.0e-12);
+		TestCase.assertFalse(t1.isSame(t2));
+		
+		t2.set(t1);
+		t2.rotate(1.0e-12);
+		TestCase.assertFalse(t1.isSame(t2));
+	}
 }
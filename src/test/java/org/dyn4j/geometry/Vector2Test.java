@@ -129,6 +129,11 @@ public class Vector2Test {
 		// the below would be -1.0 if the vectors were normalized
 		TestCase.assertEquals(-2.000, r.x, 1.0e-3);
 		TestCase.assertEquals(-2.000, r.y, 1.0e-3);
+		
+		// test the destination version using an input as the destination
+		Vector2.tripleProduct(v1, v2, v2, v2);
+		TestCase.assertEquals(-2.000, v2.x, 1.0e-3);
+		TestCase.assertEquals(-2.000, v2.y, 1.0e-3);
 	}
 	
 	/**